@@ -0,0 +1,182 @@
+package com.example.demo.cart;
+
+import com.example.demo.dto.response.frontend.CartItemResponse;
+import com.example.demo.dto.response.frontend.CartResponse;
+import com.example.demo.entity.Cart;
+import com.example.demo.entity.CartItem;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 記憶體中的單一用戶購物車
+ * 只會在所屬用戶的鎖內被存取，本身不做同步；
+ * 異動先套用在記憶體並遞增版本號，待寫回的項目記錄在 dirty / deleted 集合，同一項目多次異動只寫回最後狀態
+ */
+public class CartAggregate {
+
+    private final Cart cart;
+    // 保持資料庫載入時的順序，與 findByCartId 的輸出一致
+    private final Map<Long, CartItem> items = new LinkedHashMap<>();
+    private final Set<Long> dirtyItemIds = new LinkedHashSet<>();
+    private final Set<Long> deletedItemIds = new LinkedHashSet<>();
+    private boolean versionChanged;
+    private long lastAccessMillis = System.currentTimeMillis();
+
+    CartAggregate(Cart cart, Collection<CartItem> cartItems) {
+        this.cart = copy(cart);
+        cartItems.forEach(item -> items.put(item.getId(), copy(item)));
+    }
+
+    /**
+     * 由資料庫引擎回傳的響應重建，用於寫穿透操作之後
+     */
+    static CartAggregate fromResponse(CartResponse response) {
+        Cart cart = Cart.builder()
+                .id(response.getId())
+                .userId(response.getUserId())
+                .version(response.getVersion())
+                .createdAt(response.getCreatedAt())
+                .updatedAt(response.getUpdatedAt())
+                .build();
+        List<CartItem> cartItems = new ArrayList<>(response.getItems().size());
+        for (CartItemResponse item : response.getItems()) {
+            cartItems.add(CartItem.builder()
+                    .id(item.getId())
+                    .cartId(response.getId())
+                    .productId(item.getProductId())
+                    .quantity(item.getQuantity())
+                    .checked(item.getChecked())
+                    .createdAt(item.getCreatedAt())
+                    .updatedAt(item.getUpdatedAt())
+                    .build());
+        }
+        return new CartAggregate(cart, cartItems);
+    }
+
+    public Cart getCart() {
+        return cart;
+    }
+
+    /**
+     * 目前所有項目（依載入順序）
+     */
+    public List<CartItem> getItems() {
+        return new ArrayList<>(items.values());
+    }
+
+    public List<CartItem> getCheckedItems() {
+        return items.values().stream().filter(CartItem::getChecked).toList();
+    }
+
+    public CartItem getItem(Long cartItemId) {
+        return items.get(cartItemId);
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    public void updateQuantity(Long cartItemId, int quantity) {
+        CartItem item = items.get(cartItemId);
+        item.setQuantity(quantity);
+        markDirty(item);
+        bumpVersion();
+    }
+
+    public void setChecked(Long cartItemId, boolean checked) {
+        CartItem item = items.get(cartItemId);
+        item.setChecked(checked);
+        markDirty(item);
+        bumpVersion();
+    }
+
+    public void setAllChecked(boolean checked) {
+        items.values().forEach(item -> {
+            item.setChecked(checked);
+            markDirty(item);
+        });
+        bumpVersion();
+    }
+
+    public void remove(Long cartItemId) {
+        if (items.remove(cartItemId) != null) {
+            dirtyItemIds.remove(cartItemId);
+            deletedItemIds.add(cartItemId);
+            bumpVersion();
+        }
+    }
+
+    boolean isDirty() {
+        return versionChanged || !dirtyItemIds.isEmpty() || !deletedItemIds.isEmpty();
+    }
+
+    /**
+     * 待寫回的項目最新狀態
+     */
+    List<CartItem> dirtyItems() {
+        return dirtyItemIds.stream().map(items::get).toList();
+    }
+
+    List<Long> deletedItemIds() {
+        return List.copyOf(deletedItemIds);
+    }
+
+    /**
+     * 寫回成功後清除待寫回紀錄
+     */
+    void markClean() {
+        dirtyItemIds.clear();
+        deletedItemIds.clear();
+        versionChanged = false;
+    }
+
+    void touch() {
+        lastAccessMillis = System.currentTimeMillis();
+    }
+
+    long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    private void bumpVersion() {
+        cart.setVersion(cart.getVersion() + 1);
+        versionChanged = true;
+    }
+
+    private void markDirty(CartItem item) {
+        item.setUpdatedAt(LocalDateTime.now());
+        dirtyItemIds.add(item.getId());
+    }
+
+    /**
+     * 複製為不受 JPA 管理的物件，避免記憶體異動被持久化內容追蹤
+     */
+    private static Cart copy(Cart cart) {
+        return Cart.builder()
+                .id(cart.getId())
+                .userId(cart.getUserId())
+                .version(cart.getVersion() == null ? 0L : cart.getVersion())
+                .createdAt(cart.getCreatedAt())
+                .updatedAt(cart.getUpdatedAt())
+                .build();
+    }
+
+    private static CartItem copy(CartItem item) {
+        return CartItem.builder()
+                .id(item.getId())
+                .cartId(item.getCartId())
+                .productId(item.getProductId())
+                .quantity(item.getQuantity())
+                .checked(item.getChecked())
+                .createdAt(item.getCreatedAt())
+                .updatedAt(item.getUpdatedAt())
+                .build();
+    }
+}
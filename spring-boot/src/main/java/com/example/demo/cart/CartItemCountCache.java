@@ -0,0 +1,66 @@
+package com.example.demo.cart;
+
+import com.example.demo.event.CartChangedEvent;
+import com.example.demo.event.CartsCleanedEvent;
+import com.example.demo.util.BoundedTtlCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * 購物車項目數快取（購物車徽章用）
+ * 每個用戶保留最近一次的項目數與版本號；購物車異動的交易提交後以新值取代，
+ * 只接受版本號不小於現值的寫入，避免讀取端放入的舊值覆蓋較新的異動結果。
+ *
+ * 最多保留 app.cart.count-cache-size 個用戶，超過時移除最久未讀取的項目；
+ * 其他節點的異動不會通知本節點，項目於 app.cart.count-cache-ttl-seconds 後過期，以此限制跨節點的過期時間。
+ */
+@Component
+public class CartItemCountCache {
+
+    private final BoundedTtlCache<Long, Counter> counters;
+
+    public CartItemCountCache(@Value("${app.cart.count-cache-size:100000}") int maxSize,
+                              @Value("${app.cart.count-cache-ttl-seconds:30}") long ttlSeconds) {
+        this.counters = new BoundedTtlCache<>(maxSize, Duration.ofSeconds(ttlSeconds));
+    }
+
+    /**
+     * 取得快取的項目數
+     * @return 項目數，未快取或已過期時為 null
+     */
+    public Integer get(Long userId) {
+        Counter counter = counters.get(userId);
+        return counter == null ? null : counter.itemCount();
+    }
+
+    /**
+     * 放入項目數，版本號較舊時忽略
+     */
+    public void put(Long userId, long version, int itemCount) {
+        counters.compute(userId, (id, current) ->
+                current == null || version >= current.version() ? new Counter(version, itemCount) : current);
+    }
+
+    /**
+     * 購物車異動提交後更新快取，交易回滾時保留原值
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCartChanged(CartChangedEvent event) {
+        put(event.userId(), event.version(), event.itemCount());
+    }
+
+    /**
+     * 清理排程刪除購物車後移除快取，重新建立的購物車版本號從頭起算
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void afterCleanup(CartsCleanedEvent event) {
+        event.userIds().forEach(counters::remove);
+    }
+
+    private record Counter(long version, int itemCount) {
+    }
+}
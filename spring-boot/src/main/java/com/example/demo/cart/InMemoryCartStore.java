@@ -0,0 +1,334 @@
+package com.example.demo.cart;
+
+import com.example.demo.dto.response.frontend.CartResponse;
+import com.example.demo.entity.Cart;
+import com.example.demo.entity.CartItem;
+import com.example.demo.event.CartCheckoutEvent;
+import com.example.demo.event.CartsCleanedEvent;
+import com.example.demo.repository.CartItemRepository;
+import com.example.demo.repository.CartRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 記憶體購物車儲存（write-behind）
+ * 每個用戶一把鎖，同一用戶的讀寫在用戶鎖內單執行緒進行；分片只用來分組寫回批次，存取分片不需加鎖，
+ * 載入、寫穿透與寫回的資料庫 I/O 只會擋住該用戶，不影響同分片的其他用戶。
+ * 勾選、數量與刪除只改記憶體，由排程依分片合併成 JDBC batch 寫回 cart_item；
+ * 會配置新 ID 的新增與清空等操作則先寫回、再交由資料庫執行（寫穿透）。
+ * 閒置超過 app.cart.idle-timeout-minutes 的購物車於寫回後移出記憶體，關閉時寫回全部；
+ * 被清理排程刪除項目的購物車於清理提交後移出。
+ *
+ * 限制：記憶體內容只存在於單一節點，多節點部署時同一用戶的請求必須固定導向同一節點，
+ * 否則各節點的購物車會互相覆寫；程序異常終止時會遺失最多一個 app.cart.flush-interval-ms 內的異動。
+ * 因此預設使用資料庫實現，須明確設定 app.cart.engine=memory 才會啟用。
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.cart", name = "engine", havingValue = "memory")
+public class InMemoryCartStore {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryCartStore.class);
+
+    private static final String UPDATE_ITEM_SQL = "UPDATE cart_item SET quantity = ?, checked = ?, updated_at = ? WHERE id = ?";
+    private static final String DELETE_ITEM_SQL = "DELETE FROM cart_item WHERE id = ?";
+    // 寫穿透與結帳會在資料庫端遞增版本號，寫回時不讓版本號倒退；項目數於同一語句內重新計算
+    private static final String UPDATE_VERSION_SQL = "UPDATE cart SET version = GREATEST(version, ?), updated_at = NOW(), "
+            + "item_count = (SELECT COUNT(*) FROM cart_item WHERE cart_item.cart_id = cart.id) WHERE id = ?";
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final JdbcTemplate jdbcTemplate;
+    // 結帳事件在訂單交易內觸發，寫回需獨立提交
+    private final TransactionTemplate transactionTemplate;
+    private final Shard[] shards;
+    private final long idleTimeoutMillis;
+
+    public InMemoryCartStore(CartRepository cartRepository,
+                             CartItemRepository cartItemRepository,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.cart.shards:64}") int shardCount,
+                             @Value("${app.cart.idle-timeout-minutes:30}") long idleTimeoutMinutes) {
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard();
+        }
+        this.idleTimeoutMillis = idleTimeoutMinutes * 60_000;
+    }
+
+    /**
+     * 在用戶鎖內操作用戶購物車，尚未載入時從資料庫載入（不存在則建立）
+     */
+    public <T> T withCart(Long userId, Function<CartAggregate, T> action) {
+        Slot slot = lockSlot(userId);
+        try {
+            if (slot.aggregate == null) {
+                slot.aggregate = load(userId);
+            }
+            slot.aggregate.touch();
+            return action.apply(slot.aggregate);
+        } finally {
+            slot.lock.unlock();
+        }
+    }
+
+    /**
+     * 寫穿透操作：先寫回該用戶的待寫資料，再執行資料庫操作，並以其結果取代記憶體內容
+     */
+    public CartResponse writeThrough(Long userId, Supplier<CartResponse> operation) {
+        Slot slot = lockSlot(userId);
+        try {
+            if (slot.aggregate != null && slot.aggregate.isDirty()) {
+                write(List.of(slot.aggregate));
+            }
+            // 操作失敗時不保留舊內容，下次存取重新載入
+            slot.aggregate = null;
+            CartResponse response = operation.get();
+            if (response != null) {
+                slot.aggregate = CartAggregate.fromResponse(response);
+                slot.aggregate.touch();
+            }
+            return response;
+        } finally {
+            slot.lock.unlock();
+        }
+    }
+
+    /**
+     * 寫回並移出指定用戶的購物車，下次存取時重新載入
+     */
+    public void evict(Long userId) {
+        Shard shard = shardOf(userId);
+        Slot slot = shard.slots.get(userId);
+        if (slot == null) {
+            return;
+        }
+        slot.lock.lock();
+        try {
+            if (slot.removed) {
+                return;
+            }
+            if (slot.aggregate != null && slot.aggregate.isDirty()) {
+                write(List.of(slot.aggregate));
+            }
+            remove(shard, userId, slot);
+        } finally {
+            slot.lock.unlock();
+        }
+    }
+
+    /**
+     * 結帳讀取購物車前，先把記憶體中的異動寫回
+     */
+    @EventListener
+    public void beforeCheckout(CartCheckoutEvent event) {
+        flush(event.userId());
+    }
+
+    /**
+     * 結帳交易結束後捨棄快取，已結帳的項目由資料庫重新載入
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void afterCheckout(CartCheckoutEvent event) {
+        evict(event.userId());
+    }
+
+    /**
+     * 清理排程刪除項目或購物車後捨棄快取，下次存取由資料庫重新載入
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void afterCleanup(CartsCleanedEvent event) {
+        event.userIds().forEach(this::evict);
+    }
+
+    /**
+     * 定期將各分片的待寫資料合併寫回，並移出閒置購物車
+     */
+    @Scheduled(fixedDelayString = "${app.cart.flush-interval-ms:1000}")
+    public void flushDirty() {
+        flushShards(System.currentTimeMillis() - idleTimeoutMillis);
+    }
+
+    /**
+     * 應用程式關閉時寫回所有待寫資料
+     */
+    @PreDestroy
+    public void flushAll() {
+        flushShards(Long.MIN_VALUE);
+        log.info("應用程式關閉，購物車待寫資料已寫回");
+    }
+
+    /**
+     * 逐一分片寫回，並移出最後存取早於 idleBefore 的購物車
+     * 只以 tryLock 取得用戶鎖，正在操作中的用戶留待下次排程，寫回不會等待也不會擋住其他分片
+     */
+    private void flushShards(long idleBefore) {
+        int written = 0;
+        int evicted = 0;
+        for (Shard shard : shards) {
+            List<Map.Entry<Long, Slot>> locked = new ArrayList<>();
+            try {
+                List<CartAggregate> dirty = new ArrayList<>();
+                for (Map.Entry<Long, Slot> entry : shard.slots.entrySet()) {
+                    Slot slot = entry.getValue();
+                    if (!slot.lock.tryLock()) {
+                        continue;
+                    }
+                    locked.add(entry);
+                    if (slot.aggregate != null && slot.aggregate.isDirty()) {
+                        dirty.add(slot.aggregate);
+                    }
+                }
+                if (!dirty.isEmpty()) {
+                    write(dirty);
+                    written += dirty.size();
+                }
+                for (Map.Entry<Long, Slot> entry : locked) {
+                    Slot slot = entry.getValue();
+                    if (!slot.removed && (slot.aggregate == null || slot.aggregate.getLastAccessMillis() < idleBefore)) {
+                        remove(shard, entry.getKey(), slot);
+                        evicted++;
+                    }
+                }
+            } catch (RuntimeException e) {
+                // 寫回失敗時保留待寫紀錄，下次排程重試
+                log.error("購物車寫回失敗，將於下次排程重試", e);
+            } finally {
+                locked.forEach(entry -> entry.getValue().lock.unlock());
+            }
+        }
+        if (written > 0 || evicted > 0) {
+            log.debug("購物車寫回 - 寫回: {}, 移出: {}", written, evicted);
+        }
+    }
+
+    private void flush(Long userId) {
+        Slot slot = shardOf(userId).slots.get(userId);
+        if (slot == null) {
+            return;
+        }
+        slot.lock.lock();
+        try {
+            if (!slot.removed && slot.aggregate != null && slot.aggregate.isDirty()) {
+                write(List.of(slot.aggregate));
+            }
+        } finally {
+            slot.lock.unlock();
+        }
+    }
+
+    /**
+     * 將多個購物車的待寫資料於同一交易內以 JDBC batch 寫回，成功後才清除待寫紀錄
+     */
+    private void write(List<CartAggregate> aggregates) {
+        List<CartItem> updates = new ArrayList<>();
+        List<Long> deletes = new ArrayList<>();
+        List<Cart> carts = new ArrayList<>(aggregates.size());
+        for (CartAggregate aggregate : aggregates) {
+            carts.add(aggregate.getCart());
+            updates.addAll(aggregate.dirtyItems());
+            deletes.addAll(aggregate.deletedItemIds());
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_ITEM_SQL, updates, updates.size(), (ps, item) -> {
+                    ps.setInt(1, item.getQuantity());
+                    ps.setBoolean(2, item.getChecked());
+                    ps.setTimestamp(3, Timestamp.valueOf(item.getUpdatedAt()));
+                    ps.setLong(4, item.getId());
+                });
+            }
+            if (!deletes.isEmpty()) {
+                jdbcTemplate.batchUpdate(DELETE_ITEM_SQL, deletes, deletes.size(),
+                        (ps, cartItemId) -> ps.setLong(1, cartItemId));
+            }
+            jdbcTemplate.batchUpdate(UPDATE_VERSION_SQL, carts, carts.size(), (ps, cart) -> {
+                ps.setLong(1, cart.getVersion());
+                ps.setLong(2, cart.getId());
+            });
+        });
+        aggregates.forEach(CartAggregate::markClean);
+    }
+
+    private CartAggregate load(Long userId) {
+        return transactionTemplate.execute(status -> {
+            Cart cart = cartRepository.findByUserId(userId).orElseGet(() -> {
+                cartRepository.insertIfAbsent(userId);
+                return cartRepository.findByUserId(userId)
+                        .orElseThrow(() -> new RuntimeException("用戶不存在"));
+            });
+            return new CartAggregate(cart, cartItemRepository.findByCartId(cart.getId()));
+        });
+    }
+
+    /**
+     * 取得並鎖定用戶的 slot；取得鎖時 slot 已被移出則改取新的 slot
+     */
+    private Slot lockSlot(Long userId) {
+        Shard shard = shardOf(userId);
+        while (true) {
+            Slot slot = shard.slots.computeIfAbsent(userId, id -> new Slot());
+            slot.lock.lock();
+            if (!slot.removed) {
+                return slot;
+            }
+            slot.lock.unlock();
+        }
+    }
+
+    /**
+     * 移出 slot，須持有該 slot 的鎖
+     */
+    private static void remove(Shard shard, Long userId, Slot slot) {
+        slot.removed = true;
+        shard.slots.remove(userId, slot);
+    }
+
+    private Shard shardOf(Long userId) {
+        return shards[(int) Math.floorMod(userId, (long) shards.length)];
+    }
+
+    private static final class Shard {
+
+        private final ConcurrentHashMap<Long, Slot> slots = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * 單一用戶的購物車與其用戶鎖，欄位只在持有鎖時存取
+     */
+    private static final class Slot {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        // 尚未載入或寫穿透失敗時為 null
+        private CartAggregate aggregate;
+        // 已移出分片，等待中的執行緒取得鎖後須改取新的 slot
+        private boolean removed;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.demo.cart;
+
+import com.example.demo.exception.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 用戶操作鎖
+ * 同一用戶的購物車與結帳操作依序執行，不同用戶互不影響。
+ * 每個用戶在有操作進行或排隊時才佔用一個鎖，最後一個離開時移除；
+ * 排隊數超過 app.cart.user-lock-max-queue 時立即拒絕，等待超過 app.cart.user-lock-timeout-ms 時放棄。
+ *
+ * 須在交易之外取得（由控制器呼叫），才能讓下一個操作在前一個交易提交後才開始。
+ */
+@Component
+public class UserOperationLock {
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final long timeoutMillis;
+    private final int maxQueue;
+
+    public UserOperationLock(@Value("${app.cart.user-lock-timeout-ms:2000}") long timeoutMillis,
+                             @Value("${app.cart.user-lock-max-queue:4}") int maxQueue) {
+        this.timeoutMillis = timeoutMillis;
+        this.maxQueue = maxQueue;
+    }
+
+    /**
+     * 在用戶鎖內執行操作
+     * @throws TooManyRequestsException 排隊已滿或等待逾時
+     */
+    public <T> T execute(Long userId, Supplier<T> action) {
+        int[] position = new int[1];
+        Entry entry = entries.compute(userId, (id, current) -> {
+            Entry target = current == null ? new Entry() : current;
+            position[0] = ++target.users;
+            return target;
+        });
+        try {
+            // 進行中的 1 個之外，最多允許 maxQueue 個等待
+            if (position[0] > maxQueue + 1) {
+                throw new TooManyRequestsException("操作過於頻繁，請稍後再試");
+            }
+            if (!entry.lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new TooManyRequestsException("前一個操作尚未完成，請稍後再試");
+            }
+            try {
+                return action.get();
+            } finally {
+                entry.lock.unlock();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TooManyRequestsException("操作已中斷，請稍後再試");
+        } finally {
+            entries.computeIfPresent(userId, (id, current) -> --current.users == 0 ? null : current);
+        }
+    }
+
+    /**
+     * 在用戶鎖內執行無回傳值的操作
+     */
+    public void run(Long userId, Runnable action) {
+        execute(userId, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * 目前佔用中的用戶鎖數量
+     */
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * users 為進行中與排隊中的操作數，只在 ConcurrentHashMap 的 compute 內讀寫
+     */
+    private static final class Entry {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private int users;
+    }
+}
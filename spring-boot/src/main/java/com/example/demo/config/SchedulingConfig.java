@@ -0,0 +1,13 @@
+package com.example.demo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 排程設定
+ * 各排程工作位於 com.example.demo.job，是否執行由各自的 app.* 設定控制
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
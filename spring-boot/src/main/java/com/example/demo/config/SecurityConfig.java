@@ -50,8 +50,14 @@ public class SecurityConfig {
 
                 // 前台商品列表公開API
                 .requestMatchers("/api/v1/products").permitAll()
+                // 前台熱銷排行公開API
+                .requestMatchers("/api/v1/products/bestsellers").permitAll()
+                // 前台商品名稱提示公開API
+                .requestMatchers("/api/v1/products/suggest").permitAll()
                 // 前台商品詳細頁公開API
                 .requestMatchers("/api/v1/products/{id}").permitAll()
+                // 前台關聯商品公開API
+                .requestMatchers("/api/v1/products/{id}/related").permitAll()
 
                 // 後台管理路徑 - 只允許ADMIN角色
                 .requestMatchers("/admin/v1/**").hasRole("ADMIN")
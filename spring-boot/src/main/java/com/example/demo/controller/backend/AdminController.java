@@ -1,16 +1,21 @@
 package com.example.demo.controller.backend;
 
+import com.example.demo.dto.request.backend.BulkUserRequest;
 import com.example.demo.dto.request.backend.CreateUserRequest;
 import com.example.demo.dto.request.backend.UpdateUserStatusRequest;
+import com.example.demo.dto.request.backend.UserSearchRequest;
 import com.example.demo.dto.request.LoginRequest;
 import com.example.demo.dto.response.ApiResponse;
+import com.example.demo.dto.response.CursorPageResponse;
 import com.example.demo.dto.response.UserResponse;
 import com.example.demo.dto.response.LoginResponse;
+import com.example.demo.dto.response.backend.BulkJobResponse;
 import com.example.demo.enums.UserRole;
 import com.example.demo.exception.AccountStatusException;
 import com.example.demo.service.backend.AdminService;
 import com.example.demo.service.AuthService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -91,6 +96,19 @@ public class AdminController {
         return ResponseEntity.ok(ApiResponse.success("獲取用戶列表成功", users));
     }
 
+    /**
+     * 搜尋用戶（keyset 分頁）
+     * 支援郵箱前綴、姓名關鍵字與角色/啟用/刪除狀態組合篩選，
+     * 以回傳的 nextCursor 作為下一頁的 cursor 參數
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/users/search")
+    public ResponseEntity<ApiResponse<CursorPageResponse<UserResponse>>> searchUsers(
+            @ModelAttribute UserSearchRequest request) {
+        CursorPageResponse<UserResponse> users = adminService.searchUsers(request);
+        return ResponseEntity.ok(ApiResponse.success("獲取用戶列表成功", users));
+    }
+
     /**
      * 根據角色獲取用戶列表
      */
@@ -134,6 +152,31 @@ public class AdminController {
         return ResponseEntity.ok(ApiResponse.success("用戶狀態更新成功", user));
     }
 
+    /**
+     * 批次啟用/停用/刪除/恢復用戶或異動角色
+     * 作業於背景執行，回傳 jobId 供查詢進度
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/users/bulk")
+    public ResponseEntity<ApiResponse<BulkJobResponse>> submitBulkOperation(
+            @Valid @RequestBody BulkUserRequest request,
+            Authentication authentication) {
+        String operatorEmail = authentication.getName();
+        BulkJobResponse job = adminService.submitBulkOperation(request, operatorEmail);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("批次作業已建立", job));
+    }
+
+    /**
+     * 查詢批次作業進度
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/users/bulk/{jobId}")
+    public ResponseEntity<ApiResponse<BulkJobResponse>> getBulkJob(@PathVariable String jobId) {
+        BulkJobResponse job = adminService.getBulkJob(jobId);
+        return ResponseEntity.ok(ApiResponse.success("獲取批次作業進度成功", job));
+    }
+
     /**
      * 軟刪除用戶
      */
@@ -0,0 +1,64 @@
+package com.example.demo.controller.backend;
+
+import com.example.demo.enums.ExportFormat;
+import com.example.demo.service.backend.ExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 後台資料匯出 Controller
+ * 回應以 StreamingResponseBody 邊查詢邊寫出，適用於全量匯出
+ */
+@RestController
+@RequestMapping("/admin/v1/export")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class ExportController {
+
+    private final ExportService exportService;
+
+    /**
+     * 匯出用戶
+     */
+    @GetMapping("/users")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(defaultValue = "CSV") ExportFormat format) {
+        return attachment("users", format, out -> exportService.exportUsers(format, out));
+    }
+
+    /**
+     * 匯出商品
+     */
+    @GetMapping("/products")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "CSV") ExportFormat format) {
+        return attachment("products", format, out -> exportService.exportProducts(format, out));
+    }
+
+    /**
+     * 匯出訂單
+     */
+    @GetMapping("/orders")
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(defaultValue = "CSV") ExportFormat format) {
+        return attachment("orders", format, out -> exportService.exportOrders(format, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> attachment(String name, ExportFormat format, StreamingResponseBody body) {
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename(name + "." + format.getExtension())
+                .build();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .contentType(new MediaType(MediaType.parseMediaType(format.getContentType()), StandardCharsets.UTF_8))
+                .body(body);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.demo.controller.backend;
+
+import com.example.demo.dto.request.backend.CancelOrdersRequest;
+import com.example.demo.dto.response.ApiResponse;
+import com.example.demo.dto.response.backend.CancelOrdersResponse;
+import com.example.demo.dto.response.backend.OrderExpiryMetricsResponse;
+import com.example.demo.service.backend.OrderService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController("backendOrderController")
+@RequestMapping("/admin/v1/orders")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class OrderController {
+
+    private final OrderService orderService;
+
+    /**
+     * 批次取消訂單
+     * 不存在或狀態不允許取消的訂單會被略過
+     */
+    @PostMapping("/cancel")
+    public ResponseEntity<ApiResponse<CancelOrdersResponse>> cancelOrders(
+            @Valid @RequestBody CancelOrdersRequest request,
+            Authentication authentication) {
+        CancelOrdersResponse result = orderService.cancelOrders(request.getOrderIds(), authentication.getName());
+        return ResponseEntity.ok(ApiResponse.success("批次取消訂單完成", result));
+    }
+
+    /**
+     * 取得逾期訂單排程統計
+     */
+    @GetMapping("/expiry/metrics")
+    public ResponseEntity<ApiResponse<OrderExpiryMetricsResponse>> getExpiryMetrics() {
+        OrderExpiryMetricsResponse metrics = orderService.getExpiryMetrics();
+        return ResponseEntity.ok(ApiResponse.success("獲取逾期訂單統計成功", metrics));
+    }
+}
@@ -4,20 +4,27 @@ import com.example.demo.dto.request.backend.CreateProductRequest;
 import com.example.demo.dto.request.backend.UpdateProductRequest;
 import com.example.demo.dto.request.backend.ProductSearchRequest;
 import com.example.demo.dto.response.ApiResponse;
+import com.example.demo.dto.response.CursorPageResponse;
+import com.example.demo.dto.response.backend.ProductImportResponse;
 import com.example.demo.dto.response.backend.ProductResponse;
+import com.example.demo.enums.ExportFormat;
+import com.example.demo.enums.ProductSortField;
+import com.example.demo.service.backend.ProductImportService;
 import com.example.demo.service.backend.ProductService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController("backendProductController")
@@ -27,6 +34,7 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
 
     /**
      * 創建商品
@@ -40,28 +48,69 @@ public class ProductController {
                 .body(ApiResponse.success("商品創建成功", product));
     }
 
+    /**
+     * 批次匯入商品
+     * 請求內容為 CSV（第一列為標題列）或 NDJSON，邊讀取邊驗證並分批寫入，回傳每筆失敗的行號與原因；
+     * 欄位同創建商品（name、description、price、stock、status、startAt、endAt），商品編號一律系統產生，不含圖片。
+     * 不接受表單格式，避免請求內容被當成表單參數解析掉
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson", "text/plain", "application/octet-stream"})
+    public ResponseEntity<ApiResponse<ProductImportResponse>> importProducts(
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            InputStream body,
+            Authentication authentication) {
+        ProductImportResponse result = productImportService.importProducts(format, body, authentication.getName());
+        return ResponseEntity.ok(ApiResponse.success("批次匯入商品完成", result));
+    }
+
     /**
      * 取得所有商品（分頁、多條件查詢）
+     * sortBy 只接受有索引的欄位，同值時依 id 排序；count=false 時不計算總筆數，回傳 Slice
      */
     @GetMapping
-    public ResponseEntity<ApiResponse<Page<ProductResponse>>> searchProducts(
+    public ResponseEntity<ApiResponse<Slice<ProductResponse>>> searchProducts(
             @ModelAttribute ProductSearchRequest request,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "true") boolean count
     ) {
         Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
-        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
-        Page<ProductResponse> products = productService.searchProducts(
-                request.getName(),
-                request.getProductNo(),
-                request.getInStock(),
-                request.getDeleted(),
-                request.getStatus(),
-                request.getStartAtFrom(),
-                request.getStartAtTo(),
-                pageable);
+        ProductSortField sortField = ProductSortField.fromProperty(sortBy);
+        Sort sort = Sort.by(direction, sortField.getProperty());
+        if (sortField != ProductSortField.ID) {
+            sort = sort.and(Sort.by(direction, ProductSortField.ID.getProperty()));
+        }
+        Pageable pageable = PageRequest.of(page, size, sort);
+        Slice<ProductResponse> products = count
+                ? productService.searchProducts(
+                        request.getName(),
+                        request.getProductNo(),
+                        request.getInStock(),
+                        request.getDeleted(),
+                        request.getStatus(),
+                        request.getStartAtFrom(),
+                        request.getStartAtTo(),
+                        pageable)
+                : productService.searchProductsSlice(request, pageable);
+        return ResponseEntity.ok(ApiResponse.success("取得商品列表成功", products));
+    }
+
+    /**
+     * 取得商品列表（keyset 分頁）
+     * 條件與排序同商品列表，以回傳的 nextCursor 作為下一頁的 cursor 參數，深分頁不需略過前面的資料
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<ApiResponse<CursorPageResponse<ProductResponse>>> searchProductsByCursor(
+            @ModelAttribute ProductSearchRequest request,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir
+    ) {
+        CursorPageResponse<ProductResponse> products = productService.searchProductsByCursor(
+                request, ProductSortField.fromProperty(sortBy), sortDir.equalsIgnoreCase("desc"), cursor, size);
         return ResponseEntity.ok(ApiResponse.success("取得商品列表成功", products));
     }
 
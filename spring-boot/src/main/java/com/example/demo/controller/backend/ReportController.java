@@ -0,0 +1,97 @@
+package com.example.demo.controller.backend;
+
+import com.example.demo.dto.response.ApiResponse;
+import com.example.demo.dto.response.backend.ProductSalesResponse;
+import com.example.demo.dto.response.backend.ProductViewsResponse;
+import com.example.demo.dto.response.backend.SalesPointResponse;
+import com.example.demo.dto.response.backend.SalesStatusSummaryResponse;
+import com.example.demo.enums.OrderStatus;
+import com.example.demo.service.backend.ReportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 後台銷售報表 Controller
+ * 查詢讀取銷售彙總表，日期參數格式為 yyyy-MM-dd，含頭尾
+ */
+@RestController
+@RequestMapping("/admin/v1/reports")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class ReportController {
+
+    private final ReportService reportService;
+
+    /**
+     * 各訂單狀態的銷售合計
+     */
+    @GetMapping("/sales/summary")
+    public ResponseEntity<ApiResponse<List<SalesStatusSummaryResponse>>> getStatusSummary(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(ApiResponse.success("獲取銷售合計成功", reportService.getStatusSummary(from, to)));
+    }
+
+    /**
+     * 每日銷售，未指定狀態時排除已取消訂單
+     */
+    @GetMapping("/sales/daily")
+    public ResponseEntity<ApiResponse<List<SalesPointResponse>>> getDailySales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) OrderStatus status) {
+        return ResponseEntity.ok(ApiResponse.success("獲取每日銷售成功", reportService.getDailySales(from, to, status)));
+    }
+
+    /**
+     * 每小時銷售，區間為 [from, to)，未指定狀態時排除已取消訂單
+     */
+    @GetMapping("/sales/hourly")
+    public ResponseEntity<ApiResponse<List<SalesPointResponse>>> getHourlySales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) OrderStatus status) {
+        return ResponseEntity.ok(ApiResponse.success("獲取每小時銷售成功", reportService.getHourlySales(from, to, status)));
+    }
+
+    /**
+     * 商品銷售排行（依營收），未指定狀態時排除已取消訂單
+     */
+    @GetMapping("/sales/products")
+    public ResponseEntity<ApiResponse<List<ProductSalesResponse>>> getTopProducts(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(ApiResponse.success("獲取商品銷售排行成功",
+                reportService.getTopProducts(from, to, status, limit)));
+    }
+
+    /**
+     * 商品瀏覽排行（累計的商品詳細頁瀏覽次數）
+     */
+    @GetMapping("/products/views")
+    public ResponseEntity<ApiResponse<List<ProductViewsResponse>>> getTopViewedProducts(
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(ApiResponse.success("獲取商品瀏覽排行成功", reportService.getTopViewedProducts(limit)));
+    }
+
+    /**
+     * 依訂單資料重建日期區間的彙總（回填歷史或修正累加誤差）
+     */
+    @PostMapping("/sales/rebuild")
+    public ResponseEntity<ApiResponse<Map<String, Integer>>> rebuild(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        int days = reportService.rebuild(from, to);
+        return ResponseEntity.ok(ApiResponse.success("銷售彙總重建完成", Map.of("days", days)));
+    }
+}
@@ -1,13 +1,17 @@
 package com.example.demo.controller.frontend;
 
+import com.example.demo.cart.UserOperationLock;
 import com.example.demo.dto.request.AddToCartRequest;
+import com.example.demo.dto.request.CartBatchRequest;
 import com.example.demo.dto.request.UpdateCartItemRequest;
 import com.example.demo.dto.response.ApiResponse;
 import com.example.demo.dto.response.frontend.CartResponse;
 import com.example.demo.security.CustomUserDetails;
 import com.example.demo.service.frontend.CartService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
@@ -16,6 +20,8 @@ import java.util.List;
 
 /**
  * 購物車控制器
+ * 單項異動接口支援 Prefer: return=delta，只回傳異動項目、總計與版本號；
+ * 異動接口在用戶操作鎖內執行，同一用戶的並發請求依序處理
  */
 @RestController
 @RequestMapping("/api/v1/cart")
@@ -23,7 +29,11 @@ import java.util.List;
 @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
 public class CartController {
 
+    private static final String PREFER_HEADER = "Prefer";
+    private static final String RETURN_DELTA = "return=delta";
+
     private final CartService cartService;
+    private final UserOperationLock userOperationLock;
 
     /**
      * 獲取當前用戶的購物車
@@ -39,11 +49,17 @@ public class CartController {
      * 添加商品到購物車
      */
     @PostMapping("/items")
-    public ApiResponse<CartResponse> addToCart(
+    public ApiResponse<?> addToCart(
             @AuthenticationPrincipal CustomUserDetails userDetails,
+            @RequestHeader(value = PREFER_HEADER, required = false) String prefer,
+            HttpServletResponse response,
             @Valid @RequestBody AddToCartRequest request) {
         Long userId = userDetails.getUserId();
-        CartResponse cart = cartService.addToCart(userId, request);
+        if (prefersDelta(prefer, response)) {
+            return ApiResponse.success("添加商品成功",
+                    userOperationLock.execute(userId, () -> cartService.addToCartDelta(userId, request)));
+        }
+        CartResponse cart = userOperationLock.execute(userId, () -> cartService.addToCart(userId, request));
         return ApiResponse.success("添加商品成功", cart);
     }
 
@@ -51,12 +67,18 @@ public class CartController {
      * 更新購物車項目數量
      */
     @PutMapping("/items/{cartItemId}")
-    public ApiResponse<CartResponse> updateCartItem(
+    public ApiResponse<?> updateCartItem(
             @AuthenticationPrincipal CustomUserDetails userDetails,
+            @RequestHeader(value = PREFER_HEADER, required = false) String prefer,
+            HttpServletResponse response,
             @PathVariable Long cartItemId,
             @Valid @RequestBody UpdateCartItemRequest request) {
         Long userId = userDetails.getUserId();
-        CartResponse cart = cartService.updateCartItem(userId, cartItemId, request);
+        if (prefersDelta(prefer, response)) {
+            return ApiResponse.success("更新購物車項目成功",
+                    userOperationLock.execute(userId, () -> cartService.updateCartItemDelta(userId, cartItemId, request)));
+        }
+        CartResponse cart = userOperationLock.execute(userId, () -> cartService.updateCartItem(userId, cartItemId, request));
         return ApiResponse.success("更新購物車項目成功", cart);
     }
 
@@ -64,11 +86,17 @@ public class CartController {
      * 刪除購物車項目
      */
     @DeleteMapping("/items/{cartItemId}")
-    public ApiResponse<CartResponse> removeCartItem(
+    public ApiResponse<?> removeCartItem(
             @AuthenticationPrincipal CustomUserDetails userDetails,
+            @RequestHeader(value = PREFER_HEADER, required = false) String prefer,
+            HttpServletResponse response,
             @PathVariable Long cartItemId) {
         Long userId = userDetails.getUserId();
-        CartResponse cart = cartService.removeCartItem(userId, cartItemId);
+        if (prefersDelta(prefer, response)) {
+            return ApiResponse.success("刪除購物車項目成功",
+                    userOperationLock.execute(userId, () -> cartService.removeCartItemDelta(userId, cartItemId)));
+        }
+        CartResponse cart = userOperationLock.execute(userId, () -> cartService.removeCartItem(userId, cartItemId));
         return ApiResponse.success("刪除購物車項目成功", cart);
     }
 
@@ -76,11 +104,17 @@ public class CartController {
      * 切換購物車項目的勾選狀態
      */
     @PatchMapping("/items/{cartItemId}/toggle")
-    public ApiResponse<CartResponse> toggleCartItemChecked(
+    public ApiResponse<?> toggleCartItemChecked(
             @AuthenticationPrincipal CustomUserDetails userDetails,
+            @RequestHeader(value = PREFER_HEADER, required = false) String prefer,
+            HttpServletResponse response,
             @PathVariable Long cartItemId) {
         Long userId = userDetails.getUserId();
-        CartResponse cart = cartService.toggleCartItemChecked(userId, cartItemId);
+        if (prefersDelta(prefer, response)) {
+            return ApiResponse.success("切換勾選狀態成功",
+                    userOperationLock.execute(userId, () -> cartService.toggleCartItemCheckedDelta(userId, cartItemId)));
+        }
+        CartResponse cart = userOperationLock.execute(userId, () -> cartService.toggleCartItemChecked(userId, cartItemId));
         return ApiResponse.success("切換勾選狀態成功", cart);
     }
 
@@ -92,17 +126,30 @@ public class CartController {
             @AuthenticationPrincipal CustomUserDetails userDetails,
             @RequestParam Boolean checked) {
         Long userId = userDetails.getUserId();
-        CartResponse cart = cartService.toggleAllCartItems(userId, checked);
+        CartResponse cart = userOperationLock.execute(userId, () -> cartService.toggleAllCartItems(userId, checked));
         return ApiResponse.success("批量切換勾選狀態成功", cart);
     }
 
+    /**
+     * 批次套用添加、更新、勾選與刪除操作
+     * 同一交易內依序套用，任一操作失敗時全部不生效
+     */
+    @PostMapping("/batch")
+    public ApiResponse<CartResponse> applyBatch(
+            @AuthenticationPrincipal CustomUserDetails userDetails,
+            @Valid @RequestBody CartBatchRequest request) {
+        Long userId = userDetails.getUserId();
+        CartResponse cart = userOperationLock.execute(userId, () -> cartService.applyBatch(userId, request));
+        return ApiResponse.success("批次更新購物車成功", cart);
+    }
+
     /**
      * 清空購物車
      */
     @DeleteMapping
     public ApiResponse<Void> clearCart(@AuthenticationPrincipal CustomUserDetails userDetails) {
         Long userId = userDetails.getUserId();
-        cartService.clearCart(userId);
+        userOperationLock.run(userId, () -> cartService.clearCart(userId));
         return ApiResponse.success("清空購物車成功", null);
     }
 
@@ -110,11 +157,17 @@ public class CartController {
      * 批量刪除購物車項目
      */
     @DeleteMapping("/items/batch")
-    public ApiResponse<CartResponse> batchRemoveCartItems(
+    public ApiResponse<?> batchRemoveCartItems(
             @AuthenticationPrincipal CustomUserDetails userDetails,
+            @RequestHeader(value = PREFER_HEADER, required = false) String prefer,
+            HttpServletResponse response,
             @RequestBody List<Long> cartItemIds) {
         Long userId = userDetails.getUserId();
-        CartResponse cart = cartService.batchRemoveCartItems(userId, cartItemIds);
+        if (prefersDelta(prefer, response)) {
+            return ApiResponse.success("批量刪除成功",
+                    userOperationLock.execute(userId, () -> cartService.batchRemoveCartItemsDelta(userId, cartItemIds)));
+        }
+        CartResponse cart = userOperationLock.execute(userId, () -> cartService.batchRemoveCartItems(userId, cartItemIds));
         return ApiResponse.success("批量刪除成功", cart);
     }
 
@@ -125,7 +178,7 @@ public class CartController {
     public ApiResponse<CartResponse> removeCheckedItems(
             @AuthenticationPrincipal CustomUserDetails userDetails) {
         Long userId = userDetails.getUserId();
-        CartResponse cart = cartService.removeCheckedItems(userId);
+        CartResponse cart = userOperationLock.execute(userId, () -> cartService.removeCheckedItems(userId));
         return ApiResponse.success("刪除已勾選項目成功", cart);
     }
 
@@ -158,7 +211,24 @@ public class CartController {
     public ApiResponse<CartResponse> validateCart(
             @AuthenticationPrincipal CustomUserDetails userDetails) {
         Long userId = userDetails.getUserId();
-        CartResponse cart = cartService.validateCart(userId);
+        CartResponse cart = userOperationLock.execute(userId, () -> cartService.validateCart(userId));
         return ApiResponse.success("購物車驗證完成", cart);
     }
+
+    /**
+     * 請求是否帶有 Prefer: return=delta，是則回傳增量響應並標示 Preference-Applied
+     */
+    private boolean prefersDelta(String prefer, HttpServletResponse response) {
+        response.addHeader(HttpHeaders.VARY, PREFER_HEADER);
+        if (prefer == null) {
+            return false;
+        }
+        for (String preference : prefer.split(",")) {
+            if (RETURN_DELTA.equalsIgnoreCase(preference.trim())) {
+                response.setHeader("Preference-Applied", RETURN_DELTA);
+                return true;
+            }
+        }
+        return false;
+    }
 }
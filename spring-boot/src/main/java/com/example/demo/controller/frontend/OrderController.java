@@ -1,5 +1,6 @@
 package com.example.demo.controller.frontend;
 
+import com.example.demo.cart.UserOperationLock;
 import com.example.demo.dto.request.frontend.CreateOrderRequest;
 import com.example.demo.dto.response.ApiResponse;
 import com.example.demo.dto.response.frontend.OrderResponse;
@@ -24,6 +25,7 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final UserOperationLock userOperationLock;
 
     /**
      * 創建訂單（從購物車已勾選的項目）
@@ -33,7 +35,8 @@ public class OrderController {
             @AuthenticationPrincipal CustomUserDetails userDetails,
             @Valid @RequestBody CreateOrderRequest request) {
         Long userId = userDetails.getUserId();
-        OrderResponse order = orderService.createOrder(userId, request);
+        // 與購物車異動共用用戶操作鎖，避免結帳與購物車異動交錯
+        OrderResponse order = userOperationLock.execute(userId, () -> orderService.createOrder(userId, request));
         return ApiResponse.success("訂單創建成功", order);
     }
 
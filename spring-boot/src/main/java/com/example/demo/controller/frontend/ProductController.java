@@ -1,12 +1,15 @@
 package com.example.demo.controller.frontend;
 
 import com.example.demo.dto.response.ApiResponse;
+import com.example.demo.dto.response.frontend.BestsellerResponse;
 import com.example.demo.dto.response.frontend.ProductResponse;
+import com.example.demo.dto.response.frontend.ProductSuggestionResponse;
 import com.example.demo.service.frontend.ProductService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -23,6 +26,25 @@ public class ProductController {
         return ApiResponse.success("獲取商品成功", products);
     }
 
+    @GetMapping("/bestsellers")
+    public ApiResponse<List<BestsellerResponse>> getBestsellers(@RequestParam(defaultValue = "10") int limit) {
+        List<BestsellerResponse> bestsellers = productService.getBestsellers(limit);
+        return ApiResponse.success("獲取熱銷商品成功", bestsellers);
+    }
+
+    @GetMapping("/suggest")
+    public ApiResponse<List<ProductSuggestionResponse>> suggestProducts(@RequestParam(defaultValue = "") String q,
+                                                                       @RequestParam(defaultValue = "10") int limit) {
+        List<ProductSuggestionResponse> suggestions = productService.suggestProducts(q, limit);
+        return ApiResponse.success("獲取商品提示成功", suggestions);
+    }
+
+    @GetMapping("/{id}/related")
+    public ApiResponse<List<ProductResponse>> getRelatedProducts(@PathVariable Long id) {
+        List<ProductResponse> products = productService.getRelatedProducts(id);
+        return ApiResponse.success("獲取關聯商品成功", products);
+    }
+
     @GetMapping("/{id}")
     public ApiResponse<ProductResponse> getProductDetail(@PathVariable Long id) {
         try {
@@ -0,0 +1,45 @@
+package com.example.demo.dto.request;
+
+import com.example.demo.enums.CartOperationType;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 購物車批次操作請求DTO
+ * 依序套用所有操作，任一操作失敗時全部不生效
+ */
+@Data
+public class CartBatchRequest {
+
+    @NotEmpty(message = "操作列表不能為空")
+    @Size(max = 100, message = "單次最多 100 個操作")
+    @Valid
+    private List<Operation> operations;
+
+    /**
+     * 單一操作
+     * ADD 需要 productId 與 quantity；UPDATE 需要 cartItemId 與 quantity；
+     * TOGGLE 需要 cartItemId，指定 checked 時設為該值，否則反轉；REMOVE 需要 cartItemId
+     */
+    @Data
+    public static class Operation {
+
+        @NotNull(message = "操作類型不能為空")
+        private CartOperationType type;
+
+        private Long cartItemId;
+
+        private Long productId;
+
+        @Min(value = 1, message = "數量必須大於0")
+        private Integer quantity;
+
+        private Boolean checked;
+    }
+}
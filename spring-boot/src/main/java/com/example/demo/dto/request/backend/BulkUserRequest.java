@@ -0,0 +1,33 @@
+package com.example.demo.dto.request.backend;
+
+import com.example.demo.enums.BulkUserAction;
+import com.example.demo.enums.UserRole;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批次用戶管理請求DTO
+ * userIds 與 filter 擇一指定，兩者皆有時以 userIds 為準
+ */
+@Data
+public class BulkUserRequest {
+
+    @NotNull(message = "批次動作不能為空")
+    private BulkUserAction action;
+
+    /**
+     * ADD_ROLE / REMOVE_ROLE 時必填
+     */
+    private UserRole role;
+
+    @Size(max = 50000, message = "單次最多指定 50000 個用戶ID")
+    private List<Long> userIds;
+
+    /**
+     * 篩選條件，cursor 與 size 會被忽略
+     */
+    private UserSearchRequest filter;
+}
@@ -0,0 +1,18 @@
+package com.example.demo.dto.request.backend;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批次取消訂單請求DTO
+ */
+@Data
+public class CancelOrdersRequest {
+
+    @NotEmpty(message = "訂單ID不能為空")
+    @Size(max = 5000, message = "單次最多取消 5000 筆訂單")
+    private List<Long> orderIds;
+}
@@ -0,0 +1,47 @@
+package com.example.demo.dto.request.backend;
+
+import com.example.demo.enums.UserRole;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * 後台用戶列表查詢請求DTO
+ * 以 keyset（cursor）分頁，cursor 為上一頁回傳的 nextCursor
+ */
+@Data
+public class UserSearchRequest {
+
+    /**
+     * 郵箱前綴
+     */
+    private String email;
+
+    /**
+     * 姓名關鍵字（包含即符合）
+     */
+    private String name;
+
+    private UserRole role;
+
+    private Boolean enabled;
+
+    /**
+     * 是否查詢已刪除用戶，未指定時只查未刪除
+     */
+    private Boolean deleted;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdAtFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdAtTo;
+
+    /**
+     * 上一頁回傳的 nextCursor，與商品列表相同以字串傳遞
+     */
+    private String cursor;
+
+    private Integer size;
+}
@@ -0,0 +1,23 @@
+package com.example.demo.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Keyset（cursor）分頁響應
+ * 不計算總筆數，下一頁以 nextCursor 繼續查詢
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+    private List<T> items;
+    private Integer size;
+    private Boolean hasNext;
+    private String nextCursor;
+}
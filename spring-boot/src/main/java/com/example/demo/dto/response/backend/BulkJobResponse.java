@@ -0,0 +1,33 @@
+package com.example.demo.dto.response.backend;
+
+import com.example.demo.enums.BulkJobStatus;
+import com.example.demo.enums.BulkUserAction;
+import com.example.demo.enums.UserRole;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 批次作業進度回應DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkJobResponse {
+
+    private String jobId;
+    private BulkUserAction action;
+    private UserRole role;
+    private BulkJobStatus status;
+    private long total;        // 預計處理的用戶數
+    private long processed;    // 已處理的用戶數
+    private long affected;     // 實際被異動的用戶數
+    private long skipped;      // 略過的用戶數（操作者本人）
+    private String errorMessage;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,21 @@
+package com.example.demo.dto.response.backend;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 批次取消訂單結果回應DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CancelOrdersResponse {
+
+    private long total;           // 指定的訂單數（去除重複）
+    private long cancelled;       // 實際取消的訂單數
+    private long skipped;         // 不存在或狀態不允許取消的訂單數
+    private long restorePending;  // 已取消但庫存待排程回補的訂單數
+}
@@ -0,0 +1,29 @@
+package com.example.demo.dto.response.backend;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 逾期訂單排程統計回應DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderExpiryMetricsResponse {
+
+    private long ttlMinutes;
+    private long overdueOrders;           // 已逾期但尚未取消的訂單數
+    private LocalDateTime oldestPendingAt; // 最早的待處理訂單建立時間
+    private long lagSeconds;              // 最早的逾期訂單已超過期限的秒數，沒有逾期訂單時為 0
+    private long runs;                    // 本節點執行輪數
+    private long totalExpired;            // 本節點累計取消的訂單數
+    private LocalDateTime lastRunAt;
+    private long lastRunExpired;
+    private long lastRunMillis;
+    private double lastRunThroughput;     // 最近一輪每秒取消的訂單數
+}
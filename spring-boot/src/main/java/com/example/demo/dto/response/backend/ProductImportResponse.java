@@ -0,0 +1,39 @@
+package com.example.demo.dto.response.backend;
+
+import com.example.demo.enums.ExportFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 批次匯入商品結果回應DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductImportResponse {
+
+    private ExportFormat format;
+    private long total;            // 讀取的資料筆數（不含標題列與空白行）
+    private long imported;         // 成功寫入的商品數
+    private long failed;           // 驗證或寫入失敗的筆數
+    private List<RowError> errors; // 失敗明細，最多 max-errors 筆
+    private long errorsOmitted;    // 超過上限未列出的失敗筆數
+    private boolean aborted;       // 檔案格式錯誤而中止，之後的資料未匯入
+    private long elapsedMillis;
+
+    /**
+     * 單筆失敗明細
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;       // 資料開始的行號（CSV 標題列為第 1 行）
+        private String message;
+    }
+}
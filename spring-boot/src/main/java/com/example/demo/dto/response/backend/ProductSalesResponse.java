@@ -0,0 +1,24 @@
+package com.example.demo.dto.response.backend;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 商品銷售排行回應DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductSalesResponse {
+
+    private Long productId;
+    private String productName;  // 商品已刪除時為 null
+    private BigDecimal revenue;
+    private long units;
+    private long orderCount;
+}
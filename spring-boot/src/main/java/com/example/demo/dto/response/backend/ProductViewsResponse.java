@@ -0,0 +1,23 @@
+package com.example.demo.dto.response.backend;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 商品瀏覽排行回應DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductViewsResponse {
+
+    private Long productId;
+    private String productName;
+    private long viewCount;
+    private LocalDateTime lastViewedAt;
+}
@@ -0,0 +1,23 @@
+package com.example.demo.dto.response.backend;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 銷售時間序列資料點回應DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesPointResponse {
+
+    private String period;       // 日期（yyyy-MM-dd）或小時（yyyy-MM-ddTHH:00）
+    private BigDecimal revenue;
+    private long units;
+    private long orderCount;
+}
@@ -0,0 +1,24 @@
+package com.example.demo.dto.response.backend;
+
+import com.example.demo.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 各訂單狀態銷售合計回應DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesStatusSummaryResponse {
+
+    private OrderStatus status;
+    private BigDecimal revenue;
+    private long units;
+    private long orderCount;
+}
@@ -0,0 +1,17 @@
+package com.example.demo.dto.response.frontend;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BestsellerResponse {
+    private Integer rank;
+    // 依時間衰減的銷售件數
+    private Double score;
+    private ProductResponse product;
+}
@@ -0,0 +1,29 @@
+package com.example.demo.dto.response.frontend;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 購物車增量響應DTO
+ * 請求帶有 Prefer: return=delta 時回傳，只包含本次異動的項目與重新計算的總計
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartDeltaResponse {
+
+    private Long id;
+    private Long version;
+    // 新增或修改後的項目
+    private List<CartItemResponse> items;
+    // 已刪除的項目ID
+    private List<Long> removedItemIds;
+    private Integer totalItems;
+    private BigDecimal totalAmount;
+}
@@ -20,6 +20,7 @@ public class CartResponse {
 
     private Long id;
     private Long userId;
+    private Long version;
     private List<CartItemResponse> items;
     private Integer totalItems;
     private BigDecimal totalAmount;
@@ -0,0 +1,15 @@
+package com.example.demo.dto.response.frontend;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductSuggestionResponse {
+    private Long id;
+    private String name;
+}
@@ -0,0 +1,72 @@
+package com.example.demo.entity;
+
+import com.example.demo.enums.BulkJobStatus;
+import com.example.demo.enums.BulkUserAction;
+import com.example.demo.enums.UserRole;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 批次用戶管理作業實體
+ * 由執行作業的節點於每批處理完成後更新進度，updatedAt 長時間未更新的 RUNNING 作業視為已中斷
+ */
+@Entity
+@Table(name = "bulk_user_job",
+    indexes = {
+        @Index(name = "idx_bulk_user_job_finished_at", columnList = "finished_at")
+    }
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkUserJob {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private BulkUserAction action;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private UserRole role;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private BulkJobStatus status;
+
+    @Column(nullable = false)
+    private long total;
+
+    @Column(nullable = false)
+    private long processed;
+
+    @Column(nullable = false)
+    private long affected;
+
+    @Column(nullable = false)
+    private long skipped;
+
+    @Column(name = "error_message", length = 500)
+    private String errorMessage;
+
+    @Column(name = "operator_email", nullable = false, length = 100)
+    private String operatorEmail;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
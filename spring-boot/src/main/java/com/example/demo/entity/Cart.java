@@ -14,11 +14,11 @@ import java.util.List;
 
 /**
  * 購物車主表實體
- * 每個會員擁有一個購物車
+ * 每個會員擁有一個購物車（user_id 唯一）
  */
 @Entity
-@Table(name = "cart", indexes = {
-    @Index(name = "idx_user_id", columnList = "user_id")
+@Table(name = "cart", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_cart_user", columnNames = "user_id")
 })
 @Data
 @NoArgsConstructor
@@ -37,6 +37,20 @@ public class Cart {
     @JoinColumn(name = "user_id", referencedColumnName = "id", insertable = false, updatable = false)
     private User user;
 
+    /**
+     * 版本號，每次購物車內容異動時以 UPDATE 原子遞增
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private Long version = 0L;
+
+    /**
+     * 項目數（反正規化），新增或刪除項目時由 CartItemLineRepository 重新計算
+     */
+    @Column(name = "item_count", nullable = false)
+    @Builder.Default
+    private Integer itemCount = 0;
+
     @OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<CartItem> cartItems = new ArrayList<>();
@@ -0,0 +1,46 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 背景排程進度實體
+ * 分批處理的排程記錄本輪已處理到的主鍵，中斷後下次執行從該處繼續；
+ * 排程以 JDBC 讀寫，每批先以 SELECT ... FOR UPDATE 鎖定該列，多個節點同時執行時依序處理各批。
+ */
+@Entity
+@Table(name = "job_checkpoint")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobCheckpoint {
+
+    @Id
+    @Column(name = "job_name", length = 64)
+    private String jobName;
+
+    @Column(name = "last_id", nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private long lastId;
+
+    @Column(name = "run_processed", nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private long runProcessed;
+
+    @Column(name = "last_processed", nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private long lastProcessed;
+
+    @Column(name = "total_processed", nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private long totalProcessed;
+
+    @Column(name = "last_finished_at")
+    private LocalDateTime lastFinishedAt;
+
+    @Column(name = "updated_at", nullable = false,
+            columnDefinition = "TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP")
+    private LocalDateTime updatedAt;
+}
@@ -21,7 +21,7 @@ import java.util.List;
 @Table(name = "orders", indexes = {
     @Index(name = "idx_order_number", columnList = "order_number"),
     @Index(name = "idx_user_id", columnList = "user_id"),
-    @Index(name = "idx_status", columnList = "status"),
+    @Index(name = "idx_orders_status_created_at", columnList = "status, created_at"),
     @Index(name = "idx_created_at", columnList = "created_at")
 })
 @Data
@@ -0,0 +1,59 @@
+package com.example.demo.entity;
+
+import com.example.demo.enums.OutboxAggregateType;
+import com.example.demo.enums.OutboxEventType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 外寄箱死信實體
+ * 由 OutboxRelay 將送出失敗達上限的事件連同原 id 移入，不再重送
+ */
+@Entity
+@Table(name = "outbox_dead_letters", indexes = {
+    @Index(name = "idx_outbox_dead_letters_aggregate", columnList = "aggregate_type, aggregate_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxDeadLetter {
+
+    /**
+     * 原外寄箱事件ID
+     */
+    @Id
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "aggregate_type", nullable = false, length = 30)
+    private OutboxAggregateType aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 50)
+    private OutboxEventType eventType;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "dead_at", nullable = false,
+            columnDefinition = "TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP")
+    private LocalDateTime deadAt;
+}
@@ -0,0 +1,53 @@
+package com.example.demo.entity;
+
+import com.example.demo.enums.PointsEntryType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 點數帳本實體
+ * 只新增不修改，users.points 為本表的累加結果
+ */
+@Entity
+@Table(name = "points_ledger",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_points_ledger_order_entry", columnNames = {"order_id", "entry_type"})
+    },
+    indexes = {
+        @Index(name = "idx_points_ledger_user_id", columnList = "user_id, id")
+    }
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PointsLedger {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false, length = 20)
+    private PointsEntryType entryType;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,51 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 關聯商品實體
+ * 由 RelatedProductIndex 依共同購買次數計算後整批寫入，每個商品保留前 N 名
+ */
+@Entity
+@Table(name = "product_related", indexes = {
+    @Index(name = "idx_product_related_computed_at", columnList = "computed_at")
+})
+@IdClass(ProductRelated.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductRelated {
+
+    @Id
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Id
+    @Column(name = "rank_no", nullable = false)
+    private Integer rankNo;
+
+    @Column(name = "related_product_id", nullable = false)
+    private Long relatedProductId;
+
+    @Column(name = "pair_count", nullable = false)
+    private Long pairCount;
+
+    @Column(name = "computed_at", nullable = false, columnDefinition = "DATETIME(3)")
+    private LocalDateTime computedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long productId;
+        private Integer rankNo;
+    }
+}
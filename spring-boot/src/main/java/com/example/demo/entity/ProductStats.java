@@ -0,0 +1,32 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 商品統計實體
+ * 由 ProductViewCounter 以加法 upsert 整批寫入
+ */
+@Entity
+@Table(name = "product_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductStats {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "view_count", nullable = false)
+    private Long viewCount;
+
+    @Column(name = "last_viewed_at", nullable = false, columnDefinition = "DATETIME(3)")
+    private LocalDateTime lastViewedAt;
+}
@@ -0,0 +1,59 @@
+package com.example.demo.entity;
+
+import com.example.demo.enums.OrderStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 每日銷售彙總實體
+ * 由 SalesRollupService 以 SQL 增量累加與重建，product_id <= 0 為訂單層級合計（依訂單ID分散到多列，讀取時加總）
+ */
+@Entity
+@Table(name = "sales_rollup_daily", indexes = {
+    @Index(name = "idx_sales_rollup_daily_bucket", columnList = "bucket_date")
+})
+@IdClass(SalesRollupDaily.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesRollupDaily {
+
+    @Id
+    @Column(name = "bucket_date", nullable = false)
+    private LocalDate bucketDate;
+
+    @Id
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OrderStatus status;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal revenue;
+
+    @Column(nullable = false)
+    private Long units;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate bucketDate;
+        private Long productId;
+        private OrderStatus status;
+    }
+}
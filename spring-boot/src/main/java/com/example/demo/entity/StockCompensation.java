@@ -0,0 +1,62 @@
+package com.example.demo.entity;
+
+import com.example.demo.enums.StockCompensationStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * 庫存補償佇列實體
+ * 取消訂單時寫入，回補成功後標記為 APPLIED，資料列由 JdbcTemplate 批次寫入與更新
+ */
+@Entity
+@Table(name = "stock_compensation",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_stock_compensation_order_product", columnNames = {"order_id", "product_id"})
+    },
+    indexes = {
+        @Index(name = "idx_stock_compensation_status", columnList = "status, id")
+    }
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockCompensation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private StockCompensationStatus status = StockCompensationStatus.PENDING;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime appliedAt;
+}
@@ -42,7 +42,7 @@ public class User {
     @ElementCollection(targetClass = UserRole.class, fetch = FetchType.EAGER)
     @Enumerated(EnumType.STRING)
     @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
-    @Column(name = "role", length = 20)  // 增加列長度以避免截斷
+    @Column(name = "role", length = 20, nullable = false)  // 增加列長度以避免截斷
     @Builder.Default
     private Set<UserRole> roles = Set.of(UserRole.USER);  // 支援多角色，預設為前台使用者
 
@@ -64,10 +64,15 @@ public class User {
     private Boolean credentialsNonExpired = true;  // 密碼是否未過期
 
     // === 前台使用者專用欄位 ===
-    @Column(precision = 19, scale = 2)
+    // 點數只由累加與對帳的 UPDATE 語句寫入；整筆儲存用戶（登入、修改資料）時不寫回載入時的舊值，避免蓋掉同時發生的累加
+    @Column(precision = 19, scale = 2, insertable = false, updatable = false,
+            columnDefinition = "DECIMAL(19,2) DEFAULT 0.00")
     @Builder.Default
     private BigDecimal points = BigDecimal.ZERO;  // 點數餘額
 
+    @Column(name = "points_baseline", precision = 19, scale = 2, insertable = false, updatable = false)
+    private BigDecimal pointsBaseline;  // 第一筆點數帳本紀錄前的餘額，由累加點數的語句寫入
+
     private String phone;  // 手機號碼
 
     private LocalDateTime lastLoginAt;  // 最後登入時間
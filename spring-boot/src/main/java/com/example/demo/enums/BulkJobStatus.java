@@ -0,0 +1,10 @@
+package com.example.demo.enums;
+
+/**
+ * 批次作業狀態枚舉
+ */
+public enum BulkJobStatus {
+    RUNNING,    // 執行中
+    COMPLETED,  // 已完成
+    FAILED      // 執行失敗（已提交的批次不會回滾）
+}
@@ -0,0 +1,29 @@
+package com.example.demo.enums;
+
+import lombok.Getter;
+
+/**
+ * 批次用戶管理動作枚舉
+ */
+@Getter
+public enum BulkUserAction {
+    ENABLE("啟用"),
+    DISABLE("停用"),
+    DELETE("軟刪除"),
+    RESTORE("恢復"),
+    ADD_ROLE("添加角色"),
+    REMOVE_ROLE("移除角色");
+
+    private final String description;
+
+    BulkUserAction(String description) {
+        this.description = description;
+    }
+
+    /**
+     * 是否為角色異動，需要同時指定角色
+     */
+    public boolean requiresRole() {
+        return this == ADD_ROLE || this == REMOVE_ROLE;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.enums;
+
+import lombok.Getter;
+
+/**
+ * 購物車批次操作類型枚舉
+ */
+@Getter
+public enum CartOperationType {
+    ADD("添加商品"),
+    UPDATE("更新數量"),
+    TOGGLE("切換勾選"),
+    REMOVE("刪除項目");
+
+    private final String description;
+
+    CartOperationType(String description) {
+        this.description = description;
+    }
+}
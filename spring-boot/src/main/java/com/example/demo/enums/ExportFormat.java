@@ -0,0 +1,20 @@
+package com.example.demo.enums;
+
+import lombok.Getter;
+
+/**
+ * 匯出／匯入檔案格式枚舉
+ */
+@Getter
+public enum ExportFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+}
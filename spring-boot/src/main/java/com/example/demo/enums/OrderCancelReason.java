@@ -0,0 +1,19 @@
+package com.example.demo.enums;
+
+import lombok.Getter;
+
+/**
+ * 訂單取消原因枚舉
+ */
+@Getter
+public enum OrderCancelReason {
+    USER("用戶取消"),
+    ADMIN("管理員取消"),
+    EXPIRED("逾期未處理");
+
+    private final String description;
+
+    OrderCancelReason(String description) {
+        this.description = description;
+    }
+}
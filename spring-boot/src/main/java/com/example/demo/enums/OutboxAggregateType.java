@@ -0,0 +1,18 @@
+package com.example.demo.enums;
+
+import lombok.Getter;
+
+/**
+ * 外寄箱事件聚合類型枚舉
+ */
+@Getter
+public enum OutboxAggregateType {
+    ORDER("訂單"),
+    PRODUCT("商品");
+
+    private final String description;
+
+    OutboxAggregateType(String description) {
+        this.description = description;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demo.enums;
+
+import lombok.Getter;
+
+/**
+ * 外寄箱事件類型枚舉
+ */
+@Getter
+public enum OutboxEventType {
+    ORDER_CREATED("訂單成立"),
+    ORDER_CANCELLED("訂單取消"),
+    STOCK_CHANGED("庫存異動");
+
+    private final String description;
+
+    OutboxEventType(String description) {
+        this.description = description;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demo.enums;
+
+import lombok.Getter;
+
+/**
+ * 點數帳本異動類型枚舉
+ */
+@Getter
+public enum PointsEntryType {
+    EARN("訂單回饋"),
+    REVOKE("取消收回"),
+    ADJUST("人工調整");
+
+    private final String description;
+
+    PointsEntryType(String description) {
+        this.description = description;
+    }
+}
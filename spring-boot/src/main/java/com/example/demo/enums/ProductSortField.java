@@ -0,0 +1,38 @@
+package com.example.demo.enums;
+
+import com.example.demo.exception.CustomException;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * 後台商品列表可排序欄位
+ * 每個欄位都有 (deleted_at, 欄位, id) 複合索引，同值時以 id 排序，排序與 keyset 分頁都不需檔案排序
+ */
+@Getter
+public enum ProductSortField {
+    ID("id"),
+    NAME("name"),
+    PRICE("price"),
+    CREATED_AT("createdAt"),
+    START_AT("startAt");
+
+    private final String property;
+
+    ProductSortField(String property) {
+        this.property = property;
+    }
+
+    /**
+     * 依實體屬性名稱解析
+     * @throws CustomException 不在可排序欄位中
+     */
+    public static ProductSortField fromProperty(String property) {
+        return Arrays.stream(values())
+                .filter(field -> field.property.equals(property))
+                .findFirst()
+                .orElseThrow(() -> new CustomException("不支援的排序欄位: " + property + "，可用: " +
+                        Arrays.stream(values()).map(ProductSortField::getProperty).collect(Collectors.joining(", "))));
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demo.enums;
+
+import lombok.Getter;
+
+/**
+ * 庫存補償狀態枚舉
+ */
+@Getter
+public enum StockCompensationStatus {
+    PENDING("待回補"),
+    APPLIED("已回補"),
+    FAILED("無法回補");
+
+    private final String description;
+
+    StockCompensationStatus(String description) {
+        this.description = description;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.demo.event;
+
+/**
+ * 購物車內容異動事件
+ * 於遞增版本號並重新計算項目數後發布，交易提交後更新購物車數量快取
+ * @param userId 購物車所屬用戶ID
+ * @param version 異動後的版本號
+ * @param itemCount 異動後的項目數
+ */
+public record CartChangedEvent(Long userId, Long version, Integer itemCount) {
+}
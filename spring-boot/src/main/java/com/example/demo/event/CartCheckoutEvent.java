@@ -0,0 +1,9 @@
+package com.example.demo.event;
+
+/**
+ * 購物車結帳事件
+ * 於建立訂單、讀取購物車之前發布，讓記憶體購物車先寫回資料庫，並在交易結束後捨棄快取
+ * @param userId 結帳的用戶ID
+ */
+public record CartCheckoutEvent(Long userId) {
+}
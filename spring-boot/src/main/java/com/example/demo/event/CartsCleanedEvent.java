@@ -0,0 +1,11 @@
+package com.example.demo.event;
+
+import java.util.Collection;
+
+/**
+ * 購物車清理事件
+ * 清理排程刪除閒置購物車後發布，供記憶體購物車與項目數快取捨棄快取
+ * @param userIds 購物車被清理的用戶ID
+ */
+public record CartsCleanedEvent(Collection<Long> userIds) {
+}
@@ -0,0 +1,11 @@
+package com.example.demo.event;
+
+import java.util.Collection;
+
+/**
+ * 商品資料異動事件
+ * 於後台新增、修改、刪除商品或補償回補庫存後發布，供記憶體索引於交易提交後同步
+ * @param productIds 被異動的商品ID
+ */
+public record ProductChangedEvent(Collection<Long> productIds) {
+}
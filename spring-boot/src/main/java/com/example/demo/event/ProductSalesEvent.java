@@ -0,0 +1,41 @@
+package com.example.demo.event;
+
+import com.example.demo.entity.OrderItem;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 商品銷量異動事件
+ * 訂單成立時數量為正、訂單取消時為負，供熱銷排行與關聯商品於交易提交後累加
+ * @param orderId 訂單ID
+ * @param quantities 商品ID → 數量
+ * @param orderedAt 訂單成立時間，取消時沿用原訂單時間以抵銷當時累加的權重
+ */
+public record ProductSalesEvent(Long orderId, Map<Long, Integer> quantities, LocalDateTime orderedAt) {
+
+    public static ProductSalesEvent ordered(Long orderId, Collection<OrderItem> items, LocalDateTime orderedAt) {
+        return new ProductSalesEvent(orderId, sum(items, 1), orderedAt);
+    }
+
+    public static ProductSalesEvent cancelled(Long orderId, Collection<OrderItem> items, LocalDateTime orderedAt) {
+        return new ProductSalesEvent(orderId, sum(items, -1), orderedAt);
+    }
+
+    /**
+     * 是否為訂單取消（數量為負）
+     */
+    public boolean isCancellation() {
+        return quantities.values().stream().anyMatch(quantity -> quantity < 0);
+    }
+
+    private static Map<Long, Integer> sum(Collection<OrderItem> items, int sign) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (OrderItem item : items) {
+            quantities.merge(item.getProductId(), sign * item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.demo.event;
+
+import java.util.Collection;
+
+/**
+ * 用戶資料異動事件
+ * 於新增、修改、刪除、恢復用戶或異動角色後發布，供記憶體索引與快取同步
+ * @param userIds 被異動的用戶ID
+ */
+public record UserChangedEvent(Collection<Long> userIds) {
+}
@@ -0,0 +1,193 @@
+package com.example.demo.job;
+
+import com.example.demo.ranking.BestsellerRanking;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 熱銷排行快照排程
+ * bestseller_snapshot 為所有節點共用的快照，讀寫前先鎖定 job_checkpoint 中的 bestseller_snapshot 列，多個節點依序處理。
+ * 啟動完成後載入快照；沒有快照時改由每小時銷售彙總估算近期分數（以小時起點計算衰減）並寫入，其他節點直接載入。
+ * 之後每 interval-ms 將本節點上次合併後新增的銷量，與依快照時間衰減後的共用快照相加寫回，
+ * 再以合併結果取代本節點的分數；關閉前再合併一次。
+ * 載入失敗時記錄錯誤，由下次排程重試，載入完成前不寫入快照。
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "app.bestsellers.snapshot", name = "enabled", havingValue = "true")
+public class BestsellerSnapshotJob {
+
+    private static final String JOB_NAME = "bestseller_snapshot";
+    // 超過 10 個半衰期的銷量權重已不到千分之一
+    private static final int SEED_HALF_LIVES = 10;
+
+    private static final String INSERT_CHECKPOINT_SQL = "INSERT IGNORE INTO job_checkpoint (job_name) VALUES (:jobName)";
+    private static final String LOCK_CHECKPOINT_SQL = "SELECT job_name FROM job_checkpoint WHERE job_name = :jobName FOR UPDATE";
+    private static final String FINISH_CHECKPOINT_SQL =
+            "UPDATE job_checkpoint SET last_processed = :processed, total_processed = total_processed + :processed, " +
+            "last_finished_at = NOW() WHERE job_name = :jobName";
+    private static final String SELECT_SQL = "SELECT product_id, score, snapshot_at FROM bestseller_snapshot";
+    private static final String SEED_SQL =
+            "SELECT product_id, SUM(units * POW(0.5, TIMESTAMPDIFF(SECOND, bucket_start, :now) / :halfLifeSeconds)) AS score " +
+            "FROM sales_rollup_hourly WHERE product_id > 0 AND status <> 'CANCELLED' AND bucket_start >= :since " +
+            "GROUP BY product_id";
+    private static final String INSERT_SQL =
+            "INSERT INTO bestseller_snapshot (product_id, score, snapshot_at) VALUES (:productId, :score, :snapshotAt)";
+
+    private final BestsellerRanking ranking;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile boolean restored;
+
+    public BestsellerSnapshotJob(BestsellerRanking ranking,
+                                 NamedParameterJdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager) {
+        this.ranking = ranking;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        try {
+            restore();
+        } catch (RuntimeException e) {
+            log.error("載入熱銷排行快照失敗，將於下次排程重試", e);
+        }
+    }
+
+    /**
+     * 載入共用快照，沒有快照時由銷售彙總估算後寫入
+     */
+    public void restore() {
+        Map<Long, Double> scores = new HashMap<>();
+        long takenAt = transactionTemplate.execute(status -> {
+            lock();
+            Timestamp latest = read(scores);
+            if (latest != null) {
+                return latest.getTime();
+            }
+            long now = System.currentTimeMillis();
+            seedFromRollups(scores, now);
+            write(scores, now);
+            return now;
+        });
+        ranking.restore(scores, takenAt);
+        restored = true;
+        log.info("熱銷排行已從快照載入 - 商品數: {}, 快照時間: {}", scores.size(), new Timestamp(takenAt));
+    }
+
+    @Scheduled(fixedDelayString = "${app.bestsellers.snapshot.interval-ms:300000}",
+            initialDelayString = "${app.bestsellers.snapshot.interval-ms:300000}")
+    public void snapshot() {
+        if (!restored) {
+            restore();
+            return;
+        }
+        BestsellerRanking.Snapshot delta = ranking.drainPending();
+        Map<Long, Double> merged;
+        try {
+            merged = transactionTemplate.execute(status -> merge(delta));
+        } catch (RuntimeException e) {
+            ranking.returnPending(delta);
+            throw e;
+        }
+        ranking.replace(merged, delta.takenAtMillis());
+        log.debug("熱銷排行快照已合併 - 本節點異動商品數: {}, 商品數: {}", delta.scores().size(), merged.size());
+    }
+
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        if (!restored) {
+            return;
+        }
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            log.warn("關閉前寫入熱銷排行快照失敗", e);
+        }
+    }
+
+    /**
+     * 共用快照依快照時間衰減到 delta 的時間，加上本節點的銷量後寫回，移除低於 min-score 的商品
+     */
+    private Map<Long, Double> merge(BestsellerRanking.Snapshot delta) {
+        lock();
+        long now = delta.takenAtMillis();
+        double halfLifeMillis = ranking.getHalfLifeHours() * 3_600_000;
+        Map<Long, Double> scores = new HashMap<>(delta.scores());
+        jdbcTemplate.getJdbcTemplate().query(SELECT_SQL, rs -> {
+            double decay = Math.pow(0.5, (now - rs.getTimestamp("snapshot_at").getTime()) / halfLifeMillis);
+            scores.merge(rs.getLong("product_id"), rs.getDouble("score") * decay, Double::sum);
+        });
+        scores.values().removeIf(score -> score < ranking.getMinScore());
+        write(scores, now);
+        return scores;
+    }
+
+    private void lock() {
+        MapSqlParameterSource params = new MapSqlParameterSource("jobName", JOB_NAME);
+        jdbcTemplate.update(INSERT_CHECKPOINT_SQL, params);
+        jdbcTemplate.queryForObject(LOCK_CHECKPOINT_SQL, params, String.class);
+    }
+
+    /**
+     * @return 最新的快照時間，沒有快照時為 null
+     */
+    private Timestamp read(Map<Long, Double> scores) {
+        Timestamp[] takenAt = new Timestamp[1];
+        jdbcTemplate.getJdbcTemplate().query(SELECT_SQL, rs -> {
+            scores.put(rs.getLong("product_id"), rs.getDouble("score"));
+            Timestamp snapshotAt = rs.getTimestamp("snapshot_at");
+            if (takenAt[0] == null || snapshotAt.after(takenAt[0])) {
+                takenAt[0] = snapshotAt;
+            }
+        });
+        return takenAt[0];
+    }
+
+    private void write(Map<Long, Double> scores, long takenAtMillis) {
+        Timestamp snapshotAt = new Timestamp(takenAtMillis);
+        SqlParameterSource[] batch = scores.entrySet().stream()
+                .map(entry -> new MapSqlParameterSource("productId", entry.getKey())
+                        .addValue("score", entry.getValue())
+                        .addValue("snapshotAt", snapshotAt))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.getJdbcTemplate().update("DELETE FROM bestseller_snapshot");
+        if (batch.length > 0) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+        }
+        jdbcTemplate.update(FINISH_CHECKPOINT_SQL, new MapSqlParameterSource("jobName", JOB_NAME)
+                .addValue("processed", batch.length));
+    }
+
+    /**
+     * 沒有快照時（首次啟用）由每小時銷售彙總估算近期分數
+     */
+    private void seedFromRollups(Map<Long, Double> scores, long now) {
+        long halfLifeSeconds = Math.round(ranking.getHalfLifeHours() * 3600);
+        jdbcTemplate.query(SEED_SQL, new MapSqlParameterSource("now", new Timestamp(now))
+                        .addValue("halfLifeSeconds", halfLifeSeconds)
+                        .addValue("since", Timestamp.from(Instant.ofEpochMilli(now).minusSeconds(halfLifeSeconds * SEED_HALF_LIVES))),
+                rs -> {
+                    scores.put(rs.getLong("product_id"), rs.getDouble("score"));
+                });
+        log.info("熱銷排行沒有快照，已由銷售彙總估算 - 商品數: {}", scores.size());
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.demo.job;
+
+import com.example.demo.event.CartsCleanedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 閒置購物車清理排程
+ * 以購物車為單位判斷閒置：購物車的 updated_at 超過 ttl-days 未變動時，連同所有項目整個刪除；
+ * 仍在使用的購物車即使有很久以前加入的項目也不會被清理。購物車內容的每次異動都會遞增版本號並更新 updated_at。
+ *
+ * 依主鍵順序每次讀取 chunk-size 筆，每批為獨立的短交易，批次之間暫停 pause-ms，不長時間持有鎖。
+ * 進度寫入 job_checkpoint，中斷後下次執行從上次的主鍵繼續；每批先以 SELECT ... FOR UPDATE 鎖定檢查點，
+ * 多個節點同時執行時依序處理各批、共用同一個進度，其中一個節點完成整輪後其他節點隨即結束。
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "app.cart.cleanup", name = "enabled", havingValue = "true")
+public class CartCleanupJob {
+
+    private static final String PHASE = "cart_cleanup";
+
+    private static final String INSERT_CHECKPOINT_SQL = "INSERT IGNORE INTO job_checkpoint (job_name) VALUES (:phase)";
+    // 鎖定檢查點，並判斷本輪開始後是否已有其他節點完成整輪
+    private static final String LOCK_CHECKPOINT_SQL =
+            "SELECT last_id, COALESCE(last_finished_at >= :runStart, 0) AS finished " +
+            "FROM job_checkpoint WHERE job_name = :phase FOR UPDATE";
+    private static final String UPDATE_CHECKPOINT_SQL =
+            "UPDATE job_checkpoint SET last_id = :lastId, run_processed = run_processed + :deleted WHERE job_name = :phase";
+    private static final String FINISH_CHECKPOINT_SQL =
+            "UPDATE job_checkpoint SET last_id = 0, last_processed = run_processed, " +
+            "total_processed = total_processed + run_processed, run_processed = 0, " +
+            "last_finished_at = NOW() WHERE job_name = :phase";
+    private static final String SELECT_CARTS_SQL =
+            "SELECT id, updated_at < :cutoff AS idle FROM cart WHERE id > :lastId ORDER BY id LIMIT :limit";
+    // 鎖定後再次確認仍閒置，選出後又有異動的購物車由條件排除
+    private static final String LOCK_IDLE_CARTS_SQL =
+            "SELECT id, user_id FROM cart WHERE id IN (:ids) AND updated_at < :cutoff FOR UPDATE";
+    private static final String DELETE_ITEMS_SQL = "DELETE FROM cart_item WHERE cart_id IN (:ids)";
+    private static final String DELETE_CARTS_SQL = "DELETE FROM cart WHERE id IN (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.cart.cleanup.ttl-days:90}")
+    private long ttlDays;
+
+    @Value("${app.cart.cleanup.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.cart.cleanup.pause-ms:200}")
+    private long pauseMillis;
+
+    public CartCleanupJob(NamedParameterJdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Scheduled(cron = "${app.cart.cleanup.cron:0 0 4 * * *}")
+    public void cleanup() {
+        MapSqlParameterSource phaseParam = new MapSqlParameterSource("phase", PHASE);
+        jdbcTemplate.update(INSERT_CHECKPOINT_SQL, phaseParam);
+        // 以資料庫時間比較 last_finished_at，不受節點時鐘誤差影響
+        Timestamp runStart = jdbcTemplate.queryForObject("SELECT NOW()", phaseParam, Timestamp.class);
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(ttlDays));
+        long start = System.currentTimeMillis();
+
+        long deleted = 0;
+        int chunks = 0;
+        boolean completed = false;
+        while (true) {
+            ChunkResult chunk = transactionTemplate.execute(status -> deleteIdleCarts(runStart, cutoff));
+            if (chunk == null) {
+                completed = true;
+                break;
+            }
+            deleted += chunk.deleted();
+            chunks++;
+            if (!pause()) {
+                break;
+            }
+        }
+
+        log.info("購物車清理{} - 刪除購物車: {}, 批次: {}, 耗時: {} ms",
+                completed ? "完成" : "中斷", deleted, chunks, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 鎖定檢查點後處理下一批，刪除其中閒置的購物車與其項目，並在同一交易內推進檢查點
+     * @return 本批結果，整輪已完成時為 null
+     */
+    private ChunkResult deleteIdleCarts(Timestamp runStart, Timestamp cutoff) {
+        MapSqlParameterSource phaseParam = new MapSqlParameterSource("phase", PHASE).addValue("runStart", runStart);
+        Checkpoint checkpoint = jdbcTemplate.queryForObject(LOCK_CHECKPOINT_SQL, phaseParam,
+                (rs, rowNum) -> new Checkpoint(rs.getLong("last_id"), rs.getBoolean("finished")));
+        if (checkpoint.finished()) {
+            return null;
+        }
+
+        List<Candidate> rows = jdbcTemplate.query(SELECT_CARTS_SQL, chunkParams(checkpoint.lastId(), cutoff),
+                (rs, rowNum) -> new Candidate(rs.getLong("id"), rs.getBoolean("idle")));
+        if (rows.isEmpty()) {
+            jdbcTemplate.update(FINISH_CHECKPOINT_SQL, phaseParam);
+            return null;
+        }
+
+        List<Long> candidateIds = rows.stream().filter(Candidate::idle).map(Candidate::id).toList();
+        int deleted = 0;
+        if (!candidateIds.isEmpty()) {
+            List<Long> ids = new ArrayList<>();
+            List<Long> userIds = new ArrayList<>();
+            jdbcTemplate.query(LOCK_IDLE_CARTS_SQL,
+                    new MapSqlParameterSource("ids", candidateIds).addValue("cutoff", cutoff), rs -> {
+                        ids.add(rs.getLong("id"));
+                        userIds.add(rs.getLong("user_id"));
+                    });
+            if (!ids.isEmpty()) {
+                MapSqlParameterSource idParams = new MapSqlParameterSource("ids", ids);
+                jdbcTemplate.update(DELETE_ITEMS_SQL, idParams);
+                deleted = jdbcTemplate.update(DELETE_CARTS_SQL, idParams);
+                // 交易提交後捨棄項目數快取與記憶體購物車
+                eventPublisher.publishEvent(new CartsCleanedEvent(userIds));
+            }
+        }
+
+        long lastId = rows.get(rows.size() - 1).id();
+        jdbcTemplate.update(UPDATE_CHECKPOINT_SQL, new MapSqlParameterSource("phase", PHASE)
+                .addValue("lastId", lastId)
+                .addValue("deleted", deleted));
+        return new ChunkResult(lastId, deleted);
+    }
+
+    private MapSqlParameterSource chunkParams(long lastId, Timestamp cutoff) {
+        return new MapSqlParameterSource("lastId", lastId)
+                .addValue("cutoff", cutoff)
+                .addValue("limit", chunkSize);
+    }
+
+    /**
+     * 批次之間暫停，讓線上請求取得鎖
+     * @return 是否繼續執行（被中斷時為 false，保留檢查點）
+     */
+    private boolean pause() {
+        if (pauseMillis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private record Checkpoint(long lastId, boolean finished) {
+    }
+
+    private record Candidate(long id, boolean idle) {
+    }
+
+    private record ChunkResult(long lastId, int deleted) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.demo.job;
+
+import com.example.demo.service.backend.OrderService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * 逾期待處理訂單取消排程
+ * 建立超過 ttl-minutes 仍為 PENDING 的訂單依 (created_at, id) 順序每次鎖定 chunk-size 筆取消並回補庫存。
+ * 鎖定時使用 SKIP LOCKED，多個節點同時執行時各自處理不同的訂單；每批為獨立交易，某批失敗時結束本輪。
+ *
+ * PENDING 同時代表尚未付款與尚未由後台確認，沒有獨立的待付款狀態，因此預設關閉（app.orders.expiry.enabled=false）；
+ * 只有在所有 PENDING 訂單都應於 ttl-minutes 內付款或確認的部署才開啟。
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "app.orders.expiry", name = "enabled", havingValue = "true")
+public class OrderExpiryJob {
+
+    private final OrderService orderService;
+    private final OrderExpiryMetrics metrics;
+
+    @Value("${app.orders.expiry.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    @Value("${app.orders.expiry.chunk-size:200}")
+    private int chunkSize;
+
+    public OrderExpiryJob(OrderService orderService, OrderExpiryMetrics metrics) {
+        this.orderService = orderService;
+        this.metrics = metrics;
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.expiry.interval-ms:60000}")
+    public void expire() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        // 截止時間於本輪開始時固定，本輪執行期間才逾期的訂單留待下一輪
+        LocalDateTime cutoff = startedAt.minusMinutes(ttlMinutes);
+        long start = System.currentTimeMillis();
+        long expired = 0;
+        try {
+            int count;
+            do {
+                count = orderService.expirePendingOrders(cutoff, chunkSize);
+                expired += count;
+            } while (count == chunkSize);
+        } catch (RuntimeException e) {
+            log.warn("逾期訂單取消失敗，下次排程再試 - 本輪已取消: {}", expired, e);
+        }
+
+        long elapsed = System.currentTimeMillis() - start;
+        metrics.record(startedAt, expired, elapsed);
+        if (expired > 0) {
+            log.info("逾期訂單取消完成 - 取消: {}, 耗時: {} ms", expired, elapsed);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.demo.job;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 逾期訂單排程的執行統計（本節點）
+ * 由排程執行緒寫入、後台查詢讀取；積壓量與延遲由資料庫即時計算，不在此保存
+ */
+@Component
+public class OrderExpiryMetrics {
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong totalExpired = new AtomicLong();
+    private volatile LastRun lastRun;
+
+    /**
+     * 記錄一輪執行結果
+     */
+    public void record(LocalDateTime startedAt, long expired, long elapsedMillis) {
+        runs.incrementAndGet();
+        totalExpired.addAndGet(expired);
+        lastRun = new LastRun(startedAt, expired, elapsedMillis);
+    }
+
+    public long getRuns() {
+        return runs.get();
+    }
+
+    public long getTotalExpired() {
+        return totalExpired.get();
+    }
+
+    /**
+     * @return 最近一輪結果，尚未執行時為 null
+     */
+    public LastRun getLastRun() {
+        return lastRun;
+    }
+
+    /**
+     * @param expired 本輪取消的訂單數
+     * @param elapsedMillis 本輪耗時
+     */
+    public record LastRun(LocalDateTime startedAt, long expired, long elapsedMillis) {
+
+        /**
+         * 每秒取消的訂單數
+         */
+        public double throughput() {
+            return elapsedMillis <= 0 ? expired : expired * 1000.0 / elapsedMillis;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.demo.job;
+
+import com.example.demo.outbox.OutboxRelay;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 外寄箱轉送排程
+ * 連續送出直到某批不足 batch-size 筆；送出失敗的事件保留到下次排程重送，失敗達上限的事件移到死信表
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(prefix = "app.outbox", name = "enabled", havingValue = "true")
+public class OutboxRelayJob {
+
+    private final OutboxRelay outboxRelay;
+
+    @Scheduled(fixedDelayString = "${app.outbox.relay-interval-ms:1000}")
+    public void relay() {
+        long delivered = 0;
+        try {
+            int count;
+            do {
+                count = outboxRelay.relayBatch();
+                delivered += count;
+            } while (count == outboxRelay.getBatchSize());
+        } catch (RuntimeException e) {
+            log.warn("外寄箱轉送失敗，下次排程重試 - 本輪已送出: {}", delivered, e);
+            return;
+        }
+        if (delivered > 0) {
+            log.debug("外寄箱事件送出 - 筆數: {}", delivered);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.demo.job;
+
+import com.example.demo.service.PointsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 點數餘額對帳排程
+ * 依用戶ID區間分批，以 基準餘額 + 帳本加總 覆寫 users.points，修正因異常中斷等原因產生的偏差。
+ * 每批一個交易，先鎖定區間內有基準的用戶列再計算加總，不會覆寫並行下單剛寫入的點數。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(prefix = "app.points", name = "enabled", havingValue = "true")
+public class PointsReconciliationJob {
+
+    private final PointsService pointsService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.points.reconcile-chunk-size:1000}")
+    private long chunkSize;
+
+    @Scheduled(cron = "${app.points.reconcile-cron:0 30 3 * * *}")
+    public void reconcile() {
+        Long maxUserId = jdbcTemplate.queryForObject("SELECT MAX(user_id) FROM points_ledger", Long.class);
+        if (maxUserId == null) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        int corrected = 0;
+        for (long from = 1; from <= maxUserId; from += chunkSize) {
+            corrected += pointsService.reconcileBalances(from, Math.min(from + chunkSize - 1, maxUserId));
+        }
+        log.info("點數對帳完成 - 校正用戶數: {}, 耗時: {} ms", corrected, System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.demo.job;
+
+import com.example.demo.search.ProductFilterIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 商品篩選索引排程
+ * 啟動完成後與每日 rebuild-cron 全量重建；索引不可用時每 check-interval-ms 重試
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(prefix = "app.products.filter-index", name = "enabled", havingValue = "true")
+public class ProductFilterIndexJob {
+
+    private final ProductFilterIndex productFilterIndex;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.products.filter-index.rebuild-cron:0 15 4 * * *}")
+    public void rebuild() {
+        try {
+            productFilterIndex.rebuild();
+        } catch (RuntimeException e) {
+            log.warn("商品篩選索引建立失敗，後台商品列表改用資料庫查詢", e);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.products.filter-index.check-interval-ms:60000}",
+            fixedDelayString = "${app.products.filter-index.check-interval-ms:60000}")
+    public void rebuildIfNotReady() {
+        if (!productFilterIndex.isReady()) {
+            rebuild();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.demo.job;
+
+import com.example.demo.search.ProductSuggestIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 商品名稱提示索引重建排程
+ * 每 interval-ms 重建一次，更新瀏覽與銷量權重並移除已過販售期間的商品；失敗時保留原索引
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(prefix = "app.search.suggest.refresh", name = "enabled", havingValue = "true")
+public class ProductSuggestRefreshJob {
+
+    private final ProductSuggestIndex productSuggestIndex;
+
+    @Scheduled(initialDelayString = "${app.search.suggest.refresh.interval-ms:600000}",
+            fixedDelayString = "${app.search.suggest.refresh.interval-ms:600000}")
+    public void refresh() {
+        try {
+            productSuggestIndex.rebuild();
+        } catch (RuntimeException e) {
+            log.warn("商品名稱提示索引重建失敗，沿用原索引", e);
+        }
+    }
+}
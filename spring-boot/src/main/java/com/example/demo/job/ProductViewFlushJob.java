@@ -0,0 +1,39 @@
+package com.example.demo.job;
+
+import com.example.demo.stats.ProductViewCounter;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 商品瀏覽次數寫入排程
+ * 每 flush-interval-ms 寫入一次，關閉前再寫入一次；寫入失敗時增量保留到下次排程
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(prefix = "app.products.views", name = "enabled", havingValue = "true")
+public class ProductViewFlushJob {
+
+    private final ProductViewCounter productViewCounter;
+
+    @Scheduled(fixedDelayString = "${app.products.views.flush-interval-ms:10000}")
+    public void flush() {
+        try {
+            long views = productViewCounter.flush();
+            if (views > 0) {
+                log.debug("商品瀏覽次數寫入 - 次數: {}", views);
+            }
+        } catch (RuntimeException e) {
+            log.warn("商品瀏覽次數寫入失敗，下次排程重試 - 待寫入: {}", productViewCounter.pending(), e);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.demo.job;
+
+import com.example.demo.ranking.RelatedProductIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * 關聯商品排程
+ * 啟動完成後與每日 rebuild-cron 全量重建；其間每 flush-interval-ms 寫入新訂單影響的商品。
+ * 啟動時的重建掃描全部訂單商品，交給排程執行緒池執行，不延遲啟動也不佔用發布事件的主執行緒。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(prefix = "app.related", name = "enabled", havingValue = "true")
+public class RelatedProductsJob {
+
+    private final RelatedProductIndex relatedProductIndex;
+    private final TaskScheduler taskScheduler;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        taskScheduler.schedule(this::rebuild, Instant.now());
+    }
+
+    @Scheduled(cron = "${app.related.rebuild-cron:0 45 4 * * *}")
+    public void rebuild() {
+        try {
+            relatedProductIndex.rebuild();
+        } catch (RuntimeException e) {
+            log.error("關聯商品重建失敗，保留原結果", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.related.flush-interval-ms:10000}")
+    public void flush() {
+        try {
+            int updated = relatedProductIndex.flush();
+            if (updated > 0) {
+                log.debug("關聯商品更新 - 商品數: {}", updated);
+            }
+        } catch (RuntimeException e) {
+            log.warn("關聯商品寫入失敗，下次排程重試", e);
+        }
+    }
+}
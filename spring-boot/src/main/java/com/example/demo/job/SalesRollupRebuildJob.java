@@ -0,0 +1,47 @@
+package com.example.demo.job;
+
+import com.example.demo.service.SalesRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDate;
+
+/**
+ * 銷售彙總重建排程
+ * 彙總表為空時（剛建立彙總表）從最早的訂單日期回填全部歷史，
+ * 之後每次只重建最近 recent-days 天，修正增量累加期間可能產生的誤差
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(prefix = "app.reports.rebuild", name = "enabled", havingValue = "true")
+public class SalesRollupRebuildJob {
+
+    private final SalesRollupService salesRollupService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.reports.rebuild.recent-days:2}")
+    private int recentDays;
+
+    @Scheduled(cron = "${app.reports.rebuild.cron:0 15 4 * * *}")
+    public void rebuild() {
+        LocalDate today = LocalDate.now();
+        Boolean empty = jdbcTemplate.queryForObject(
+                "SELECT NOT EXISTS (SELECT 1 FROM sales_rollup_daily)", Boolean.class);
+        if (Boolean.TRUE.equals(empty)) {
+            Date oldest = jdbcTemplate.queryForObject("SELECT DATE(MIN(created_at)) FROM orders", Date.class);
+            if (oldest != null) {
+                log.info("銷售彙總為空，從 {} 開始回填", oldest);
+                salesRollupService.rebuild(oldest.toLocalDate(), today);
+            }
+            return;
+        }
+        salesRollupService.rebuild(today.minusDays(recentDays - 1L), today);
+    }
+}
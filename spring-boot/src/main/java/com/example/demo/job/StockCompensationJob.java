@@ -0,0 +1,44 @@
+package com.example.demo.job;
+
+import com.example.demo.service.StockCompensationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 庫存補償重試排程
+ * 訂單已取消但回補交易失敗時，補償紀錄維持 PENDING，由本排程依主鍵順序每次取 chunk-size 筆回補。
+ * 每批為獨立交易，以 SKIP LOCKED 略過線上取消流程正在處理的紀錄；某批失敗時結束本輪，下次再試。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(prefix = "app.orders.stock-compensation", name = "enabled", havingValue = "true")
+public class StockCompensationJob {
+
+    private final StockCompensationService stockCompensationService;
+
+    @Value("${app.orders.stock-compensation.chunk-size:200}")
+    private int chunkSize;
+
+    @Scheduled(fixedDelayString = "${app.orders.stock-compensation.interval-ms:60000}")
+    public void retry() {
+        long processed = 0;
+        try {
+            int count;
+            do {
+                count = stockCompensationService.retryPending(chunkSize);
+                processed += count;
+            } while (count == chunkSize);
+        } catch (RuntimeException e) {
+            log.warn("庫存補償重試失敗，下次排程再試 - 本輪已處理: {}", processed, e);
+            return;
+        }
+        if (processed > 0) {
+            log.info("庫存補償重試完成 - 處理紀錄: {}", processed);
+        }
+    }
+}
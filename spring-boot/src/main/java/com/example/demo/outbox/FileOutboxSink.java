@@ -0,0 +1,100 @@
+package com.example.demo.outbox;
+
+import com.example.demo.entity.OutboxEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * 將事件以每行一筆 JSON 附加到本機檔案，供本機開發與尚未串接下游時使用
+ * 檔案超過 max-bytes 時輪替：events.jsonl 改名為 events.jsonl.1，原有的 .1 依序往後移，
+ * 最多保留 max-files 個舊檔，更舊的刪除，佔用空間不超過約 (max-files + 1) × max-bytes。
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.outbox", name = "sink", havingValue = "file")
+public class FileOutboxSink implements OutboxSink {
+
+    private final ObjectMapper objectMapper;
+    private final Path path;
+    private final long maxBytes;
+    private final int maxFiles;
+
+    public FileOutboxSink(ObjectMapper objectMapper,
+                          @Value("${app.outbox.file-path:./outbox/events.jsonl}") String path,
+                          @Value("${app.outbox.file-max-bytes:104857600}") long maxBytes,
+                          @Value("${app.outbox.file-max-files:5}") int maxFiles) {
+        this.objectMapper = objectMapper;
+        this.path = Path.of(path);
+        this.maxBytes = maxBytes;
+        this.maxFiles = maxFiles;
+    }
+
+    @Override
+    public synchronized void deliver(List<OutboxEvent> events) {
+        StringBuilder lines = new StringBuilder();
+        for (OutboxEvent event : events) {
+            lines.append(toLine(event)).append('\n');
+        }
+        byte[] bytes = lines.toString().getBytes(StandardCharsets.UTF_8);
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            if (Files.exists(path) && Files.size(path) > 0 && Files.size(path) + bytes.length > maxBytes) {
+                rotate();
+            }
+            Files.write(path, bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("寫入外寄箱檔案失敗：" + path, e);
+        }
+    }
+
+    /**
+     * 目前的檔案改名為 .1，舊檔依序往後移，超過 max-files 的最舊檔案刪除
+     */
+    private void rotate() throws IOException {
+        Files.deleteIfExists(rotated(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            Path source = rotated(i);
+            if (Files.exists(source)) {
+                Files.move(source, rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (maxFiles > 0) {
+            Files.move(path, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.delete(path);
+        }
+    }
+
+    private Path rotated(int index) {
+        return path.resolveSibling(path.getFileName() + "." + index);
+    }
+
+    private String toLine(OutboxEvent event) {
+        try {
+            ObjectNode node = objectMapper.createObjectNode();
+            node.put("id", event.getId());
+            node.put("aggregateType", event.getAggregateType().name());
+            node.put("aggregateId", event.getAggregateId());
+            node.put("eventType", event.getEventType().name());
+            node.set("payload", objectMapper.readTree(event.getPayload()));
+            node.put("createdAt", String.valueOf(event.getCreatedAt()));
+            return objectMapper.writeValueAsString(node);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("事件內容格式錯誤：" + event.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.demo.outbox;
+
+import com.example.demo.entity.OutboxEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 將事件保留在記憶體中，供測試驗證送出的事件與順序
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.outbox", name = "sink", havingValue = "memory")
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final List<OutboxEvent> events = new ArrayList<>();
+
+    @Override
+    public synchronized void deliver(List<OutboxEvent> batch) {
+        events.addAll(batch);
+    }
+
+    /**
+     * 已送出的事件（依送出順序）
+     */
+    public synchronized List<OutboxEvent> getEvents() {
+        return List.copyOf(events);
+    }
+
+    public synchronized void clear() {
+        events.clear();
+    }
+}
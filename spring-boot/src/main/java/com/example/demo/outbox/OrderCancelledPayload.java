@@ -0,0 +1,9 @@
+package com.example.demo.outbox;
+
+import com.example.demo.enums.OrderCancelReason;
+
+/**
+ * 訂單取消事件內容
+ */
+public record OrderCancelledPayload(Long orderId, Long userId, OrderCancelReason reason) {
+}
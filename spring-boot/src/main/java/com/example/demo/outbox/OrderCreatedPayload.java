@@ -0,0 +1,14 @@
+package com.example.demo.outbox;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 訂單成立事件內容
+ */
+public record OrderCreatedPayload(Long orderId, String orderNumber, Long userId,
+                                  BigDecimal totalAmount, List<Item> items) {
+
+    public record Item(Long productId, Integer quantity, BigDecimal price) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.demo.outbox;
+
+import com.example.demo.enums.OutboxAggregateType;
+import com.example.demo.enums.OutboxEventType;
+
+/**
+ * 待寫入外寄箱的事件
+ * @param payload 事件內容，寫入時序列化為 JSON
+ */
+public record OutboxMessage(OutboxAggregateType aggregateType, Long aggregateId,
+                            OutboxEventType eventType, Object payload) {
+}
@@ -0,0 +1,148 @@
+package com.example.demo.outbox;
+
+import com.example.demo.entity.OutboxEvent;
+import com.example.demo.enums.OutboxAggregateType;
+import com.example.demo.enums.OutboxEventType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 外寄箱轉送
+ * 每批鎖定 batch-size 筆「該聚合最早的未送出事件」，送往所有 OutboxSink 後刪除，鎖定、送出與刪除在同一交易內。
+ * 只取各聚合最早的事件，且以 SKIP LOCKED 略過其他節點處理中的事件：某聚合的事件處理中或送出失敗時，
+ * 其後的事件仍被它擋住，不會被其他節點先送出，因此同一聚合的事件嚴格依 id 順序送出。
+ *
+ * 整批送出失敗時改為逐筆送出，只有失敗的事件累加失敗次數，同批其他聚合的事件照常送出並刪除。
+ * 失敗達 max-attempts 次的事件移到 outbox_dead_letters，不再擋住同一聚合的後續事件。
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    // 子查詢為一般讀取，不受 FOR UPDATE 影響；其他節點鎖定中的事件仍存在，會擋住同聚合的後續事件
+    private static final String SELECT_HEADS_SQL =
+            "SELECT id, aggregate_type, aggregate_id, event_type, payload, attempts, created_at FROM outbox_events e " +
+            "WHERE NOT EXISTS (SELECT 1 FROM outbox_events p WHERE p.aggregate_type = e.aggregate_type " +
+            "AND p.aggregate_id = e.aggregate_id AND p.id < e.id) " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED";
+    private static final String DELETE_SQL = "DELETE FROM outbox_events WHERE id IN (:ids)";
+    private static final String RECORD_FAILURE_SQL =
+            "UPDATE outbox_events SET attempts = attempts + 1, last_error = :error WHERE id = :id";
+    private static final String MOVE_TO_DEAD_LETTERS_SQL =
+            "INSERT INTO outbox_dead_letters (id, aggregate_type, aggregate_id, event_type, payload, attempts, last_error, created_at) " +
+            "SELECT id, aggregate_type, aggregate_id, event_type, payload, attempts, last_error, created_at " +
+            "FROM outbox_events WHERE id IN (:ids)";
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final List<OutboxSink> sinks;
+    private final int batchSize;
+    private final int maxAttempts;
+
+    public OutboxRelay(NamedParameterJdbcTemplate jdbcTemplate,
+                       PlatformTransactionManager transactionManager,
+                       List<OutboxSink> sinks,
+                       @Value("${app.outbox.batch-size:100}") int batchSize,
+                       @Value("${app.outbox.max-attempts:10}") int maxAttempts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sinks = sinks;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        if (sinks.isEmpty()) {
+            log.warn("未設定外寄箱出口（app.outbox.sink），事件將保留在 outbox_events 不送出");
+        }
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * 送出一批事件
+     * @return 送出的事件數，沒有可送出的事件或未設定出口時為 0；送出失敗的事件不計入，已累加其失敗次數
+     */
+    public int relayBatch() {
+        if (sinks.isEmpty()) {
+            return 0;
+        }
+
+        Integer delivered = transactionTemplate.execute(status -> {
+            List<OutboxEvent> events = jdbcTemplate.query(SELECT_HEADS_SQL,
+                    new MapSqlParameterSource("limit", batchSize), (rs, rowNum) -> OutboxEvent.builder()
+                            .id(rs.getLong("id"))
+                            .aggregateType(OutboxAggregateType.valueOf(rs.getString("aggregate_type")))
+                            .aggregateId(rs.getLong("aggregate_id"))
+                            .eventType(OutboxEventType.valueOf(rs.getString("event_type")))
+                            .payload(rs.getString("payload"))
+                            .attempts(rs.getInt("attempts"))
+                            .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                            .build());
+            if (events.isEmpty()) {
+                return 0;
+            }
+
+            List<Long> deliveredIds = new ArrayList<>();
+            try {
+                deliver(events);
+                events.forEach(event -> deliveredIds.add(event.getId()));
+            } catch (RuntimeException batchError) {
+                // 各事件屬於不同聚合，逐筆送出時彼此的順序不受影響
+                log.warn("外寄箱整批送出失敗，改為逐筆送出 - 筆數: {}", events.size(), batchError);
+                List<Long> dead = new ArrayList<>();
+                for (OutboxEvent event : events) {
+                    try {
+                        deliver(List.of(event));
+                        deliveredIds.add(event.getId());
+                    } catch (RuntimeException e) {
+                        recordFailure(event.getId(), e);
+                        if (event.getAttempts() + 1 >= maxAttempts) {
+                            dead.add(event.getId());
+                        }
+                    }
+                }
+                moveToDeadLetters(dead);
+            }
+            if (!deliveredIds.isEmpty()) {
+                jdbcTemplate.update(DELETE_SQL, new MapSqlParameterSource("ids", deliveredIds));
+            }
+            return deliveredIds.size();
+        });
+        return delivered == null ? 0 : delivered;
+    }
+
+    private void deliver(List<OutboxEvent> events) {
+        for (OutboxSink sink : sinks) {
+            sink.deliver(events);
+        }
+    }
+
+    private void recordFailure(Long id, RuntimeException cause) {
+        String error = String.valueOf(cause.getMessage());
+        String truncated = error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        jdbcTemplate.update(RECORD_FAILURE_SQL, new MapSqlParameterSource("id", id).addValue("error", truncated));
+    }
+
+    /**
+     * 將失敗達上限的事件移到死信表，同一聚合的下一筆事件在下一批成為最早的事件
+     */
+    private void moveToDeadLetters(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids);
+        jdbcTemplate.update(MOVE_TO_DEAD_LETTERS_SQL, params);
+        jdbcTemplate.update(DELETE_SQL, params);
+        log.error("外寄箱事件送出失敗達 {} 次，移到 outbox_dead_letters - 事件: {}", maxAttempts, ids);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.demo.outbox;
+
+import com.example.demo.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * 外寄箱事件的下游出口
+ * 由 app.outbox.sink 選擇實作；送出為至少一次，下游須以事件 id 去重
+ */
+public interface OutboxSink {
+
+    /**
+     * 依 id 順序送出一批事件，丟出例外時整批視為未送出，轉送端會改為逐筆重送
+     */
+    void deliver(List<OutboxEvent> events);
+}
@@ -0,0 +1,9 @@
+package com.example.demo.outbox;
+
+/**
+ * 庫存異動事件內容
+ * @param delta 異動數量，扣減為負數
+ * @param orderId 來源訂單ID
+ */
+public record StockChangedPayload(Long productId, Integer delta, Long orderId) {
+}
@@ -0,0 +1,107 @@
+package com.example.demo.ranking;
+
+import com.example.demo.dto.response.frontend.ProductResponse;
+import com.example.demo.entity.Product;
+import com.example.demo.enums.ProductStatus;
+import com.example.demo.event.ProductChangedEvent;
+import com.example.demo.mapper.ProductMapper;
+import com.example.demo.repository.ProductRepository;
+import com.example.demo.util.BoundedTtlCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 熱銷排行的商品快取
+ * 排行中的商品很少變動，保留已轉換的 ProductResponse 與上架條件，每次請求只查詢快取中沒有的商品；
+ * 查無的商品也記錄下來，避免已刪除的商品每次都查詢。
+ *
+ * 本節點的商品異動提交後移除對應項目；其他節點的異動與結帳扣減的庫存不會通知本節點，
+ * 項目於 app.bestsellers.product-cache-ttl-seconds 後過期，以此限制顯示舊資料的時間。
+ */
+@Component
+public class BestsellerProductCache {
+
+    private static final CachedProduct MISSING = new CachedProduct(null, null, null, null, true);
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final BoundedTtlCache<Long, CachedProduct> products;
+
+    public BestsellerProductCache(ProductRepository productRepository,
+                                  ProductMapper productMapper,
+                                  @Value("${app.bestsellers.top-size:100}") int topSize,
+                                  @Value("${app.bestsellers.product-cache-ttl-seconds:30}") long ttlSeconds) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        // 前 K 名以外的商品隨名次變動進出，保留兩倍空間減少重新查詢
+        this.products = new BoundedTtlCache<>(topSize * 2, Duration.ofSeconds(ttlSeconds));
+    }
+
+    /**
+     * 取得商品，快取中沒有的以一次查詢載入
+     * @return 商品ID → 快取項目，每個 productIds 都有對應的項目
+     */
+    public Map<Long, CachedProduct> getAll(List<Long> productIds) {
+        Map<Long, CachedProduct> result = new HashMap<>(Math.max(16, productIds.size() * 4 / 3));
+        List<Long> missing = new ArrayList<>();
+        for (Long productId : productIds) {
+            CachedProduct cached = products.get(productId);
+            if (cached == null) {
+                missing.add(productId);
+            } else {
+                result.put(productId, cached);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        for (Product product : productRepository.findAllById(missing)) {
+            CachedProduct cached = new CachedProduct(productMapper.toProductResponse(product), product.getStatus(),
+                    product.getStartAt(), product.getEndAt(), product.getDeletedAt() != null);
+            products.put(product.getId(), cached);
+            result.put(product.getId(), cached);
+        }
+        for (Long productId : missing) {
+            if (!result.containsKey(productId)) {
+                products.put(productId, MISSING);
+                result.put(productId, MISSING);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 商品異動提交後移除快取，下次請求重新載入
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        event.productIds().forEach(products::remove);
+    }
+
+    /**
+     * 快取的商品
+     * @param response 前台商品資料，商品不存在時為 null
+     */
+    public record CachedProduct(ProductResponse response, ProductStatus status,
+                                LocalDateTime startAt, LocalDateTime endAt, boolean deleted) {
+
+        /**
+         * 是否已上架且在販售期間內
+         */
+        public boolean isAvailable(LocalDateTime now) {
+            return response != null && !deleted && status == ProductStatus.OPEN
+                    && startAt != null && endAt != null
+                    && !now.isBefore(startAt) && !now.isAfter(endAt);
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.example.demo.ranking;
+
+import com.example.demo.event.ProductSalesEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * 熱銷商品排行
+ * 每個商品的銷量以指數衰減累計，半衰期為 app.bestsellers.half-life-hours。
+ *
+ * 分數以「前推衰減」儲存：銷量乘上 e^(λ(t - origin)) 後累加，之後不需逐筆衰減，
+ * 所有商品同樣比例縮小不影響排序，讀取時再乘上 e^(-λ(now - origin)) 換算為目前分數；
+ * 指數過大時整體縮放並將 origin 移到現在，同時移除分數低於 min-score 的商品。
+ *
+ * 前 top-size 名以不可變陣列保存，讀取端不需加鎖，取前 K 名的成本為 O(K)；
+ * 寫入時只合併前 K 名與本次異動的商品，前 K 名中有商品分數下降（取消訂單）時才以最小堆積全量重算。
+ *
+ * 每個節點只收到自己成立的訂單，另記錄上次合併快照後本節點新增的銷量（pending），
+ * 由快照排程取出合併到共用快照，再以合併結果取代本節點的分數，各節點的排行因此收斂為全叢集的銷量。
+ */
+@Component
+public class BestsellerRanking {
+
+    // e^40 約 2.4e17，仍在 double 精度可累加的範圍內
+    private static final double RESCALE_EXPONENT = 40;
+
+    private final double halfLifeHours;
+    private final double decayPerMilli;
+    private final int topSize;
+    private final double minScore;
+
+    private LongDoubleHashMap weights = new LongDoubleHashMap();
+    // 上次合併快照後本節點記錄的銷量，與 weights 同樣以前推權重保存，可為負值（取消訂單）
+    private final LongDoubleHashMap pending = new LongDoubleHashMap();
+    private long originMillis;
+    private volatile Top top;
+
+    public BestsellerRanking(@Value("${app.bestsellers.half-life-hours:24}") double halfLifeHours,
+                             @Value("${app.bestsellers.top-size:100}") int topSize,
+                             @Value("${app.bestsellers.min-score:0.01}") double minScore) {
+        this.halfLifeHours = halfLifeHours;
+        this.decayPerMilli = Math.log(2) / (halfLifeHours * 3_600_000);
+        this.topSize = topSize;
+        this.minScore = minScore;
+        this.originMillis = System.currentTimeMillis();
+        this.top = new Top(new long[0], new double[0], originMillis);
+    }
+
+    public double getHalfLifeHours() {
+        return halfLifeHours;
+    }
+
+    public int getTopSize() {
+        return topSize;
+    }
+
+    public double getMinScore() {
+        return minScore;
+    }
+
+    /**
+     * 訂單成立或取消提交後累加銷量，交易回滾時不計入
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductSales(ProductSalesEvent event) {
+        LocalDateTime orderedAt = event.orderedAt() != null ? event.orderedAt() : LocalDateTime.now();
+        record(event.quantities(), toMillis(orderedAt));
+    }
+
+    /**
+     * 累加銷量，數量為負時扣回（以相同的 soldAtMillis 可完全抵銷）
+     */
+    public synchronized void record(Map<Long, Integer> quantities, long soldAtMillis) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        rescaleIfNeeded(now);
+
+        Top current = top;
+        double weight = Math.exp(decayPerMilli * (soldAtMillis - originMillis));
+        double minWeight = minScore * Math.exp(decayPerMilli * (now - originMillis));
+        boolean topDecreased = false;
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            long productId = entry.getKey();
+            double value = weights.add(productId, entry.getValue() * weight);
+            pending.add(productId, entry.getValue() * weight);
+            if (value < minWeight) {
+                weights.remove(productId);
+            }
+            if (entry.getValue() < 0 && current.indexOf(productId) >= 0) {
+                topDecreased = true;
+            }
+        }
+
+        // 前 K 名未滿時已包含所有商品，分數下降也不會有名單外的商品遞補
+        if (topDecreased && current.ids.length == topSize) {
+            top = rebuildTop();
+        } else {
+            top = mergeTop(current, quantities.keySet());
+        }
+    }
+
+    /**
+     * 目前的前 limit 名
+     */
+    public List<Ranked> top(int limit) {
+        Top current = top;
+        double factor = Math.exp(-decayPerMilli * (System.currentTimeMillis() - current.originMillis));
+        int count = Math.min(limit, current.ids.length);
+        List<Ranked> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(new Ranked(current.ids[i], current.values[i] * factor));
+        }
+        return result;
+    }
+
+    /**
+     * 排行中的商品數
+     */
+    public synchronized int size() {
+        return weights.size();
+    }
+
+    /**
+     * 取得所有商品目前的分數，供寫入快照
+     */
+    public synchronized Snapshot snapshot() {
+        long now = System.currentTimeMillis();
+        rescaleIfNeeded(now);
+        double factor = Math.exp(-decayPerMilli * (now - originMillis));
+        Map<Long, Double> scores = new HashMap<>(Math.max(16, weights.size() * 4 / 3));
+        weights.forEach((productId, weight) -> {
+            double score = weight * factor;
+            if (score >= minScore) {
+                scores.put(productId, score);
+            }
+        });
+        return new Snapshot(scores, now);
+    }
+
+    /**
+     * 載入快照：分數依快照時間衰減後，累加到啟動後已記錄的銷量上
+     */
+    public synchronized void restore(Map<Long, Double> scores, long takenAtMillis) {
+        rescaleIfNeeded(System.currentTimeMillis());
+        double weight = Math.exp(decayPerMilli * (takenAtMillis - originMillis));
+        scores.forEach((productId, score) -> weights.add(productId, score * weight));
+        top = rebuildTop();
+    }
+
+    /**
+     * 取出上次合併後本節點記錄的銷量（換算為目前分數，可為負值），並重新累計
+     */
+    public synchronized Snapshot drainPending() {
+        long now = System.currentTimeMillis();
+        rescaleIfNeeded(now);
+        double factor = Math.exp(-decayPerMilli * (now - originMillis));
+        Map<Long, Double> scores = new HashMap<>(Math.max(16, pending.size() * 4 / 3));
+        pending.forEach((productId, weight) -> scores.put(productId, weight * factor));
+        pending.clear();
+        return new Snapshot(scores, now);
+    }
+
+    /**
+     * 合併快照失敗時放回取出的銷量，下次再合併
+     */
+    public synchronized void returnPending(Snapshot drained) {
+        rescaleIfNeeded(System.currentTimeMillis());
+        double weight = Math.exp(decayPerMilli * (drained.takenAtMillis() - originMillis));
+        drained.scores().forEach((productId, score) -> pending.add(productId, score * weight));
+    }
+
+    /**
+     * 以合併後的全叢集分數取代目前分數，取出後新記錄的銷量仍累加在上面
+     */
+    public synchronized void replace(Map<Long, Double> scores, long takenAtMillis) {
+        long now = System.currentTimeMillis();
+        rescaleIfNeeded(now);
+        double weight = Math.exp(decayPerMilli * (takenAtMillis - originMillis));
+        LongDoubleHashMap replaced = new LongDoubleHashMap();
+        scores.forEach((productId, score) -> replaced.add(productId, score * weight));
+        pending.forEach(replaced::add);
+        replaced.removeBelow(minScore * Math.exp(decayPerMilli * (now - originMillis)));
+        weights = replaced;
+        top = rebuildTop();
+    }
+
+    /**
+     * 指數超過上限時將所有權重換算到現在，並移除分數過低的商品
+     */
+    private void rescaleIfNeeded(long now) {
+        double exponent = decayPerMilli * (now - originMillis);
+        if (exponent < RESCALE_EXPONENT) {
+            return;
+        }
+        weights.scale(Math.exp(-exponent));
+        weights.removeBelow(minScore);
+        pending.scale(Math.exp(-exponent));
+        originMillis = now;
+        top = rebuildTop();
+    }
+
+    /**
+     * 原前 K 名與本次異動的商品合併排序，名單外未異動的商品分數不高於原第 K 名，不需重新比較
+     */
+    private Top mergeTop(Top current, Iterable<Long> changedIds) {
+        List<Ranked> candidates = new ArrayList<>(current.ids.length + 8);
+        for (long productId : current.ids) {
+            if (weights.containsKey(productId)) {
+                candidates.add(new Ranked(productId, weights.get(productId)));
+            }
+        }
+        for (Long productId : changedIds) {
+            if (current.indexOf(productId) < 0 && weights.containsKey(productId)) {
+                candidates.add(new Ranked(productId, weights.get(productId)));
+            }
+        }
+        candidates.sort(Ranked.DESCENDING);
+        return toTop(candidates.subList(0, Math.min(topSize, candidates.size())));
+    }
+
+    /**
+     * 以大小為 K 的最小堆積掃描所有商品，O(n log K)
+     */
+    private Top rebuildTop() {
+        PriorityQueue<Ranked> heap = new PriorityQueue<>(topSize + 1, Ranked.DESCENDING.reversed());
+        weights.forEach((productId, weight) -> {
+            if (heap.size() < topSize) {
+                heap.add(new Ranked(productId, weight));
+            } else if (Ranked.DESCENDING.compare(new Ranked(productId, weight), heap.peek()) < 0) {
+                heap.poll();
+                heap.add(new Ranked(productId, weight));
+            }
+        });
+        List<Ranked> ranked = new ArrayList<>(heap);
+        ranked.sort(Ranked.DESCENDING);
+        return toTop(ranked);
+    }
+
+    private Top toTop(List<Ranked> ranked) {
+        long[] ids = new long[ranked.size()];
+        double[] values = new double[ranked.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = ranked.get(i).productId();
+            values[i] = ranked.get(i).score();
+        }
+        return new Top(ids, values, originMillis);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * 排名項目，分數相同時商品ID小的在前
+     */
+    public record Ranked(long productId, double score) {
+
+        private static final Comparator<Ranked> DESCENDING =
+                Comparator.comparingDouble(Ranked::score).reversed().thenComparingLong(Ranked::productId);
+    }
+
+    /**
+     * 分數快照
+     * @param scores 商品ID → 快照時的分數
+     * @param takenAtMillis 快照時間
+     */
+    public record Snapshot(Map<Long, Double> scores, long takenAtMillis) {
+    }
+
+    /**
+     * 前 K 名，values 為相對於 originMillis 的前推權重
+     */
+    private record Top(long[] ids, double[] values, long originMillis) {
+
+        private int indexOf(long productId) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == productId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
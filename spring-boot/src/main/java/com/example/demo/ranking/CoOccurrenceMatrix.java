@@ -0,0 +1,125 @@
+package com.example.demo.ranking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * 商品共同購買次數的稀疏矩陣
+ * 每個商品一列，列為「另一商品ID → 同時出現在幾張訂單」的原生雜湊表，兩個方向各存一份，
+ * 取某商品的鄰近商品時只需掃描該列。
+ *
+ * 儲存的組合數超過 maxPairs 時，先移除次數低於 minSupport 的組合（只出現過一次的組合佔大多數），
+ * 仍超過 3/4 時逐次提高門檻；被移除的組合之後從 0 重新累計，次數因此可能略為偏低，由全量重建修正。
+ * 非執行緒安全，由呼叫端同步。
+ */
+final class CoOccurrenceMatrix {
+
+    private static final Comparator<Neighbor> DESCENDING =
+            Comparator.comparingLong(Neighbor::count).reversed().thenComparingLong(Neighbor::productId);
+
+    private final int minSupport;
+    private final long maxPairs;
+    private final Map<Long, LongDoubleHashMap> rows = new HashMap<>();
+    private long pairs;
+
+    CoOccurrenceMatrix(int minSupport, long maxPairs) {
+        this.minSupport = minSupport;
+        this.maxPairs = maxPairs;
+    }
+
+    /**
+     * 累加一張訂單的商品組合，delta 為 -1 時扣回（訂單取消）
+     * @param productIds 訂單中的商品ID，重複的會先去除
+     */
+    void add(long[] productIds, int delta) {
+        long[] ids = Arrays.stream(productIds).distinct().toArray();
+        for (int i = 0; i < ids.length; i++) {
+            for (int j = i + 1; j < ids.length; j++) {
+                addOneWay(ids[i], ids[j], delta);
+                addOneWay(ids[j], ids[i], delta);
+            }
+        }
+        if (pairs > maxPairs) {
+            prune();
+        }
+    }
+
+    /**
+     * 共同購買次數達 minSupport 的前 n 個商品，次數相同時商品ID小的在前
+     */
+    List<Neighbor> topNeighbors(long productId, int n) {
+        LongDoubleHashMap row = rows.get(productId);
+        if (row == null) {
+            return List.of();
+        }
+        PriorityQueue<Neighbor> heap = new PriorityQueue<>(n + 1, DESCENDING.reversed());
+        row.forEach((otherId, count) -> {
+            if (count < minSupport) {
+                return;
+            }
+            Neighbor neighbor = new Neighbor(otherId, (long) count);
+            if (heap.size() < n) {
+                heap.add(neighbor);
+            } else if (DESCENDING.compare(neighbor, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(neighbor);
+            }
+        });
+        List<Neighbor> result = new ArrayList<>(heap);
+        result.sort(DESCENDING);
+        return result;
+    }
+
+    long count(long productId, long otherId) {
+        LongDoubleHashMap row = rows.get(productId);
+        return row == null ? 0 : (long) row.get(otherId);
+    }
+
+    /**
+     * 有共同購買紀錄的商品ID
+     */
+    long[] productIds() {
+        return rows.keySet().stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * 儲存的組合數（單向）
+     */
+    long pairs() {
+        return pairs;
+    }
+
+    private void addOneWay(long productId, long otherId, int delta) {
+        LongDoubleHashMap row = rows.computeIfAbsent(productId, id -> new LongDoubleHashMap());
+        int before = row.size();
+        if (row.add(otherId, delta) <= 0) {
+            row.remove(otherId);
+        }
+        pairs += row.size() - before;
+        if (row.size() == 0) {
+            rows.remove(productId);
+        }
+    }
+
+    private void prune() {
+        double threshold = minSupport;
+        while (pairs > maxPairs * 3 / 4) {
+            double below = threshold;
+            rows.values().forEach(row -> pairs -= row.removeBelow(below));
+            rows.values().removeIf(row -> row.size() == 0);
+            threshold++;
+        }
+    }
+
+    /**
+     * 鄰近商品
+     * @param count 共同購買的訂單數
+     */
+    record Neighbor(long productId, long count) {
+    }
+}
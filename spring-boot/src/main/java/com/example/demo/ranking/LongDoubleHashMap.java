@@ -0,0 +1,170 @@
+package com.example.demo.ranking;
+
+/**
+ * long → double 雜湊表
+ * 開放定址、線性探測，鍵與值存於原生陣列，不為每個商品建立 Long/Double 物件；
+ * 刪除時將後續同一探測鏈的項目往前移，不留墓碑。非執行緒安全，由呼叫端同步。
+ */
+final class LongDoubleHashMap {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private double[] values;
+    private boolean[] used;
+    private int size;
+
+    LongDoubleHashMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return 值，不存在時為 0
+     */
+    double get(long key) {
+        int slot = find(key);
+        return slot < 0 ? 0 : values[slot];
+    }
+
+    boolean containsKey(long key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * 累加值，不存在時以 delta 新增
+     * @return 累加後的值
+     */
+    double add(long key, double delta) {
+        int mask = keys.length - 1;
+        int slot = home(key, mask);
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                values[slot] += delta;
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        used[slot] = true;
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+        }
+        return delta;
+    }
+
+    void remove(long key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return;
+        }
+        // 後續項目的原始位置不在 (slot, next] 之間時，往前移補上空位
+        int mask = keys.length - 1;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (!used[next]) {
+                break;
+            }
+            int home = home(keys[next], mask);
+            boolean reachable = slot <= next ? slot < home && home <= next : slot < home || home <= next;
+            if (!reachable) {
+                keys[slot] = keys[next];
+                values[slot] = values[next];
+                slot = next;
+            }
+        }
+        used[slot] = false;
+        size--;
+    }
+
+    void clear() {
+        allocate(MIN_CAPACITY);
+        size = 0;
+    }
+
+    /**
+     * 所有值乘上 factor
+     */
+    void scale(double factor) {
+        for (int i = 0; i < values.length; i++) {
+            if (used[i]) {
+                values[i] *= factor;
+            }
+        }
+    }
+
+    /**
+     * 移除值小於 threshold 的項目
+     * @return 移除筆數
+     */
+    int removeBelow(double threshold) {
+        long[] removed = new long[size];
+        int count = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i] && values[i] < threshold) {
+                removed[count++] = keys[i];
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            remove(removed[i]);
+        }
+        if (count > 0 && size * 8 < keys.length && keys.length > MIN_CAPACITY) {
+            resize(Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, size) * 2) * 2));
+        }
+        return count;
+    }
+
+    void forEach(Entry consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = home(key, mask);
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        double[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                add(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new double[capacity];
+        used = new boolean[capacity];
+    }
+
+    private static int home(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    @FunctionalInterface
+    interface Entry {
+        void accept(long key, double value);
+    }
+}
@@ -0,0 +1,298 @@
+package com.example.demo.ranking;
+
+import com.example.demo.event.ProductSalesEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 關聯商品（經常一起購買）索引
+ * 記憶體中保留商品共同購買次數矩陣，訂單成立時累加、取消時扣回，受影響的商品標記為待更新，
+ * 由 flush() 重新計算其前 top-n 名並寫入 product_related；商品詳細頁只讀取寫好的結果。
+ *
+ * 結帳提交後的執行緒只把異動放入無鎖佇列，不取得索引的鎖；累加（每筆訂單 O(k²)）與超過 max-pairs 時的修剪
+ * 由 flush() 與 rebuild() 在排程執行緒取出佇列後處理，異動於下次 flush 才反映。
+ *
+ * rebuild() 依訂單主鍵分批讀取未取消的訂單商品，重新建立矩陣並寫回全部結果。
+ * 重建期間收到的異動，若訂單已被掃過或在重建開始後才建立，完成後補套用；
+ * 掃描當下正在提交的少數異動可能漏算或重複，於下次重建修正。
+ * 第一次重建完成前不處理異動，避免以不完整的次數覆蓋已寫入的結果。
+ */
+@Component
+public class RelatedProductIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(RelatedProductIndex.class);
+
+    private static final String SELECT_ORDERS_SQL =
+            "SELECT id FROM orders WHERE id > :lastId AND id <= :maxId AND status <> 'CANCELLED' ORDER BY id LIMIT :limit";
+    private static final String SELECT_ITEMS_SQL =
+            "SELECT order_id, product_id FROM order_item WHERE order_id IN (:orderIds) ORDER BY order_id";
+    private static final String INSERT_SQL =
+            "INSERT INTO product_related (product_id, rank_no, related_product_id, pair_count, computed_at) " +
+            "VALUES (:productId, :rankNo, :relatedProductId, :pairCount, :computedAt)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int topN;
+    private final int minSupport;
+    private final long maxPairs;
+    private final int chunkSize;
+
+    private final ConcurrentLinkedQueue<ProductSalesEvent> incoming = new ConcurrentLinkedQueue<>();
+
+    // 以下欄位由 this 同步
+    private CoOccurrenceMatrix matrix;
+    private final Set<Long> dirty = new HashSet<>();
+    private final List<ProductSalesEvent> pending = new ArrayList<>();
+    private boolean ready;
+    private boolean rebuilding;
+    // 重建結果寫入期間暫停 flush，避免較新的結果被重建結果覆蓋
+    private boolean writingAll;
+    private long scannedUpTo;
+    private long rebuildMaxOrderId;
+
+    public RelatedProductIndex(NamedParameterJdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.related.top-n:10}") int topN,
+                               @Value("${app.related.min-support:2}") int minSupport,
+                               @Value("${app.related.max-pairs:2000000}") long maxPairs,
+                               @Value("${app.related.chunk-size:500}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.topN = topN;
+        this.minSupport = minSupport;
+        this.maxPairs = maxPairs;
+        this.chunkSize = chunkSize;
+        this.matrix = new CoOccurrenceMatrix(minSupport, maxPairs);
+    }
+
+    /**
+     * 訂單成立或取消提交後放入佇列，由 flush() 累加共同購買次數
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductSales(ProductSalesEvent event) {
+        incoming.add(event);
+    }
+
+    /**
+     * 重新計算待更新商品的關聯商品並寫入
+     * @return 更新的商品數
+     */
+    public int flush() {
+        Map<Long, List<CoOccurrenceMatrix.Neighbor>> neighbors;
+        synchronized (this) {
+            drainIncoming();
+            if (rebuilding || writingAll || dirty.isEmpty()) {
+                return 0;
+            }
+            neighbors = computeNeighbors(dirty);
+            dirty.clear();
+        }
+        try {
+            persist(neighbors, new Timestamp(System.currentTimeMillis()));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                dirty.addAll(neighbors.keySet());
+            }
+            throw e;
+        }
+        return neighbors.size();
+    }
+
+    /**
+     * 從訂單商品全量重建矩陣並寫回所有商品的關聯商品
+     */
+    public void rebuild() {
+        Long maxOrderId = jdbcTemplate.getJdbcTemplate().queryForObject("SELECT COALESCE(MAX(id), 0) FROM orders", Long.class);
+        synchronized (this) {
+            if (rebuilding) {
+                return;
+            }
+            // 重建開始前的異動套用到原矩陣，重建失敗時仍保留
+            drainIncoming();
+            rebuilding = true;
+            scannedUpTo = 0;
+            rebuildMaxOrderId = maxOrderId == null ? 0 : maxOrderId;
+            pending.clear();
+        }
+
+        long start = System.currentTimeMillis();
+        Timestamp computedAt = new Timestamp(start);
+        long orders = 0;
+        long pairs;
+        Map<Long, List<CoOccurrenceMatrix.Neighbor>> neighbors;
+        try {
+            CoOccurrenceMatrix built = new CoOccurrenceMatrix(minSupport, maxPairs);
+            long lastId = 0;
+            while (true) {
+                List<Long> orderIds = jdbcTemplate.queryForList(SELECT_ORDERS_SQL, new MapSqlParameterSource("lastId", lastId)
+                        .addValue("maxId", rebuildMaxOrderId)
+                        .addValue("limit", chunkSize), Long.class);
+                if (orderIds.isEmpty()) {
+                    break;
+                }
+                for (long[] productIds : loadItemSets(orderIds)) {
+                    built.add(productIds, 1);
+                }
+                orders += orderIds.size();
+                lastId = orderIds.get(orderIds.size() - 1);
+                synchronized (this) {
+                    drainIncoming();
+                    scannedUpTo = lastId;
+                }
+            }
+
+            synchronized (this) {
+                drainIncoming();
+                matrix = built;
+                pending.forEach(this::apply);
+                pending.clear();
+                dirty.clear();
+                neighbors = computeNeighbors(toSet(matrix.productIds()));
+                pairs = matrix.pairs();
+                ready = true;
+                writingAll = true;
+            }
+        } finally {
+            synchronized (this) {
+                rebuilding = false;
+                // 重建失敗時保留原矩陣，已收到的異動仍套用
+                if (ready) {
+                    pending.forEach(this::apply);
+                }
+                pending.clear();
+            }
+        }
+
+        try {
+            persist(neighbors, computedAt);
+            // 不再有共同購買紀錄的商品
+            jdbcTemplate.update("DELETE FROM product_related WHERE computed_at < :computedAt",
+                    new MapSqlParameterSource("computedAt", computedAt));
+        } finally {
+            synchronized (this) {
+                writingAll = false;
+            }
+        }
+        log.info("關聯商品重建完成 - 訂單數: {}, 商品數: {}, 組合數: {}, 耗時: {} ms",
+                orders, neighbors.size(), pairs, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 目前矩陣中兩商品的共同購買次數
+     */
+    public synchronized long count(long productId, long otherId) {
+        return matrix.count(productId, otherId);
+    }
+
+    /**
+     * 取出佇列中的異動：重建期間訂單已被掃過或在重建開始後才建立的留待完成後套用，其餘直接套用
+     * 第一次重建完成前的異動略過。呼叫端須持有 this
+     */
+    private void drainIncoming() {
+        ProductSalesEvent event;
+        while ((event = incoming.poll()) != null) {
+            if (rebuilding) {
+                if (event.orderId() <= scannedUpTo || event.orderId() > rebuildMaxOrderId) {
+                    pending.add(event);
+                }
+            } else if (ready) {
+                apply(event);
+            }
+        }
+    }
+
+    private void apply(ProductSalesEvent event) {
+        long[] productIds = event.quantities().keySet().stream().mapToLong(Long::longValue).toArray();
+        if (productIds.length < 2) {
+            return;
+        }
+        matrix.add(productIds, event.isCancellation() ? -1 : 1);
+        for (long productId : productIds) {
+            dirty.add(productId);
+        }
+    }
+
+    private Map<Long, List<CoOccurrenceMatrix.Neighbor>> computeNeighbors(Set<Long> productIds) {
+        Map<Long, List<CoOccurrenceMatrix.Neighbor>> result = new LinkedHashMap<>();
+        for (Long productId : productIds) {
+            result.put(productId, matrix.topNeighbors(productId, topN));
+        }
+        return result;
+    }
+
+    /**
+     * 依訂單分組讀取商品ID
+     */
+    private List<long[]> loadItemSets(List<Long> orderIds) {
+        List<long[]> itemSets = new ArrayList<>(orderIds.size());
+        List<Long> current = new ArrayList<>();
+        long[] currentOrderId = {-1};
+        jdbcTemplate.query(SELECT_ITEMS_SQL, new MapSqlParameterSource("orderIds", orderIds), rs -> {
+            long orderId = rs.getLong("order_id");
+            if (orderId != currentOrderId[0] && !current.isEmpty()) {
+                itemSets.add(current.stream().mapToLong(Long::longValue).toArray());
+                current.clear();
+            }
+            currentOrderId[0] = orderId;
+            current.add(rs.getLong("product_id"));
+        });
+        if (!current.isEmpty()) {
+            itemSets.add(current.stream().mapToLong(Long::longValue).toArray());
+        }
+        return itemSets;
+    }
+
+    /**
+     * 每批 chunk-size 個商品在同一交易內刪除舊名次並寫入新名次
+     */
+    private void persist(Map<Long, List<CoOccurrenceMatrix.Neighbor>> neighbors, Timestamp computedAt) {
+        List<Long> productIds = new ArrayList<>(neighbors.keySet());
+        for (int from = 0; from < productIds.size(); from += chunkSize) {
+            List<Long> chunk = productIds.subList(from, Math.min(from + chunkSize, productIds.size()));
+            List<SqlParameterSource> rows = new ArrayList<>();
+            for (Long productId : chunk) {
+                int rankNo = 0;
+                for (CoOccurrenceMatrix.Neighbor neighbor : neighbors.get(productId)) {
+                    rows.add(new MapSqlParameterSource("productId", productId)
+                            .addValue("rankNo", ++rankNo)
+                            .addValue("relatedProductId", neighbor.productId())
+                            .addValue("pairCount", neighbor.count())
+                            .addValue("computedAt", computedAt));
+                }
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("DELETE FROM product_related WHERE product_id IN (:productIds)",
+                        new MapSqlParameterSource("productIds", chunk));
+                if (!rows.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_SQL, rows.toArray(SqlParameterSource[]::new));
+                }
+            });
+        }
+    }
+
+    private static Set<Long> toSet(long[] values) {
+        Set<Long> set = new HashSet<>(Math.max(16, values.length * 4 / 3));
+        for (long value : values) {
+            set.add(value);
+        }
+        return set;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.BulkUserJob;
+import com.example.demo.enums.BulkJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * 批次用戶管理作業Repository
+ */
+@Repository
+public interface BulkUserJobRepository extends JpaRepository<BulkUserJob, String> {
+
+    /**
+     * 更新作業進度
+     */
+    @Modifying
+    @Query("UPDATE BulkUserJob j SET j.total = :total, j.processed = :processed, j.affected = :affected, " +
+           "j.skipped = :skipped, j.updatedAt = :now WHERE j.id = :id")
+    int updateProgress(@Param("id") String id, @Param("total") long total, @Param("processed") long processed,
+                       @Param("affected") long affected, @Param("skipped") long skipped, @Param("now") LocalDateTime now);
+
+    /**
+     * 標記作業結束
+     */
+    @Modifying
+    @Query("UPDATE BulkUserJob j SET j.status = :status, j.errorMessage = :errorMessage, j.finishedAt = :now, " +
+           "j.updatedAt = :now WHERE j.id = :id")
+    int finish(@Param("id") String id, @Param("status") BulkJobStatus status,
+               @Param("errorMessage") String errorMessage, @Param("now") LocalDateTime now);
+
+    /**
+     * 清除結束時間早於 threshold 的作業
+     */
+    @Modifying
+    @Query("DELETE FROM BulkUserJob j WHERE j.finishedAt < :threshold")
+    int deleteFinishedBefore(@Param("threshold") LocalDateTime threshold);
+}
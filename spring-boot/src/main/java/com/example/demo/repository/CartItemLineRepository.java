@@ -0,0 +1,57 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.CartItem;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 購物車項目的新增與刪除（自訂 Repository 片段）
+ * 每個方法在寫入項目後，於同一交易內重新計算 cart.item_count，購物車徽章讀到的項目數不依賴版本號遞增時機。
+ * 新增或刪除項目一律經由此處，不使用 JpaRepository 的 save 新增或 delete 刪除。
+ */
+public interface CartItemLineRepository {
+
+    /**
+     * 以單一語句將商品加入會員購物車，已存在的項目累加數量
+     * 僅在購物車存在、商品未刪除且庫存足以容納累加後數量時寫入；
+     * 條件不成立時不寫入任何資料，回傳 0。已存在的項目同樣以 WHERE 中「既有數量 + 加入數量」檢查庫存。
+     * 呼叫前須先以 {@link ProductRepository#lockStockById} 鎖定商品列
+     * @param userId 會員ID
+     * @param productId 商品ID
+     * @param quantity 加入數量
+     * @return 異動筆數，0 表示未寫入
+     */
+    int upsertQuantity(Long userId, Long productId, Integer quantity);
+
+    /**
+     * 以 JDBC batch 新增項目（批次操作用）
+     * @param cartId 購物車ID
+     * @param items 新增的項目，使用商品ID、數量與勾選狀態
+     * @param now 建立與更新時間
+     */
+    void insertLines(Long cartId, List<CartItem> items, LocalDateTime now);
+
+    /**
+     * 刪除購物車中指定的項目，不屬於該購物車的ID不會被刪除
+     * @param cartId 購物車ID
+     * @param cartItemIds 購物車項目ID列表
+     * @return 刪除筆數
+     */
+    int deleteLines(Long cartId, Collection<Long> cartItemIds);
+
+    /**
+     * 刪除購物車中的所有項目
+     * @param cartId 購物車ID
+     * @return 刪除筆數
+     */
+    int deleteAllLines(Long cartId);
+
+    /**
+     * 刪除所有購物車中指定商品的項目（商品永久刪除前使用）
+     * @param productId 商品ID
+     * @return 刪除筆數
+     */
+    int deleteProductLines(Long productId);
+}
@@ -0,0 +1,123 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.CartItem;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * CartItemLineRepository 實作
+ * 以 JDBC 寫入，執行前先 flush 持久化內容，讓語句看到同一交易內尚未寫出的變更
+ */
+public class CartItemLineRepositoryImpl implements CartItemLineRepository {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO cart_item (cart_id, product_id, quantity, checked, created_at, updated_at) " +
+            "SELECT c.id, p.id, :quantity, 1, NOW(), NOW() " +
+            "FROM cart c " +
+            "JOIN products p ON p.id = :productId " +
+            "LEFT JOIN cart_item ci ON ci.cart_id = c.id AND ci.product_id = p.id " +
+            "WHERE c.user_id = :userId AND p.deleted_at IS NULL " +
+            "AND p.stock >= COALESCE(ci.quantity, 0) + :quantity " +
+            "ON DUPLICATE KEY UPDATE quantity = cart_item.quantity + VALUES(quantity), updated_at = NOW()";
+    private static final String INSERT_SQL =
+            "INSERT INTO cart_item (cart_id, product_id, quantity, checked, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_SQL = "DELETE FROM cart_item WHERE cart_id = :cartId AND id IN (:cartItemIds)";
+    private static final String DELETE_ALL_SQL = "DELETE FROM cart_item WHERE cart_id = :cartId";
+    private static final String SELECT_CARTS_BY_PRODUCT_SQL = "SELECT cart_id FROM cart_item WHERE product_id = :productId";
+    private static final String DELETE_BY_PRODUCT_SQL = "DELETE FROM cart_item WHERE product_id = :productId";
+    private static final String RECOUNT_SQL =
+            "UPDATE cart SET item_count = (SELECT COUNT(*) FROM cart_item ci WHERE ci.cart_id = cart.id) WHERE id IN (:cartIds)";
+    private static final String RECOUNT_BY_USER_SQL =
+            "UPDATE cart SET item_count = (SELECT COUNT(*) FROM cart_item ci WHERE ci.cart_id = cart.id) WHERE user_id = :userId";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Override
+    public int upsertQuantity(Long userId, Long productId, Integer quantity) {
+        entityManager.flush();
+        int affected = namedParameterJdbcTemplate.update(UPSERT_SQL, new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("productId", productId)
+                .addValue("quantity", quantity));
+        if (affected > 0) {
+            namedParameterJdbcTemplate.update(RECOUNT_BY_USER_SQL, new MapSqlParameterSource("userId", userId));
+        }
+        return affected;
+    }
+
+    @Override
+    public void insertLines(Long cartId, List<CartItem> items, LocalDateTime now) {
+        if (items.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate(INSERT_SQL, items, items.size(), (ps, cartItem) -> {
+            ps.setLong(1, cartId);
+            ps.setLong(2, cartItem.getProductId());
+            ps.setInt(3, cartItem.getQuantity());
+            ps.setBoolean(4, cartItem.getChecked());
+            ps.setTimestamp(5, timestamp);
+            ps.setTimestamp(6, timestamp);
+        });
+        recount(cartId);
+    }
+
+    @Override
+    public int deleteLines(Long cartId, Collection<Long> cartItemIds) {
+        if (cartItemIds.isEmpty()) {
+            return 0;
+        }
+        entityManager.flush();
+        int deleted = namedParameterJdbcTemplate.update(DELETE_SQL, new MapSqlParameterSource()
+                .addValue("cartId", cartId)
+                .addValue("cartItemIds", cartItemIds));
+        if (deleted > 0) {
+            recount(cartId);
+        }
+        return deleted;
+    }
+
+    @Override
+    public int deleteAllLines(Long cartId) {
+        entityManager.flush();
+        int deleted = namedParameterJdbcTemplate.update(DELETE_ALL_SQL, new MapSqlParameterSource("cartId", cartId));
+        if (deleted > 0) {
+            recount(cartId);
+        }
+        return deleted;
+    }
+
+    @Override
+    public int deleteProductLines(Long productId) {
+        entityManager.flush();
+        MapSqlParameterSource params = new MapSqlParameterSource("productId", productId);
+        List<Long> cartIds = namedParameterJdbcTemplate.queryForList(SELECT_CARTS_BY_PRODUCT_SQL, params, Long.class);
+        if (cartIds.isEmpty()) {
+            return 0;
+        }
+        int deleted = namedParameterJdbcTemplate.update(DELETE_BY_PRODUCT_SQL, params);
+        namedParameterJdbcTemplate.update(RECOUNT_SQL, new MapSqlParameterSource("cartIds", cartIds));
+        return deleted;
+    }
+
+    private void recount(Long cartId) {
+        namedParameterJdbcTemplate.update(RECOUNT_SQL, new MapSqlParameterSource("cartIds", List.of(cartId)));
+    }
+}
@@ -1,20 +1,23 @@
 package com.example.demo.repository;
 
 import com.example.demo.entity.CartItem;
+import com.example.demo.repository.query.CartTotals;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * 購物車明細資料存取介面
+ * 新增或刪除項目使用 {@link CartItemLineRepository} 的方法，同時重新計算購物車項目數
  */
 @Repository
-public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+public interface CartItemRepository extends JpaRepository<CartItem, Long>, CartItemLineRepository {
 
     /**
      * 根據購物車ID查找所有項目
@@ -31,12 +34,6 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
      */
     Optional<CartItem> findByCartIdAndProductId(Long cartId, Long productId);
 
-    /**
-     * 刪除購物車中的所有項目
-     * @param cartId 購物車ID
-     */
-    void deleteByCartId(Long cartId);
-
     /**
      * 查找購物車中已勾選的項目
      * @param cartId 購物車ID
@@ -61,11 +58,39 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     @Query("UPDATE CartItem ci SET ci.checked = :checked WHERE ci.cartId = :cartId")
     void updateCheckedStatusByCartId(@Param("cartId") Long cartId, @Param("checked") Boolean checked);
 
+    /**
+     * 批量將項目數量調整為目前庫存（購物車驗證用）
+     * @param cartItemIds 購物車項目ID列表
+     * @return 更新筆數
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE CartItem ci SET ci.quantity = (SELECT p.stock FROM Product p WHERE p.id = ci.productId), " +
+            "ci.updatedAt = CURRENT_TIMESTAMP WHERE ci.id IN :cartItemIds")
+    int clampQuantityToStock(@Param("cartItemIds") Collection<Long> cartItemIds);
+
+    /**
+     * 批量取消勾選（購物車驗證用）
+     * @param cartItemIds 購物車項目ID列表
+     * @return 更新筆數
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE CartItem ci SET ci.checked = false, ci.updatedAt = CURRENT_TIMESTAMP WHERE ci.id IN :cartItemIds")
+    int uncheckAll(@Param("cartItemIds") Collection<Long> cartItemIds);
+
     /**
      * 統計購物車項目數量
      * @param cartId 購物車ID
      * @return 項目數量
      */
     long countByCartId(Long cartId);
-}
 
+    /**
+     * 彙總購物車項目數與已勾選項目金額
+     * @param cartId 購物車ID
+     * @return 總計
+     */
+    @Query("SELECT new com.example.demo.repository.query.CartTotals(COUNT(ci), " +
+            "COALESCE(SUM(CASE WHEN ci.checked = true THEN p.price * ci.quantity END), 0)) " +
+            "FROM CartItem ci JOIN ci.product p WHERE ci.cartId = :cartId")
+    CartTotals sumTotals(@Param("cartId") Long cartId);
+}
@@ -1,7 +1,11 @@
 package com.example.demo.repository;
 
 import com.example.demo.entity.Cart;
+import com.example.demo.repository.query.CartCounter;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -25,6 +29,43 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
      * @return 是否存在
      */
     boolean existsByUserId(Long userId);
-}
 
+    /**
+     * 建立會員購物車，已存在時不做任何事
+     * 依 uk_cart_user 唯一索引判斷，併發首次存取也只會建立一個購物車
+     * @param userId 會員ID
+     * @return 新建立的筆數（0 或 1）
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT IGNORE INTO cart (user_id, created_at, updated_at) VALUES (:userId, NOW(), NOW())",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId);
+
+    /**
+     * 查詢會員購物車的版本號與項目數
+     * @param userId 會員ID
+     * @return 版本號與項目數
+     */
+    @Query("SELECT new com.example.demo.repository.query.CartCounter(c.version, c.itemCount) " +
+            "FROM Cart c WHERE c.userId = :userId")
+    Optional<CartCounter> findCounterByUserId(@Param("userId") Long userId);
 
+    /**
+     * 原子遞增購物車版本號並更新異動時間（閒置購物車清理依此判斷）
+     * 項目數由 {@link CartItemLineRepository} 新增或刪除項目時重新計算
+     * @param cartId 購物車ID
+     * @return 更新筆數
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Cart c SET c.version = c.version + 1, c.updatedAt = CURRENT_TIMESTAMP WHERE c.id = :cartId")
+    int incrementVersion(@Param("cartId") Long cartId);
+
+    /**
+     * 依會員ID原子遞增購物車版本號並更新異動時間
+     * @param userId 會員ID
+     * @return 更新筆數
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Cart c SET c.version = c.version + 1, c.updatedAt = CURRENT_TIMESTAMP WHERE c.userId = :userId")
+    int incrementVersionByUserId(@Param("userId") Long userId);
+}
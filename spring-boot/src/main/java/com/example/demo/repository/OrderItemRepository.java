@@ -4,6 +4,7 @@ import com.example.demo.entity.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -17,6 +18,11 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
      */
     List<OrderItem> findByOrderId(Long orderId);
 
+    /**
+     * 根據多個訂單ID查詢訂單項目
+     */
+    List<OrderItem> findByOrderIdIn(Collection<Long> orderIds);
+
     /**
      * 根據產品ID查詢所有訂單項目
      */
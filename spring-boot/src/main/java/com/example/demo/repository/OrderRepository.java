@@ -2,11 +2,15 @@ package com.example.demo.repository;
 
 import com.example.demo.entity.Order;
 import com.example.demo.enums.OrderStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -58,5 +62,31 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
      * 查詢用戶特定狀態的訂單數量
      */
     Long countByUserIdAndStatus(Long userId, OrderStatus status);
+
+    /**
+     * 依主鍵順序鎖定指定ID中狀態可取消的訂單
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id IN :ids AND o.status IN :statuses ORDER BY o.id")
+    List<Order> findCancellableForUpdate(@Param("ids") Collection<Long> ids,
+                                         @Param("statuses") Collection<OrderStatus> statuses);
+
+    /**
+     * 鎖定一批建立時間早於截止時間的待處理訂單，其他節點已鎖定的訂單會被略過
+     */
+    @Query(value = "SELECT * FROM orders WHERE status = 'PENDING' AND created_at < :cutoff " +
+            "ORDER BY created_at, id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Order> findExpiredPendingForUpdate(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    /**
+     * 統計建立時間早於截止時間的指定狀態訂單數
+     */
+    long countByStatusAndCreatedAtBefore(OrderStatus status, LocalDateTime cutoff);
+
+    /**
+     * 查詢指定狀態中最早的建立時間
+     */
+    @Query("SELECT MIN(o.createdAt) FROM Order o WHERE o.status = :status")
+    Optional<LocalDateTime> findOldestCreatedAt(@Param("status") OrderStatus status);
 }
 
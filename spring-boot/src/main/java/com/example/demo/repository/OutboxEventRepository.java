@@ -0,0 +1,20 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.OutboxEvent;
+import com.example.demo.enums.OutboxAggregateType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 交易外寄箱Repository
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * 依寫入順序查詢聚合尚未送出的事件
+     */
+    List<OutboxEvent> findByAggregateTypeAndAggregateIdOrderById(OutboxAggregateType aggregateType, Long aggregateId);
+}
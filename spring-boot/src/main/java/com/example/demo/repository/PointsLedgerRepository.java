@@ -0,0 +1,25 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.PointsLedger;
+import com.example.demo.enums.PointsEntryType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * 點數帳本Repository
+ */
+@Repository
+public interface PointsLedgerRepository extends JpaRepository<PointsLedger, Long> {
+
+    /**
+     * 根據訂單ID和異動類型查詢帳本紀錄
+     */
+    Optional<PointsLedger> findByOrderIdAndEntryType(Long orderId, PointsEntryType entryType);
+
+    /**
+     * 檢查訂單是否已有指定類型的帳本紀錄
+     */
+    boolean existsByOrderIdAndEntryType(Long orderId, PointsEntryType entryType);
+}
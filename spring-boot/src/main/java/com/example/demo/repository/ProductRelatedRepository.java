@@ -0,0 +1,19 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.ProductRelated;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 關聯商品Repository
+ */
+@Repository
+public interface ProductRelatedRepository extends JpaRepository<ProductRelated, ProductRelated.Key> {
+
+    /**
+     * 依名次查詢商品的關聯商品
+     */
+    List<ProductRelated> findByProductIdOrderByRankNo(Long productId);
+}
@@ -3,9 +3,13 @@ package com.example.demo.repository;
 import com.example.demo.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
@@ -19,4 +23,14 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     // 查詢上架期間內且狀態為開啟且未刪除的商品
     List<Product> findByStatusAndStartAtLessThanEqualAndEndAtGreaterThanEqualAndDeletedAtIsNull(
             com.example.demo.enums.ProductStatus status, java.time.LocalDateTime now1, java.time.LocalDateTime now2);
+
+    // 以排他鎖鎖定未刪除的商品列並回傳庫存，商品不存在或已刪除時為空
+    @Query(value = "SELECT stock FROM products WHERE id = :id AND deleted_at IS NULL FOR UPDATE", nativeQuery = true)
+    Optional<Integer> lockStockById(@Param("id") Long id);
+
+    // 以單一語句扣減未刪除商品的庫存，庫存不足時不更新；回傳 0 表示扣減失敗
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE products SET stock = stock - :quantity, updated_at = NOW() " +
+            "WHERE id = :id AND deleted_at IS NULL AND stock >= :quantity", nativeQuery = true)
+    int deductStock(@Param("id") Long id, @Param("quantity") int quantity);
 }
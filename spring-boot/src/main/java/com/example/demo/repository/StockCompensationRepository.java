@@ -0,0 +1,25 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.StockCompensation;
+import com.example.demo.enums.StockCompensationStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 庫存補償佇列Repository
+ */
+@Repository
+public interface StockCompensationRepository extends JpaRepository<StockCompensation, Long> {
+
+    /**
+     * 查詢訂單的補償紀錄
+     */
+    List<StockCompensation> findByOrderIdOrderByProductId(Long orderId);
+
+    /**
+     * 統計指定狀態的補償紀錄數
+     */
+    long countByStatus(StockCompensationStatus status);
+}
@@ -0,0 +1,38 @@
+package com.example.demo.repository;
+
+import com.example.demo.repository.query.UserFilter;
+import com.example.demo.repository.query.UserSummary;
+
+import java.util.List;
+
+/**
+ * 用戶動態查詢（自訂 Repository 片段）
+ * 篩選條件組合不固定，使用 Criteria API 組出查詢，並以 id 做 keyset 分頁
+ */
+public interface UserQueryRepository {
+
+    /**
+     * 依條件查詢用戶投影，依 id 由新到舊排序
+     * @param filter 篩選條件
+     * @param afterId 上一頁最後一筆的 id（null 表示第一頁）
+     * @param limit 最多回傳筆數
+     * @return 用戶投影列表
+     */
+    List<UserSummary> findUserSummaries(UserFilter filter, Long afterId, int limit);
+
+    /**
+     * 依條件只查詢用戶 id，依 id 由新到舊排序
+     * @param filter 篩選條件
+     * @param afterId 上一頁最後一筆的 id（null 表示第一頁）
+     * @param limit 最多回傳筆數
+     * @return 用戶 id 列表
+     */
+    List<Long> findUserIds(UserFilter filter, Long afterId, int limit);
+
+    /**
+     * 依條件統計用戶數
+     * @param filter 篩選條件
+     * @return 符合條件的用戶數
+     */
+    long countUsers(UserFilter filter);
+}
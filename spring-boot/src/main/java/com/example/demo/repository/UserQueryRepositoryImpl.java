@@ -0,0 +1,125 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.User;
+import com.example.demo.enums.UserRole;
+import com.example.demo.repository.query.UserFilter;
+import com.example.demo.repository.query.UserSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * UserQueryRepository 實作
+ */
+public class UserQueryRepositoryImpl implements UserQueryRepository {
+
+    private static final char LIKE_ESCAPE = '!';
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UserSummary> findUserSummaries(UserFilter filter, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UserSummary> query = cb.createQuery(UserSummary.class);
+        Root<User> root = query.from(User.class);
+
+        query.select(cb.construct(UserSummary.class,
+                        root.get("id"),
+                        root.get("name"),
+                        root.get("email"),
+                        root.get("enabled"),
+                        root.get("deleted"),
+                        root.get("createdAt"),
+                        root.get("updatedAt")))
+                .where(buildPredicates(cb, root, filter, afterId))
+                .orderBy(cb.desc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<Long> findUserIds(UserFilter filter, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<User> root = query.from(User.class);
+
+        query.select(root.get("id"))
+                .where(buildPredicates(cb, root, filter, afterId))
+                .orderBy(cb.desc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public long countUsers(UserFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<User> root = query.from(User.class);
+
+        query.select(cb.count(root))
+                .where(buildPredicates(cb, root, filter, null));
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    /**
+     * 組出篩選條件
+     * 每個條件都對應 V5 migration 中以 (deleted, ..., id) 開頭的複合索引
+     */
+    private Predicate[] buildPredicates(CriteriaBuilder cb, Root<User> root, UserFilter filter, Long afterId) {
+        List<Predicate> predicates = new ArrayList<>();
+
+        // 未指定時預設只查未刪除
+        boolean deleted = filter.deleted() != null && filter.deleted();
+        predicates.add(cb.equal(root.get("deleted"), deleted));
+
+        if (filter.enabled() != null) {
+            predicates.add(cb.equal(root.get("enabled"), filter.enabled()));
+        }
+        if (filter.createdAtFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), filter.createdAtFrom()));
+        }
+        if (filter.createdAtTo() != null) {
+            predicates.add(cb.lessThanOrEqualTo(root.get("createdAt"), filter.createdAtTo()));
+        }
+        if (filter.emailPrefix() != null) {
+            predicates.add(cb.like(root.get("email"), escapeLike(filter.emailPrefix()) + "%", LIKE_ESCAPE));
+        }
+        if (filter.nameContains() != null) {
+            predicates.add(cb.like(root.get("name"), "%" + escapeLike(filter.nameContains()) + "%", LIKE_ESCAPE));
+        }
+        if (filter.ids() != null) {
+            predicates.add(root.get("id").in(filter.ids()));
+        }
+        if (filter.role() != null) {
+            // 每個用戶同一角色只有一筆，JOIN 不會產生重複列
+            Join<User, UserRole> roles = root.join("roles");
+            predicates.add(cb.equal(roles, filter.role()));
+        }
+        if (afterId != null) {
+            predicates.add(cb.lessThan(root.get("id"), afterId));
+        }
+
+        return predicates.toArray(new Predicate[0]);
+    }
+
+    /**
+     * 跳脫 LIKE 萬用字元
+     * 不使用反斜線作為跳脫字元，避免與 MySQL 字串字面值的反斜線跳脫衝突
+     */
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
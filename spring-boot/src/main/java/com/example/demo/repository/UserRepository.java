@@ -3,11 +3,14 @@ package com.example.demo.repository;
 import com.example.demo.entity.User;
 import com.example.demo.enums.UserRole;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,7 +20,7 @@ import java.util.Optional;
  * 優先使用Spring Data JPA方法命名，複雜查詢才使用JPQL
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserQueryRepository {
 
     // === 基本查詢（Spring Data JPA方法命名） ===
 
@@ -41,6 +44,19 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     boolean existsByEmailAndDeletedFalse(String email);
 
+    /**
+     * 只查詢未刪除用戶的 id，不載入用戶與角色
+     */
+    @Query("SELECT u.id FROM User u WHERE u.email = :email AND u.deleted = false")
+    Optional<Long> findIdByEmailAndDeletedFalse(@Param("email") String email);
+
+    /**
+     * 查詢未刪除管理員的啟用狀態，非管理員時為空
+     */
+    @Query("SELECT u.enabled FROM User u JOIN u.roles r " +
+           "WHERE u.id = :userId AND r = com.example.demo.enums.UserRole.ADMIN AND u.deleted = false")
+    Optional<Boolean> findAdminEnabledById(@Param("userId") Long userId);
+
     // === 軟刪除相關查詢（Spring Data JPA方法命名） ===
 
     /**
@@ -186,4 +202,73 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     @Query("SELECT CASE WHEN COUNT(u) > 0 THEN true ELSE false END FROM User u WHERE u.email = :email AND u.id != :userId AND u.deleted = false")
     boolean existsByEmailAndNotId(@Param("email") String email, @Param("userId") Long userId);
+
+    // === 列表投影輔助查詢 ===
+
+    /**
+     * 批次查詢多個用戶的角色
+     * 回傳 [userId, role] 陣列，用於列表投影一次補齊整頁角色，避免每個用戶各查一次
+     */
+    @Query("SELECT u.id, r FROM User u JOIN u.roles r WHERE u.id IN :userIds")
+    List<Object[]> findRolesByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    // === 批次管理（集合式更新） ===
+
+    /**
+     * 從指定 id 中篩出未刪除的用戶 id
+     */
+    @Query("SELECT u.id FROM User u WHERE u.id IN :userIds AND u.deleted = false")
+    List<Long> findActiveIdsByIdIn(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * 批次啟用/停用未刪除的用戶，狀態已相同者不會被更新
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE User u SET u.enabled = :enabled, u.updatedAt = :now " +
+           "WHERE u.id IN :userIds AND u.deleted = false AND u.enabled <> :enabled")
+    int bulkUpdateEnabled(@Param("userIds") Collection<Long> userIds,
+                          @Param("enabled") boolean enabled,
+                          @Param("now") LocalDateTime now);
+
+    /**
+     * 批次軟刪除用戶（同時停用帳戶）
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE User u SET u.deleted = true, u.deletedAt = :now, u.deletedBy = :deletedBy, u.enabled = false, u.updatedAt = :now " +
+           "WHERE u.id IN :userIds AND u.deleted = false")
+    int bulkSoftDelete(@Param("userIds") Collection<Long> userIds,
+                       @Param("deletedBy") String deletedBy,
+                       @Param("now") LocalDateTime now);
+
+    /**
+     * 批次恢復已軟刪除的用戶（同時啟用帳戶）
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE User u SET u.deleted = false, u.deletedAt = null, u.deletedBy = null, u.enabled = true, u.updatedAt = :now " +
+           "WHERE u.id IN :userIds AND u.deleted = true")
+    int bulkRestore(@Param("userIds") Collection<Long> userIds, @Param("now") LocalDateTime now);
+
+    // === TOTP ===
+
+    /**
+     * 依 id 更新 TOTP 設定，不先讀取 users 列
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE User u SET u.totpSecret = :secret, u.totpEnabled = :enabled, u.updatedAt = :now " +
+           "WHERE u.id = :userId AND u.deleted = false")
+    int updateTotp(@Param("userId") Long userId,
+                   @Param("secret") String secret,
+                   @Param("enabled") boolean enabled,
+                   @Param("now") LocalDateTime now);
+
+    // === 點數餘額 ===
+
+    /**
+     * 原子累加點數餘額，不先讀取 users 列；第一次累加時同時記下累加前的餘額作為對帳基準
+     * 只在帳本寫入的同一交易中、寫入帳本之前呼叫
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE User u SET u.pointsBaseline = COALESCE(u.pointsBaseline, COALESCE(u.points, 0)), " +
+           "u.points = COALESCE(u.points, 0) + :delta WHERE u.id = :userId")
+    int incrementPoints(@Param("userId") Long userId, @Param("delta") BigDecimal delta);
 }
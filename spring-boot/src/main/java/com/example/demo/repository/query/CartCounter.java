@@ -0,0 +1,10 @@
+package com.example.demo.repository.query;
+
+/**
+ * 購物車項目數投影
+ * 連同版本號一起讀取，供快取判斷新舊
+ * @param version 版本號
+ * @param itemCount 項目數
+ */
+public record CartCounter(Long version, Integer itemCount) {
+}
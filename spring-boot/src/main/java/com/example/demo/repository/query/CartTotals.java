@@ -0,0 +1,12 @@
+package com.example.demo.repository.query;
+
+import java.math.BigDecimal;
+
+/**
+ * 購物車總計投影
+ * 由資料庫一次彙總項目數與已勾選項目金額，不載入項目與商品實體
+ * @param totalItems 項目數
+ * @param totalAmount 已勾選項目金額合計
+ */
+public record CartTotals(Long totalItems, BigDecimal totalAmount) {
+}
@@ -0,0 +1,46 @@
+package com.example.demo.repository.query;
+
+import com.example.demo.enums.UserRole;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * 後台用戶列表篩選條件
+ * 所有欄位皆為可選，null 代表不篩選該條件（deleted 例外，null 時預設只查未刪除）
+ * @param emailPrefix 郵箱前綴，以 LIKE 'prefix%' 走 email 索引範圍掃描
+ * @param nameContains 姓名包含的字串
+ * @param ids 限定在這些用戶ID之內（姓名索引的候選集合）
+ */
+public record UserFilter(
+        UserRole role,
+        Boolean enabled,
+        Boolean deleted,
+        LocalDateTime createdAtFrom,
+        LocalDateTime createdAtTo,
+        String emailPrefix,
+        String nameContains,
+        Collection<Long> ids
+) {
+
+    /**
+     * 只篩選刪除狀態
+     */
+    public static UserFilter ofDeleted(boolean deleted) {
+        return new UserFilter(null, null, deleted, null, null, null, null, null);
+    }
+
+    /**
+     * 篩選未刪除且擁有指定角色的用戶
+     */
+    public static UserFilter ofRole(UserRole role) {
+        return new UserFilter(role, null, false, null, null, null, null, null);
+    }
+
+    /**
+     * 以相同條件限定在指定的用戶ID之內
+     */
+    public UserFilter withIds(Collection<Long> ids) {
+        return new UserFilter(role, enabled, deleted, createdAtFrom, createdAtTo, emailPrefix, nameContains, ids);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.demo.repository.query;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 用戶列表投影
+ * 只查詢列表需要的欄位，不載入 User 實體與 EAGER 的 roles 集合
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummary {
+    private Long id;
+    private String name;
+    private String email;
+    private Boolean enabled;
+    private Boolean deleted;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
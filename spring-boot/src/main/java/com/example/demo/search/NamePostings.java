@@ -0,0 +1,237 @@
+package com.example.demo.search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 姓名 bigram 倒排索引
+ * 每個 bigram 對應一份依 id 遞增排序的 posting，查詢取各 bigram 的交集；只索引 bigram，少於兩個字的查詢不支援。
+ *
+ * posting 為不可變物件，讀取端不需加鎖。更新時不複製整份 posting，
+ * 新增與移除的 id 先記在小的排序差異陣列中，差異累積到 posting 的 1/16 後才合併，攤銷後每次更新的複製量為常數。
+ * 另記錄每個 id 目前索引的姓名，改名或刪除時移除舊的 bigram。
+ */
+final class NamePostings {
+
+    private static final long[] EMPTY = new long[0];
+    // 差異陣列的最小合併門檻，避免小 posting 頻繁合併
+    private static final int MIN_COMPACT_THRESHOLD = 32;
+
+    private final ConcurrentHashMap<String, Posting> postings;
+    private final ConcurrentHashMap<Long, String> names;
+
+    private NamePostings(ConcurrentHashMap<String, Posting> postings, ConcurrentHashMap<Long, String> names) {
+        this.postings = postings;
+        this.names = names;
+    }
+
+    static NamePostings empty() {
+        return new NamePostings(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+    }
+
+    /**
+     * 查詢包含 query 所有 bigram 的 id
+     * @param query 已正規化且至少兩個字的查詢字串
+     * @return 依 id 遞增排序的候選 id
+     */
+    long[] search(String query) {
+        long[][] lists = bigrams(query).stream()
+                .map(gram -> {
+                    Posting posting = postings.get(gram);
+                    return posting == null ? EMPTY : posting.ids();
+                })
+                .sorted((a, b) -> Integer.compare(a.length, b.length))
+                .toArray(long[][]::new);
+        if (lists.length == 0) {
+            return EMPTY;
+        }
+        // 由最短的 posting 開始取交集
+        long[] result = lists[0];
+        for (int i = 1; i < lists.length && result.length > 0; i++) {
+            result = intersect(result, lists[i]);
+        }
+        return result;
+    }
+
+    /**
+     * 設定 id 的姓名，移除舊姓名多出的 bigram 並加入新姓名的 bigram
+     * @param name 已正規化的姓名，null 表示用戶已不存在
+     */
+    synchronized void put(long id, String name) {
+        String previous = name == null ? names.remove(id) : names.put(id, name);
+        if (name != null && name.equals(previous)) {
+            return;
+        }
+        Set<String> added = name == null ? Set.of() : bigrams(name);
+        Set<String> removed = previous == null ? Set.of() : bigrams(previous);
+        for (String gram : removed) {
+            if (!added.contains(gram)) {
+                postings.computeIfPresent(gram, (k, posting) -> posting.remove(id));
+            }
+        }
+        for (String gram : added) {
+            if (!removed.contains(gram)) {
+                postings.compute(gram, (k, posting) -> (posting == null ? Posting.EMPTY : posting).add(id));
+            }
+        }
+    }
+
+    int gramCount() {
+        return postings.size();
+    }
+
+    static Set<String> bigrams(String value) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 1 < value.length(); i++) {
+            grams.add(value.substring(i, i + 2));
+        }
+        return grams;
+    }
+
+    private static long[] intersect(long[] a, long[] b) {
+        long[] result = new long[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    /**
+     * 整批建立索引，須依 id 遞增加入，posting 直接 append 不需排序
+     */
+    static final class Builder {
+
+        private final Map<String, LongList> building = new HashMap<>();
+        private final ConcurrentHashMap<Long, String> names = new ConcurrentHashMap<>();
+
+        void add(long id, String name) {
+            names.put(id, name);
+            for (String gram : bigrams(name)) {
+                building.computeIfAbsent(gram, k -> new LongList()).add(id);
+            }
+        }
+
+        NamePostings build() {
+            ConcurrentHashMap<String, Posting> postings = new ConcurrentHashMap<>(Math.max(16, building.size() * 4 / 3));
+            building.forEach((gram, list) -> postings.put(gram, new Posting(list.toArray(), EMPTY, EMPTY)));
+            return new NamePostings(postings, names);
+        }
+    }
+
+    /**
+     * 一個 bigram 的 posting：ids = base - removed + added
+     * @param base 合併後的 id
+     * @param added 尚未合併的新增 id，與 base 不重疊
+     * @param removed 尚未合併的移除 id，皆在 base 中
+     */
+    private record Posting(long[] base, long[] added, long[] removed) {
+
+        private static final Posting EMPTY = new Posting(NamePostings.EMPTY, NamePostings.EMPTY, NamePostings.EMPTY);
+
+        long[] ids() {
+            if (added.length == 0 && removed.length == 0) {
+                return base;
+            }
+            long[] result = new long[base.length - removed.length + added.length];
+            int i = 0, j = 0, r = 0, n = 0;
+            while (i < base.length || j < added.length) {
+                if (j == added.length || (i < base.length && base[i] < added[j])) {
+                    if (r < removed.length && removed[r] == base[i]) {
+                        r++;
+                    } else {
+                        result[n++] = base[i];
+                    }
+                    i++;
+                } else {
+                    result[n++] = added[j++];
+                }
+            }
+            return result;
+        }
+
+        Posting add(long id) {
+            int inRemoved = Arrays.binarySearch(removed, id);
+            if (inRemoved >= 0) {
+                return compact(base, added, without(removed, inRemoved));
+            }
+            if (Arrays.binarySearch(base, id) >= 0) {
+                return this;
+            }
+            int inAdded = Arrays.binarySearch(added, id);
+            return inAdded >= 0 ? this : compact(base, with(added, -inAdded - 1, id), removed);
+        }
+
+        /**
+         * @return 移除後為空時回傳 null，由 Map 移除該 bigram
+         */
+        Posting remove(long id) {
+            int inAdded = Arrays.binarySearch(added, id);
+            Posting result = this;
+            if (inAdded >= 0) {
+                result = compact(base, without(added, inAdded), removed);
+            } else if (Arrays.binarySearch(base, id) >= 0) {
+                int inRemoved = Arrays.binarySearch(removed, id);
+                if (inRemoved < 0) {
+                    result = compact(base, added, with(removed, -inRemoved - 1, id));
+                }
+            }
+            return result.base.length - result.removed.length + result.added.length == 0 ? null : result;
+        }
+
+        private static Posting compact(long[] base, long[] added, long[] removed) {
+            Posting posting = new Posting(base, added, removed);
+            if (added.length + removed.length > Math.max(MIN_COMPACT_THRESHOLD, base.length >>> 4)) {
+                return new Posting(posting.ids(), NamePostings.EMPTY, NamePostings.EMPTY);
+            }
+            return posting;
+        }
+
+        private static long[] with(long[] ids, int at, long id) {
+            long[] result = new long[ids.length + 1];
+            System.arraycopy(ids, 0, result, 0, at);
+            result[at] = id;
+            System.arraycopy(ids, at, result, at + 1, ids.length - at);
+            return result;
+        }
+
+        private static long[] without(long[] ids, int at) {
+            long[] result = new long[ids.length - 1];
+            System.arraycopy(ids, 0, result, 0, at);
+            System.arraycopy(ids, at + 1, result, at, ids.length - at - 1);
+            return result;
+        }
+    }
+
+    /**
+     * 建立索引時使用的可成長 long 陣列，避免 List<Long> 的裝箱成本
+     */
+    private static final class LongList {
+
+        private long[] values = new long[4];
+        private int size;
+
+        private void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
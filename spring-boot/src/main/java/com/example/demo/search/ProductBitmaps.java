@@ -0,0 +1,204 @@
+package com.example.demo.search;
+
+import com.example.demo.enums.ProductStatus;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 商品篩選位元圖
+ * 商品依 id 遞增配發連續序號，每個篩選值一個以序號為位置的 BitSet：狀態、有無庫存、是否刪除，
+ * 上架開始時間依月份分桶；篩選時取各條件的交集，總筆數即交集的位元數，序號順序即 id 順序。
+ *
+ * 實體刪除的商品只清除位元，序號保留到下次重建。非執行緒安全，由 {@link ProductFilterIndex} 以讀寫鎖保護。
+ */
+final class ProductBitmaps {
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private long[] ids = new long[1024];
+    private long[] startAtMillis = new long[1024];
+    private int size;
+
+    private final BitSet live = new BitSet();
+    private final BitSet inStock = new BitSet();
+    private final BitSet outOfStock = new BitSet();
+    private final BitSet deleted = new BitSet();
+    private final Map<ProductStatus, BitSet> byStatus = new EnumMap<>(ProductStatus.class);
+    // 年 × 12 + 月份 → 該月開始上架的商品
+    private final TreeMap<Integer, BitSet> byStartMonth = new TreeMap<>();
+
+    ProductBitmaps() {
+        for (ProductStatus status : ProductStatus.values()) {
+            byStatus.put(status, new BitSet());
+        }
+    }
+
+    /**
+     * 新增或更新商品的篩選值
+     * @return id 小於目前最大 id 且不在索引中時為 false，序號無法維持 id 順序，須重建
+     */
+    boolean put(Row row) {
+        int ordinal = Arrays.binarySearch(ids, 0, size, row.id());
+        if (ordinal < 0) {
+            if (size > 0 && row.id() < ids[size - 1]) {
+                return false;
+            }
+            ordinal = append(row.id());
+        } else {
+            clear(ordinal);
+        }
+
+        live.set(ordinal);
+        if (row.status() != null) {
+            byStatus.get(row.status()).set(ordinal);
+        }
+        if (row.stock() > 0) {
+            inStock.set(ordinal);
+        } else if (row.stock() == 0) {
+            outOfStock.set(ordinal);
+        }
+        if (row.deleted()) {
+            deleted.set(ordinal);
+        }
+        if (row.startAt() != null) {
+            startAtMillis[ordinal] = toMillis(row.startAt());
+            byStartMonth.computeIfAbsent(month(row.startAt()), k -> new BitSet()).set(ordinal);
+        }
+        return true;
+    }
+
+    /**
+     * 移除已實體刪除的商品
+     */
+    void remove(long id) {
+        int ordinal = Arrays.binarySearch(ids, 0, size, id);
+        if (ordinal >= 0) {
+            clear(ordinal);
+        }
+    }
+
+    /**
+     * 取得符合條件的總筆數與依 id 排序的一頁商品ID
+     */
+    ProductFilterIndex.Result select(ProductFilterIndex.Filter filter, long offset, int limit, boolean descending) {
+        BitSet result = (BitSet) live.clone();
+        if (Boolean.TRUE.equals(filter.deleted())) {
+            result.and(deleted);
+        } else {
+            // 未指定時與資料庫查詢相同，預設只查未刪除
+            result.andNot(deleted);
+        }
+        if (filter.status() != null) {
+            result.and(byStatus.get(filter.status()));
+        }
+        if (filter.inStock() != null) {
+            result.and(filter.inStock() ? inStock : outOfStock);
+        }
+        if (filter.startAtFrom() != null || filter.startAtTo() != null) {
+            result.and(startAtRange(filter.startAtFrom(), filter.startAtTo()));
+        }
+
+        long total = result.cardinality();
+        if (offset >= total || limit <= 0) {
+            return new ProductFilterIndex.Result(total, new long[0]);
+        }
+        long[] page = new long[(int) Math.min(limit, total - offset)];
+        int n = 0;
+        long skipped = 0;
+        if (descending) {
+            for (int i = result.previousSetBit(size - 1); i >= 0 && n < page.length; i = result.previousSetBit(i - 1)) {
+                if (skipped++ >= offset) {
+                    page[n++] = ids[i];
+                }
+            }
+        } else {
+            for (int i = result.nextSetBit(0); i >= 0 && n < page.length; i = result.nextSetBit(i + 1)) {
+                if (skipped++ >= offset) {
+                    page[n++] = ids[i];
+                }
+            }
+        }
+        return new ProductFilterIndex.Result(total, page);
+    }
+
+    /**
+     * 索引中（未實體刪除）的商品數
+     */
+    int count() {
+        return live.cardinality();
+    }
+
+    /**
+     * 上架開始時間介於 from 與 to 之間（含）的商品；完整落在範圍內的月份直接取整桶，頭尾月份逐筆比對
+     */
+    private BitSet startAtRange(LocalDateTime from, LocalDateTime to) {
+        long fromMillis = from == null ? NO_DATE + 1 : toMillis(from);
+        long toMillis = to == null ? Long.MAX_VALUE : toMillis(to);
+        BitSet range = new BitSet();
+        if (fromMillis > toMillis) {
+            return range;
+        }
+        int fromMonth = from == null ? Integer.MIN_VALUE : month(from);
+        int toMonth = to == null ? Integer.MAX_VALUE : month(to);
+        for (Map.Entry<Integer, BitSet> bucket : byStartMonth.subMap(fromMonth, true, toMonth, true).entrySet()) {
+            if (bucket.getKey() > fromMonth && bucket.getKey() < toMonth) {
+                range.or(bucket.getValue());
+                continue;
+            }
+            BitSet bits = bucket.getValue();
+            for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+                if (startAtMillis[i] >= fromMillis && startAtMillis[i] <= toMillis) {
+                    range.set(i);
+                }
+            }
+        }
+        return range;
+    }
+
+    private int append(long id) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            startAtMillis = Arrays.copyOf(startAtMillis, size * 2);
+        }
+        ids[size] = id;
+        startAtMillis[size] = NO_DATE;
+        return size++;
+    }
+
+    private void clear(int ordinal) {
+        live.clear(ordinal);
+        byStatus.values().forEach(bits -> bits.clear(ordinal));
+        inStock.clear(ordinal);
+        outOfStock.clear(ordinal);
+        deleted.clear(ordinal);
+        if (startAtMillis[ordinal] != NO_DATE) {
+            int month = month(LocalDateTime.ofEpochSecond(Math.floorDiv(startAtMillis[ordinal], 1000), 0, ZoneOffset.UTC));
+            BitSet bucket = byStartMonth.get(month);
+            bucket.clear(ordinal);
+            if (bucket.isEmpty()) {
+                byStartMonth.remove(month);
+            }
+            startAtMillis[ordinal] = NO_DATE;
+        }
+    }
+
+    private static long toMillis(LocalDateTime value) {
+        return value.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static int month(LocalDateTime value) {
+        return value.getYear() * 12 + value.getMonthValue() - 1;
+    }
+
+    /**
+     * 一筆商品的篩選欄位
+     */
+    record Row(long id, ProductStatus status, int stock, boolean deleted, LocalDateTime startAt) {
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.demo.search;
+
+import com.example.demo.enums.ProductStatus;
+import com.example.demo.event.ProductChangedEvent;
+import com.example.demo.event.ProductSalesEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 後台商品列表篩選索引
+ * 以 {@link ProductBitmaps} 在記憶體中評估狀態、庫存、刪除與上架開始時間的篩選，
+ * 直接得到精確總筆數與依 id 排序的一頁商品ID，呼叫端再以一次 IN 查詢載入該頁商品。
+ *
+ * 由 ProductFilterIndexJob 整批建立；後台異動商品、下單扣庫存與補償回補庫存提交後重新讀取該商品的篩選欄位，
+ * 重建期間收到的異動於重建完成後補套用。出現比既有最大 id 小的新商品時停用到下次重建。
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.products.filter-index", name = "enabled", havingValue = "true")
+public class ProductFilterIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductFilterIndex.class);
+
+    private static final String SELECT_SQL =
+            "SELECT id, status, stock, deleted_at IS NOT NULL AS deleted, start_at FROM products";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private ProductBitmaps bitmaps = new ProductBitmaps();
+    private volatile boolean ready;
+
+    // 重建期間收到的異動，重建完成後補套用
+    private final Set<Long> pendingProductIds = new HashSet<>();
+    private boolean rebuilding;
+
+    public ProductFilterIndex(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 索引是否可用，未建立完成或待重建時呼叫端應改用資料庫查詢
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 篩選商品
+     * @return 總筆數與本頁商品ID（依 id 排序），索引不可用時為空
+     */
+    public Optional<Result> search(Filter filter, long offset, int limit, boolean descending) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            return ready ? Optional.of(bitmaps.select(filter, offset, limit, descending)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 整批重建索引，由排程於啟動完成後、每日與索引不可用時呼叫；同時回收實體刪除的序號
+     */
+    public void rebuild() {
+        synchronized (pendingProductIds) {
+            rebuilding = true;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            ProductBitmaps built = new ProductBitmaps();
+            // 依 id 遞增串流讀取，序號依序配發
+            jdbcTemplate.getJdbcTemplate().query(con -> {
+                PreparedStatement ps = con.prepareStatement(SELECT_SQL + " ORDER BY id",
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(Integer.MIN_VALUE);
+                return ps;
+            }, (ResultSet rs) -> {
+                built.put(toRow(rs));
+            });
+
+            lock.writeLock().lock();
+            try {
+                bitmaps = built;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("商品篩選索引建立完成 - 商品數: {}, 耗時: {} ms", built.count(), System.currentTimeMillis() - start);
+        } finally {
+            Set<Long> pending;
+            synchronized (pendingProductIds) {
+                rebuilding = false;
+                pending = new HashSet<>(pendingProductIds);
+                pendingProductIds.clear();
+            }
+            if (!pending.isEmpty()) {
+                reload(pending);
+            }
+        }
+    }
+
+    /**
+     * 後台異動商品或補償回補庫存提交後，重新讀取篩選欄位
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        apply(event.productIds());
+    }
+
+    /**
+     * 下單扣減庫存提交後，重新讀取篩選欄位（有無庫存可能改變）
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductSales(ProductSalesEvent event) {
+        if (!event.isCancellation()) {
+            apply(event.quantities().keySet());
+        }
+    }
+
+    private void apply(Collection<Long> productIds) {
+        synchronized (pendingProductIds) {
+            if (rebuilding) {
+                pendingProductIds.addAll(productIds);
+                return;
+            }
+        }
+        // 尚未建立或待重建時，下次重建會讀到最新資料
+        if (ready) {
+            reload(productIds);
+        }
+    }
+
+    private void reload(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        Map<Long, ProductBitmaps.Row> rows = new HashMap<>();
+        jdbcTemplate.query(SELECT_SQL + " WHERE id IN (:ids)", new MapSqlParameterSource("ids", productIds),
+                (ResultSet rs) -> {
+                    ProductBitmaps.Row row = toRow(rs);
+                    rows.put(row.id(), row);
+                });
+
+        lock.writeLock().lock();
+        try {
+            for (Long id : productIds) {
+                ProductBitmaps.Row row = rows.get(id);
+                if (row == null) {
+                    bitmaps.remove(id);
+                } else if (!bitmaps.put(row)) {
+                    ready = false;
+                    log.warn("商品篩選索引收到比既有最大 id 小的新商品 {}，改用資料庫查詢直到下次重建", id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static ProductBitmaps.Row toRow(ResultSet rs) throws SQLException {
+        Timestamp startAt = rs.getTimestamp("start_at");
+        return new ProductBitmaps.Row(rs.getLong("id"),
+                ProductStatus.parseOrNull(rs.getString("status")),
+                rs.getInt("stock"),
+                rs.getBoolean("deleted"),
+                startAt == null ? null : startAt.toLocalDateTime());
+    }
+
+    /**
+     * 篩選條件，值為 null 時不篩選（deleted 為 null 時只查未刪除）
+     */
+    public record Filter(ProductStatus status, Boolean inStock, Boolean deleted,
+                         LocalDateTime startAtFrom, LocalDateTime startAtTo) {
+    }
+
+    /**
+     * @param total 符合條件的總筆數
+     * @param ids 本頁商品ID
+     */
+    public record Result(long total, long[] ids) {
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.demo.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongToDoubleFunction;
+
+/**
+ * 商品名稱前綴樹（壓縮字典樹）
+ * 單一子節點的路徑合併為一條邊，邊上存多個字元；每個節點保存子樹內權重最高的 topK 個商品ID，
+ * 查詢前綴時走到對應節點後直接回傳，不需再走訪子樹。
+ *
+ * 權重由建構時傳入的函式提供，商品在樹內期間權重不可變動（須先移除所有鍵再以新權重加入）。
+ * 非執行緒安全，由 {@link ProductSuggestIndex} 以讀寫鎖保護。
+ */
+final class ProductNameTrie {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final int topK;
+    private final LongToDoubleFunction weights;
+    private final Node root = new Node("");
+    private int nodeCount = 1;
+
+    ProductNameTrie(int topK, LongToDoubleFunction weights) {
+        this.topK = topK;
+        this.weights = weights;
+    }
+
+    /**
+     * 加入一個鍵，並更新路徑上各節點的前 topK 名
+     */
+    void insert(String key, long id) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int pos = 0;
+        while (pos < key.length()) {
+            Node child = node.child(key.charAt(pos));
+            if (child == null) {
+                child = new Node(key.substring(pos));
+                node.putChild(child);
+                nodeCount++;
+                node = child;
+                path.add(node);
+                break;
+            }
+            int common = commonPrefix(child.label, key, pos);
+            if (common < child.label.length()) {
+                // 邊在中途分岔，拆成共同前綴與剩餘兩段
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.putChild(child);
+                middle.top = child.top;
+                node.putChild(middle);
+                nodeCount++;
+                child = middle;
+            }
+            node = child;
+            path.add(node);
+            pos += common;
+        }
+
+        node.ids = insertSorted(node.ids, id);
+        for (Node n : path) {
+            n.top = offer(n.top, id);
+        }
+    }
+
+    /**
+     * 移除一個鍵，由下往上重算包含該商品的節點，並清除空節點、合併單一子節點
+     */
+    void remove(String key, long id) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int pos = 0;
+        while (pos < key.length()) {
+            Node child = node.child(key.charAt(pos));
+            if (child == null || !key.startsWith(child.label, pos)) {
+                return;
+            }
+            node = child;
+            path.add(node);
+            pos += child.label.length();
+        }
+        int index = Arrays.binarySearch(node.ids, id);
+        if (index < 0) {
+            return;
+        }
+        node.ids = removeAt(node.ids, index);
+
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node n = path.get(i);
+            if (i > 0) {
+                Node parent = path.get(i - 1);
+                if (n.ids.length == 0 && n.children == null) {
+                    parent.children.remove(n.label.charAt(0));
+                    if (parent.children.isEmpty()) {
+                        parent.children = null;
+                    }
+                    nodeCount--;
+                    continue;
+                }
+                if (n.ids.length == 0 && n.children.size() == 1) {
+                    // 沒有鍵結束於此且只剩一個子節點，與子節點合併成一條邊
+                    Node only = n.children.values().iterator().next();
+                    only.label = n.label + only.label;
+                    parent.putChild(only);
+                    nodeCount--;
+                    path.set(i, only);
+                    n = only;
+                }
+            }
+            if (contains(n.top, id)) {
+                n.top = recompute(n);
+            }
+        }
+    }
+
+    /**
+     * 取得以 prefix 開頭的鍵中權重最高的商品ID，依權重遞減排序
+     */
+    long[] top(String prefix) {
+        Node node = root;
+        int pos = 0;
+        while (pos < prefix.length()) {
+            Node child = node.child(prefix.charAt(pos));
+            if (child == null) {
+                return EMPTY;
+            }
+            int remaining = prefix.length() - pos;
+            if (remaining <= child.label.length()) {
+                // 前綴結束在這條邊上
+                return prefix.regionMatches(pos, child.label, 0, remaining) ? child.top : EMPTY;
+            }
+            if (!prefix.startsWith(child.label, pos)) {
+                return EMPTY;
+            }
+            node = child;
+            pos += child.label.length();
+        }
+        return node.top;
+    }
+
+    int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * 在已排序的前 topK 名中加入商品，已在其中時不重複加入
+     */
+    private long[] offer(long[] top, long id) {
+        if (contains(top, id)) {
+            return top;
+        }
+        double weight = weights.applyAsDouble(id);
+        if (top.length == topK && !before(id, weight, top[top.length - 1])) {
+            return top;
+        }
+        int insertAt = top.length;
+        while (insertAt > 0 && before(id, weight, top[insertAt - 1])) {
+            insertAt--;
+        }
+        int size = Math.min(top.length + 1, topK);
+        long[] result = new long[size];
+        System.arraycopy(top, 0, result, 0, insertAt);
+        result[insertAt] = id;
+        System.arraycopy(top, insertAt, result, insertAt + 1, size - insertAt - 1);
+        return result;
+    }
+
+    /**
+     * 以本節點結束的鍵與各子節點的前 topK 名重算本節點的前 topK 名
+     */
+    private long[] recompute(Node node) {
+        long[] top = EMPTY;
+        for (long id : node.ids) {
+            top = offer(top, id);
+        }
+        if (node.children != null) {
+            for (Node child : node.children.values()) {
+                for (long id : child.top) {
+                    top = offer(top, id);
+                }
+            }
+        }
+        return top;
+    }
+
+    /**
+     * 權重高者在前，同權重時 id 小者在前
+     */
+    private boolean before(long id, double weight, long other) {
+        int cmp = Double.compare(weight, weights.applyAsDouble(other));
+        return cmp > 0 || (cmp == 0 && id < other);
+    }
+
+    private static boolean contains(long[] ids, long id) {
+        for (long value : ids) {
+            if (value == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static long[] insertSorted(long[] ids, long id) {
+        int pos = Arrays.binarySearch(ids, id);
+        if (pos >= 0) {
+            return ids;
+        }
+        int insertAt = -pos - 1;
+        long[] result = new long[ids.length + 1];
+        System.arraycopy(ids, 0, result, 0, insertAt);
+        result[insertAt] = id;
+        System.arraycopy(ids, insertAt, result, insertAt + 1, ids.length - insertAt);
+        return result;
+    }
+
+    private static long[] removeAt(long[] ids, int index) {
+        long[] result = new long[ids.length - 1];
+        System.arraycopy(ids, 0, result, 0, index);
+        System.arraycopy(ids, index + 1, result, index, ids.length - index - 1);
+        return result;
+    }
+
+    /**
+     * label 為父節點到本節點的邊上字元；ids 為恰好結束於本節點的鍵所屬商品，依 id 遞增排序
+     */
+    private static final class Node {
+
+        private String label;
+        private Map<Character, Node> children;
+        private long[] ids = EMPTY;
+        private long[] top = EMPTY;
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        private Node child(char c) {
+            return children == null ? null : children.get(c);
+        }
+
+        private void putChild(Node child) {
+            if (children == null) {
+                children = new HashMap<>(4);
+            }
+            children.put(child.label.charAt(0), child);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.example.demo.search;
+
+import com.example.demo.event.ProductChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 商品名稱自動完成索引
+ * 將可販售商品的名稱正規化（NFKC、轉小寫、合併空白）後，從每個詞首與每個中日韓字元起各取一個鍵，
+ * 放入 {@link ProductNameTrie}，輸入名稱中段的詞或字也能提示；依瀏覽次數加上近期銷量的權重排序。
+ * 每個名稱最多 max-keys-per-name 個鍵，超過時優先保留詞首，其餘依序取詞中的中日韓字元，長名稱不會讓樹的大小失控。
+ *
+ * 查詢只讀記憶體，販售期間於查詢時檢查。啟動後與每次排程時整批重建（同時更新權重），
+ * 後台異動商品提交後重新讀取該商品並替換其鍵；重建期間收到的異動於重建完成後補套用。
+ * app.search.suggest.enabled 為 false 時不建立索引，查詢一律沒有結果。
+ */
+@Component
+public class ProductSuggestIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSuggestIndex.class);
+
+    // 權重 = 瀏覽次數 + 近 sales-days 天淨銷售件數 × sales-weight
+    private static final String SELECT_SQL =
+            "SELECT p.id, p.name, p.start_at, p.end_at, COALESCE(s.view_count, 0) + :salesWeight * COALESCE(" +
+            "(SELECT SUM(r.units) FROM sales_rollup_daily r WHERE r.product_id = p.id " +
+            "AND r.bucket_date >= :since AND r.status <> 'CANCELLED'), 0) AS weight " +
+            "FROM products p LEFT JOIN product_stats s ON s.product_id = p.id " +
+            "WHERE p.status = 'OPEN' AND p.deleted_at IS NULL AND p.start_at IS NOT NULL AND p.end_at >= :now";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int candidates;
+    private final int maxKeyLength;
+    private final int maxKeysPerName;
+    private final double salesWeight;
+    private final int salesDays;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Long, Entry> entries = new HashMap<>();
+    private ProductNameTrie trie;
+
+    // 重建期間收到的異動，重建完成後補套用
+    private final Set<Long> pendingProductIds = new HashSet<>();
+    private boolean rebuilding;
+
+    public ProductSuggestIndex(NamedParameterJdbcTemplate jdbcTemplate,
+                               @Value("${app.search.suggest.enabled:true}") boolean enabled,
+                               @Value("${app.search.suggest.candidates:20}") int candidates,
+                               @Value("${app.search.suggest.max-key-length:24}") int maxKeyLength,
+                               @Value("${app.search.suggest.max-keys-per-name:8}") int maxKeysPerName,
+                               @Value("${app.search.suggest.sales-weight:10}") double salesWeight,
+                               @Value("${app.search.suggest.sales-days:30}") int salesDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.candidates = candidates;
+        this.maxKeyLength = maxKeyLength;
+        this.maxKeysPerName = maxKeysPerName;
+        this.salesWeight = salesWeight;
+        this.salesDays = salesDays;
+        Map<Long, Entry> initial = entries;
+        this.trie = new ProductNameTrie(candidates, id -> initial.get(id).weight());
+    }
+
+    /**
+     * 每個前綴保留的候選數，也是單次查詢筆數上限
+     */
+    public int getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * 取得名稱中有詞或字以 query 開頭、目前在販售期間內的商品，依權重遞減排序
+     */
+    public List<Suggestion> suggest(String query, int limit, LocalDateTime now) {
+        String prefix = normalize(query);
+        if (!enabled || prefix.isEmpty()) {
+            return List.of();
+        }
+        // 鍵最長 max-key-length 個字元，超過的查詢以截斷後的前綴比對
+        if (prefix.length() > maxKeyLength) {
+            prefix = prefix.substring(0, maxKeyLength);
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Suggestion> result = new ArrayList<>(Math.min(limit, candidates));
+            for (long id : trie.top(prefix)) {
+                Entry entry = entries.get(id);
+                if (entry.isAvailable(now)) {
+                    result.add(new Suggestion(id, entry.name()));
+                    if (result.size() == limit) {
+                        break;
+                    }
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 應用程式啟動完成後建立索引，之後由排程定期重建以更新權重；失敗時索引維持空的，由下次排程重建
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("商品名稱提示索引建立失敗，等待下次排程重建", e);
+        }
+    }
+
+    /**
+     * 整批重建索引並更新權重
+     */
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (pendingProductIds) {
+            rebuilding = true;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            Map<Long, Entry> built = new HashMap<>();
+            jdbcTemplate.query(SELECT_SQL, params(), (ResultSet rs) -> {
+                Entry entry = toEntry(rs);
+                built.put(entry.id(), entry);
+            });
+            ProductNameTrie builtTrie = new ProductNameTrie(candidates, id -> built.get(id).weight());
+            long keys = 0;
+            for (Entry entry : built.values()) {
+                for (String key : keys(entry.name())) {
+                    builtTrie.insert(key, entry.id());
+                    keys++;
+                }
+            }
+
+            lock.writeLock().lock();
+            try {
+                entries = built;
+                trie = builtTrie;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("商品名稱提示索引建立完成 - 商品數: {}, 鍵數: {}, 節點數: {}, 耗時: {} ms",
+                    built.size(), keys, builtTrie.nodeCount(), System.currentTimeMillis() - start);
+        } finally {
+            Set<Long> pending;
+            synchronized (pendingProductIds) {
+                rebuilding = false;
+                pending = new HashSet<>(pendingProductIds);
+                pendingProductIds.clear();
+            }
+            if (!pending.isEmpty()) {
+                reload(pending);
+            }
+        }
+    }
+
+    /**
+     * 商品異動提交後，重新讀取並替換其鍵
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (pendingProductIds) {
+            if (rebuilding) {
+                pendingProductIds.addAll(event.productIds());
+                return;
+            }
+        }
+        reload(event.productIds());
+    }
+
+    private void reload(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        Map<Long, Entry> loaded = new HashMap<>();
+        jdbcTemplate.query(SELECT_SQL + " AND p.id IN (:ids)", params().addValue("ids", productIds),
+                (ResultSet rs) -> {
+                    Entry entry = toEntry(rs);
+                    loaded.put(entry.id(), entry);
+                });
+
+        lock.writeLock().lock();
+        try {
+            for (Long id : productIds) {
+                // 先以舊權重移除所有鍵，再以新權重加入，樹內的權重維持不變
+                Entry previous = entries.get(id);
+                if (previous != null) {
+                    for (String key : keys(previous.name())) {
+                        trie.remove(key, id);
+                    }
+                    entries.remove(id);
+                }
+                Entry current = loaded.get(id);
+                if (current != null) {
+                    entries.put(id, current);
+                    for (String key : keys(current.name())) {
+                        trie.insert(key, id);
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private MapSqlParameterSource params() {
+        LocalDateTime now = LocalDateTime.now();
+        return new MapSqlParameterSource("salesWeight", salesWeight)
+                .addValue("since", Date.valueOf(LocalDate.now().minusDays(salesDays)))
+                .addValue("now", Timestamp.valueOf(now));
+    }
+
+    private static Entry toEntry(ResultSet rs) throws SQLException {
+        return new Entry(rs.getLong("id"), rs.getString("name"),
+                rs.getTimestamp("start_at").toLocalDateTime(),
+                rs.getTimestamp("end_at").toLocalDateTime(),
+                rs.getDouble("weight"));
+    }
+
+    /**
+     * 取出名稱的鍵：從名稱開頭、每個詞首與每個中日韓字元起，各取最多 max-key-length 個字元，依在名稱中的位置排列
+     * 起點超過 max-keys-per-name 個時，先保留名稱開頭與詞首，剩餘名額由前往後分給詞中的中日韓字元
+     */
+    Set<String> keys(String name) {
+        String value = normalize(name);
+        List<Integer> wordStarts = new ArrayList<>();
+        List<Integer> innerStarts = new ArrayList<>();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ' ' || Character.isLowSurrogate(c)) {
+                continue;
+            }
+            if (i == 0 || isWordStart(value, i)) {
+                wordStarts.add(i);
+            } else if (isCjk(value.codePointAt(i))) {
+                innerStarts.add(i);
+            }
+        }
+
+        List<Integer> starts = new ArrayList<>(wordStarts.subList(0, Math.min(maxKeysPerName, wordStarts.size())));
+        starts.addAll(innerStarts.subList(0, Math.min(maxKeysPerName - starts.size(), innerStarts.size())));
+        starts.sort(null);
+
+        Set<String> keys = new LinkedHashSet<>();
+        for (int start : starts) {
+            int end = Math.min(value.length(), start + maxKeyLength);
+            if (end < value.length() && Character.isHighSurrogate(value.charAt(end - 1))) {
+                end--;
+            }
+            keys.add(value.substring(start, end).stripTrailing());
+        }
+        return keys;
+    }
+
+    /**
+     * 在非字母數字之後，或與前一字一邊是中日韓字元、一邊不是時為詞首；連續中日韓字元的第二字起為詞中
+     */
+    private static boolean isWordStart(String value, int index) {
+        int current = value.codePointAt(index);
+        int previous = value.codePointBefore(index);
+        if (isCjk(current)) {
+            return !isCjk(previous);
+        }
+        return Character.isLetterOrDigit(current) && (!Character.isLetterOrDigit(previous) || isCjk(previous));
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    /**
+     * 全形轉半形、相容字元統一（NFKC），轉小寫並合併連續空白
+     */
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return Normalizer.normalize(value, Normalizer.Form.NFKC)
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("\\s+", " ")
+                .trim();
+    }
+
+    /**
+     * 查詢結果
+     */
+    public record Suggestion(long productId, String name) {
+    }
+
+    /**
+     * 已上架商品的名稱、販售期間與權重；尚未開賣的商品也會載入，到期後才出現在結果中
+     */
+    private record Entry(long id, String name, LocalDateTime startAt, LocalDateTime endAt, double weight) {
+
+        private boolean isAvailable(LocalDateTime now) {
+            return !now.isBefore(startAt) && !now.isAfter(endAt);
+        }
+    }
+}
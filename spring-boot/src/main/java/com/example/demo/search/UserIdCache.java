@@ -0,0 +1,97 @@
+package com.example.demo.search;
+
+import com.example.demo.event.UserChangedEvent;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.util.BoundedTtlCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 用戶 email → id 快取
+ * 只快取未刪除的用戶，未命中時以只查 id 的投影查詢，不載入用戶與角色。
+ * 最多保留 app.users.id-cache-size 筆，超過時移除最久未讀取的項目。
+ *
+ * 用戶異動提交後先遞增世代號，再移除對應該 id 的項目。放入快取時在快取的段鎖內比對查詢前記下的世代號，
+ * 世代號已變動的結果不放入：比對與放入不可分割，異動提交前讀到的舊對應不會在移除之後才被放回。
+ * 在交易中查詢時於提交後才放入。
+ *
+ * 其他節點的用戶異動不會通知本節點，項目於 app.users.id-cache-ttl-seconds 後過期，
+ * 已刪除或變更 email 的用戶在其他節點最多在存活時間內仍可解析到舊 id。
+ */
+@Component
+public class UserIdCache {
+
+    private final Function<String, Optional<Long>> lookup;
+    private final BoundedTtlCache<String, Long> idsByEmail;
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public UserIdCache(UserRepository userRepository,
+                       @Value("${app.users.id-cache-size:10000}") int maxSize,
+                       @Value("${app.users.id-cache-ttl-seconds:300}") long ttlSeconds) {
+        this(userRepository::findIdByEmailAndDeletedFalse, maxSize, Duration.ofSeconds(ttlSeconds));
+    }
+
+    UserIdCache(Function<String, Optional<Long>> lookup, int maxSize, Duration ttl) {
+        this.lookup = lookup;
+        this.idsByEmail = new BoundedTtlCache<>(maxSize, ttl);
+    }
+
+    /**
+     * 取得未刪除用戶的 id
+     * @return 用戶 id，用戶不存在或已刪除時為空
+     */
+    public Optional<Long> resolve(String email) {
+        Long cached = idsByEmail.get(email);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        long observed = generation.get();
+        Optional<Long> userId = lookup.apply(email);
+        userId.ifPresent(id -> putAfterCommit(email, id, observed));
+        return userId;
+    }
+
+    /**
+     * 用戶新增、修改、刪除或恢復後移除快取，email 變更或刪除後不會再解析到舊 id
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        generation.incrementAndGet();
+        Set<Long> userIds = new HashSet<>(event.userIds());
+        idsByEmail.removeIf((email, userId) -> userIds.contains(userId));
+    }
+
+    /**
+     * 在交易中查到的對應可能尚未提交（例如同一交易新建的用戶），等提交後才放入
+     */
+    private void putAfterCommit(String email, Long userId, long observed) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            putIfCurrent(email, userId, observed);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                putIfCurrent(email, userId, observed);
+            }
+        });
+    }
+
+    private void putIfCurrent(String email, Long userId, long observed) {
+        idsByEmail.compute(email, (key, current) -> generation.get() == observed ? userId : current);
+    }
+}
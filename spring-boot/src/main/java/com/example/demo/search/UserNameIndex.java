@@ -0,0 +1,153 @@
+package com.example.demo.search;
+
+import com.example.demo.event.UserChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 用戶姓名 bigram 記憶體索引
+ * 以 {@link NamePostings} 取各 bigram 的交集作為候選，實際是否包含查詢字串由資料庫再以 LIKE 驗證。
+ * 只索引 bigram，單字查詢由呼叫端改用資料庫查詢。
+ *
+ * 用戶異動提交後重新讀取姓名，改名時移除舊的 bigram。索引建立失敗時維持未就緒，姓名搜尋改用資料庫查詢。
+ */
+@Component
+public class UserNameIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(UserNameIndex.class);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private volatile NamePostings postings = NamePostings.empty();
+    private volatile boolean ready;
+
+    // 重建期間收到的異動，重建完成後補套用
+    private final Set<Long> pendingUserIds = new HashSet<>();
+    private boolean rebuilding;
+
+    public UserNameIndex(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 索引是否可回答此查詢：須已建立完成且查詢至少兩個字，否則呼叫端應改用資料庫查詢
+     */
+    public boolean canSearch(String query) {
+        return ready && normalize(query).length() >= 2;
+    }
+
+    /**
+     * 查詢姓名可能包含 query 的用戶ID，呼叫前須以 {@link #canSearch} 確認
+     * @return 依 id 遞增排序的候選 id（可能包含不符合的候選）
+     */
+    public long[] search(String query) {
+        return postings.search(normalize(query));
+    }
+
+    /**
+     * 應用程式啟動完成後建立索引，失敗時記錄後繼續啟動
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("用戶姓名索引建立失敗，姓名搜尋改用資料庫查詢", e);
+        }
+    }
+
+    /**
+     * 整批重建索引
+     */
+    public void rebuild() {
+        synchronized (pendingUserIds) {
+            rebuilding = true;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            NamePostings.Builder builder = new NamePostings.Builder();
+            long[] count = new long[1];
+
+            // 依 id 遞增串流讀取，append 後各 posting 自然有序
+            jdbcTemplate.getJdbcTemplate().query(con -> {
+                PreparedStatement ps = con.prepareStatement("SELECT id, name FROM users ORDER BY id",
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(Integer.MIN_VALUE);
+                return ps;
+            }, (ResultSet rs) -> {
+                builder.add(rs.getLong(1), normalize(rs.getString(2)));
+                count[0]++;
+            });
+
+            NamePostings built = builder.build();
+            postings = built;
+            ready = true;
+            log.info("用戶姓名索引建立完成 - 用戶數: {}, bigram 數: {}, 耗時: {} ms",
+                    count[0], built.gramCount(), System.currentTimeMillis() - start);
+        } finally {
+            Set<Long> pending;
+            synchronized (pendingUserIds) {
+                rebuilding = false;
+                pending = new HashSet<>(pendingUserIds);
+                pendingUserIds.clear();
+            }
+            if (!pending.isEmpty()) {
+                reload(pending);
+            }
+        }
+    }
+
+    /**
+     * 用戶異動提交後，重新讀取其姓名並更新索引
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        synchronized (pendingUserIds) {
+            if (rebuilding) {
+                pendingUserIds.addAll(event.userIds());
+                return;
+            }
+        }
+        // 尚未建立時，下次重建會讀到最新資料
+        if (ready) {
+            reload(event.userIds());
+        }
+    }
+
+    private void reload(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        Map<Long, String> names = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM users WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", userIds),
+                (ResultSet rs) -> {
+                    names.put(rs.getLong(1), normalize(rs.getString(2)));
+                });
+        NamePostings current = postings;
+        for (Long userId : userIds) {
+            // 已實體刪除的用戶移除其 bigram
+            current.put(userId, names.get(userId));
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
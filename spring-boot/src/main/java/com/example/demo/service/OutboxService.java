@@ -0,0 +1,24 @@
+package com.example.demo.service;
+
+import com.example.demo.outbox.OutboxMessage;
+
+import java.util.Collection;
+
+/**
+ * 交易外寄箱服務接口
+ * 事件與業務異動在同一交易內寫入 outbox_events，提交後由 OutboxRelay 送往下游，回滾時一併捨棄。
+ * 同一聚合的事件依寫入的 id 順序送出，因此須在取得該聚合的資料列鎖（更新訂單或商品）之後才寫入，
+ * 讓併發交易的事件 id 順序與提交順序一致
+ */
+public interface OutboxService {
+
+    /**
+     * 寫入一筆事件，必須在業務交易中呼叫
+     */
+    void append(OutboxMessage message);
+
+    /**
+     * 以 JDBC batch 寫入多筆事件，必須在業務交易中呼叫
+     */
+    void appendAll(Collection<OutboxMessage> messages);
+}
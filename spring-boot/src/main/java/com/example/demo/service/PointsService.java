@@ -0,0 +1,29 @@
+package com.example.demo.service;
+
+import java.math.BigDecimal;
+
+/**
+ * 點數服務接口
+ * 所有點數異動都先寫入帳本，再以原子累加更新 users.points
+ */
+public interface PointsService {
+
+    /**
+     * 訂單成立時回饋點數（未啟用點數功能時不做任何事）
+     * 必須在建立訂單的同一交易中呼叫
+     */
+    void earnForOrder(Long userId, Long orderId, BigDecimal orderAmount);
+
+    /**
+     * 訂單取消時收回該訂單回饋的點數，未曾回饋或未啟用點數功能時不做任何事
+     * 必須在取消訂單的同一交易中呼叫
+     */
+    void revokeForOrder(Long userId, Long orderId);
+
+    /**
+     * 以 基準餘額 + 帳本加總 校正指定用戶ID區間內的點數餘額，尚無帳本紀錄的用戶不處理
+     * 在獨立交易中先鎖定區間內的用戶列，校正期間同區間用戶的點數異動會等待
+     * @return 被校正的用戶數
+     */
+    int reconcileBalances(long fromUserId, long toUserId);
+}
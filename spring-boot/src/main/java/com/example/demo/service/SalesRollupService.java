@@ -0,0 +1,30 @@
+package com.example.demo.service;
+
+import com.example.demo.enums.OrderStatus;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * 銷售彙總服務接口
+ * 維護 sales_rollup_hourly / sales_rollup_daily：訂單成立與狀態變更時在同一交易內增量累加，
+ * 歷史資料或累加有誤的期間以重建回填
+ */
+public interface SalesRollupService {
+
+    /**
+     * 訂單成立時累加到該狀態，必須在建立訂單的同一交易中、訂單項目寫入之後呼叫
+     */
+    void recordCreated(Long orderId, OrderStatus status);
+
+    /**
+     * 訂單狀態變更時從原狀態扣除並累加到新狀態，必須在變更狀態的同一交易中呼叫
+     */
+    void recordStatusChange(Collection<Long> orderIds, OrderStatus from, OrderStatus to);
+
+    /**
+     * 依訂單資料逐日重建指定日期區間（含頭尾）的彙總，每日為獨立交易
+     * @return 重建的天數
+     */
+    int rebuild(LocalDate from, LocalDate to);
+}
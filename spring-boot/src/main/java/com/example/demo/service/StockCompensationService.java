@@ -0,0 +1,36 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.OrderItem;
+
+import java.util.Collection;
+
+/**
+ * 庫存補償服務接口
+ * 取消訂單時先將回補數量寫入 stock_compensation，再以單一條件式 UPDATE 依商品ID順序回補庫存，
+ * 回補與標記完成在同一交易內進行；未完成的紀錄由排程重試
+ */
+public interface StockCompensationService {
+
+    /**
+     * 將訂單項目寫入補償佇列，同一訂單同一商品合併為一筆，已入列的訂單不會重複寫入
+     * 必須在取消訂單的同一交易中呼叫
+     */
+    void enqueue(Collection<OrderItem> orderItems);
+
+    /**
+     * 回補指定訂單尚未回補的庫存，商品已不存在的紀錄標記為 FAILED，不影響其他商品的回補
+     * @return 處理的紀錄數
+     */
+    int applyForOrders(Collection<Long> orderIds);
+
+    /**
+     * 記錄指定訂單回補失敗，累加嘗試次數並保留失敗原因
+     */
+    void recordFailure(Collection<Long> orderIds, String error);
+
+    /**
+     * 重試最舊的一批待回補紀錄，其他交易處理中的紀錄會被略過；商品已不存在的紀錄標記為 FAILED
+     * @return 本批處理的紀錄數，沒有待回補紀錄時為 0
+     */
+    int retryPending(int limit);
+}
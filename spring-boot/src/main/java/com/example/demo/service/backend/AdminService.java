@@ -1,7 +1,11 @@
 package com.example.demo.service.backend;
 
+import com.example.demo.dto.request.backend.BulkUserRequest;
 import com.example.demo.dto.request.backend.CreateUserRequest;
+import com.example.demo.dto.request.backend.UserSearchRequest;
+import com.example.demo.dto.response.CursorPageResponse;
 import com.example.demo.dto.response.UserResponse;
+import com.example.demo.dto.response.backend.BulkJobResponse;
 import com.example.demo.enums.UserRole;
 
 import java.util.List;
@@ -24,15 +28,20 @@ public interface AdminService {
     UserResponse createUser(CreateUserRequest request, String createdBy);
 
     /**
-     * 獲取所有用戶
+     * 獲取所有用戶（最多 1000 筆，完整列表請用 searchUsers 分頁查詢）
      */
     List<UserResponse> getAllUsers();
 
     /**
-     * 根據角色獲取用戶
+     * 根據角色獲取用戶（最多 1000 筆）
      */
     List<UserResponse> getUsersByRole(UserRole role);
 
+    /**
+     * 搜尋用戶（keyset 分頁，支援郵箱前綴、姓名關鍵字、角色、啟用、刪除、建立時間篩選）
+     */
+    CursorPageResponse<UserResponse> searchUsers(UserSearchRequest request);
+
     /**
      * 切換用戶啟用狀態
      */
@@ -54,7 +63,7 @@ public interface AdminService {
     Map<String, Object> getUserStatistics();
 
     /**
-     * 獲取已刪除的用戶列表
+     * 獲取已刪除的用戶列表（最多 1000 筆）
      */
     List<UserResponse> getDeletedUsers();
 
@@ -67,4 +76,15 @@ public interface AdminService {
      * 移除用戶角色
      */
     UserResponse removeUserRole(Long userId, UserRole role, String operatorEmail);
+
+    /**
+     * 提交批次用戶管理作業（非同步執行）
+     * 操作者權限只在提交時驗證一次，操作者本人會被略過
+     */
+    BulkJobResponse submitBulkOperation(BulkUserRequest request, String operatorEmail);
+
+    /**
+     * 查詢批次作業進度
+     */
+    BulkJobResponse getBulkJob(String jobId);
 }
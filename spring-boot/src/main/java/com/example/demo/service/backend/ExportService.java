@@ -0,0 +1,27 @@
+package com.example.demo.service.backend;
+
+import com.example.demo.enums.ExportFormat;
+
+import java.io.OutputStream;
+
+/**
+ * 資料匯出服務接口
+ * 以串流方式逐筆寫出，不在記憶體中累積整份資料
+ */
+public interface ExportService {
+
+    /**
+     * 匯出所有用戶（含已刪除）
+     */
+    void exportUsers(ExportFormat format, OutputStream out);
+
+    /**
+     * 匯出所有商品（含已刪除）
+     */
+    void exportProducts(ExportFormat format, OutputStream out);
+
+    /**
+     * 匯出所有訂單主檔
+     */
+    void exportOrders(ExportFormat format, OutputStream out);
+}
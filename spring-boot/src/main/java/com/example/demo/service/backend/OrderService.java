@@ -0,0 +1,28 @@
+package com.example.demo.service.backend;
+
+import com.example.demo.dto.response.backend.CancelOrdersResponse;
+import com.example.demo.dto.response.backend.OrderExpiryMetricsResponse;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OrderService {
+
+    /**
+     * 批次取消訂單
+     * 依訂單ID順序分批處理，每批在獨立交易內取消並寫入庫存補償佇列，提交後再回補庫存；
+     * 回補失敗的訂單維持已取消，庫存由排程重試回補
+     */
+    CancelOrdersResponse cancelOrders(List<Long> orderIds, String operatorEmail);
+
+    /**
+     * 取消一批建立時間早於截止時間的待處理訂單，略過其他節點正在處理的訂單
+     * @return 本批取消的訂單數
+     */
+    int expirePendingOrders(LocalDateTime cutoff, int limit);
+
+    /**
+     * 取得逾期訂單排程的積壓量、延遲與本節點的處理統計
+     */
+    OrderExpiryMetricsResponse getExpiryMetrics();
+}
@@ -0,0 +1,21 @@
+package com.example.demo.service.backend;
+
+import com.example.demo.dto.response.backend.ProductImportResponse;
+import com.example.demo.enums.ExportFormat;
+
+import java.io.InputStream;
+
+/**
+ * 商品批次匯入服務接口
+ * 以串流方式逐筆讀取與驗證，不在記憶體中累積整份資料
+ */
+public interface ProductImportService {
+
+    /**
+     * 匯入商品，商品編號一律系統產生
+     * @param format 檔案格式，CSV 第一列須為標題列
+     * @param in 請求內容（UTF-8）
+     * @param operatorEmail 操作者郵箱
+     */
+    ProductImportResponse importProducts(ExportFormat format, InputStream in, String operatorEmail);
+}
@@ -1,10 +1,14 @@
 package com.example.demo.service.backend;
 
 import com.example.demo.dto.request.backend.CreateProductRequest;
+import com.example.demo.dto.request.backend.ProductSearchRequest;
 import com.example.demo.dto.request.backend.UpdateProductRequest;
+import com.example.demo.dto.response.CursorPageResponse;
 import com.example.demo.dto.response.backend.ProductResponse;
+import com.example.demo.enums.ProductSortField;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -54,4 +58,20 @@ public interface ProductService {
             String startAtTo,
             Pageable pageable
     );
+
+    /**
+     * 商品複合篩選查詢（不計算總筆數）
+     */
+    Slice<ProductResponse> searchProductsSlice(ProductSearchRequest request, Pageable pageable);
+
+    /**
+     * 商品複合篩選查詢（keyset 分頁），cursor 為上一頁回傳的 nextCursor
+     */
+    CursorPageResponse<ProductResponse> searchProductsByCursor(
+            ProductSearchRequest request,
+            ProductSortField sortField,
+            boolean descending,
+            String cursor,
+            Integer size
+    );
 }
@@ -0,0 +1,50 @@
+package com.example.demo.service.backend;
+
+import com.example.demo.dto.response.backend.ProductSalesResponse;
+import com.example.demo.dto.response.backend.ProductViewsResponse;
+import com.example.demo.dto.response.backend.SalesPointResponse;
+import com.example.demo.dto.response.backend.SalesStatusSummaryResponse;
+import com.example.demo.enums.OrderStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 後台銷售報表服務接口
+ * 銷售查詢只讀取銷售彙總表，查詢成本與區間長度相關，與訂單量無關；瀏覽排行讀取商品統計表。
+ * 訂單依建立時間歸入時段；未指定狀態時合計取消以外的所有狀態
+ */
+public interface ReportService {
+
+    /**
+     * 日期區間（含頭尾）內各訂單狀態的合計
+     */
+    List<SalesStatusSummaryResponse> getStatusSummary(LocalDate from, LocalDate to);
+
+    /**
+     * 日期區間（含頭尾）內每日的銷售，沒有銷售的日期補 0
+     */
+    List<SalesPointResponse> getDailySales(LocalDate from, LocalDate to, OrderStatus status);
+
+    /**
+     * 時間區間 [from, to) 內每小時的銷售，沒有銷售的小時補 0
+     */
+    List<SalesPointResponse> getHourlySales(LocalDateTime from, LocalDateTime to, OrderStatus status);
+
+    /**
+     * 日期區間（含頭尾）內依營收排序的商品
+     */
+    List<ProductSalesResponse> getTopProducts(LocalDate from, LocalDate to, OrderStatus status, int limit);
+
+    /**
+     * 依瀏覽次數排序的商品（各節點定期寫入，最多延遲一個寫入週期）
+     */
+    List<ProductViewsResponse> getTopViewedProducts(int limit);
+
+    /**
+     * 依訂單資料重建日期區間（含頭尾）的彙總
+     * @return 重建的天數
+     */
+    int rebuild(LocalDate from, LocalDate to);
+}
@@ -1,15 +1,31 @@
 package com.example.demo.service.backend.impl;
 
+import com.example.demo.dto.request.backend.BulkUserRequest;
 import com.example.demo.dto.request.backend.CreateUserRequest;
+import com.example.demo.dto.request.backend.UserSearchRequest;
+import com.example.demo.dto.response.CursorPageResponse;
 import com.example.demo.dto.response.UserResponse;
+import com.example.demo.dto.response.backend.BulkJobResponse;
 import com.example.demo.entity.User;
+import com.example.demo.event.UserChangedEvent;
+import com.example.demo.exception.CustomException;
 import com.example.demo.enums.UserRole;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.repository.query.UserFilter;
+import com.example.demo.repository.query.UserSummary;
+import com.example.demo.search.UserIdCache;
+import com.example.demo.search.UserNameIndex;
 import com.example.demo.service.backend.AdminService;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -23,8 +39,25 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class AdminServiceImpl implements AdminService {
 
+    private static final Logger log = LoggerFactory.getLogger(AdminServiceImpl.class);
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    // 舊版不分頁列表每次以 keyset 查詢的筆數，逐頁讀完後一次回傳
+    private static final int LEGACY_LIST_PAGE_SIZE = 1000;
+    // 批次查詢角色時 IN 條件的最大筆數
+    private static final int ROLE_QUERY_CHUNK_SIZE = 1000;
+    // 姓名索引候選每次以 IN 查詢的 id 數
+    private static final int NAME_CANDIDATE_WINDOW = 500;
+    // 單次搜尋最多查詢的候選段數，超過後其餘部分改由資料庫掃描
+    private static final int MAX_NAME_CANDIDATE_WINDOWS = 10;
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserBulkJobExecutor userBulkJobExecutor;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserNameIndex userNameIndex;
+    private final UserIdCache userIdCache;
 
     @Override
     public UserResponse createAdmin(CreateUserRequest request, String createdBy) {
@@ -52,6 +85,7 @@ public class AdminServiceImpl implements AdminService {
                 .build();
 
         User savedAdmin = userRepository.save(admin);
+        eventPublisher.publishEvent(new UserChangedEvent(List.of(savedAdmin.getId())));
         return convertToUserResponse(savedAdmin);
     }
 
@@ -81,21 +115,81 @@ public class AdminServiceImpl implements AdminService {
                 .build();
 
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(List.of(savedUser.getId())));
         return convertToUserResponse(savedUser);
     }
 
     @Override
     public List<UserResponse> getAllUsers() {
-        return userRepository.findByDeletedFalse().stream()
-                .map(this::convertToUserResponse)
-                .collect(Collectors.toList());
+        return findLegacyList(UserFilter.ofDeleted(false));
     }
 
     @Override
     public List<UserResponse> getUsersByRole(UserRole role) {
-        return userRepository.findByRolesContaining(role).stream()
-                .map(this::convertToUserResponse)
-                .collect(Collectors.toList());
+        return findLegacyList(UserFilter.ofRole(role));
+    }
+
+    @Override
+    public CursorPageResponse<UserResponse> searchUsers(UserSearchRequest request) {
+        int size = normalizePageSize(request.getSize());
+        Long cursor = parseCursor(request.getCursor());
+        String name = trimToNull(request.getName());
+        UserFilter filter = new UserFilter(
+                request.getRole(),
+                request.getEnabled(),
+                request.getDeleted(),
+                request.getCreatedAtFrom(),
+                request.getCreatedAtTo(),
+                trimToNull(request.getEmail()),
+                name,
+                null);
+
+        // 多查一筆判斷是否還有下一頁
+        List<UserSummary> rows = name != null && userNameIndex.canSearch(name)
+                ? findByNameCandidates(filter, cursor, size + 1)
+                : userRepository.findUserSummaries(filter, cursor, size + 1);
+        boolean hasNext = rows.size() > size;
+        if (hasNext) {
+            rows = rows.subList(0, size);
+        }
+
+        return CursorPageResponse.<UserResponse>builder()
+                .items(convertSummaries(rows))
+                .size(size)
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? String.valueOf(rows.get(rows.size() - 1).getId()) : null)
+                .build();
+    }
+
+    /**
+     * 以姓名索引的候選 id 由大到小分段查詢，每段以主鍵 IN 查詢並套用其餘條件
+     * 姓名 LIKE 條件仍保留在查詢中，用來濾掉索引的多餘候選；
+     * 查過 MAX_NAME_CANDIDATE_WINDOWS 段仍不足一頁時（候選多但符合的少），改由資料庫從目前位置往下查詢
+     */
+    private List<UserSummary> findByNameCandidates(UserFilter filter, Long cursor, int limit) {
+        long[] candidates = userNameIndex.search(filter.nameContains());
+        int end = candidates.length;
+        if (cursor != null) {
+            int pos = Arrays.binarySearch(candidates, cursor);
+            end = pos >= 0 ? pos : -pos - 1;
+        }
+
+        List<UserSummary> rows = new ArrayList<>(limit);
+        int windows = 0;
+        while (end > 0 && rows.size() < limit) {
+            if (windows++ == MAX_NAME_CANDIDATE_WINDOWS) {
+                rows.addAll(userRepository.findUserSummaries(filter, candidates[end], limit - rows.size()));
+                break;
+            }
+            int start = Math.max(0, end - NAME_CANDIDATE_WINDOW);
+            List<Long> window = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++) {
+                window.add(candidates[i]);
+            }
+            rows.addAll(userRepository.findUserSummaries(filter.withIds(window), null, limit - rows.size()));
+            end = start;
+        }
+        return rows;
     }
 
     @Override
@@ -115,6 +209,7 @@ public class AdminServiceImpl implements AdminService {
         user.setEnabled(!user.getEnabled());
 
         User updatedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(List.of(updatedUser.getId())));
         return convertToUserResponse(updatedUser);
     }
 
@@ -134,6 +229,7 @@ public class AdminServiceImpl implements AdminService {
 
         user.softDelete(deletedBy);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(List.of(user.getId())));
     }
 
     @Override
@@ -147,6 +243,7 @@ public class AdminServiceImpl implements AdminService {
 
         user.restore();
         User restoredUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(List.of(restoredUser.getId())));
         return convertToUserResponse(restoredUser);
     }
 
@@ -187,9 +284,7 @@ public class AdminServiceImpl implements AdminService {
 
     @Override
     public List<UserResponse> getDeletedUsers() {
-        return userRepository.findByDeletedTrue().stream()
-                .map(this::convertToUserResponse)
-                .collect(Collectors.toList());
+        return findLegacyList(UserFilter.ofDeleted(true));
     }
 
     @Override
@@ -203,6 +298,7 @@ public class AdminServiceImpl implements AdminService {
 
         user.addRole(role);
         User updatedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(List.of(updatedUser.getId())));
         return convertToUserResponse(updatedUser);
     }
 
@@ -222,23 +318,121 @@ public class AdminServiceImpl implements AdminService {
 
         user.removeRole(role);
         User updatedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(List.of(updatedUser.getId())));
         return convertToUserResponse(updatedUser);
     }
 
+    @Override
+    public BulkJobResponse submitBulkOperation(BulkUserRequest request, String operatorEmail) {
+        if (request.getAction().requiresRole() && request.getRole() == null) {
+            throw new CustomException("請指定要異動的角色");
+        }
+        boolean hasUserIds = request.getUserIds() != null && !request.getUserIds().isEmpty();
+        if (!hasUserIds && request.getFilter() == null) {
+            throw new CustomException("請指定用戶ID或篩選條件");
+        }
+
+        // 整個作業只驗證一次操作者權限
+        Long operatorId = validateAdminOperator(operatorEmail);
+        return userBulkJobExecutor.submit(request, operatorId, operatorEmail);
+    }
+
+    @Override
+    public BulkJobResponse getBulkJob(String jobId) {
+        return userBulkJobExecutor.getJob(jobId);
+    }
+
     /**
      * 驗證管理員操作者權限
+     * 以快取解析操作者 id，再只查詢管理員啟用狀態，不載入操作者實體
+     * @return 操作者 id
      */
-    private void validateAdminOperator(String operatorEmail) {
-        User operator = userRepository.findByEmailAndDeletedFalse(operatorEmail)
+    private Long validateAdminOperator(String operatorEmail) {
+        Long operatorId = userIdCache.resolve(operatorEmail)
                 .orElseThrow(() -> new RuntimeException("操作者不存在"));
 
-        if (!operator.isAdmin()) {
-            throw new RuntimeException("無管理員權限");
-        }
+        Boolean enabled = userRepository.findAdminEnabledById(operatorId)
+                .orElseThrow(() -> new RuntimeException("無管理員權限"));
 
-        if (!operator.getEnabled()) {
+        if (!enabled) {
             throw new RuntimeException("操作者帳戶已被停用");
         }
+
+        return operatorId;
+    }
+
+    /**
+     * 舊版不分頁列表，回傳全部符合的用戶（依 id 遞減）
+     * 內部以 keyset 分頁每次讀取 LEGACY_LIST_PAGE_SIZE 筆，不使用 OFFSET 也不載入完整實體
+     */
+    private List<UserResponse> findLegacyList(UserFilter filter) {
+        List<UserResponse> result = new ArrayList<>();
+        Long afterId = null;
+        while (true) {
+            List<UserSummary> rows = userRepository.findUserSummaries(filter, afterId, LEGACY_LIST_PAGE_SIZE);
+            result.addAll(convertSummaries(rows));
+            if (rows.size() < LEGACY_LIST_PAGE_SIZE) {
+                return result;
+            }
+            afterId = rows.get(rows.size() - 1).getId();
+        }
+    }
+
+    /**
+     * cursor 為上一頁最後一位用戶的 id
+     */
+    private static Long parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(cursor.trim());
+        } catch (NumberFormatException e) {
+            throw new CustomException("cursor 格式錯誤");
+        }
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private int normalizePageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * 轉換用戶投影為UserResponse DTO
+     * 角色以 IN 查詢批次補齊，每 ROLE_QUERY_CHUNK_SIZE 個用戶一次查詢
+     */
+    private List<UserResponse> convertSummaries(List<UserSummary> summaries) {
+        Map<Long, Set<UserRole>> rolesByUserId = new HashMap<>();
+        for (int from = 0; from < summaries.size(); from += ROLE_QUERY_CHUNK_SIZE) {
+            List<Long> userIds = summaries.subList(from, Math.min(from + ROLE_QUERY_CHUNK_SIZE, summaries.size()))
+                    .stream()
+                    .map(UserSummary::getId)
+                    .collect(Collectors.toList());
+            for (Object[] row : userRepository.findRolesByUserIds(userIds)) {
+                rolesByUserId.computeIfAbsent((Long) row[0], id -> EnumSet.noneOf(UserRole.class))
+                        .add((UserRole) row[1]);
+            }
+        }
+
+        List<UserResponse> responses = new ArrayList<>(summaries.size());
+        for (UserSummary summary : summaries) {
+            responses.add(UserResponse.builder()
+                    .id(summary.getId())
+                    .name(summary.getName())
+                    .email(summary.getEmail())
+                    .roles(rolesByUserId.getOrDefault(summary.getId(), EnumSet.noneOf(UserRole.class)))
+                    .enabled(summary.getEnabled())
+                    .createdAt(summary.getCreatedAt())
+                    .updatedAt(summary.getUpdatedAt())
+                    .build());
+        }
+        return responses;
     }
 
     /**
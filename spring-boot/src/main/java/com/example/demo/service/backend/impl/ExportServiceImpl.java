@@ -0,0 +1,273 @@
+package com.example.demo.service.backend.impl;
+
+import com.example.demo.enums.ExportFormat;
+import com.example.demo.service.backend.ExportService;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * 資料匯出服務實現類
+ * 使用 MySQL 串流結果集（fetchSize = Integer.MIN_VALUE）逐列讀取並直接寫入輸出流，
+ * 記憶體用量與資料筆數無關
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportServiceImpl implements ExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportServiceImpl.class);
+
+    private static final String USER_EXPORT_SQL =
+            "SELECT u.id, u.name, u.email, " +
+            "(SELECT GROUP_CONCAT(r.role ORDER BY r.role SEPARATOR '|') FROM user_roles r WHERE r.user_id = u.id) AS roles, " +
+            "u.enabled, u.points, u.phone, u.auth_provider, u.deleted, u.deleted_at, u.created_at, u.updated_at " +
+            "FROM users u ORDER BY u.id";
+
+    private static final String PRODUCT_EXPORT_SQL =
+            "SELECT id, product_no, name, price, stock, status, start_at, end_at, deleted_at, created_at, updated_at " +
+            "FROM products ORDER BY id";
+
+    private static final String ORDER_EXPORT_SQL =
+            "SELECT id, order_number, user_id, total_amount, status, receiver_name, receiver_phone, receiver_address, " +
+            "created_at, updated_at FROM orders ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void exportUsers(ExportFormat format, OutputStream out) {
+        stream("users", USER_EXPORT_SQL, format, out);
+    }
+
+    @Override
+    public void exportProducts(ExportFormat format, OutputStream out) {
+        stream("products", PRODUCT_EXPORT_SQL, format, out);
+    }
+
+    @Override
+    public void exportOrders(ExportFormat format, OutputStream out) {
+        stream("orders", ORDER_EXPORT_SQL, format, out);
+    }
+
+    /**
+     * 以只進唯讀游標執行查詢，每讀一列即寫出一列
+     */
+    private void stream(String name, String sql, ExportFormat format, OutputStream out) {
+        long start = System.currentTimeMillis();
+        RowWriter writer = format == ExportFormat.NDJSON ? new NdjsonRowWriter(objectMapper.getFactory(), out) : new CsvRowWriter(out);
+
+        Long rows = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // MySQL Connector/J 僅在 fetchSize 為 Integer.MIN_VALUE 時逐列串流結果
+            ps.setFetchSize(Integer.MIN_VALUE);
+            return ps;
+        }, new StreamingExtractor(writer));
+
+        log.info("匯出 {} 完成 - 格式: {}, 筆數: {}, 耗時: {} ms", name, format, rows, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 先依結果集中繼資料寫出欄位標題，再逐列轉交給 RowWriter
+     */
+    private static final class StreamingExtractor implements ResultSetExtractor<Long> {
+
+        private final RowWriter writer;
+
+        private StreamingExtractor(RowWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public Long extractData(ResultSet rs) throws SQLException {
+            ResultSetMetaData metaData = rs.getMetaData();
+            String[] columns = new String[metaData.getColumnCount()];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = metaData.getColumnLabel(i + 1);
+            }
+
+            long rows = 0;
+            try {
+                writer.header(columns);
+                while (rs.next()) {
+                    writer.row(columns, rs);
+                    rows++;
+                }
+                writer.finish();
+            } catch (IOException e) {
+                // 用戶端中斷下載時停止讀取
+                throw new UncheckedIOException(e);
+            }
+            return rows;
+        }
+    }
+
+    private interface RowWriter {
+
+        void header(String[] columns) throws IOException;
+
+        void row(String[] columns, ResultSet rs) throws IOException, SQLException;
+
+        void finish() throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        private CsvRowWriter(OutputStream out) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void header(String[] columns) throws IOException {
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(columns[i]);
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void row(String[] columns, ResultSet rs) throws IOException, SQLException {
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = rs.getObject(i + 1);
+                if (value instanceof String text) {
+                    writeEscaped(neutralizeFormula(text));
+                } else if (value != null) {
+                    writeEscaped(formatValue(value));
+                }
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        /**
+         * 文字以 = + - @ 或 Tab、CR 開頭時，試算表會當成公式執行，前面加上單引號讓它顯示為文字
+         */
+        private static String neutralizeFormula(String value) {
+            if (value.isEmpty()) {
+                return value;
+            }
+            char first = value.charAt(0);
+            if (first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r') {
+                return "'" + value;
+            }
+            return value;
+        }
+
+        /**
+         * 依 RFC 4180 處理逗號、引號與換行
+         */
+        private void writeEscaped(String value) throws IOException {
+            boolean needsQuote = false;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                    needsQuote = true;
+                    break;
+                }
+            }
+            if (!needsQuote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    private static final class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+
+        private NdjsonRowWriter(JsonFactory factory, OutputStream out) {
+            try {
+                this.generator = factory.createGenerator(out, JsonEncoding.UTF8);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            // 每筆資料一行，換行由 row() 自行寫出
+            this.generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+        }
+
+        @Override
+        public void header(String[] columns) {
+            // NDJSON 不需要標題列
+        }
+
+        @Override
+        public void row(String[] columns, ResultSet rs) throws IOException, SQLException {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                Object value = rs.getObject(i + 1);
+                generator.writeFieldName(columns[i]);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Boolean bool) {
+                    generator.writeBoolean(bool);
+                } else if (value instanceof BigDecimal decimal) {
+                    generator.writeNumber(decimal);
+                } else if (value instanceof BigInteger integer) {
+                    generator.writeNumber(integer);
+                } else if (value instanceof Double || value instanceof Float) {
+                    generator.writeNumber(((Number) value).doubleValue());
+                } else if (value instanceof Number number) {
+                    // 只剩整數型別，轉為 long 不會失去精度
+                    generator.writeNumber(number.longValue());
+                } else {
+                    generator.writeString(formatValue(value));
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static String formatValue(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toString();
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.demo.service.backend.impl;
+
+import com.example.demo.dto.response.backend.CancelOrdersResponse;
+import com.example.demo.dto.response.backend.OrderExpiryMetricsResponse;
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderItem;
+import com.example.demo.enums.OrderCancelReason;
+import com.example.demo.enums.OrderStatus;
+import com.example.demo.enums.OutboxAggregateType;
+import com.example.demo.enums.OutboxEventType;
+import com.example.demo.event.ProductSalesEvent;
+import com.example.demo.job.OrderExpiryMetrics;
+import com.example.demo.outbox.OrderCancelledPayload;
+import com.example.demo.outbox.OutboxMessage;
+import com.example.demo.repository.OrderItemRepository;
+import com.example.demo.repository.OrderRepository;
+import com.example.demo.service.OutboxService;
+import com.example.demo.service.PointsService;
+import com.example.demo.service.SalesRollupService;
+import com.example.demo.service.StockCompensationService;
+import com.example.demo.service.backend.OrderService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+@Service("backendOrderServiceImpl")
+@RequiredArgsConstructor
+@Slf4j
+public class OrderServiceImpl implements OrderService {
+
+    private static final List<OrderStatus> CANCELLABLE_STATUSES = List.of(OrderStatus.PENDING, OrderStatus.CONFIRMED);
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final PointsService pointsService;
+    private final StockCompensationService stockCompensationService;
+    private final OutboxService outboxService;
+    private final SalesRollupService salesRollupService;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderExpiryMetrics expiryMetrics;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.orders.cancel-chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${app.orders.expiry.ttl-minutes:60}")
+    private long expiryTtlMinutes;
+
+    @Override
+    public CancelOrdersResponse cancelOrders(List<Long> orderIds, String operatorEmail) {
+        // 依 id 排序，讓每批依主鍵順序取得訂單與商品的行鎖
+        List<Long> ids = orderIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .toList();
+
+        long cancelled = 0;
+        long restorePending = 0;
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            List<Long> cancelledIds = transactionTemplate.execute(status -> cancelLocked(
+                    orderRepository.findCancellableForUpdate(chunk, CANCELLABLE_STATUSES), OrderCancelReason.ADMIN));
+            if (cancelledIds == null || cancelledIds.isEmpty()) {
+                continue;
+            }
+            cancelled += cancelledIds.size();
+            if (!restoreStock(cancelledIds)) {
+                restorePending += cancelledIds.size();
+            }
+        }
+
+        log.info("管理員 {} 批次取消訂單 - 指定: {}, 取消: {}, 庫存待回補: {}",
+                operatorEmail, ids.size(), cancelled, restorePending);
+
+        return CancelOrdersResponse.builder()
+                .total(ids.size())
+                .cancelled(cancelled)
+                .skipped(ids.size() - cancelled)
+                .restorePending(restorePending)
+                .build();
+    }
+
+    @Override
+    public int expirePendingOrders(LocalDateTime cutoff, int limit) {
+        List<Long> expiredIds = transactionTemplate.execute(status -> cancelLocked(
+                orderRepository.findExpiredPendingForUpdate(cutoff, limit), OrderCancelReason.EXPIRED));
+        if (expiredIds == null || expiredIds.isEmpty()) {
+            return 0;
+        }
+        restoreStock(expiredIds);
+        return expiredIds.size();
+    }
+
+    @Override
+    public OrderExpiryMetricsResponse getExpiryMetrics() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minusMinutes(expiryTtlMinutes);
+        // 兩個查詢都只讀 (status, created_at) 索引的 PENDING 範圍
+        LocalDateTime oldestPendingAt = orderRepository.findOldestCreatedAt(OrderStatus.PENDING).orElse(null);
+        long lagSeconds = oldestPendingAt != null && oldestPendingAt.isBefore(cutoff)
+                ? Duration.between(oldestPendingAt, cutoff).toSeconds()
+                : 0;
+        OrderExpiryMetrics.LastRun lastRun = expiryMetrics.getLastRun();
+
+        return OrderExpiryMetricsResponse.builder()
+                .ttlMinutes(expiryTtlMinutes)
+                .overdueOrders(orderRepository.countByStatusAndCreatedAtBefore(OrderStatus.PENDING, cutoff))
+                .oldestPendingAt(oldestPendingAt)
+                .lagSeconds(lagSeconds)
+                .runs(expiryMetrics.getRuns())
+                .totalExpired(expiryMetrics.getTotalExpired())
+                .lastRunAt(lastRun == null ? null : lastRun.startedAt())
+                .lastRunExpired(lastRun == null ? 0 : lastRun.expired())
+                .lastRunMillis(lastRun == null ? 0 : lastRun.elapsedMillis())
+                .lastRunThroughput(lastRun == null ? 0 : lastRun.throughput())
+                .build();
+    }
+
+    /**
+     * 將已鎖定的訂單改為已取消、寫入補償佇列、更新銷售彙總與熱銷排行、收回點數並寫入取消事件，須在鎖定訂單的同一交易中呼叫
+     * @return 取消的訂單ID
+     */
+    private List<Long> cancelLocked(List<Order> orders, OrderCancelReason reason) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> cancelledIds = new ArrayList<>(orders.size());
+        Map<OrderStatus, List<Long>> idsByPreviousStatus = new EnumMap<>(OrderStatus.class);
+        for (Order order : orders) {
+            idsByPreviousStatus.computeIfAbsent(order.getStatus(), status -> new ArrayList<>()).add(order.getId());
+            order.setStatus(OrderStatus.CANCELLED);
+            cancelledIds.add(order.getId());
+        }
+        List<OrderItem> items = orderItemRepository.findByOrderIdIn(cancelledIds);
+        stockCompensationService.enqueue(items);
+        Map<Long, List<OrderItem>> itemsByOrder = items.stream().collect(Collectors.groupingBy(OrderItem::getOrderId));
+        idsByPreviousStatus.forEach((previous, ids) ->
+                salesRollupService.recordStatusChange(ids, previous, OrderStatus.CANCELLED));
+        List<OutboxMessage> messages = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            pointsService.revokeForOrder(order.getUserId(), order.getId());
+            messages.add(new OutboxMessage(OutboxAggregateType.ORDER, order.getId(), OutboxEventType.ORDER_CANCELLED,
+                    new OrderCancelledPayload(order.getId(), order.getUserId(), reason)));
+            eventPublisher.publishEvent(ProductSalesEvent.cancelled(order.getId(),
+                    itemsByOrder.getOrDefault(order.getId(), List.of()), order.getCreatedAt()));
+        }
+        outboxService.appendAll(messages);
+        return cancelledIds;
+    }
+
+    /**
+     * 於取消提交後回補本批庫存，失敗時保留補償紀錄由排程重試
+     * @return 是否已回補
+     */
+    private boolean restoreStock(List<Long> orderIds) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> stockCompensationService.applyForOrders(orderIds));
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("訂單已取消但庫存回補失敗，改由排程重試 - 訂單: {}", orderIds, e);
+            stockCompensationService.recordFailure(orderIds, e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.demo.service.backend.impl;
+
+import com.example.demo.entity.Product;
+import com.example.demo.enums.ProductSortField;
+import com.example.demo.exception.CustomException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 後台商品列表 keyset 分頁的 cursor
+ * 記錄排序欄位、方向與上一頁最後一筆的欄位值及 id，以 Base64URL 編碼後交給呼叫端；
+ * 排序條件與 cursor 不符或內容無法解析時拒絕。
+ * @param value 欄位值，依 id 排序或欄位為 null 時為 null
+ */
+record ProductCursor(ProductSortField field, boolean descending, long id, Comparable<?> value) {
+
+    private static final String NULL_VALUE = "-";
+
+    static ProductCursor after(Product product, ProductSortField field, boolean descending) {
+        Comparable<?> value = switch (field) {
+            case ID -> null;
+            case NAME -> product.getName();
+            case PRICE -> product.getPrice();
+            case CREATED_AT -> product.getCreatedAt();
+            case START_AT -> product.getStartAt();
+        };
+        return new ProductCursor(field, descending, product.getId(), value);
+    }
+
+    String encode() {
+        String raw = field.name() + ":" + (descending ? "desc" : "asc") + ":" + id + ":" +
+                (value == null ? NULL_VALUE : "=" + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws CustomException cursor 格式錯誤或與排序條件不符
+     */
+    static ProductCursor decode(String token, ProductSortField field, boolean descending) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":", 4);
+        } catch (IllegalArgumentException e) {
+            throw new CustomException("cursor 格式錯誤");
+        }
+        if (parts.length != 4) {
+            throw new CustomException("cursor 格式錯誤");
+        }
+        if (!parts[0].equals(field.name()) || !parts[1].equals(descending ? "desc" : "asc")) {
+            throw new CustomException("cursor 與排序條件不符，請從第一頁重新查詢");
+        }
+        try {
+            long id = Long.parseLong(parts[2]);
+            if (parts[3].equals(NULL_VALUE) || field == ProductSortField.ID) {
+                return new ProductCursor(field, descending, id, null);
+            }
+            String raw = parts[3].substring(1);
+            Comparable<?> value = switch (field) {
+                case NAME -> raw;
+                case PRICE -> new BigDecimal(raw);
+                case CREATED_AT, START_AT -> LocalDateTime.parse(raw);
+                case ID -> null;
+            };
+            return new ProductCursor(field, descending, id, value);
+        } catch (RuntimeException e) {
+            throw new CustomException("cursor 格式錯誤");
+        }
+    }
+}
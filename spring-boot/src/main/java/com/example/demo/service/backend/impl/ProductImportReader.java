@@ -0,0 +1,310 @@
+package com.example.demo.service.backend.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 商品匯入資料讀取器
+ * 逐筆從字元流讀出一筆資料（欄位名 → 字串值），同一時間只保留目前這一筆，記憶體用量與檔案大小無關。
+ * 欄位名一律轉小寫並去除底線，start_at 與 startAt 視為同一欄位，匯出檔可直接匯入。
+ *
+ * 單筆格式錯誤時回傳帶有錯誤訊息的資料，呼叫端略過該筆繼續讀取；
+ * 無法判斷下一筆從何處開始時（CSV 引號未結束或單筆過長）拋出 {@link FatalFormatException}。
+ */
+abstract class ProductImportReader {
+
+    private static final int EOF = -1;
+    private static final String BOM = "\uFEFF";
+
+    protected final Reader reader;
+    protected final int maxRecordLength;
+    // 目前讀到的實體行號，從 1 起算
+    protected long line = 1;
+
+    private ProductImportReader(Reader reader, int maxRecordLength) {
+        this.reader = reader;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    /**
+     * 第一列為標題列的 CSV（RFC 4180），欄位值可用雙引號包住並含逗號、換行
+     */
+    static ProductImportReader csv(Reader reader, int maxRecordLength) {
+        return new CsvReader(reader, maxRecordLength);
+    }
+
+    /**
+     * 每行一個 JSON 物件
+     */
+    static ProductImportReader ndjson(Reader reader, ObjectMapper objectMapper, int maxRecordLength) {
+        return new NdjsonReader(reader, objectMapper, maxRecordLength);
+    }
+
+    /**
+     * 讀取下一筆資料，空白行略過
+     * @return 已讀完時為 null
+     */
+    abstract Record next() throws IOException;
+
+    /**
+     * 標題列的欄位名（已正規化），沒有標題列的格式為 null
+     */
+    String[] header() throws IOException {
+        return null;
+    }
+
+    static String normalizeKey(String key) {
+        return key.trim().replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 一筆資料
+     * @param line 資料開始的行號
+     * @param fields 欄位值，error 不為 null 時為空
+     * @param error 本筆的格式錯誤
+     */
+    record Record(long line, Map<String, String> fields, String error) {
+
+        static Record invalid(long line, String error) {
+            return new Record(line, Map.of(), error);
+        }
+    }
+
+    /**
+     * 無法繼續讀取的格式錯誤，之後的資料不會匯入
+     */
+    static final class FatalFormatException extends IOException {
+
+        private final long line;
+
+        FatalFormatException(long line, String message) {
+            super(message);
+            this.line = line;
+        }
+
+        long getLine() {
+            return line;
+        }
+    }
+
+    private static final class CsvReader extends ProductImportReader {
+
+        private final StringBuilder value = new StringBuilder();
+        private String[] columns;
+        // 最近讀取的一列開始的行號
+        private long rowLine;
+        private int pending = EOF - 1;
+
+        private CsvReader(Reader reader, int maxRecordLength) {
+            super(reader, maxRecordLength);
+        }
+
+        @Override
+        String[] header() throws IOException {
+            if (columns == null) {
+                List<String> header = readRow();
+                if (header == null) {
+                    header = List.of();
+                } else if (!header.isEmpty() && header.get(0).startsWith(BOM)) {
+                    // Excel 另存的 UTF-8 CSV 開頭帶有 BOM
+                    header.set(0, header.get(0).substring(1));
+                }
+                columns = header.stream().map(ProductImportReader::normalizeKey).toArray(String[]::new);
+            }
+            return columns;
+        }
+
+        @Override
+        Record next() throws IOException {
+            header();
+            List<String> row = readRow();
+            if (row == null) {
+                return null;
+            }
+            if (row.size() != columns.length) {
+                return Record.invalid(rowLine, "欄位數 " + row.size() + " 與標題列 " + columns.length + " 不符");
+            }
+            Map<String, String> fields = new HashMap<>(columns.length * 2);
+            for (int i = 0; i < columns.length; i++) {
+                fields.put(columns[i], row.get(i));
+            }
+            return new Record(rowLine, fields, null);
+        }
+
+        /**
+         * 讀取一列，略過空白行
+         * @return 已讀完時為 null
+         */
+        private List<String> readRow() throws IOException {
+            List<String> row = new ArrayList<>();
+            rowLine = line;
+            int length = 0;
+            boolean quoted = false;
+            boolean empty = true;
+            value.setLength(0);
+            while (true) {
+                int c = read();
+                if (c == EOF) {
+                    if (quoted) {
+                        throw new FatalFormatException(rowLine, "引號未結束");
+                    }
+                    if (empty && row.isEmpty()) {
+                        return null;
+                    }
+                    row.add(value.toString());
+                    return row;
+                }
+                if (++length > maxRecordLength) {
+                    throw new FatalFormatException(rowLine, "單筆資料超過 " + maxRecordLength + " 個字元");
+                }
+                if (quoted) {
+                    if (c == '"') {
+                        int following = read();
+                        if (following == '"') {
+                            value.append('"');
+                        } else {
+                            quoted = false;
+                            unread(following);
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        value.append((char) c);
+                    }
+                    continue;
+                }
+                switch (c) {
+                    case '"' -> {
+                        quoted = true;
+                        empty = false;
+                    }
+                    case ',' -> {
+                        row.add(value.toString());
+                        value.setLength(0);
+                        empty = false;
+                    }
+                    case '\r' -> {
+                        int following = read();
+                        if (following != '\n') {
+                            unread(following);
+                        }
+                        line++;
+                        if (!(empty && row.isEmpty())) {
+                            row.add(value.toString());
+                            return row;
+                        }
+                        rowLine = line;
+                        length = 0;
+                    }
+                    case '\n' -> {
+                        line++;
+                        if (!(empty && row.isEmpty())) {
+                            row.add(value.toString());
+                            return row;
+                        }
+                        rowLine = line;
+                        length = 0;
+                    }
+                    default -> {
+                        value.append((char) c);
+                        empty = false;
+                    }
+                }
+            }
+        }
+
+        private int read() throws IOException {
+            if (pending != EOF - 1) {
+                int c = pending;
+                pending = EOF - 1;
+                return c;
+            }
+            return reader.read();
+        }
+
+        private void unread(int c) {
+            pending = c;
+        }
+    }
+
+    private static final class NdjsonReader extends ProductImportReader {
+
+        private final ObjectMapper objectMapper;
+        private final StringBuilder buffer = new StringBuilder();
+
+        private NdjsonReader(Reader reader, ObjectMapper objectMapper, int maxRecordLength) {
+            super(reader, maxRecordLength);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        Record next() throws IOException {
+            while (true) {
+                long start = line;
+                boolean tooLong = false;
+                buffer.setLength(0);
+                int c;
+                while ((c = reader.read()) != EOF && c != '\n') {
+                    // 過長的行只略過該行，下一行仍可繼續讀取
+                    if (buffer.length() < maxRecordLength) {
+                        buffer.append((char) c);
+                    } else {
+                        tooLong = true;
+                    }
+                }
+                if (c == EOF && buffer.isEmpty() && !tooLong) {
+                    return null;
+                }
+                line++;
+                if (tooLong) {
+                    return Record.invalid(start, "單筆資料超過 " + maxRecordLength + " 個字元");
+                }
+                if (!buffer.isEmpty() && buffer.charAt(buffer.length() - 1) == '\r') {
+                    buffer.setLength(buffer.length() - 1);
+                }
+                String text = start == 1 && buffer.indexOf(BOM) == 0 ? buffer.substring(1) : buffer.toString();
+                if (text.isBlank()) {
+                    continue;
+                }
+                return parse(start, text);
+            }
+        }
+
+        private Record parse(long start, String text) {
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(text);
+            } catch (JsonProcessingException e) {
+                return Record.invalid(start, "JSON 格式錯誤");
+            }
+            if (!node.isObject()) {
+                return Record.invalid(start, "每行須為一個 JSON 物件");
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (Map.Entry<String, JsonNode> field : node.properties()) {
+                fields.put(normalizeKey(field.getKey()), toText(field.getValue()));
+            }
+            return new Record(start, fields, null);
+        }
+
+        private static String toText(JsonNode value) {
+            if (value.isNull()) {
+                return null;
+            }
+            if (value.isFloatingPointNumber()) {
+                return value.decimalValue().toPlainString();
+            }
+            return value.isValueNode() ? value.asText() : value.toString();
+        }
+    }
+}
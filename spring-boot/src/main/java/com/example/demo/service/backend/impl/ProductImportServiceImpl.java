@@ -0,0 +1,377 @@
+package com.example.demo.service.backend.impl;
+
+import com.example.demo.dto.request.backend.CreateProductRequest;
+import com.example.demo.dto.response.backend.ProductImportResponse;
+import com.example.demo.enums.ExportFormat;
+import com.example.demo.enums.ProductStatus;
+import com.example.demo.event.ProductChangedEvent;
+import com.example.demo.exception.CustomException;
+import com.example.demo.service.backend.ProductImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * 商品批次匯入服務實現類
+ * 由 {@link ProductImportReader} 逐筆讀取並驗證，通過的資料累積到 chunk-size 筆後於一個交易內寫入：
+ * 整批產生商品編號（以一次 IN 查詢排除已存在的編號），再以每句 insert-rows 列的多列 INSERT 寫入。
+ * 記憶體中只保留目前這一批與最多 max-errors 筆失敗明細。
+ *
+ * 單筆驗證失敗只略過該筆；一批寫入失敗時整批回滾並記為失敗，之後的批次繼續匯入。
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportServiceImpl.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO products (product_no, name, description, price, stock, status, start_at, end_at, " +
+            "created_at, updated_at) VALUES ";
+    private static final String INSERT_VALUES = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final Set<String> REQUIRED_COLUMNS = Set.of("name", "price", "stock");
+    // 商品編號撞號（含與同時進行的單筆新增）時，整批換新編號重試的次數
+    private static final int DUPLICATE_RETRIES = 2;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.products.import.chunk-size:2000}")
+    private int chunkSize;
+
+    @Value("${app.products.import.insert-rows:500}")
+    private int insertRows;
+
+    @Value("${app.products.import.max-errors:1000}")
+    private int maxErrors;
+
+    @Value("${app.products.import.max-record-length:65536}")
+    private int maxRecordLength;
+
+    @Override
+    public ProductImportResponse importProducts(ExportFormat format, InputStream in, String operatorEmail) {
+        long start = System.currentTimeMillis();
+        Report report = new Report(maxErrors);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        ProductImportReader records = format == ExportFormat.NDJSON
+                ? ProductImportReader.ndjson(reader, objectMapper, maxRecordLength)
+                : ProductImportReader.csv(reader, maxRecordLength);
+
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        try {
+            checkHeader(records.header());
+            ProductImportReader.Record record;
+            while ((record = records.next()) != null) {
+                report.total++;
+                if (record.error() != null) {
+                    report.fail(record.line(), record.error());
+                    continue;
+                }
+                ImportRow row = toRow(record, report);
+                if (row == null) {
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    flush(chunk, report);
+                    chunk.clear();
+                }
+            }
+        } catch (ProductImportReader.FatalFormatException e) {
+            report.total++;
+            report.aborted = true;
+            report.fail(e.getLine(), e.getMessage() + "，之後的資料未匯入");
+        } catch (IOException e) {
+            // 用戶端中斷上傳時，已提交的批次保留
+            log.warn("批次匯入商品讀取中斷 - 操作者: {}, 已匯入: {}", operatorEmail, report.imported);
+            throw new UncheckedIOException(e);
+        }
+        // 中止前已讀取且通過驗證的資料仍寫入
+        flush(chunk, report);
+
+        long elapsed = System.currentTimeMillis() - start;
+        log.info("管理員 {} 批次匯入商品 - 格式: {}, 筆數: {}, 匯入: {}, 失敗: {}, 耗時: {} ms",
+                operatorEmail, format, report.total, report.imported, report.failed, elapsed);
+
+        return ProductImportResponse.builder()
+                .format(format)
+                .total(report.total)
+                .imported(report.imported)
+                .failed(report.failed)
+                .errors(report.errors)
+                .errorsOmitted(report.failed - report.errors.size())
+                .aborted(report.aborted)
+                .elapsedMillis(elapsed)
+                .build();
+    }
+
+    /**
+     * CSV 缺少必要欄位時整份不匯入
+     */
+    private void checkHeader(String[] header) {
+        if (header == null) {
+            return;
+        }
+        Set<String> columns = Set.copyOf(Arrays.asList(header));
+        List<String> missing = REQUIRED_COLUMNS.stream()
+                .filter(column -> !columns.contains(column))
+                .sorted()
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new CustomException("匯入檔案標題列缺少欄位: " + String.join(", ", missing));
+        }
+    }
+
+    /**
+     * 轉換並以新增商品相同的規則驗證，失敗時記錄錯誤並回傳 null
+     */
+    private ImportRow toRow(ProductImportReader.Record record, Report report) {
+        Map<String, String> fields = record.fields();
+        // 欄位 → 錯誤訊息，每個欄位只回報一個原因，依欄位名排序讓訊息順序固定
+        Map<String, String> errors = new TreeMap<>();
+
+        CreateProductRequest request = new CreateProductRequest();
+        request.setName(emptyToNull(fields.get("name")));
+        request.setDescription(emptyToNull(fields.get("description")));
+        request.setPrice(parse(fields.get("price"), value -> new BigDecimal(value.trim()), "price", "價格格式不正確", errors));
+        request.setStock(parse(fields.get("stock"), value -> Integer.valueOf(value.trim()), "stock", "庫存數量格式不正確", errors));
+        String status = emptyToNull(fields.get("status"));
+        if (status != null) {
+            request.setStatus(ProductStatus.parseOrNull(status.trim().toUpperCase(Locale.ROOT)));
+            if (request.getStatus() == null) {
+                errors.put("status", "商品狀態不正確: " + status);
+                request.setStatus(ProductStatus.OPEN);
+            }
+        }
+        request.setStartAt(parse(fields.get("startat"), ProductImportServiceImpl::parseDateTime, "startAt", "上架開始時間格式不正確", errors));
+        request.setEndAt(parse(fields.get("endat"), ProductImportServiceImpl::parseDateTime, "endAt", "上架結束時間格式不正確", errors));
+
+        // 格式錯誤的欄位已是 null，不再回報「不能為空」
+        for (ConstraintViolation<CreateProductRequest> violation : validator.validate(request)) {
+            errors.putIfAbsent(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        if (!errors.isEmpty()) {
+            report.fail(record.line(), String.join("；", errors.values()));
+            return null;
+        }
+        return new ImportRow(record.line(), request.getName(), request.getDescription(), request.getPrice(),
+                request.getStock(), request.getStatus(), request.getStartAt(), request.getEndAt());
+    }
+
+    /**
+     * 於獨立交易內寫入一批，失敗時只回滾當前批次
+     */
+    private void flush(List<ImportRow> chunk, Report report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        for (int attempt = 0; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> insertChunk(chunk));
+                report.imported += chunk.size();
+                return;
+            } catch (DuplicateKeyException e) {
+                if (attempt < DUPLICATE_RETRIES) {
+                    continue;
+                }
+                failChunk(chunk, report, e);
+                return;
+            } catch (DataAccessException e) {
+                failChunk(chunk, report, e);
+                return;
+            }
+        }
+    }
+
+    private void failChunk(List<ImportRow> chunk, Report report, DataAccessException e) {
+        log.warn("批次匯入商品寫入失敗 - 第 {} 至 {} 行", chunk.get(0).line(), chunk.get(chunk.size() - 1).line(), e);
+        String message = "寫入失敗: " + e.getMostSpecificCause().getMessage();
+        for (ImportRow row : chunk) {
+            report.fail(row.line(), message);
+        }
+    }
+
+    private void insertChunk(List<ImportRow> chunk) {
+        List<String> productNos = generateProductNos(chunk.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String fullSql = insertSql(insertRows);
+        for (int from = 0; from < chunk.size(); from += insertRows) {
+            int to = Math.min(from + insertRows, chunk.size());
+            String sql = to - from == insertRows ? fullSql : insertSql(to - from);
+            int offset = from;
+            jdbcTemplate.getJdbcTemplate().update(sql, ps -> {
+                int index = 1;
+                for (int i = offset; i < to; i++) {
+                    index = bind(ps, index, chunk.get(i), productNos.get(i), now);
+                }
+            });
+        }
+
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM products WHERE product_no IN (:productNos)",
+                new MapSqlParameterSource("productNos", productNos), Long.class);
+        eventPublisher.publishEvent(new ProductChangedEvent(ids));
+    }
+
+    /**
+     * 整批產生商品編號（與單筆新增相同格式），批次內不重複，並以一次查詢排除資料庫中已存在的編號
+     */
+    private List<String> generateProductNos(int count) {
+        Set<String> generated = new HashSet<>(count * 2);
+        while (generated.size() < count) {
+            generated.add(randomProductNo());
+        }
+        while (true) {
+            List<String> existing = jdbcTemplate.queryForList(
+                    "SELECT product_no FROM products WHERE product_no IN (:productNos)",
+                    new MapSqlParameterSource("productNos", generated), String.class);
+            if (existing.isEmpty()) {
+                return new ArrayList<>(generated);
+            }
+            existing.forEach(generated::remove);
+            Set<String> replacements = new HashSet<>();
+            while (replacements.size() < existing.size()) {
+                String productNo = randomProductNo();
+                if (!generated.contains(productNo)) {
+                    replacements.add(productNo);
+                }
+            }
+            generated.addAll(replacements);
+        }
+    }
+
+    private static String randomProductNo() {
+        return UUID.randomUUID().toString().replace("-", "").substring(0, 10).toUpperCase(Locale.ROOT);
+    }
+
+    private static String insertSql(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_SQL.length() + rows * (INSERT_VALUES.length() + 2));
+        sql.append(INSERT_SQL);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(INSERT_VALUES);
+        }
+        return sql.toString();
+    }
+
+    private static int bind(PreparedStatement ps, int index, ImportRow row, String productNo, Timestamp now) throws SQLException {
+        ps.setString(index++, productNo);
+        ps.setString(index++, row.name());
+        ps.setString(index++, row.description());
+        ps.setBigDecimal(index++, row.price());
+        ps.setInt(index++, row.stock());
+        ps.setString(index++, row.status().name());
+        setTimestamp(ps, index++, row.startAt());
+        setTimestamp(ps, index++, row.endAt());
+        ps.setTimestamp(index++, now);
+        ps.setTimestamp(index++, now);
+        return index;
+    }
+
+    private static void setTimestamp(PreparedStatement ps, int index, LocalDateTime value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.TIMESTAMP);
+        } else {
+            ps.setTimestamp(index, Timestamp.valueOf(value));
+        }
+    }
+
+    private static <T> T parse(String value, ValueParser<T> parser, String property, String message,
+                               Map<String, String> errors) {
+        String text = emptyToNull(value);
+        if (text == null) {
+            return null;
+        }
+        try {
+            return parser.parse(text);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            errors.put(property, message);
+            return null;
+        }
+    }
+
+    /**
+     * 接受 ISO 格式（匯出檔的格式）與以空白分隔日期和時間的格式
+     */
+    private static LocalDateTime parseDateTime(String value) {
+        return LocalDateTime.parse(value.trim().replace(' ', 'T'));
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    @FunctionalInterface
+    private interface ValueParser<T> {
+        T parse(String value);
+    }
+
+    /**
+     * 通過驗證、待寫入的一筆商品
+     */
+    private record ImportRow(long line, String name, String description, BigDecimal price, int stock,
+                             ProductStatus status, LocalDateTime startAt, LocalDateTime endAt) {
+    }
+
+    /**
+     * 匯入統計與失敗明細，明細超過上限後只計數
+     */
+    private static final class Report {
+
+        private final int maxErrors;
+        private final List<ProductImportResponse.RowError> errors = new ArrayList<>();
+        private long total;
+        private long imported;
+        private long failed;
+        private boolean aborted;
+
+        private Report(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        private void fail(long line, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ProductImportResponse.RowError(line, message));
+            }
+        }
+    }
+}
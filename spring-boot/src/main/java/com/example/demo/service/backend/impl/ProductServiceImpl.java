@@ -1,17 +1,30 @@
 package com.example.demo.service.backend.impl;
 
 import com.example.demo.dto.request.backend.CreateProductRequest;
+import com.example.demo.dto.request.backend.ProductSearchRequest;
 import com.example.demo.dto.request.backend.UpdateProductRequest;
+import com.example.demo.dto.response.CursorPageResponse;
 import com.example.demo.dto.response.backend.ProductResponse;
 import com.example.demo.entity.Product;
+import com.example.demo.enums.ProductSortField;
 import com.example.demo.enums.ProductStatus;
+import com.example.demo.event.ProductChangedEvent;
 import com.example.demo.exception.UserNotFoundException;
 import com.example.demo.mapper.ProductMapper;
+import com.example.demo.repository.CartItemRepository;
 import com.example.demo.repository.ProductRepository;
+import com.example.demo.search.ProductFilterIndex;
 import com.example.demo.service.backend.ProductService;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,16 +34,27 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service("backendProductServiceImpl")
 @RequiredArgsConstructor
 @Transactional
 public class ProductServiceImpl implements ProductService {
+    private static final int DEFAULT_CURSOR_PAGE_SIZE = 20;
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     private final ProductRepository productRepository;
+    private final CartItemRepository cartItemRepository;
     private final ProductMapper productMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<ProductFilterIndex> productFilterIndex;
 
     private String generateRandomProductNo() {
         return UUID.randomUUID().toString().replaceAll("-", "").substring(0, 10).toUpperCase();
@@ -53,6 +77,7 @@ public class ProductServiceImpl implements ProductService {
                 .endAt(request.getEndAt())
                 .build();
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(List.of(savedProduct.getId())));
         return convertToResponse(savedProduct);
     }
 
@@ -107,6 +132,7 @@ public class ProductServiceImpl implements ProductService {
                 .orElseThrow(() -> new UserNotFoundException("商品不存在，ID: " + id));
         productMapper.updateProductFromDto(request, product); // MapStruct自動只更新非null欄位
         Product updatedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(List.of(id)));
         return convertToResponse(updatedProduct);
     }
 
@@ -116,6 +142,7 @@ public class ProductServiceImpl implements ProductService {
                 .orElseThrow(() -> new UserNotFoundException("商品不存在，ID: " + id));
         product.setDeletedAt(java.time.LocalDateTime.now());
         productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(List.of(id)));
     }
 
     @Override
@@ -123,17 +150,133 @@ public class ProductServiceImpl implements ProductService {
         if (!productRepository.existsById(id)) {
             throw new UserNotFoundException("商品不存在，ID: " + id);
         }
+        // 購物車項目會隨外鍵一併刪除，先經由 Repository 刪除以重新計算購物車項目數
+        cartItemRepository.deleteProductLines(id);
         productRepository.deleteById(id);
+        eventPublisher.publishEvent(new ProductChangedEvent(List.of(id)));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<ProductResponse> searchProducts(String name, String productNo, Boolean inStock, Boolean deleted, String status, String startAtFrom, String startAtTo, Pageable pageable) {
+        Optional<Page<ProductResponse>> indexed = searchByFilterIndex(name, productNo, inStock, deleted, status, startAtFrom, startAtTo, pageable);
+        if (indexed.isPresent()) {
+            return indexed.get();
+        }
         Specification<Product> spec = buildProductSpecification(name, productNo, inStock, deleted, status, startAtFrom, startAtTo);
         Page<Product> products = productRepository.findAll(spec, pageable);
         return products.map(this::convertToResponse);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<ProductResponse> searchProductsSlice(ProductSearchRequest request, Pageable pageable) {
+        Specification<Product> spec = buildProductSpecification(request);
+        // 多查一筆判斷是否有下一頁，不執行 count 查詢
+        return productRepository.findBy(spec, query -> query.slice(pageable)).map(this::convertToResponse);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ProductResponse> searchProductsByCursor(ProductSearchRequest request, ProductSortField sortField, boolean descending, String cursor, Integer size) {
+        int pageSize = size == null || size <= 0 ? DEFAULT_CURSOR_PAGE_SIZE : Math.min(size, MAX_CURSOR_PAGE_SIZE);
+        Specification<Product> spec = buildProductSpecification(request);
+        if (cursor != null && !cursor.isEmpty()) {
+            spec = spec.and(keysetAfter(ProductCursor.decode(cursor, sortField, descending)));
+        }
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = Sort.by(direction, sortField.getProperty());
+        if (sortField != ProductSortField.ID) {
+            sort = sort.and(Sort.by(direction, ProductSortField.ID.getProperty()));
+        }
+
+        // 多查一筆判斷是否還有下一頁
+        Sort orderBy = sort;
+        List<Product> rows = productRepository.findBy(spec, query -> query.sortBy(orderBy).limit(pageSize + 1).all());
+        boolean hasNext = rows.size() > pageSize;
+        if (hasNext) {
+            rows = rows.subList(0, pageSize);
+        }
+
+        return CursorPageResponse.<ProductResponse>builder()
+                .items(rows.stream().map(this::convertToResponse).collect(Collectors.toList()))
+                .size(pageSize)
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? ProductCursor.after(rows.get(rows.size() - 1), sortField, descending).encode() : null)
+                .build();
+    }
+
+    /**
+     * 排在 cursor 之後的資料：(欄位, id) 依排序方向大於（或小於）上一頁最後一筆
+     * 先以欄位的範圍條件讓查詢沿 (deleted_at, 欄位, id) 索引從 cursor 位置開始讀取；
+     * MySQL 升冪時 NULL 排在最前、降冪時排在最後，可為 null 的欄位另外處理
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Specification<Product> keysetAfter(ProductCursor cursor) {
+        return (root, query, cb) -> {
+            Expression<Long> id = root.get(ProductSortField.ID.getProperty());
+            Predicate idAfter = cursor.descending() ? cb.lessThan(id, cursor.id()) : cb.greaterThan(id, cursor.id());
+            if (cursor.field() == ProductSortField.ID) {
+                return idAfter;
+            }
+
+            Expression<Comparable> path = root.get(cursor.field().getProperty());
+            Comparable value = cursor.value();
+            if (value == null) {
+                return cursor.descending()
+                        ? cb.and(cb.isNull(path), idAfter)
+                        : cb.or(cb.and(cb.isNull(path), idAfter), cb.isNotNull(path));
+            }
+            Predicate range = cursor.descending() ? cb.lessThanOrEqualTo(path, value) : cb.greaterThanOrEqualTo(path, value);
+            Predicate after = cb.or(
+                    cursor.descending() ? cb.lessThan(path, value) : cb.greaterThan(path, value),
+                    cb.and(cb.equal(path, value), idAfter));
+            Predicate keyset = cb.and(range, after);
+            return cursor.descending() ? cb.or(keyset, cb.isNull(path)) : keyset;
+        };
+    }
+
+    private Specification<Product> buildProductSpecification(ProductSearchRequest request) {
+        return buildProductSpecification(request.getName(), request.getProductNo(), request.getInStock(), request.getDeleted(),
+                request.getStatus(), request.getStartAtFrom(), request.getStartAtTo());
+    }
+
+    /**
+     * 只有狀態、庫存、刪除與上架開始時間的篩選且依 id 排序時，由記憶體位元圖取得總筆數與本頁 id，再以一次 IN 查詢載入
+     * 有名稱或商品編號條件、依其他欄位排序或索引不可用時回傳空，改用資料庫查詢
+     */
+    private Optional<Page<ProductResponse>> searchByFilterIndex(String name, String productNo, Boolean inStock, Boolean deleted, String status, String startAtFrom, String startAtTo, Pageable pageable) {
+        ProductFilterIndex index = productFilterIndex.getIfAvailable();
+        if (index == null || (name != null && !name.isEmpty()) || (productNo != null && !productNo.isEmpty())) {
+            return Optional.empty();
+        }
+        List<Sort.Order> orders = pageable.getSort().toList();
+        if (orders.size() != 1 || !orders.get(0).getProperty().equals("id")) {
+            return Optional.empty();
+        }
+
+        // 無效的狀態與日期與資料庫查詢相同，視為未指定
+        ProductFilterIndex.Filter filter = new ProductFilterIndex.Filter(
+                status == null || status.isEmpty() ? null : ProductStatus.parseOrNull(status),
+                inStock,
+                deleted,
+                startAtFrom == null || startAtFrom.isEmpty() ? null : parseLocalDateTime(startAtFrom),
+                startAtTo == null || startAtTo.isEmpty() ? null : parseLocalDateTime(startAtTo));
+        return index.search(filter, pageable.getOffset(), pageable.getPageSize(), orders.get(0).isDescending())
+                .map(result -> {
+                    List<Long> ids = Arrays.stream(result.ids()).boxed().toList();
+                    Map<Long, Product> products = productRepository.findAllById(ids).stream()
+                            .collect(Collectors.toMap(Product::getId, Function.identity()));
+                    // 依索引順序排列，略過查詢前剛被實體刪除的商品
+                    List<ProductResponse> content = ids.stream()
+                            .map(products::get)
+                            .filter(Objects::nonNull)
+                            .map(this::convertToResponse)
+                            .collect(Collectors.toList());
+                    return new PageImpl<>(content, pageable, result.total());
+                });
+    }
+
     private Specification<Product> buildProductSpecification(String name, String productNo, Boolean inStock, Boolean deleted, String status, String startAtFrom, String startAtTo) {
         Specification<Product> spec = (root, query, cb) -> cb.conjunction();
         // 名稱模糊查詢
@@ -0,0 +1,201 @@
+package com.example.demo.service.backend.impl;
+
+import com.example.demo.dto.response.backend.ProductSalesResponse;
+import com.example.demo.dto.response.backend.ProductViewsResponse;
+import com.example.demo.dto.response.backend.SalesPointResponse;
+import com.example.demo.dto.response.backend.SalesStatusSummaryResponse;
+import com.example.demo.enums.OrderStatus;
+import com.example.demo.exception.CustomException;
+import com.example.demo.service.SalesRollupService;
+import com.example.demo.service.backend.ReportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ReportServiceImpl implements ReportService {
+
+    private static final int MAX_DAILY_RANGE_DAYS = 366;
+    private static final int MAX_HOURLY_RANGE_DAYS = 31;
+    private static final int MAX_TOP_PRODUCTS = 100;
+
+    // 訂單層級合計分散在 product_id <= 0 的各列，只讀取主鍵開頭的連續範圍並加總
+    private static final String STATUS_SUMMARY_SQL =
+            "SELECT status, SUM(revenue) AS revenue, SUM(units) AS units, SUM(order_count) AS order_count " +
+            "FROM sales_rollup_daily WHERE product_id <= 0 AND bucket_date BETWEEN :from AND :to " +
+            "GROUP BY status ORDER BY status";
+    private static final String DAILY_SQL =
+            "SELECT bucket_date AS bucket, SUM(revenue) AS revenue, SUM(units) AS units, SUM(order_count) AS order_count " +
+            "FROM sales_rollup_daily WHERE product_id <= 0 AND bucket_date BETWEEN :from AND :to AND %s " +
+            "GROUP BY bucket_date";
+    private static final String HOURLY_SQL =
+            "SELECT bucket_start AS bucket, SUM(revenue) AS revenue, SUM(units) AS units, SUM(order_count) AS order_count " +
+            "FROM sales_rollup_hourly WHERE product_id <= 0 AND bucket_start >= :from AND bucket_start < :to AND %s " +
+            "GROUP BY bucket_start";
+    private static final String TOP_PRODUCTS_SQL =
+            "SELECT r.product_id, p.name, SUM(r.revenue) AS revenue, SUM(r.units) AS units, " +
+            "SUM(r.order_count) AS order_count " +
+            "FROM sales_rollup_daily r LEFT JOIN products p ON p.id = r.product_id " +
+            "WHERE r.bucket_date BETWEEN :from AND :to AND r.product_id > 0 AND %s " +
+            "GROUP BY r.product_id, p.name HAVING SUM(r.order_count) > 0 " +
+            "ORDER BY revenue DESC, r.product_id LIMIT :limit";
+    private static final String TOP_VIEWED_SQL =
+            "SELECT s.product_id, p.name, s.view_count, s.last_viewed_at " +
+            "FROM product_stats s JOIN products p ON p.id = s.product_id " +
+            "ORDER BY s.view_count DESC, s.product_id LIMIT :limit";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final SalesRollupService salesRollupService;
+
+    @Override
+    public List<SalesStatusSummaryResponse> getStatusSummary(LocalDate from, LocalDate to) {
+        validateRange(from, to, MAX_DAILY_RANGE_DAYS);
+        return jdbcTemplate.query(STATUS_SUMMARY_SQL, new MapSqlParameterSource("from", from).addValue("to", to),
+                (rs, rowNum) -> SalesStatusSummaryResponse.builder()
+                        .status(OrderStatus.valueOf(rs.getString("status")))
+                        .revenue(rs.getBigDecimal("revenue"))
+                        .units(rs.getLong("units"))
+                        .orderCount(rs.getLong("order_count"))
+                        .build());
+    }
+
+    @Override
+    public List<SalesPointResponse> getDailySales(LocalDate from, LocalDate to, OrderStatus status) {
+        validateRange(from, to, MAX_DAILY_RANGE_DAYS);
+        MapSqlParameterSource params = statusParams(status).addValue("from", from).addValue("to", to);
+        Map<LocalDateTime, SalesPointResponse> points = queryPoints(DAILY_SQL.formatted(statusFilter("status", status)), params);
+
+        List<SalesPointResponse> series = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            series.add(pointOrZero(points, day.atStartOfDay(), day.toString()));
+        }
+        return series;
+    }
+
+    @Override
+    public List<SalesPointResponse> getHourlySales(LocalDateTime from, LocalDateTime to, OrderStatus status) {
+        LocalDateTime start = from.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime end = to.truncatedTo(ChronoUnit.HOURS).equals(to) ? to : to.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        if (!start.isBefore(end)) {
+            throw new CustomException("開始時間須早於結束時間");
+        }
+        if (start.plusDays(MAX_HOURLY_RANGE_DAYS).isBefore(end)) {
+            throw new CustomException("每小時報表的查詢區間最多 " + MAX_HOURLY_RANGE_DAYS + " 天");
+        }
+        MapSqlParameterSource params = statusParams(status)
+                .addValue("from", Timestamp.valueOf(start))
+                .addValue("to", Timestamp.valueOf(end));
+        Map<LocalDateTime, SalesPointResponse> points = queryPoints(HOURLY_SQL.formatted(statusFilter("status", status)), params);
+
+        List<SalesPointResponse> series = new ArrayList<>();
+        for (LocalDateTime hour = start; hour.isBefore(end); hour = hour.plusHours(1)) {
+            series.add(pointOrZero(points, hour, hour.toString()));
+        }
+        return series;
+    }
+
+    @Override
+    public List<ProductSalesResponse> getTopProducts(LocalDate from, LocalDate to, OrderStatus status, int limit) {
+        validateRange(from, to, MAX_DAILY_RANGE_DAYS);
+        if (limit < 1 || limit > MAX_TOP_PRODUCTS) {
+            throw new CustomException("排行筆數須介於 1 到 " + MAX_TOP_PRODUCTS + " 之間");
+        }
+        MapSqlParameterSource params = statusParams(status)
+                .addValue("from", from)
+                .addValue("to", to)
+                .addValue("limit", limit);
+        return jdbcTemplate.query(TOP_PRODUCTS_SQL.formatted(statusFilter("r.status", status)), params,
+                (rs, rowNum) -> ProductSalesResponse.builder()
+                        .productId(rs.getLong("product_id"))
+                        .productName(rs.getString("name"))
+                        .revenue(rs.getBigDecimal("revenue"))
+                        .units(rs.getLong("units"))
+                        .orderCount(rs.getLong("order_count"))
+                        .build());
+    }
+
+    @Override
+    public List<ProductViewsResponse> getTopViewedProducts(int limit) {
+        if (limit < 1 || limit > MAX_TOP_PRODUCTS) {
+            throw new CustomException("排行筆數須介於 1 到 " + MAX_TOP_PRODUCTS + " 之間");
+        }
+        return jdbcTemplate.query(TOP_VIEWED_SQL, new MapSqlParameterSource("limit", limit),
+                (rs, rowNum) -> ProductViewsResponse.builder()
+                        .productId(rs.getLong("product_id"))
+                        .productName(rs.getString("name"))
+                        .viewCount(rs.getLong("view_count"))
+                        .lastViewedAt(rs.getTimestamp("last_viewed_at").toLocalDateTime())
+                        .build());
+    }
+
+    /**
+     * 不加入唯讀交易，由重建逐日開啟寫入交易
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public int rebuild(LocalDate from, LocalDate to) {
+        validateRange(from, to, MAX_DAILY_RANGE_DAYS);
+        return salesRollupService.rebuild(from, to);
+    }
+
+    private Map<LocalDateTime, SalesPointResponse> queryPoints(String sql, MapSqlParameterSource params) {
+        Map<LocalDateTime, SalesPointResponse> points = new HashMap<>();
+        jdbcTemplate.query(sql, params, rs -> {
+            points.put(rs.getTimestamp("bucket").toLocalDateTime(), SalesPointResponse.builder()
+                    .revenue(rs.getBigDecimal("revenue"))
+                    .units(rs.getLong("units"))
+                    .orderCount(rs.getLong("order_count"))
+                    .build());
+        });
+        return points;
+    }
+
+    private static SalesPointResponse pointOrZero(Map<LocalDateTime, SalesPointResponse> points,
+                                                  LocalDateTime bucket, String period) {
+        SalesPointResponse point = points.get(bucket);
+        if (point == null) {
+            point = SalesPointResponse.builder().revenue(BigDecimal.ZERO).build();
+        }
+        point.setPeriod(period);
+        return point;
+    }
+
+    /**
+     * 指定狀態時只取該狀態，未指定時排除已取消
+     */
+    private static String statusFilter(String column, OrderStatus status) {
+        return status == null ? column + " <> 'CANCELLED'" : column + " = :status";
+    }
+
+    private static MapSqlParameterSource statusParams(OrderStatus status) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        if (status != null) {
+            params.addValue("status", status.name());
+        }
+        return params;
+    }
+
+    private static void validateRange(LocalDate from, LocalDate to, int maxDays) {
+        if (from.isAfter(to)) {
+            throw new CustomException("開始日期須早於或等於結束日期");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxDays) {
+            throw new CustomException("查詢區間最多 " + maxDays + " 天");
+        }
+    }
+}
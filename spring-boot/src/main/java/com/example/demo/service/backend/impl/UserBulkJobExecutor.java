@@ -0,0 +1,332 @@
+package com.example.demo.service.backend.impl;
+
+import com.example.demo.dto.request.backend.BulkUserRequest;
+import com.example.demo.dto.request.backend.UserSearchRequest;
+import com.example.demo.dto.response.backend.BulkJobResponse;
+import com.example.demo.entity.BulkUserJob;
+import com.example.demo.enums.BulkJobStatus;
+import com.example.demo.enums.BulkUserAction;
+import com.example.demo.enums.UserRole;
+import com.example.demo.event.UserChangedEvent;
+import com.example.demo.repository.BulkUserJobRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.repository.query.UserFilter;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 批次用戶管理作業執行器
+ * 將目標用戶切成固定大小的批次，每批一個交易，以集合式 UPDATE 或多列 INSERT / IN 條件 DELETE 寫入，
+ * 作業於背景執行緒進行。進度與該批的異動在同一交易內寫入 bulk_user_job，
+ * 本節點執行中的作業直接讀記憶體，其他作業（重啟前或其他節點提交的）從資料表查詢
+ */
+@Component
+@RequiredArgsConstructor
+public class UserBulkJobExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(UserBulkJobExecutor.class);
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final int WORKER_THREADS = 2;
+    // 已結束的作業在記憶體與資料表中的保留時間，逾時後於下次提交時清除
+    private static final Duration FINISHED_JOB_RETENTION = Duration.ofHours(1);
+    private static final Duration FINISHED_JOB_HISTORY = Duration.ofDays(7);
+    // 執行中的作業超過此時間未更新進度，視為執行節點已停止
+    private static final Duration STALE_JOB_TIMEOUT = Duration.ofMinutes(10);
+
+    private final UserRepository userRepository;
+    private final BulkUserJobRepository bulkUserJobRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<String, BulkJob> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newFixedThreadPool(WORKER_THREADS, new BulkJobThreadFactory());
+
+    /**
+     * 提交批次作業，立即回傳作業進度
+     * @param request 批次請求（已驗證）
+     * @param operatorId 操作者ID，作業會略過操作者本人
+     * @param operatorEmail 操作者郵箱
+     */
+    public BulkJobResponse submit(BulkUserRequest request, Long operatorId, String operatorEmail) {
+        evictFinishedJobs();
+
+        BulkJob job = new BulkJob(UUID.randomUUID().toString(), request.getAction(), request.getRole());
+        bulkUserJobRepository.save(BulkUserJob.builder()
+                .id(job.id)
+                .action(job.action)
+                .role(job.role)
+                .status(BulkJobStatus.RUNNING)
+                .operatorEmail(operatorEmail)
+                .startedAt(job.startedAt)
+                .updatedAt(job.startedAt)
+                .build());
+        jobs.put(job.id, job);
+        executor.execute(() -> run(job, request, operatorId, operatorEmail));
+        return job.toResponse();
+    }
+
+    /**
+     * 查詢作業進度
+     */
+    public BulkJobResponse getJob(String jobId) {
+        BulkJob job = jobs.get(jobId);
+        if (job != null) {
+            return job.toResponse();
+        }
+        return bulkUserJobRepository.findById(jobId)
+                .map(UserBulkJobExecutor::toResponse)
+                .orElseThrow(() -> new RuntimeException("批次作業不存在"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(BulkJob job, BulkUserRequest request, Long operatorId, String operatorEmail) {
+        log.info("批次作業開始 - jobId: {}, 動作: {}, 操作者: {}", job.id, job.action, operatorEmail);
+        try {
+            if (request.getUserIds() != null && !request.getUserIds().isEmpty()) {
+                // 依 id 排序，讓每批更新依主鍵順序取得行鎖
+                List<Long> userIds = request.getUserIds().stream()
+                        .filter(Objects::nonNull)
+                        .distinct()
+                        .sorted()
+                        .toList();
+                job.total.set(userIds.size());
+                for (int from = 0; from < userIds.size(); from += CHUNK_SIZE) {
+                    processChunk(job, userIds.subList(from, Math.min(from + CHUNK_SIZE, userIds.size())), operatorId, operatorEmail);
+                }
+            } else {
+                UserFilter filter = toFilter(request.getFilter(), job.action);
+                job.total.set(userRepository.countUsers(filter));
+                Long afterId = null;
+                while (true) {
+                    List<Long> userIds = userRepository.findUserIds(filter, afterId, CHUNK_SIZE);
+                    if (userIds.isEmpty()) {
+                        break;
+                    }
+                    processChunk(job, userIds, operatorId, operatorEmail);
+                    if (userIds.size() < CHUNK_SIZE) {
+                        break;
+                    }
+                    afterId = userIds.get(userIds.size() - 1);
+                }
+            }
+            finish(job, BulkJobStatus.COMPLETED, null);
+            log.info("批次作業完成 - jobId: {}, 處理: {}, 異動: {}", job.id, job.processed.get(), job.affected.get());
+        } catch (RuntimeException e) {
+            log.error("批次作業失敗 - jobId: {}, 已處理: {}", job.id, job.processed.get(), e);
+            finish(job, BulkJobStatus.FAILED, e.getMessage());
+        }
+    }
+
+    /**
+     * 單一批次於獨立交易內處理，失敗時只回滾當前批次
+     */
+    private void processChunk(BulkJob job, List<Long> userIds, Long operatorId, String operatorEmail) {
+        List<Long> targets = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            if (!userId.equals(operatorId)) {
+                targets.add(userId);
+            }
+        }
+        int skipped = userIds.size() - targets.size();
+
+        // 進度與本批異動一起提交，查詢到的進度不會超前或落後已提交的資料
+        Integer affected = transactionTemplate.execute(status -> {
+            int count = targets.isEmpty() ? 0 : apply(job.action, job.role, targets, operatorEmail);
+            bulkUserJobRepository.updateProgress(job.id, job.total.get(), job.processed.get() + userIds.size(),
+                    job.affected.get() + count, job.skipped.get() + skipped, LocalDateTime.now());
+            return count;
+        });
+        if (!targets.isEmpty()) {
+            eventPublisher.publishEvent(new UserChangedEvent(targets));
+        }
+        job.affected.addAndGet(affected == null ? 0 : affected);
+        job.skipped.addAndGet(skipped);
+        job.processed.addAndGet(userIds.size());
+    }
+
+    private void finish(BulkJob job, BulkJobStatus status, String errorMessage) {
+        job.finish(status, errorMessage);
+        try {
+            String message = errorMessage != null && errorMessage.length() > 500 ? errorMessage.substring(0, 500) : errorMessage;
+            transactionTemplate.executeWithoutResult(tx -> bulkUserJobRepository.finish(job.id, status, message, job.finishedAt));
+        } catch (RuntimeException e) {
+            // 寫入失敗時資料表中的作業維持 RUNNING，逾時後查詢會視為中斷
+            log.warn("批次作業結束狀態寫入失敗 - jobId: {}", job.id, e);
+        }
+    }
+
+    private int apply(BulkUserAction action, UserRole role, List<Long> userIds, String operatorEmail) {
+        LocalDateTime now = LocalDateTime.now();
+        return switch (action) {
+            case ENABLE -> userRepository.bulkUpdateEnabled(userIds, true, now);
+            case DISABLE -> userRepository.bulkUpdateEnabled(userIds, false, now);
+            case DELETE -> userRepository.bulkSoftDelete(userIds, operatorEmail, now);
+            case RESTORE -> userRepository.bulkRestore(userIds, now);
+            case ADD_ROLE -> addRole(userRepository.findActiveIdsByIdIn(userIds), role);
+            case REMOVE_ROLE -> removeRole(userRepository.findActiveIdsByIdIn(userIds), role);
+        };
+    }
+
+    /**
+     * 一句多列 INSERT IGNORE 加入角色，已有該角色的用戶略過，回傳實際新增的列數
+     */
+    private int addRole(List<Long> userIds, UserRole role) {
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("role", role.name());
+        StringBuilder sql = new StringBuilder("INSERT IGNORE INTO user_roles (user_id, role) VALUES ");
+        for (int i = 0; i < userIds.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(:userId").append(i).append(", :role)");
+            params.addValue("userId" + i, userIds.get(i));
+        }
+        return jdbcTemplate.update(sql.toString(), params);
+    }
+
+    /**
+     * 一句 IN 條件 DELETE 移除角色，回傳實際刪除的列數
+     */
+    private int removeRole(List<Long> userIds, UserRole role) {
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update("DELETE FROM user_roles WHERE role = :role AND user_id IN (:userIds)",
+                new MapSqlParameterSource("role", role.name()).addValue("userIds", userIds));
+    }
+
+    private UserFilter toFilter(UserSearchRequest request, BulkUserAction action) {
+        // 恢復動作未指定刪除狀態時，預設只針對已刪除用戶
+        Boolean deleted = request.getDeleted() == null && action == BulkUserAction.RESTORE ? Boolean.TRUE : request.getDeleted();
+        return new UserFilter(
+                request.getRole(),
+                request.getEnabled(),
+                deleted,
+                request.getCreatedAtFrom(),
+                request.getCreatedAtTo(),
+                trimToNull(request.getEmail()),
+                trimToNull(request.getName()),
+                null);
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private void evictFinishedJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime threshold = now.minus(FINISHED_JOB_RETENTION);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(threshold));
+        transactionTemplate.executeWithoutResult(status ->
+                bulkUserJobRepository.deleteFinishedBefore(now.minus(FINISHED_JOB_HISTORY)));
+    }
+
+    private static BulkJobResponse toResponse(BulkUserJob job) {
+        BulkJobStatus status = job.getStatus();
+        String errorMessage = job.getErrorMessage();
+        if (status == BulkJobStatus.RUNNING && job.getUpdatedAt().isBefore(LocalDateTime.now().minus(STALE_JOB_TIMEOUT))) {
+            status = BulkJobStatus.FAILED;
+            errorMessage = "作業已中斷（執行節點停止），已處理的批次不會回滾";
+        }
+        return BulkJobResponse.builder()
+                .jobId(job.getId())
+                .action(job.getAction())
+                .role(job.getRole())
+                .status(status)
+                .total(job.getTotal())
+                .processed(job.getProcessed())
+                .affected(job.getAffected())
+                .skipped(job.getSkipped())
+                .errorMessage(errorMessage)
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+
+    /**
+     * 作業進度，計數器由背景執行緒更新、查詢端讀取
+     */
+    private static final class BulkJob {
+
+        private final String id;
+        private final BulkUserAction action;
+        private final UserRole role;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong affected = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private volatile BulkJobStatus status = BulkJobStatus.RUNNING;
+        private volatile String errorMessage;
+        private volatile LocalDateTime finishedAt;
+
+        private BulkJob(String id, BulkUserAction action, UserRole role) {
+            this.id = id;
+            this.action = action;
+            this.role = role;
+        }
+
+        private void finish(BulkJobStatus status, String errorMessage) {
+            this.errorMessage = errorMessage;
+            this.finishedAt = LocalDateTime.now();
+            this.status = status;
+        }
+
+        private BulkJobResponse toResponse() {
+            return BulkJobResponse.builder()
+                    .jobId(id)
+                    .action(action)
+                    .role(role)
+                    .status(status)
+                    .total(total.get())
+                    .processed(processed.get())
+                    .affected(affected.get())
+                    .skipped(skipped.get())
+                    .errorMessage(errorMessage)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+
+    private static final class BulkJobThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "bulk-user-job-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.demo.service.frontend;
 
 import com.example.demo.dto.request.AddToCartRequest;
+import com.example.demo.dto.request.CartBatchRequest;
 import com.example.demo.dto.request.UpdateCartItemRequest;
+import com.example.demo.dto.response.frontend.CartDeltaResponse;
 import com.example.demo.dto.response.frontend.CartResponse;
 
 import java.util.List;
@@ -154,5 +156,57 @@ public interface CartService {
      * @return 購物車響應（包含驗證信息）
      */
     CartResponse validateCart(Long userId);
-}
 
+    /**
+     * 批次套用購物車操作（同一交易，全部成功或全部不生效）
+     * @param userId 用戶ID
+     * @param request 操作列表
+     * @return 套用後的購物車響應
+     */
+    CartResponse applyBatch(Long userId, CartBatchRequest request);
+
+    // ============= 增量響應 =============
+    // 只組裝異動的項目；總計每次依目前商品價格重新彙總，不在程序內維護累計金額：
+    // 商品改價、結帳、清理排程與其他節點都會在購物車異動路徑之外改變總計，累計值無法可靠地失效
+
+    /**
+     * 添加商品到購物車，只回傳異動項目與總計
+     * @param userId 用戶ID
+     * @param request 添加請求
+     * @return 增量響應
+     */
+    CartDeltaResponse addToCartDelta(Long userId, AddToCartRequest request);
+
+    /**
+     * 更新購物車項目數量，只回傳異動項目與總計
+     * @param userId 用戶ID
+     * @param cartItemId 購物車項目ID
+     * @param request 更新請求
+     * @return 增量響應
+     */
+    CartDeltaResponse updateCartItemDelta(Long userId, Long cartItemId, UpdateCartItemRequest request);
+
+    /**
+     * 刪除購物車項目，只回傳被刪除的項目ID與總計
+     * @param userId 用戶ID
+     * @param cartItemId 購物車項目ID
+     * @return 增量響應
+     */
+    CartDeltaResponse removeCartItemDelta(Long userId, Long cartItemId);
+
+    /**
+     * 切換購物車項目的勾選狀態，只回傳異動項目與總計
+     * @param userId 用戶ID
+     * @param cartItemId 購物車項目ID
+     * @return 增量響應
+     */
+    CartDeltaResponse toggleCartItemCheckedDelta(Long userId, Long cartItemId);
+
+    /**
+     * 批量刪除購物車項目，只回傳被刪除的項目ID與總計
+     * @param userId 用戶ID
+     * @param cartItemIds 購物車項目ID列表
+     * @return 增量響應
+     */
+    CartDeltaResponse batchRemoveCartItemsDelta(Long userId, List<Long> cartItemIds);
+}
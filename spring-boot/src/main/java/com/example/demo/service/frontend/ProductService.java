@@ -1,9 +1,14 @@
 package com.example.demo.service.frontend;
 
+import com.example.demo.dto.response.frontend.BestsellerResponse;
 import com.example.demo.dto.response.frontend.ProductResponse;
+import com.example.demo.dto.response.frontend.ProductSuggestionResponse;
 import java.util.List;
 
 public interface ProductService {
     List<ProductResponse> getAvailableProducts();
     ProductResponse getProductDetail(Long id);
+    List<BestsellerResponse> getBestsellers(int limit);
+    List<ProductResponse> getRelatedProducts(Long id);
+    List<ProductSuggestionResponse> suggestProducts(String query, int limit);
 }
@@ -0,0 +1,185 @@
+package com.example.demo.service.frontend.impl;
+
+import com.example.demo.dto.response.frontend.CartDeltaResponse;
+import com.example.demo.dto.response.frontend.CartItemResponse;
+import com.example.demo.dto.response.frontend.CartResponse;
+import com.example.demo.entity.Cart;
+import com.example.demo.entity.CartItem;
+import com.example.demo.entity.Product;
+import com.example.demo.repository.ProductRepository;
+import com.example.demo.repository.query.CartTotals;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 購物車響應組裝
+ * 資料庫與記憶體兩種購物車引擎共用，確保輸出一致
+ */
+@Component
+@RequiredArgsConstructor
+public class CartResponseAssembler {
+
+    private final ProductRepository productRepository;
+
+    /**
+     * 構建購物車響應，總金額只計算已勾選項目
+     */
+    public CartResponse toResponse(Cart cart, List<CartItem> cartItems) {
+        return toResponse(cart, cartItems, loadProducts(cartItems));
+    }
+
+    /**
+     * 以呼叫端已載入的商品構建購物車響應，不再查詢商品
+     */
+    public CartResponse toResponse(Cart cart, List<CartItem> cartItems, Map<Long, Product> products) {
+        List<CartItemResponse> itemResponses = toItemResponses(cartItems, products);
+
+        BigDecimal totalAmount = itemResponses.stream()
+                .filter(CartItemResponse::getChecked)
+                .map(CartItemResponse::getSubtotal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        return CartResponse.builder()
+                .id(cart.getId())
+                .userId(cart.getUserId())
+                .version(cart.getVersion())
+                .items(itemResponses)
+                .totalItems(cartItems.size())
+                .totalAmount(totalAmount)
+                .createdAt(cart.getCreatedAt())
+                .updatedAt(cart.getUpdatedAt())
+                .build();
+    }
+
+    /**
+     * 構建只包含已勾選項目的購物車響應
+     */
+    public CartResponse toCheckedResponse(Cart cart, List<CartItem> checkedItems) {
+        List<CartItemResponse> itemResponses = toItemResponses(checkedItems);
+
+        BigDecimal totalAmount = itemResponses.stream()
+                .map(CartItemResponse::getSubtotal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        return CartResponse.builder()
+                .id(cart.getId())
+                .userId(cart.getUserId())
+                .version(cart.getVersion())
+                .items(itemResponses)
+                .totalItems(checkedItems.size())
+                .totalAmount(totalAmount)
+                .createdAt(cart.getCreatedAt())
+                .updatedAt(cart.getUpdatedAt())
+                .build();
+    }
+
+    /**
+     * 構建增量響應，只組裝異動的項目
+     * @param changedItems 新增或修改後的項目
+     * @param removedItemIds 已刪除的項目ID
+     * @param totals 異動後的購物車總計
+     */
+    public CartDeltaResponse toDelta(Cart cart, List<CartItem> changedItems, List<Long> removedItemIds, CartTotals totals) {
+        return CartDeltaResponse.builder()
+                .id(cart.getId())
+                .version(cart.getVersion())
+                .items(toItemResponses(changedItems))
+                .removedItemIds(removedItemIds)
+                .totalItems(Math.toIntExact(totals.totalItems()))
+                .totalAmount(totals.totalAmount())
+                .build();
+    }
+
+    /**
+     * 以目前商品價格計算項目總計，只讀取商品不組裝項目響應
+     */
+    public CartTotals totals(List<CartItem> cartItems) {
+        Map<Long, Product> products = loadProducts(cartItems);
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (CartItem cartItem : cartItems) {
+            Product product = products.get(cartItem.getProductId());
+            if (cartItem.getChecked() && product != null) {
+                totalAmount = totalAmount.add(product.getPrice().multiply(new BigDecimal(cartItem.getQuantity())));
+            }
+        }
+        return new CartTotals((long) cartItems.size(), totalAmount);
+    }
+
+    /**
+     * 一次載入所有項目的商品後逐項構建響應
+     */
+    private List<CartItemResponse> toItemResponses(List<CartItem> cartItems) {
+        if (cartItems.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return toItemResponses(cartItems, loadProducts(cartItems));
+    }
+
+    private List<CartItemResponse> toItemResponses(List<CartItem> cartItems, Map<Long, Product> products) {
+        return cartItems.stream()
+                .map(cartItem -> {
+                    Product product = products.get(cartItem.getProductId());
+                    if (product == null) {
+                        throw new RuntimeException("商品不存在");
+                    }
+                    return toItemResponse(cartItem, product);
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 一次載入項目對應的商品
+     */
+    public Map<Long, Product> loadProducts(List<CartItem> cartItems) {
+        if (cartItems.isEmpty()) {
+            return new HashMap<>();
+        }
+        return productRepository.findAllById(cartItems.stream().map(CartItem::getProductId).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
+
+    /**
+     * 構建購物車項目響應
+     */
+    private CartItemResponse toItemResponse(CartItem cartItem, Product product) {
+        BigDecimal subtotal = product.getPrice().multiply(new BigDecimal(cartItem.getQuantity()));
+
+        // 檢查商品狀態
+        Boolean productDeleted = product.getDeletedAt() != null;
+        Boolean stockInsufficient = product.getStock() < cartItem.getQuantity();
+        String errorMessage = null;
+
+        if (productDeleted) {
+            errorMessage = "商品已下架";
+        } else if (stockInsufficient) {
+            errorMessage = "庫存不足（剩餘 " + product.getStock() + " 件）";
+        }
+
+        return CartItemResponse.builder()
+                .id(cartItem.getId())
+                .productId(product.getId())
+                .productName(product.getName())
+                .productDescription(product.getDescription())
+                .productPrice(product.getPrice())
+                .productImageUrl(product.getImageUrl())
+                .productStock(product.getStock())
+                .quantity(cartItem.getQuantity())
+                .checked(cartItem.getChecked())
+                .subtotal(subtotal)
+                .createdAt(cartItem.getCreatedAt())
+                .updatedAt(cartItem.getUpdatedAt())
+                .productDeleted(productDeleted)
+                .stockInsufficient(stockInsufficient)
+                .errorMessage(errorMessage)
+                .build();
+    }
+}
@@ -1,27 +1,42 @@
 package com.example.demo.service.frontend.impl;
 
+import com.example.demo.cart.CartItemCountCache;
 import com.example.demo.dto.request.AddToCartRequest;
+import com.example.demo.dto.request.CartBatchRequest;
 import com.example.demo.dto.request.UpdateCartItemRequest;
-import com.example.demo.dto.response.frontend.CartItemResponse;
+import com.example.demo.dto.response.frontend.CartDeltaResponse;
 import com.example.demo.dto.response.frontend.CartResponse;
 import com.example.demo.entity.Cart;
 import com.example.demo.entity.CartItem;
 import com.example.demo.entity.Product;
-import com.example.demo.entity.User;
+import com.example.demo.enums.CartOperationType;
+import com.example.demo.event.CartChangedEvent;
 import com.example.demo.exception.CartItemNotFoundException;
+import com.example.demo.exception.CustomException;
 import com.example.demo.repository.CartItemRepository;
 import com.example.demo.repository.CartRepository;
 import com.example.demo.repository.ProductRepository;
-import com.example.demo.repository.UserRepository;
+import com.example.demo.repository.query.CartCounter;
+import com.example.demo.search.UserIdCache;
 import com.example.demo.service.frontend.CartService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -36,7 +51,14 @@ public class CartServiceImpl implements CartService {
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
     private final ProductRepository productRepository;
-    private final UserRepository userRepository;
+    private final UserIdCache userIdCache;
+    private final CartResponseAssembler cartResponseAssembler;
+    private final JdbcTemplate jdbcTemplate;
+    private final CartItemCountCache cartItemCountCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final String BATCH_UPDATE_ITEM_SQL =
+            "UPDATE cart_item SET quantity = ?, checked = ?, updated_at = ? WHERE id = ?";
 
     @Override
     @Transactional
@@ -47,111 +69,57 @@ public class CartServiceImpl implements CartService {
 
     @Override
     public CartResponse addToCart(Long userId, AddToCartRequest request) {
-        // 驗證商品是否存在且未刪除
-        Product product = productRepository.findById(request.getProductId())
-                .orElseThrow(() -> new RuntimeException("商品不存在"));
-
-        if (product.getDeletedAt() != null) {
-            throw new RuntimeException("商品已下架");
-        }
-
-        // 檢查庫存
-        if (product.getStock() < request.getQuantity()) {
-            throw new RuntimeException("商品庫存不足");
-        }
-
-        // 獲取或創建購物車
-        Cart cart = getOrCreateCart(userId);
-
-        // 檢查購物車中是否已有該商品
-        CartItem existingItem = cartItemRepository.findByCartIdAndProductId(cart.getId(), request.getProductId())
-                .orElse(null);
-
-        if (existingItem != null) {
-            // 如果已存在，更新數量
-            int newQuantity = existingItem.getQuantity() + request.getQuantity();
-            if (product.getStock() < newQuantity) {
-                throw new RuntimeException("商品庫存不足");
-            }
-            existingItem.setQuantity(newQuantity);
-            cartItemRepository.save(existingItem);
-        } else {
-            // 創建新的購物車項目
-            CartItem cartItem = CartItem.builder()
-                    .cartId(cart.getId())
-                    .productId(request.getProductId())
-                    .quantity(request.getQuantity())
-                    .checked(true)
-                    .build();
-            cartItemRepository.save(cartItem);
-        }
+        return buildCartResponse(applyAddToCart(userId, request));
+    }
 
-        log.info("用戶 {} 添加商品 {} 到購物車，數量：{}", userId, request.getProductId(), request.getQuantity());
-        return buildCartResponse(cart);
+    @Override
+    public CartDeltaResponse addToCartDelta(Long userId, AddToCartRequest request) {
+        Cart cart = applyAddToCart(userId, request);
+        CartItem cartItem = cartItemRepository.findByCartIdAndProductId(cart.getId(), request.getProductId())
+                .orElseThrow(() -> new RuntimeException("購物車項目不存在"));
+        return buildDeltaResponse(cart, List.of(cartItem), List.of());
     }
 
     @Override
     public CartResponse updateCartItem(Long userId, Long cartItemId, UpdateCartItemRequest request) {
         Cart cart = getOrCreateCart(userId);
+        applyUpdateCartItem(userId, cart, cartItemId, request);
+        return buildCartResponse(bumpVersion(cart));
+    }
 
-        CartItem cartItem = cartItemRepository.findById(cartItemId)
-                .orElseThrow(() -> new RuntimeException("購物車項目不存在"));
-
-        // 驗證購物車項目屬於該用戶
-        if (!cartItem.getCartId().equals(cart.getId())) {
-            throw new RuntimeException("無權操作此購物車項目");
-        }
-
-        // 檢查商品庫存
-        Product product = productRepository.findById(cartItem.getProductId())
-                .orElseThrow(() -> new RuntimeException("商品不存在"));
-
-        if (product.getStock() < request.getQuantity()) {
-            throw new RuntimeException("商品庫存不足");
-        }
-
-        cartItem.setQuantity(request.getQuantity());
-        cartItemRepository.save(cartItem);
-
-        log.info("用戶 {} 更新購物車項目 {} 數量為：{}", userId, cartItemId, request.getQuantity());
-        return buildCartResponse(cart);
+    @Override
+    public CartDeltaResponse updateCartItemDelta(Long userId, Long cartItemId, UpdateCartItemRequest request) {
+        Cart cart = getOrCreateCart(userId);
+        CartItem cartItem = applyUpdateCartItem(userId, cart, cartItemId, request);
+        return buildDeltaResponse(bumpVersion(cart), List.of(cartItem), List.of());
     }
 
     @Override
     public CartResponse removeCartItem(Long userId, Long cartItemId) {
         Cart cart = getOrCreateCart(userId);
+        applyRemoveCartItem(userId, cart, cartItemId);
+        return buildCartResponse(bumpVersion(cart));
+    }
 
-        CartItem cartItem = cartItemRepository.findById(cartItemId)
-                .orElseThrow(() -> new RuntimeException("購物車項目不存在"));
-
-        // 驗證購物車項目屬於該用戶
-        if (!cartItem.getCartId().equals(cart.getId())) {
-            throw new RuntimeException("無權操作此購物車項目");
-        }
-
-        cartItemRepository.delete(cartItem);
-        log.info("用戶 {} 刪除購物車項目 {}", userId, cartItemId);
-
-        return buildCartResponse(cart);
+    @Override
+    public CartDeltaResponse removeCartItemDelta(Long userId, Long cartItemId) {
+        Cart cart = getOrCreateCart(userId);
+        applyRemoveCartItem(userId, cart, cartItemId);
+        return buildDeltaResponse(bumpVersion(cart), List.of(), List.of(cartItemId));
     }
 
     @Override
     public CartResponse toggleCartItemChecked(Long userId, Long cartItemId) {
         Cart cart = getOrCreateCart(userId);
+        applyToggleCartItemChecked(userId, cart, cartItemId);
+        return buildCartResponse(bumpVersion(cart));
+    }
 
-        CartItem cartItem = cartItemRepository.findById(cartItemId)
-                .orElseThrow(() -> new RuntimeException("購物車項目不存在"));
-
-        // 驗證購物車項目屬於該用戶
-        if (!cartItem.getCartId().equals(cart.getId())) {
-            throw new RuntimeException("無權操作此購物車項目");
-        }
-
-        cartItem.setChecked(!cartItem.getChecked());
-        cartItemRepository.save(cartItem);
-
-        log.info("用戶 {} 切換購物車項目 {} 勾選狀態為：{}", userId, cartItemId, cartItem.getChecked());
-        return buildCartResponse(cart);
+    @Override
+    public CartDeltaResponse toggleCartItemCheckedDelta(Long userId, Long cartItemId) {
+        Cart cart = getOrCreateCart(userId);
+        CartItem cartItem = applyToggleCartItemChecked(userId, cart, cartItemId);
+        return buildDeltaResponse(bumpVersion(cart), List.of(cartItem), List.of());
     }
 
     @Override
@@ -160,18 +128,116 @@ public class CartServiceImpl implements CartService {
         cartItemRepository.updateCheckedStatusByCartId(cart.getId(), checked);
 
         log.info("用戶 {} 全選/取消全選購物車項目，狀態：{}", userId, checked);
-        return buildCartResponse(cart);
+        return buildCartResponse(bumpVersion(cart));
     }
 
     @Override
     public void clearCart(Long userId) {
         Cart cart = cartRepository.findByUserId(userId).orElse(null);
         if (cart != null) {
-            cartItemRepository.deleteByCartId(cart.getId());
+            cartItemRepository.deleteAllLines(cart.getId());
+            bumpVersion(cart);
             log.info("用戶 {} 清空購物車", userId);
         }
     }
 
+    @Override
+    public CartResponse applyBatch(Long userId, CartBatchRequest request) {
+        Cart cart = getOrCreateCart(userId);
+
+        // 1. 一次載入購物車項目，複製後在記憶體中套用操作，不觸發 JPA 髒檢查
+        Map<Long, CartItem> items = new LinkedHashMap<>();
+        for (CartItem cartItem : cartItemRepository.findByCartId(cart.getId())) {
+            items.put(cartItem.getId(), CartItem.builder()
+                    .id(cartItem.getId())
+                    .productId(cartItem.getProductId())
+                    .quantity(cartItem.getQuantity())
+                    .checked(cartItem.getChecked())
+                    .build());
+        }
+
+        // 2. 一次驗證所有引用的項目都屬於此購物車
+        verifyBatchOwnership(cart, items.keySet(), request.getOperations());
+
+        // 3. 依序套用操作
+        Map<Long, CartItem> itemsByProduct = new HashMap<>();
+        items.values().forEach(item -> itemsByProduct.put(item.getProductId(), item));
+        Map<Long, CartItem> added = new LinkedHashMap<>();
+        Set<Long> updatedIds = new LinkedHashSet<>();
+        Set<Long> removedIds = new LinkedHashSet<>();
+        Set<Long> quantityChangedProducts = new LinkedHashSet<>();
+        Set<Long> addedProducts = new LinkedHashSet<>();
+
+        for (CartBatchRequest.Operation operation : request.getOperations()) {
+            switch (operation.getType()) {
+                case ADD -> {
+                    requireField(operation.getProductId(), "ADD 操作需要商品ID");
+                    requireField(operation.getQuantity(), "ADD 操作需要數量");
+                    CartItem existing = itemsByProduct.get(operation.getProductId());
+                    if (existing != null) {
+                        existing.setQuantity(existing.getQuantity() + operation.getQuantity());
+                        if (existing.getId() != null) {
+                            updatedIds.add(existing.getId());
+                        }
+                    } else {
+                        CartItem cartItem = CartItem.builder()
+                                .productId(operation.getProductId())
+                                .quantity(operation.getQuantity())
+                                .checked(true)
+                                .build();
+                        itemsByProduct.put(cartItem.getProductId(), cartItem);
+                        added.put(cartItem.getProductId(), cartItem);
+                    }
+                    quantityChangedProducts.add(operation.getProductId());
+                    addedProducts.add(operation.getProductId());
+                }
+                case UPDATE -> {
+                    requireField(operation.getQuantity(), "UPDATE 操作需要數量");
+                    CartItem cartItem = requireBatchItem(items, operation.getCartItemId());
+                    cartItem.setQuantity(operation.getQuantity());
+                    updatedIds.add(cartItem.getId());
+                    quantityChangedProducts.add(cartItem.getProductId());
+                }
+                case TOGGLE -> {
+                    CartItem cartItem = requireBatchItem(items, operation.getCartItemId());
+                    cartItem.setChecked(operation.getChecked() != null ? operation.getChecked() : !cartItem.getChecked());
+                    updatedIds.add(cartItem.getId());
+                }
+                case REMOVE -> {
+                    CartItem cartItem = requireBatchItem(items, operation.getCartItemId());
+                    items.remove(cartItem.getId());
+                    itemsByProduct.remove(cartItem.getProductId());
+                    updatedIds.remove(cartItem.getId());
+                    removedIds.add(cartItem.getId());
+                }
+            }
+        }
+
+        // 4. 一次載入受影響的商品，以最終數量檢查商品狀態與庫存
+        verifyBatchStock(itemsByProduct, quantityChangedProducts, addedProducts);
+
+        // 5. 以 JDBC batch 寫入
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        cartItemRepository.deleteLines(cart.getId(), removedIds);
+        if (!updatedIds.isEmpty()) {
+            List<CartItem> updated = updatedIds.stream().map(items::get).toList();
+            jdbcTemplate.batchUpdate(BATCH_UPDATE_ITEM_SQL, updated, updated.size(), (ps, cartItem) -> {
+                ps.setInt(1, cartItem.getQuantity());
+                ps.setBoolean(2, cartItem.getChecked());
+                ps.setTimestamp(3, timestamp);
+                ps.setLong(4, cartItem.getId());
+            });
+        }
+        cartItemRepository.insertLines(cart.getId(), new ArrayList<>(added.values()), now);
+
+        log.info("用戶 {} 批次更新購物車 - 操作: {}, 新增: {}, 修改: {}, 刪除: {}",
+                userId, request.getOperations().size(), added.size(), updatedIds.size(), removedIds.size());
+
+        // 6. 遞增版本號（同時清除持久化內容），最後只構建一次響應
+        return buildCartResponse(bumpVersion(cart));
+    }
+
     // ============= Email-based methods =============
 
     @Override
@@ -220,28 +286,15 @@ public class CartServiceImpl implements CartService {
     @Override
     public CartResponse batchRemoveCartItems(Long userId, List<Long> cartItemIds) {
         Cart cart = getOrCreateCart(userId);
+        applyBatchRemoveCartItems(userId, cart, cartItemIds);
+        return buildCartResponse(bumpVersion(cart));
+    }
 
-        List<CartItem> itemsToDelete = cartItemRepository.findAllById(cartItemIds);
-        // 用 Set 提升效率
-        Set<Long> foundIds = itemsToDelete.stream().map(CartItem::getId).collect(Collectors.toSet());
-        // 一次找出所有不存在的 id
-        List<Long> notFoundIds = cartItemIds.stream()
-            .filter(id -> !foundIds.contains(id))
-            .toList();
-        if (!notFoundIds.isEmpty()) {
-            throw new CartItemNotFoundException(notFoundIds);
-        }
-        // 驗證所有項目都屬於該用戶
-        List<Long> unauthorizedIds = itemsToDelete.stream()
-            .filter(item -> !item.getCartId().equals(cart.getId()))
-            .map(CartItem::getId)
-            .toList();
-        if (!unauthorizedIds.isEmpty()) {
-            throw new RuntimeException("無權操作購物車項目: " + unauthorizedIds);
-        }
-        cartItemRepository.deleteAllById(cartItemIds);
-        log.info("用戶 {} 批量刪除購物車項目，數量：{}", userId, cartItemIds.size());
-        return buildCartResponse(cart);
+    @Override
+    public CartDeltaResponse batchRemoveCartItemsDelta(Long userId, List<Long> cartItemIds) {
+        Cart cart = getOrCreateCart(userId);
+        applyBatchRemoveCartItems(userId, cart, cartItemIds);
+        return buildDeltaResponse(bumpVersion(cart), List.of(), cartItemIds.stream().distinct().toList());
     }
 
     @Override
@@ -250,7 +303,8 @@ public class CartServiceImpl implements CartService {
         List<CartItem> checkedItems = cartItemRepository.findByCartIdAndChecked(cart.getId(), true);
 
         if (!checkedItems.isEmpty()) {
-            cartItemRepository.deleteAll(checkedItems);
+            cartItemRepository.deleteLines(cart.getId(), checkedItems.stream().map(CartItem::getId).toList());
+            cart = bumpVersion(cart);
             log.info("用戶 {} 刪除已勾選項目，數量：{}", userId, checkedItems.size());
         }
 
@@ -262,112 +316,304 @@ public class CartServiceImpl implements CartService {
         Cart cart = getOrCreateCart(userId);
         List<CartItem> checkedItems = cartItemRepository.findByCartIdAndChecked(cart.getId(), true);
 
-        List<CartItemResponse> itemResponses = checkedItems.stream()
-                .map(this::buildCartItemResponse)
-                .collect(Collectors.toList());
-
-        BigDecimal totalAmount = itemResponses.stream()
-                .map(CartItemResponse::getSubtotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        return CartResponse.builder()
-                .id(cart.getId())
-                .userId(cart.getUserId())
-                .items(itemResponses)
-                .totalItems(checkedItems.size())
-                .totalAmount(totalAmount)
-                .createdAt(cart.getCreatedAt())
-                .updatedAt(cart.getUpdatedAt())
-                .build();
+        return cartResponseAssembler.toCheckedResponse(cart, checkedItems);
     }
 
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Integer getCartItemCount(Long userId) {
-        Cart cart = cartRepository.findByUserId(userId).orElse(null);
-        if (cart == null) {
+        // 命中快取時不開啟交易也不查詢資料庫
+        Integer cached = cartItemCountCache.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        CartCounter counter = cartRepository.findCounterByUserId(userId).orElse(null);
+        if (counter == null) {
             return 0;
         }
-        return Math.toIntExact(cartItemRepository.countByCartId(cart.getId()));
+        cartItemCountCache.put(userId, counter.version(), counter.itemCount());
+        return counter.itemCount();
     }
 
     @Override
+    @Transactional(noRollbackFor = CustomException.class)
     public CartResponse validateCart(Long userId) {
         Cart cart = getOrCreateCart(userId);
         List<CartItem> cartItems = cartItemRepository.findByCartId(cart.getId());
 
-        boolean hasInvalidItems = false;
+        // 一次載入所有商品，在記憶體中找出需要修正的項目
+        Map<Long, Product> products = cartResponseAssembler.loadProducts(cartItems);
+        List<Long> clampIds = new ArrayList<>();
+        List<Long> uncheckIds = new ArrayList<>();
         StringBuilder errorMessage = new StringBuilder();
 
         for (CartItem cartItem : cartItems) {
-            Product product = productRepository.findById(cartItem.getProductId()).orElse(null);
+            Product product = products.get(cartItem.getProductId());
 
             // 檢查商品是否存在
             if (product == null) {
-                hasInvalidItems = true;
                 errorMessage.append("商品不存在（ID: ").append(cartItem.getProductId()).append("）; ");
                 continue;
             }
 
-            // 檢查商品是否已下架
+            // 檢查商品是否已下架，已下架商品自動取消勾選
             if (product.getDeletedAt() != null) {
-                hasInvalidItems = true;
                 errorMessage.append("商品已下架：").append(product.getName()).append("; ");
-                // 自動取消勾選已下架商品
                 if (cartItem.getChecked()) {
-                    cartItem.setChecked(false);
-                    cartItemRepository.save(cartItem);
+                    uncheckIds.add(cartItem.getId());
                 }
                 continue;
             }
 
             // 檢查庫存是否充足
             if (product.getStock() < cartItem.getQuantity()) {
-                hasInvalidItems = true;
                 errorMessage.append("商品庫存不足：").append(product.getName())
                         .append("（需要 ").append(cartItem.getQuantity())
                         .append("，庫存 ").append(product.getStock()).append("）; ");
-                // 自動調整數量為庫存數量
+                // 自動調整數量為庫存數量，庫存為0時取消勾選
                 if (product.getStock() > 0) {
-                    cartItem.setQuantity(product.getStock());
-                    cartItemRepository.save(cartItem);
+                    clampIds.add(cartItem.getId());
                 } else {
-                    // 庫存為0時取消勾選
-                    cartItem.setChecked(false);
-                    cartItemRepository.save(cartItem);
+                    uncheckIds.add(cartItem.getId());
                 }
             }
         }
 
-        CartResponse response = buildCartResponse(cart);
+        // 以兩個集合式 UPDATE 套用修正，再同步到已載入的快照供響應使用
+        if (!clampIds.isEmpty()) {
+            cartItemRepository.clampQuantityToStock(clampIds);
+        }
+        if (!uncheckIds.isEmpty()) {
+            cartItemRepository.uncheckAll(uncheckIds);
+        }
+        Set<Long> clampIdSet = Set.copyOf(clampIds);
+        Set<Long> uncheckIdSet = Set.copyOf(uncheckIds);
+        for (CartItem cartItem : cartItems) {
+            if (clampIdSet.contains(cartItem.getId())) {
+                cartItem.setQuantity(products.get(cartItem.getProductId()).getStock());
+            }
+            if (uncheckIdSet.contains(cartItem.getId())) {
+                cartItem.setChecked(false);
+            }
+        }
+        if (!clampIds.isEmpty() || !uncheckIds.isEmpty()) {
+            cart = bumpVersion(cart);
+        }
+
+        CartResponse response = cartResponseAssembler.toResponse(cart, cartItems, products);
 
-        if (hasInvalidItems) {
+        if (errorMessage.length() > 0) {
             log.warn("用戶 {} 的購物車驗證發現問題：{}", userId, errorMessage);
-            throw new RuntimeException("購物車驗證失敗：" + errorMessage.toString());
+            // 回報錯誤時不回滾，自動修正仍然保留
+            throw new CustomException("購物車驗證失敗：" + errorMessage);
         }
 
         log.info("用戶 {} 的購物車驗證通過", userId);
         return response;
     }
 
+    /**
+     * 新增或累加數量，商品與庫存條件在同一語句內判斷
+     * @return 遞增版本號後的購物車
+     */
+    private Cart applyAddToCart(Long userId, AddToCartRequest request) {
+        // 先以排他鎖鎖定商品列，同一商品的加入依序執行：upsert 讀到的庫存與既有數量都是最新值，
+        // 也不會有兩個交易先取得共享鎖、再同時升級為排他鎖而死結
+        if (productRepository.lockStockById(request.getProductId()).isEmpty()) {
+            throw new RuntimeException(productRepository.existsById(request.getProductId()) ? "商品已下架" : "商品不存在");
+        }
+
+        int affected = cartItemRepository.upsertQuantity(userId, request.getProductId(), request.getQuantity());
+        if (affected == 0) {
+            // 首次加入時購物車尚未建立，建立後重試一次
+            if (cartRepository.insertIfAbsent(userId) == 0
+                    || cartItemRepository.upsertQuantity(userId, request.getProductId(), request.getQuantity()) == 0) {
+                throw new RuntimeException("商品庫存不足");
+            }
+        }
+        cartRepository.incrementVersionByUserId(userId);
+        Cart cart = getOrCreateCart(userId);
+        publishCartChanged(cart);
+
+        log.info("用戶 {} 添加商品 {} 到購物車，數量：{}", userId, request.getProductId(), request.getQuantity());
+        return cart;
+    }
+
+    private CartItem applyUpdateCartItem(Long userId, Cart cart, Long cartItemId, UpdateCartItemRequest request) {
+        CartItem cartItem = requireOwnedItem(cart, cartItemId);
+
+        // 檢查商品庫存
+        Product product = productRepository.findById(cartItem.getProductId())
+                .orElseThrow(() -> new RuntimeException("商品不存在"));
+
+        if (product.getStock() < request.getQuantity()) {
+            throw new RuntimeException("商品庫存不足");
+        }
+
+        cartItem.setQuantity(request.getQuantity());
+        cartItemRepository.save(cartItem);
+
+        log.info("用戶 {} 更新購物車項目 {} 數量為：{}", userId, cartItemId, request.getQuantity());
+        return cartItem;
+    }
+
+    private void applyRemoveCartItem(Long userId, Cart cart, Long cartItemId) {
+        CartItem cartItem = requireOwnedItem(cart, cartItemId);
+
+        cartItemRepository.deleteLines(cart.getId(), List.of(cartItem.getId()));
+        log.info("用戶 {} 刪除購物車項目 {}", userId, cartItemId);
+    }
+
+    private CartItem applyToggleCartItemChecked(Long userId, Cart cart, Long cartItemId) {
+        CartItem cartItem = requireOwnedItem(cart, cartItemId);
+
+        cartItem.setChecked(!cartItem.getChecked());
+        cartItemRepository.save(cartItem);
+
+        log.info("用戶 {} 切換購物車項目 {} 勾選狀態為：{}", userId, cartItemId, cartItem.getChecked());
+        return cartItem;
+    }
+
+    private void applyBatchRemoveCartItems(Long userId, Cart cart, List<Long> cartItemIds) {
+        List<CartItem> itemsToDelete = cartItemRepository.findAllById(cartItemIds);
+        // 用 Set 提升效率
+        Set<Long> foundIds = itemsToDelete.stream().map(CartItem::getId).collect(Collectors.toSet());
+        // 一次找出所有不存在的 id
+        List<Long> notFoundIds = cartItemIds.stream()
+            .filter(id -> !foundIds.contains(id))
+            .toList();
+        if (!notFoundIds.isEmpty()) {
+            throw new CartItemNotFoundException(notFoundIds);
+        }
+        // 驗證所有項目都屬於該用戶
+        List<Long> unauthorizedIds = itemsToDelete.stream()
+            .filter(item -> !item.getCartId().equals(cart.getId()))
+            .map(CartItem::getId)
+            .toList();
+        if (!unauthorizedIds.isEmpty()) {
+            throw new RuntimeException("無權操作購物車項目: " + unauthorizedIds);
+        }
+        cartItemRepository.deleteLines(cart.getId(), cartItemIds);
+        log.info("用戶 {} 批量刪除購物車項目，數量：{}", userId, cartItemIds.size());
+    }
+
+    /**
+     * 驗證批次操作引用的項目ID，不在購物車中的項目一次查詢區分不存在與屬於他人
+     */
+    private void verifyBatchOwnership(Cart cart, Set<Long> ownedIds, List<CartBatchRequest.Operation> operations) {
+        Set<Long> unknownIds = new LinkedHashSet<>();
+        for (CartBatchRequest.Operation operation : operations) {
+            if (operation.getType() == CartOperationType.ADD) {
+                continue;
+            }
+            requireField(operation.getCartItemId(), "請指定購物車項目ID");
+            if (!ownedIds.contains(operation.getCartItemId())) {
+                unknownIds.add(operation.getCartItemId());
+            }
+        }
+        if (unknownIds.isEmpty()) {
+            return;
+        }
+        List<Long> othersIds = cartItemRepository.findAllById(unknownIds).stream()
+                .filter(cartItem -> !cartItem.getCartId().equals(cart.getId()))
+                .map(CartItem::getId)
+                .toList();
+        if (!othersIds.isEmpty()) {
+            throw new RuntimeException("無權操作購物車項目: " + othersIds);
+        }
+        throw new CartItemNotFoundException(new ArrayList<>(unknownIds));
+    }
+
+    /**
+     * 檢查數量有異動的商品：商品須存在、新增的商品不可已下架，且庫存足以容納最終數量
+     */
+    private void verifyBatchStock(Map<Long, CartItem> itemsByProduct, Set<Long> productIds, Set<Long> addedProductIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        for (Long productId : productIds) {
+            Product product = products.get(productId);
+            if (product == null) {
+                throw new RuntimeException("商品不存在");
+            }
+            if (addedProductIds.contains(productId) && product.getDeletedAt() != null) {
+                throw new RuntimeException("商品已下架：" + product.getName());
+            }
+            CartItem cartItem = itemsByProduct.get(productId);
+            // 同批次內被刪除的項目不需檢查
+            if (cartItem != null && product.getStock() < cartItem.getQuantity()) {
+                throw new RuntimeException("商品庫存不足：" + product.getName());
+            }
+        }
+    }
+
+    private CartItem requireBatchItem(Map<Long, CartItem> items, Long cartItemId) {
+        CartItem cartItem = items.get(cartItemId);
+        if (cartItem == null) {
+            // 同批次內已刪除的項目
+            throw new RuntimeException("購物車項目不存在");
+        }
+        return cartItem;
+    }
+
+    private static void requireField(Object value, String message) {
+        if (value == null) {
+            throw new RuntimeException(message);
+        }
+    }
+
+    /**
+     * 取得購物車項目並驗證屬於該購物車
+     */
+    private CartItem requireOwnedItem(Cart cart, Long cartItemId) {
+        CartItem cartItem = cartItemRepository.findById(cartItemId)
+                .orElseThrow(() -> new RuntimeException("購物車項目不存在"));
+
+        // 驗證購物車項目屬於該用戶
+        if (!cartItem.getCartId().equals(cart.getId())) {
+            throw new RuntimeException("無權操作此購物車項目");
+        }
+        return cartItem;
+    }
+
+    /**
+     * 遞增購物車版本號、重新計算項目數並重新讀取購物車
+     */
+    private Cart bumpVersion(Cart cart) {
+        cartRepository.incrementVersion(cart.getId());
+        Cart updated = cartRepository.findById(cart.getId())
+                .orElseThrow(() -> new RuntimeException("購物車不存在"));
+        publishCartChanged(updated);
+        return updated;
+    }
+
+    /**
+     * 通知購物車數量快取，於交易提交後生效
+     */
+    private void publishCartChanged(Cart cart) {
+        eventPublisher.publishEvent(new CartChangedEvent(cart.getUserId(), cart.getVersion(), cart.getItemCount()));
+    }
+
     /**
      * 通過 email 獲取用戶 ID
      */
     private Long getUserIdByEmail(String email) {
-        User user = userRepository.findByEmail(email)
+        return userIdCache.resolve(email)
                 .orElseThrow(() -> new RuntimeException("用戶不存在"));
-        return user.getId();
     }
 
     /**
      * 獲取或創建購物車
+     * 以 INSERT IGNORE 建立，併發首次存取時由唯一索引保證只有一個購物車
      */
     private Cart getOrCreateCart(Long userId) {
         return cartRepository.findByUserId(userId)
                 .orElseGet(() -> {
-                    Cart newCart = Cart.builder()
-                            .userId(userId)
-                            .build();
-                    return cartRepository.save(newCart);
+                    cartRepository.insertIfAbsent(userId);
+                    return cartRepository.findByUserId(userId)
+                            .orElseThrow(() -> new RuntimeException("用戶不存在"));
                 });
     }
 
@@ -375,64 +621,16 @@ public class CartServiceImpl implements CartService {
      * 構建購物車響應
      */
     private CartResponse buildCartResponse(Cart cart) {
-        List<CartItem> cartItems = cartItemRepository.findByCartId(cart.getId());
-
-        List<CartItemResponse> itemResponses = cartItems.stream()
-                .map(this::buildCartItemResponse)
-                .collect(Collectors.toList());
-
-        BigDecimal totalAmount = itemResponses.stream()
-                .filter(CartItemResponse::getChecked)
-                .map(CartItemResponse::getSubtotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        return CartResponse.builder()
-                .id(cart.getId())
-                .userId(cart.getUserId())
-                .items(itemResponses)
-                .totalItems(cartItems.size())
-                .totalAmount(totalAmount)
-                .createdAt(cart.getCreatedAt())
-                .updatedAt(cart.getUpdatedAt())
-                .build();
+        return cartResponseAssembler.toResponse(cart, cartItemRepository.findByCartId(cart.getId()));
     }
 
     /**
-     * 構建購物車項目響應
+     * 構建增量響應，總計由資料庫彙總，不重新載入整個購物車
+     * 彙總為 cart_item 依 cart_id 的索引查詢搭配商品主鍵 JOIN，只回傳一列，
+     * 取代累計金額快取（改價與其他節點的異動無法讓快取失效）
      */
-    private CartItemResponse buildCartItemResponse(CartItem cartItem) {
-        Product product = productRepository.findById(cartItem.getProductId())
-                .orElseThrow(() -> new RuntimeException("商品不存在"));
-
-        BigDecimal subtotal = product.getPrice().multiply(new BigDecimal(cartItem.getQuantity()));
-
-        // 檢查商品狀態
-        Boolean productDeleted = product.getDeletedAt() != null;
-        Boolean stockInsufficient = product.getStock() < cartItem.getQuantity();
-        String errorMessage = null;
-
-        if (productDeleted) {
-            errorMessage = "商品已下架";
-        } else if (stockInsufficient) {
-            errorMessage = "庫存不足（剩餘 " + product.getStock() + " 件）";
-        }
-
-        return CartItemResponse.builder()
-                .id(cartItem.getId())
-                .productId(product.getId())
-                .productName(product.getName())
-                .productDescription(product.getDescription())
-                .productPrice(product.getPrice())
-                .productImageUrl(product.getImageUrl())
-                .productStock(product.getStock())
-                .quantity(cartItem.getQuantity())
-                .checked(cartItem.getChecked())
-                .subtotal(subtotal)
-                .createdAt(cartItem.getCreatedAt())
-                .updatedAt(cartItem.getUpdatedAt())
-                .productDeleted(productDeleted)
-                .stockInsufficient(stockInsufficient)
-                .errorMessage(errorMessage)
-                .build();
+    private CartDeltaResponse buildDeltaResponse(Cart cart, List<CartItem> changedItems, List<Long> removedItemIds) {
+        return cartResponseAssembler.toDelta(cart, changedItems, removedItemIds,
+                cartItemRepository.sumTotals(cart.getId()));
     }
 }
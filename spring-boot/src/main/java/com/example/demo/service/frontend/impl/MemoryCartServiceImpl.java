@@ -0,0 +1,309 @@
+package com.example.demo.service.frontend.impl;
+
+import com.example.demo.cart.CartAggregate;
+import com.example.demo.cart.InMemoryCartStore;
+import com.example.demo.dto.request.AddToCartRequest;
+import com.example.demo.dto.request.CartBatchRequest;
+import com.example.demo.dto.request.UpdateCartItemRequest;
+import com.example.demo.dto.response.frontend.CartDeltaResponse;
+import com.example.demo.dto.response.frontend.CartItemResponse;
+import com.example.demo.dto.response.frontend.CartResponse;
+import com.example.demo.entity.CartItem;
+import com.example.demo.entity.Product;
+import com.example.demo.exception.CartItemNotFoundException;
+import com.example.demo.repository.CartItemRepository;
+import com.example.demo.repository.ProductRepository;
+import com.example.demo.search.UserIdCache;
+import com.example.demo.service.frontend.CartService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 記憶體購物車服務實現（app.cart.engine=memory）
+ * 讀取、勾選、數量與刪除由 InMemoryCartStore 在記憶體完成並延後寫回；
+ * 新增、清空與驗證先寫回再委派給資料庫實現 CartServiceImpl，回應格式與資料庫實現相同
+ */
+@Service
+@Primary
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(prefix = "app.cart", name = "engine", havingValue = "memory")
+public class MemoryCartServiceImpl implements CartService {
+
+    private final InMemoryCartStore cartStore;
+    private final CartServiceImpl databaseCartService;
+    private final CartResponseAssembler cartResponseAssembler;
+    private final CartItemRepository cartItemRepository;
+    private final ProductRepository productRepository;
+    private final UserIdCache userIdCache;
+
+    @Override
+    public CartResponse getCart(Long userId) {
+        return cartStore.withCart(userId, this::toResponse);
+    }
+
+    @Override
+    public CartResponse addToCart(Long userId, AddToCartRequest request) {
+        // 新項目需要資料庫配置 ID，採寫穿透
+        return cartStore.writeThrough(userId, () -> databaseCartService.addToCart(userId, request));
+    }
+
+    @Override
+    public CartDeltaResponse addToCartDelta(Long userId, AddToCartRequest request) {
+        CartResponse response = addToCart(userId, request);
+        List<CartItemResponse> changed = response.getItems().stream()
+                .filter(item -> item.getProductId().equals(request.getProductId()))
+                .toList();
+        return CartDeltaResponse.builder()
+                .id(response.getId())
+                .version(response.getVersion())
+                .items(changed)
+                .removedItemIds(List.of())
+                .totalItems(response.getTotalItems())
+                .totalAmount(response.getTotalAmount())
+                .build();
+    }
+
+    @Override
+    public CartResponse updateCartItem(Long userId, Long cartItemId, UpdateCartItemRequest request) {
+        return cartStore.withCart(userId, cart -> {
+            applyUpdateCartItem(userId, cart, cartItemId, request);
+            return toResponse(cart);
+        });
+    }
+
+    @Override
+    public CartDeltaResponse updateCartItemDelta(Long userId, Long cartItemId, UpdateCartItemRequest request) {
+        return cartStore.withCart(userId, cart ->
+                toDelta(cart, List.of(applyUpdateCartItem(userId, cart, cartItemId, request)), List.of()));
+    }
+
+    @Override
+    public CartResponse removeCartItem(Long userId, Long cartItemId) {
+        return cartStore.withCart(userId, cart -> {
+            applyRemoveCartItem(userId, cart, cartItemId);
+            return toResponse(cart);
+        });
+    }
+
+    @Override
+    public CartDeltaResponse removeCartItemDelta(Long userId, Long cartItemId) {
+        return cartStore.withCart(userId, cart -> {
+            applyRemoveCartItem(userId, cart, cartItemId);
+            return toDelta(cart, List.of(), List.of(cartItemId));
+        });
+    }
+
+    @Override
+    public CartResponse toggleCartItemChecked(Long userId, Long cartItemId) {
+        return cartStore.withCart(userId, cart -> {
+            applyToggleCartItemChecked(userId, cart, cartItemId);
+            return toResponse(cart);
+        });
+    }
+
+    @Override
+    public CartDeltaResponse toggleCartItemCheckedDelta(Long userId, Long cartItemId) {
+        return cartStore.withCart(userId, cart ->
+                toDelta(cart, List.of(applyToggleCartItemChecked(userId, cart, cartItemId)), List.of()));
+    }
+
+    @Override
+    public CartResponse toggleAllCartItems(Long userId, Boolean checked) {
+        return cartStore.withCart(userId, cart -> {
+            cart.setAllChecked(checked);
+            log.info("用戶 {} 全選/取消全選購物車項目，狀態：{}", userId, checked);
+            return toResponse(cart);
+        });
+    }
+
+    @Override
+    public void clearCart(Long userId) {
+        cartStore.writeThrough(userId, () -> {
+            databaseCartService.clearCart(userId);
+            return null;
+        });
+    }
+
+    @Override
+    public CartResponse batchRemoveCartItems(Long userId, List<Long> cartItemIds) {
+        return cartStore.withCart(userId, cart -> {
+            applyBatchRemoveCartItems(userId, cart, cartItemIds);
+            return toResponse(cart);
+        });
+    }
+
+    @Override
+    public CartDeltaResponse batchRemoveCartItemsDelta(Long userId, List<Long> cartItemIds) {
+        return cartStore.withCart(userId, cart -> {
+            applyBatchRemoveCartItems(userId, cart, cartItemIds);
+            return toDelta(cart, List.of(), cartItemIds.stream().distinct().toList());
+        });
+    }
+
+    @Override
+    public CartResponse removeCheckedItems(Long userId) {
+        return cartStore.withCart(userId, cart -> {
+            List<CartItem> checkedItems = cart.getCheckedItems();
+            if (!checkedItems.isEmpty()) {
+                checkedItems.forEach(item -> cart.remove(item.getId()));
+                log.info("用戶 {} 刪除已勾選項目，數量：{}", userId, checkedItems.size());
+            }
+            return toResponse(cart);
+        });
+    }
+
+    @Override
+    public CartResponse getCheckedItems(Long userId) {
+        return cartStore.withCart(userId,
+                cart -> cartResponseAssembler.toCheckedResponse(cart.getCart(), cart.getCheckedItems()));
+    }
+
+    @Override
+    public Integer getCartItemCount(Long userId) {
+        return cartStore.withCart(userId, CartAggregate::size);
+    }
+
+    @Override
+    public CartResponse validateCart(Long userId) {
+        // 驗證會自動調整數量與勾選狀態，交由資料庫實現處理
+        return cartStore.writeThrough(userId, () -> databaseCartService.validateCart(userId));
+    }
+
+    @Override
+    public CartResponse applyBatch(Long userId, CartBatchRequest request) {
+        // 批次可能新增項目且需全有全無，交由資料庫實現在單一交易內處理
+        return cartStore.writeThrough(userId, () -> databaseCartService.applyBatch(userId, request));
+    }
+
+    // ============= Email-based methods =============
+
+    @Override
+    public CartResponse getCartByEmail(String email) {
+        return getCart(getUserIdByEmail(email));
+    }
+
+    @Override
+    public CartResponse addToCartByEmail(String email, AddToCartRequest request) {
+        return addToCart(getUserIdByEmail(email), request);
+    }
+
+    @Override
+    public CartResponse updateCartItemByEmail(String email, Long cartItemId, UpdateCartItemRequest request) {
+        return updateCartItem(getUserIdByEmail(email), cartItemId, request);
+    }
+
+    @Override
+    public CartResponse removeCartItemByEmail(String email, Long cartItemId) {
+        return removeCartItem(getUserIdByEmail(email), cartItemId);
+    }
+
+    @Override
+    public CartResponse toggleCartItemCheckedByEmail(String email, Long cartItemId) {
+        return toggleCartItemChecked(getUserIdByEmail(email), cartItemId);
+    }
+
+    @Override
+    public CartResponse toggleAllCartItemsByEmail(String email, Boolean checked) {
+        return toggleAllCartItems(getUserIdByEmail(email), checked);
+    }
+
+    @Override
+    public void clearCartByEmail(String email) {
+        clearCart(getUserIdByEmail(email));
+    }
+
+    private CartItem applyUpdateCartItem(Long userId, CartAggregate cart, Long cartItemId, UpdateCartItemRequest request) {
+        CartItem cartItem = requireOwnedItem(cart, cartItemId);
+
+        // 檢查商品庫存
+        Product product = productRepository.findById(cartItem.getProductId())
+                .orElseThrow(() -> new RuntimeException("商品不存在"));
+
+        if (product.getStock() < request.getQuantity()) {
+            throw new RuntimeException("商品庫存不足");
+        }
+
+        cart.updateQuantity(cartItemId, request.getQuantity());
+        log.info("用戶 {} 更新購物車項目 {} 數量為：{}", userId, cartItemId, request.getQuantity());
+        return cartItem;
+    }
+
+    private void applyRemoveCartItem(Long userId, CartAggregate cart, Long cartItemId) {
+        requireOwnedItem(cart, cartItemId);
+        cart.remove(cartItemId);
+        log.info("用戶 {} 刪除購物車項目 {}", userId, cartItemId);
+    }
+
+    private CartItem applyToggleCartItemChecked(Long userId, CartAggregate cart, Long cartItemId) {
+        CartItem cartItem = requireOwnedItem(cart, cartItemId);
+        cart.setChecked(cartItemId, !cartItem.getChecked());
+        log.info("用戶 {} 切換購物車項目 {} 勾選狀態為：{}", userId, cartItemId, cartItem.getChecked());
+        return cartItem;
+    }
+
+    private void applyBatchRemoveCartItems(Long userId, CartAggregate cart, List<Long> cartItemIds) {
+        List<Long> missingIds = cartItemIds.stream()
+                .filter(id -> cart.getItem(id) == null)
+                .distinct()
+                .toList();
+        if (!missingIds.isEmpty()) {
+            // 不在記憶體中的項目才查資料庫，區分不存在與屬於他人
+            Map<Long, CartItem> found = cartItemRepository.findAllById(missingIds).stream()
+                    .filter(item -> !item.getCartId().equals(cart.getCart().getId()))
+                    .collect(Collectors.toMap(CartItem::getId, Function.identity()));
+            List<Long> notFoundIds = missingIds.stream().filter(id -> !found.containsKey(id)).toList();
+            if (!notFoundIds.isEmpty()) {
+                throw new CartItemNotFoundException(notFoundIds);
+            }
+            throw new RuntimeException("無權操作購物車項目: " + new ArrayList<>(found.keySet()));
+        }
+        cartItemIds.forEach(cart::remove);
+        log.info("用戶 {} 批量刪除購物車項目，數量：{}", userId, cartItemIds.size());
+    }
+
+    /**
+     * 取得屬於該購物車的項目
+     * 不在記憶體中時查資料庫判斷是不存在（或已刪除待寫回）還是屬於其他用戶
+     */
+    private CartItem requireOwnedItem(CartAggregate cart, Long cartItemId) {
+        CartItem cartItem = cart.getItem(cartItemId);
+        if (cartItem != null) {
+            return cartItem;
+        }
+        boolean ownedByOthers = cartItemRepository.findById(cartItemId)
+                .map(item -> !item.getCartId().equals(cart.getCart().getId()))
+                .orElse(false);
+        if (!ownedByOthers) {
+            throw new RuntimeException("購物車項目不存在");
+        }
+        throw new RuntimeException("無權操作此購物車項目");
+    }
+
+    private CartResponse toResponse(CartAggregate cart) {
+        return cartResponseAssembler.toResponse(cart.getCart(), cart.getItems());
+    }
+
+    /**
+     * 構建增量響應，總計以記憶體中的項目搭配目前商品價格計算
+     * 項目數量與勾選狀態取自記憶體，只以主鍵讀取商品價格；不快取累計金額，商品改價後立即反映
+     */
+    private CartDeltaResponse toDelta(CartAggregate cart, List<CartItem> changedItems, List<Long> removedItemIds) {
+        return cartResponseAssembler.toDelta(cart.getCart(), changedItems, removedItemIds,
+                cartResponseAssembler.totals(cart.getItems()));
+    }
+
+    private Long getUserIdByEmail(String email) {
+        return userIdCache.resolve(email)
+                .orElseThrow(() -> new RuntimeException("用戶不存在"));
+    }
+}
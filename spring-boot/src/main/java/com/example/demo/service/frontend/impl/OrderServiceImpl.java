@@ -3,18 +3,35 @@ package com.example.demo.service.frontend.impl;
 import com.example.demo.dto.request.frontend.CreateOrderRequest;
 import com.example.demo.dto.response.frontend.OrderResponse;
 import com.example.demo.entity.*;
+import com.example.demo.enums.OrderCancelReason;
 import com.example.demo.enums.OrderStatus;
+import com.example.demo.enums.OutboxAggregateType;
+import com.example.demo.enums.OutboxEventType;
+import com.example.demo.event.CartChangedEvent;
+import com.example.demo.event.CartCheckoutEvent;
+import com.example.demo.event.ProductSalesEvent;
 import com.example.demo.mapper.OrderMapper;
+import com.example.demo.outbox.OrderCancelledPayload;
+import com.example.demo.outbox.OrderCreatedPayload;
+import com.example.demo.outbox.OutboxMessage;
+import com.example.demo.outbox.StockChangedPayload;
 import com.example.demo.repository.*;
+import com.example.demo.service.OutboxService;
+import com.example.demo.service.PointsService;
+import com.example.demo.service.SalesRollupService;
+import com.example.demo.service.StockCompensationService;
 import com.example.demo.service.frontend.OrderService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -33,9 +50,17 @@ public class OrderServiceImpl implements OrderService {
     private final CartItemRepository cartItemRepository;
     private final ProductRepository productRepository;
     private final OrderMapper orderMapper;
+    private final PointsService pointsService;
+    private final StockCompensationService stockCompensationService;
+    private final OutboxService outboxService;
+    private final SalesRollupService salesRollupService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public OrderResponse createOrder(Long userId, CreateOrderRequest request) {
+        // 0. 通知記憶體購物車先寫回待寫資料
+        eventPublisher.publishEvent(new CartCheckoutEvent(userId));
+
         // 1. 獲取用戶購物車
         Cart cart = cartRepository.findByUserId(userId)
                 .orElseThrow(() -> new RuntimeException("購物車不存在"));
@@ -93,10 +118,18 @@ public class OrderServiceImpl implements OrderService {
             // 計算小計
             orderItem.calculateSubtotal();
             savedOrder.addOrderItem(orderItem);
+        }
 
-            // 扣減庫存
-            product.setStock(product.getStock() - cartItem.getQuantity());
-            productRepository.save(product);
+        // 扣減庫存：依商品ID順序以條件式 UPDATE 扣減，與並行結帳依相同順序取得行鎖；
+        // 步驟 3 之後被其他交易扣減而不足時更新 0 筆，整筆訂單回滾
+        List<CartItem> deductions = checkedItems.stream()
+                .sorted(Comparator.comparing(CartItem::getProductId))
+                .toList();
+        for (CartItem cartItem : deductions) {
+            if (productRepository.deductStock(cartItem.getProductId(), cartItem.getQuantity()) == 0) {
+                Product product = productRepository.findById(cartItem.getProductId()).orElseThrow();
+                throw new RuntimeException("商品庫存不足：" + product.getName());
+            }
         }
 
         // 7. 計算訂單總金額
@@ -106,7 +139,23 @@ public class OrderServiceImpl implements OrderService {
         savedOrder = orderRepository.save(savedOrder);
 
         // 9. 刪除已結帳的購物車項目
-        cartItemRepository.deleteAll(checkedItems);
+        cartItemRepository.deleteLines(cart.getId(), checkedItems.stream().map(CartItem::getId).toList());
+        cartRepository.incrementVersion(cart.getId());
+        cartRepository.findById(cart.getId()).ifPresent(updated -> eventPublisher.publishEvent(
+                new CartChangedEvent(userId, updated.getVersion(), updated.getItemCount())));
+
+        // 10. 回饋點數（與訂單同一交易寫入帳本並累加餘額）
+        pointsService.earnForOrder(userId, savedOrder.getId(), savedOrder.getTotalAmount());
+
+        // 11. 寫入外寄箱（庫存扣減已取得商品行鎖，同一商品的事件順序與提交順序一致）
+        outboxService.appendAll(createdMessages(savedOrder));
+
+        // 12. 累加銷售彙總
+        salesRollupService.recordCreated(savedOrder.getId(), savedOrder.getStatus());
+
+        // 13. 交易提交後累加熱銷排行與關聯商品
+        eventPublisher.publishEvent(ProductSalesEvent.ordered(
+                savedOrder.getId(), savedOrder.getOrderItems(), savedOrder.getCreatedAt()));
 
         log.info("用戶 {} 創建訂單成功，訂單編號：{}", userId, savedOrder.getOrderNumber());
 
@@ -153,18 +202,23 @@ public class OrderServiceImpl implements OrderService {
             throw new RuntimeException("訂單狀態不允許取消");
         }
 
-        // 恢復庫存
-        for (OrderItem orderItem : order.getOrderItems()) {
-            Product product = productRepository.findById(orderItem.getProductId())
-                    .orElseThrow(() -> new RuntimeException("商品不存在"));
-            product.setStock(product.getStock() + orderItem.getQuantity());
-            productRepository.save(product);
-        }
-
         // 更新訂單狀態
+        OrderStatus previousStatus = order.getStatus();
         order.setStatus(OrderStatus.CANCELLED);
         Order savedOrder = orderRepository.save(order);
 
+        // 寫入補償佇列並在同一交易內批次回補庫存
+        stockCompensationService.enqueue(order.getOrderItems());
+        stockCompensationService.applyForOrders(List.of(orderId));
+
+        // 收回該訂單回饋的點數
+        pointsService.revokeForOrder(userId, orderId);
+
+        salesRollupService.recordStatusChange(List.of(orderId), previousStatus, OrderStatus.CANCELLED);
+        outboxService.append(new OutboxMessage(OutboxAggregateType.ORDER, orderId, OutboxEventType.ORDER_CANCELLED,
+                new OrderCancelledPayload(orderId, userId, OrderCancelReason.USER)));
+        eventPublisher.publishEvent(ProductSalesEvent.cancelled(orderId, order.getOrderItems(), order.getCreatedAt()));
+
         log.info("用戶 {} 取消訂單：{}", userId, order.getOrderNumber());
 
         return orderMapper.toOrderResponse(savedOrder);
@@ -180,6 +234,23 @@ public class OrderServiceImpl implements OrderService {
         }
     }
 
+    /**
+     * 訂單成立事件與各商品的庫存扣減事件
+     */
+    private List<OutboxMessage> createdMessages(Order order) {
+        List<OutboxMessage> messages = new ArrayList<>();
+        List<OrderCreatedPayload.Item> items = new ArrayList<>();
+        for (OrderItem item : order.getOrderItems()) {
+            items.add(new OrderCreatedPayload.Item(item.getProductId(), item.getQuantity(), item.getPrice()));
+            messages.add(new OutboxMessage(OutboxAggregateType.PRODUCT, item.getProductId(), OutboxEventType.STOCK_CHANGED,
+                    new StockChangedPayload(item.getProductId(), -item.getQuantity(), order.getId())));
+        }
+        messages.add(0, new OutboxMessage(OutboxAggregateType.ORDER, order.getId(), OutboxEventType.ORDER_CREATED,
+                new OrderCreatedPayload(order.getId(), order.getOrderNumber(), order.getUserId(),
+                        order.getTotalAmount(), items)));
+        return messages;
+    }
+
     /**
      * 生成唯一訂單編號
      * 格式：ORD + 年月日 + 時分秒 + 4位隨機數
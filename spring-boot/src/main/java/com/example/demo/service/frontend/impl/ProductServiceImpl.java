@@ -1,23 +1,40 @@
 package com.example.demo.service.frontend.impl;
 
+import com.example.demo.dto.response.frontend.BestsellerResponse;
 import com.example.demo.dto.response.frontend.ProductResponse;
+import com.example.demo.dto.response.frontend.ProductSuggestionResponse;
 import com.example.demo.entity.Product;
+import com.example.demo.entity.ProductRelated;
 import com.example.demo.enums.ProductStatus;
+import com.example.demo.exception.CustomException;
 import com.example.demo.mapper.ProductMapper;
+import com.example.demo.ranking.BestsellerProductCache;
+import com.example.demo.ranking.BestsellerRanking;
+import com.example.demo.repository.ProductRelatedRepository;
 import com.example.demo.repository.ProductRepository;
+import com.example.demo.search.ProductSuggestIndex;
+import com.example.demo.stats.ProductViewCounter;
 import com.example.demo.service.frontend.ProductService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service("frontendProductServiceImpl")
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
     private final ProductRepository productRepository;
+    private final ProductRelatedRepository productRelatedRepository;
     private final ProductMapper productMapper;
+    private final BestsellerRanking bestsellerRanking;
+    private final BestsellerProductCache bestsellerProductCache;
+    private final ProductViewCounter productViewCounter;
+    private final ProductSuggestIndex productSuggestIndex;
 
     @Override
     public List<ProductResponse> getAvailableProducts() {
@@ -33,11 +50,95 @@ public class ProductServiceImpl implements ProductService {
     public ProductResponse getProductDetail(Long id) {
         LocalDateTime now = LocalDateTime.now();
         Product product = productRepository.findById(id)
-                .filter(p -> p.getStatus() == ProductStatus.OPEN)
-                .filter(p -> p.getStartAt() != null && p.getEndAt() != null &&
-                        !now.isBefore(p.getStartAt()) && !now.isAfter(p.getEndAt()))
-                .filter(p -> p.getDeletedAt() == null)
+                .filter(p -> isAvailable(p, now))
                 .orElseThrow(() -> new RuntimeException("商品不存在或未上架/已關閉"));
+        // 只遞增記憶體計數，由排程整批寫入
+        productViewCounter.record(id);
         return productMapper.toProductResponse(product);
     }
+
+    /**
+     * 熱銷排行
+     * 排名來自記憶體中的衰減銷量，商品資料取自快取，只查詢快取中沒有的商品，略過未上架或已關閉的商品
+     */
+    @Override
+    public List<BestsellerResponse> getBestsellers(int limit) {
+        if (limit < 1 || limit > bestsellerRanking.getTopSize()) {
+            throw new CustomException("排行筆數須介於 1 到 " + bestsellerRanking.getTopSize() + " 之間");
+        }
+
+        List<BestsellerRanking.Ranked> ranked = bestsellerRanking.top(bestsellerRanking.getTopSize());
+        if (ranked.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, BestsellerProductCache.CachedProduct> products = bestsellerProductCache.getAll(
+                ranked.stream().map(BestsellerRanking.Ranked::productId).toList());
+
+        LocalDateTime now = LocalDateTime.now();
+        List<BestsellerResponse> result = new ArrayList<>(limit);
+        for (BestsellerRanking.Ranked entry : ranked) {
+            BestsellerProductCache.CachedProduct product = products.get(entry.productId());
+            if (!product.isAvailable(now)) {
+                continue;
+            }
+            result.add(BestsellerResponse.builder()
+                    .rank(result.size() + 1)
+                    .score(entry.score())
+                    .product(product.response())
+                    .build());
+            if (result.size() == limit) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 經常一起購買的商品
+     * 直接讀取預先計算的名次，略過未上架或已關閉的商品
+     */
+    @Override
+    public List<ProductResponse> getRelatedProducts(Long id) {
+        List<ProductRelated> related = productRelatedRepository.findByProductIdOrderByRankNo(id);
+        if (related.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Product> products = productRepository.findAllById(
+                        related.stream().map(ProductRelated::getRelatedProductId).toList()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        LocalDateTime now = LocalDateTime.now();
+        return related.stream()
+                .map(entry -> products.get(entry.getRelatedProductId()))
+                .filter(product -> product != null && isAvailable(product, now))
+                .map(productMapper::toProductResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 商品名稱提示
+     * 只查詢記憶體索引，不存取資料庫
+     */
+    @Override
+    public List<ProductSuggestionResponse> suggestProducts(String query, int limit) {
+        if (limit < 1 || limit > productSuggestIndex.getCandidates()) {
+            throw new CustomException("提示筆數須介於 1 到 " + productSuggestIndex.getCandidates() + " 之間");
+        }
+        return productSuggestIndex.suggest(query, limit, LocalDateTime.now()).stream()
+                .map(suggestion -> ProductSuggestionResponse.builder()
+                        .id(suggestion.productId())
+                        .name(suggestion.name())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 已上架、在販售期間內且未刪除
+     */
+    private boolean isAvailable(Product product, LocalDateTime now) {
+        return product.getStatus() == ProductStatus.OPEN
+                && product.getStartAt() != null && product.getEndAt() != null
+                && !now.isBefore(product.getStartAt()) && !now.isAfter(product.getEndAt())
+                && product.getDeletedAt() == null;
+    }
 }
@@ -2,13 +2,17 @@ package com.example.demo.service.frontend.impl;
 
 import com.example.demo.dto.response.UserResponse;
 import com.example.demo.entity.User;
+import com.example.demo.event.UserChangedEvent;
 import com.example.demo.enums.UserRole;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.search.UserIdCache;
 import com.example.demo.service.frontend.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -20,6 +24,8 @@ import java.util.Map;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserIdCache userIdCache;
 
     @Override
     public UserResponse getUserById(Long id, String currentUserEmail) {
@@ -27,11 +33,11 @@ public class UserServiceImpl implements UserService {
                 .filter(u -> !u.isDeleted())
                 .orElseThrow(() -> new RuntimeException("用戶不存在"));
 
-        User currentUser = userRepository.findByEmailAndDeletedFalse(currentUserEmail)
+        Long currentUserId = userIdCache.resolve(currentUserEmail)
                 .orElseThrow(() -> new RuntimeException("當前用戶不存在"));
 
-        // 只允許查看自己的資訊，除非是管理員
-        if (!currentUser.isAdmin() && !user.getEmail().equals(currentUserEmail)) {
+        // 只允許查看自己的資訊，除非是管理員（查看自己時不需查詢角色）
+        if (!user.getId().equals(currentUserId) && !userRepository.userHasRole(currentUserId, UserRole.ADMIN)) {
             throw new RuntimeException("無權限查看其他用戶資訊");
         }
 
@@ -57,6 +63,7 @@ public class UserServiceImpl implements UserService {
         }
 
         User updatedUser = userRepository.save(currentUser);
+        eventPublisher.publishEvent(new UserChangedEvent(List.of(updatedUser.getId())));
         return convertToUserResponse(updatedUser);
     }
 
@@ -75,6 +82,7 @@ public class UserServiceImpl implements UserService {
         stats.put("loginCount", 0); // 可以後續添加登入次數統計
         stats.put("lastLoginAt", user.getLastLoginAt());
         stats.put("memberSince", user.getCreatedAt());
+        // 點數餘額由帳本原子累加維護，直接讀取不需掃描帳本
         stats.put("points", user.getPoints());
 
         return stats;
@@ -9,6 +9,7 @@ import com.example.demo.dto.response.LoginResponse;
 import com.example.demo.dto.response.TotpSetupResponse;
 import com.example.demo.dto.response.UserResponse;
 import com.example.demo.entity.User;
+import com.example.demo.event.UserChangedEvent;
 import com.example.demo.enums.UserRole;
 import com.example.demo.exception.AccountStatusException;
 import com.example.demo.exception.CustomException;
@@ -18,11 +19,13 @@ import com.example.demo.service.AuthService;
 import com.example.demo.service.TotpService;
 import com.example.demo.util.JwtUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -37,6 +40,7 @@ public class AuthServiceImpl implements AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final TotpService totpService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public UserResponse register(RegisterRequest request) {
@@ -61,6 +65,7 @@ public class AuthServiceImpl implements AuthService {
 
         // 3. 保存到數據庫
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(List.of(savedUser.getId())));
 
         // 4. 轉換為響應DTO
         return convertToUserResponse(savedUser);
@@ -90,6 +95,7 @@ public class AuthServiceImpl implements AuthService {
 
         // 3. 保存到數據庫
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(List.of(savedUser.getId())));
 
         // 4. 轉換為響應DTO
         return convertToUserResponse(savedUser);
@@ -0,0 +1,58 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.outbox.OutboxMessage;
+import com.example.demo.service.OutboxService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 交易外寄箱服務實現類
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class OutboxServiceImpl implements OutboxService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, payload, attempts, created_at) " +
+            "VALUES (:aggregateType, :aggregateId, :eventType, :payload, 0, NOW())";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void append(OutboxMessage message) {
+        appendAll(List.of(message));
+    }
+
+    @Override
+    public void appendAll(Collection<OutboxMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource[] batch = messages.stream()
+                .map(message -> new MapSqlParameterSource("aggregateType", message.aggregateType().name())
+                        .addValue("aggregateId", message.aggregateId())
+                        .addValue("eventType", message.eventType().name())
+                        .addValue("payload", toJson(message.payload())))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("事件序列化失敗：" + e.getOriginalMessage(), e);
+        }
+    }
+}
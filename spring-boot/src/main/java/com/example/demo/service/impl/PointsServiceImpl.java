@@ -0,0 +1,97 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.entity.PointsLedger;
+import com.example.demo.enums.PointsEntryType;
+import com.example.demo.repository.PointsLedgerRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.PointsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 點數服務實現類
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PointsServiceImpl implements PointsService {
+
+    /**
+     * 先鎖定區間內有對帳基準的用戶列，之後才提交的帳本寫入會等待本次對帳完成
+     */
+    private static final String LOCK_USERS_SQL =
+            "SELECT id FROM users WHERE id BETWEEN ? AND ? AND points_baseline IS NOT NULL FOR UPDATE";
+
+    /**
+     * 以 基準 + 帳本加總 校正餘額，只更新不符的用戶；沒有基準（尚無帳本紀錄）的用戶不處理
+     */
+    private static final String RECONCILE_SQL =
+            "UPDATE users u " +
+            "SET u.points = u.points_baseline + " +
+            "    (SELECT COALESCE(SUM(l.amount), 0) FROM points_ledger l WHERE l.user_id = u.id) " +
+            "WHERE u.id BETWEEN ? AND ? AND u.points_baseline IS NOT NULL " +
+            "AND NOT (u.points <=> u.points_baseline + " +
+            "    (SELECT COALESCE(SUM(l.amount), 0) FROM points_ledger l WHERE l.user_id = u.id))";
+
+    private final PointsLedgerRepository pointsLedgerRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.points.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.points.earn-rate:0.01}")
+    private BigDecimal earnRate;
+
+    @Override
+    public void earnForOrder(Long userId, Long orderId, BigDecimal orderAmount) {
+        if (!enabled || orderAmount == null) {
+            return;
+        }
+
+        // 點數無條件捨去為整數
+        BigDecimal points = orderAmount.multiply(earnRate).setScale(0, RoundingMode.DOWN);
+        if (points.signum() <= 0) {
+            return;
+        }
+
+        appendEntry(userId, orderId, PointsEntryType.EARN, points);
+    }
+
+    @Override
+    public void revokeForOrder(Long userId, Long orderId) {
+        // 未啟用時不查詢帳本，取消訂單不增加額外查詢；關閉前回饋的點數於重新啟用後由人工調整
+        if (!enabled) {
+            return;
+        }
+        pointsLedgerRepository.findByOrderIdAndEntryType(orderId, PointsEntryType.EARN)
+                .filter(earned -> !pointsLedgerRepository.existsByOrderIdAndEntryType(orderId, PointsEntryType.REVOKE))
+                .ifPresent(earned -> appendEntry(userId, orderId, PointsEntryType.REVOKE, earned.getAmount().negate()));
+    }
+
+    @Override
+    @Transactional
+    public int reconcileBalances(long fromUserId, long toUserId) {
+        jdbcTemplate.queryForList(LOCK_USERS_SQL, Long.class, fromUserId, toUserId);
+        return jdbcTemplate.update(RECONCILE_SQL, fromUserId, toUserId);
+    }
+
+    private void appendEntry(Long userId, Long orderId, PointsEntryType type, BigDecimal amount) {
+        // 先更新 users 列取得列鎖再寫帳本，與對帳相同的加鎖順序，對帳不會讀到少了本筆的加總
+        userRepository.incrementPoints(userId, amount);
+        pointsLedgerRepository.save(PointsLedger.builder()
+                .userId(userId)
+                .orderId(orderId)
+                .entryType(type)
+                .amount(amount)
+                .build());
+        log.info("用戶 {} 點數異動：{} {}（訂單 {}）", userId, type, amount, orderId);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.enums.OrderStatus;
+import com.example.demo.service.SalesRollupService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 銷售彙總服務實現類
+ * 每次異動以四個 INSERT ... SELECT ... ON DUPLICATE KEY UPDATE（小時/每日 × 商品/訂單層級）累加，
+ * 來源只讀取本次異動的訂單；同一訂單的資料列位於同一時段並依商品ID分組，併發累加時依相同順序取得彙總列的鎖
+ *
+ * 訂單層級合計每筆結帳都會更新，依訂單ID分散到 ORDER_LEVEL_SHARDS 列（product_id = -(訂單ID % 列數)，0 至負數），
+ * 併發結帳大多更新不同的列，不會在同一列上排隊等鎖；讀取時以 product_id <= 0 加總各列。
+ * 商品層級的列只有購買同一商品的結帳會同時更新，這些結帳已在扣減庫存時依序取得該商品的行鎖。
+ */
+@Service
+@Slf4j
+public class SalesRollupServiceImpl implements SalesRollupService {
+
+    private static final int ORDER_LEVEL_SHARDS = 16;
+
+    private static final String HOURLY_BUCKET = "DATE_FORMAT(o.created_at, '%Y-%m-%d %H:00:00')";
+    private static final String DAILY_BUCKET = "DATE(o.created_at)";
+
+    private static final List<String> UPSERT_SQLS = List.of(
+            rollupSql("sales_rollup_hourly", "bucket_start", HOURLY_BUCKET, true, ":status", "o.id IN (:orderIds)"),
+            rollupSql("sales_rollup_hourly", "bucket_start", HOURLY_BUCKET, false, ":status", "o.id IN (:orderIds)"),
+            rollupSql("sales_rollup_daily", "bucket_date", DAILY_BUCKET, true, ":status", "o.id IN (:orderIds)"),
+            rollupSql("sales_rollup_daily", "bucket_date", DAILY_BUCKET, false, ":status", "o.id IN (:orderIds)"));
+
+    private static final String RANGE = "o.created_at >= :from AND o.created_at < :to";
+    private static final List<String> REBUILD_SQLS = List.of(
+            "DELETE FROM sales_rollup_hourly WHERE bucket_start >= :from AND bucket_start < :to",
+            "DELETE FROM sales_rollup_daily WHERE bucket_date = :day",
+            rollupSql("sales_rollup_hourly", "bucket_start", HOURLY_BUCKET, true, "o.status", RANGE),
+            rollupSql("sales_rollup_hourly", "bucket_start", HOURLY_BUCKET, false, "o.status", RANGE),
+            rollupSql("sales_rollup_daily", "bucket_date", DAILY_BUCKET, true, "o.status", RANGE),
+            rollupSql("sales_rollup_daily", "bucket_date", DAILY_BUCKET, false, "o.status", RANGE));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public SalesRollupServiceImpl(NamedParameterJdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Long orderId, OrderStatus status) {
+        apply(List.of(orderId), status, 1);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordStatusChange(Collection<Long> orderIds, OrderStatus from, OrderStatus to) {
+        if (orderIds.isEmpty() || from == to) {
+            return;
+        }
+        apply(orderIds, from, -1);
+        apply(orderIds, to, 1);
+    }
+
+    @Override
+    public int rebuild(LocalDate from, LocalDate to) {
+        long start = System.currentTimeMillis();
+        int days = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            // 來源讀取會鎖定當日的訂單範圍，重建期間當日新成立的訂單等待提交後再累加
+            MapSqlParameterSource params = new MapSqlParameterSource("day", day)
+                    .addValue("from", Timestamp.valueOf(day.atStartOfDay()))
+                    .addValue("to", Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+            transactionTemplate.executeWithoutResult(status -> REBUILD_SQLS.forEach(sql -> jdbcTemplate.update(sql, params)));
+            days++;
+        }
+        log.info("銷售彙總重建完成 - 區間: {} ~ {}, 天數: {}, 耗時: {} ms", from, to, days, System.currentTimeMillis() - start);
+        return days;
+    }
+
+    private void apply(Collection<Long> orderIds, OrderStatus status, int sign) {
+        MapSqlParameterSource params = new MapSqlParameterSource("orderIds", orderIds)
+                .addValue("status", status.name())
+                .addValue("sign", sign);
+        UPSERT_SQLS.forEach(sql -> jdbcTemplate.update(sql, params));
+    }
+
+    /**
+     * 組出彙總 SQL
+     * @param perProduct true 依商品分組，false 為訂單層級合計（依訂單ID分散到 product_id <= 0 的各列）
+     * @param statusExpr 增量時為指定狀態參數，重建時為訂單目前狀態
+     */
+    private static String rollupSql(String table, String bucketColumn, String bucketExpr,
+                                    boolean perProduct, String statusExpr, String where) {
+        String productExpr = perProduct ? "oi.product_id" : "-(o.id % " + ORDER_LEVEL_SHARDS + ")";
+        String sign = statusExpr.startsWith(":") ? " * :sign" : "";
+        return "INSERT INTO " + table + " (" + bucketColumn + ", product_id, status, revenue, units, order_count) " +
+                "SELECT " + bucketExpr + ", " + productExpr + ", " + statusExpr + ", " +
+                "SUM(oi.subtotal)" + sign + ", SUM(oi.quantity)" + sign + ", COUNT(DISTINCT o.id)" + sign + " " +
+                "FROM orders o JOIN order_item oi ON oi.order_id = o.id " +
+                "WHERE " + where + " " +
+                "GROUP BY " + bucketExpr + ", " + productExpr +
+                (statusExpr.startsWith(":") ? "" : ", o.status") + " " +
+                "ON DUPLICATE KEY UPDATE revenue = revenue + VALUES(revenue), units = units + VALUES(units), " +
+                "order_count = order_count + VALUES(order_count)";
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.entity.OrderItem;
+import com.example.demo.entity.Product;
+import com.example.demo.enums.OutboxAggregateType;
+import com.example.demo.enums.OutboxEventType;
+import com.example.demo.event.ProductChangedEvent;
+import com.example.demo.outbox.OutboxMessage;
+import com.example.demo.outbox.StockChangedPayload;
+import com.example.demo.service.OutboxService;
+import com.example.demo.service.StockCompensationService;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 庫存補償服務實現類
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class StockCompensationServiceImpl implements StockCompensationService {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private static final String INSERT_SQL =
+            "INSERT IGNORE INTO stock_compensation (order_id, product_id, quantity, status, attempts, created_at) " +
+            "VALUES (:orderId, :productId, :quantity, 'PENDING', 0, NOW())";
+    // 鎖定待回補紀錄，其他交易已鎖定的紀錄由該交易處理
+    private static final String LOCK_ORDER_ROWS_SQL =
+            "SELECT id, order_id, product_id, quantity FROM stock_compensation " +
+            "WHERE order_id IN (:orderIds) AND status = 'PENDING' ORDER BY id FOR UPDATE SKIP LOCKED";
+    private static final String LOCK_PENDING_ROWS_SQL =
+            "SELECT id, order_id, product_id, quantity FROM stock_compensation " +
+            "WHERE status = 'PENDING' ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED";
+    private static final String MARK_SQL =
+            "UPDATE stock_compensation SET status = :status, attempts = attempts + 1, last_error = :error, " +
+            "applied_at = CASE WHEN :status = 'APPLIED' THEN NOW() ELSE applied_at END WHERE id IN (:ids)";
+    private static final String RECORD_FAILURE_SQL =
+            "UPDATE stock_compensation SET attempts = attempts + 1, last_error = :error " +
+            "WHERE order_id IN (:orderIds) AND status = 'PENDING'";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final OutboxService outboxService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void enqueue(Collection<OrderItem> orderItems) {
+        // 依 (訂單ID, 商品ID) 合併數量，與回補時的鎖定順序一致
+        Map<Long, Map<Long, Integer>> quantities = new TreeMap<>();
+        for (OrderItem item : orderItems) {
+            quantities.computeIfAbsent(item.getOrderId(), id -> new TreeMap<>())
+                    .merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+
+        List<MapSqlParameterSource> batch = new ArrayList<>();
+        quantities.forEach((orderId, byProduct) -> byProduct.forEach((productId, quantity) ->
+                batch.add(new MapSqlParameterSource("orderId", orderId)
+                        .addValue("productId", productId)
+                        .addValue("quantity", quantity))));
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch.toArray(new MapSqlParameterSource[0]));
+        }
+    }
+
+    @Override
+    public int applyForOrders(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        List<Compensation> rows = jdbcTemplate.query(LOCK_ORDER_ROWS_SQL,
+                new MapSqlParameterSource("orderIds", orderIds), (rs, rowNum) -> toCompensation(rs));
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        return applyRows(rows);
+    }
+
+    @Override
+    public void recordFailure(Collection<Long> orderIds, String error) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(RECORD_FAILURE_SQL, new MapSqlParameterSource("orderIds", orderIds)
+                .addValue("error", truncate(error)));
+    }
+
+    @Override
+    public int retryPending(int limit) {
+        List<Compensation> rows = jdbcTemplate.query(LOCK_PENDING_ROWS_SQL,
+                new MapSqlParameterSource("limit", limit), (rs, rowNum) -> toCompensation(rs));
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        return applyRows(rows);
+    }
+
+    /**
+     * 回補已鎖定的紀錄；商品已永久刪除的紀錄不會再成功，標記為 FAILED 不再重試，其餘照常回補
+     * @return 處理筆數
+     */
+    private int applyRows(List<Compensation> rows) {
+        Set<Long> missing = restoreStock(rows);
+        List<Compensation> applied = new ArrayList<>();
+        List<Long> failed = new ArrayList<>();
+        for (Compensation row : rows) {
+            if (missing.contains(row.productId())) {
+                failed.add(row.id());
+            } else {
+                applied.add(row);
+            }
+        }
+        mark(ids(applied), "APPLIED", null);
+        mark(failed, "FAILED", "商品不存在");
+        publishRestored(applied);
+        if (!failed.isEmpty()) {
+            log.warn("庫存補償無法回補，商品不存在 - 紀錄: {}", failed);
+        }
+        return rows.size();
+    }
+
+    /**
+     * 以單一 UPDATE 回補多個商品的庫存，CASE 與 IN 皆依商品ID排序，讓併發的回補依相同順序取得行鎖
+     * 在同一語句內以 stock = stock + ? 累加，不會覆蓋同時進行的結帳扣減
+     * @return 不存在的商品ID
+     */
+    private Set<Long> restoreStock(List<Compensation> rows) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (Compensation row : rows) {
+            quantities.merge(row.productId(), row.quantity(), Integer::sum);
+        }
+
+        StringBuilder sql = new StringBuilder("UPDATE products SET stock = stock + CASE id");
+        MapSqlParameterSource params = new MapSqlParameterSource("productIds", quantities.keySet());
+        int index = 0;
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            sql.append(" WHEN :p").append(index).append(" THEN :q").append(index);
+            params.addValue("p" + index, entry.getKey()).addValue("q" + index, entry.getValue());
+            index++;
+        }
+        sql.append(" END WHERE id IN (:productIds)");
+
+        // 先寫出未提交的實體異動，回補後只重新讀取已載入的商品，不影響呼叫端持有的其他實體
+        entityManager.flush();
+        int updated = jdbcTemplate.update(sql.toString(), params);
+        refreshLoaded(quantities.keySet());
+
+        if (updated == quantities.size()) {
+            return Set.of();
+        }
+        Set<Long> missing = new HashSet<>(quantities.keySet());
+        missing.removeAll(jdbcTemplate.queryForList("SELECT id FROM products WHERE id IN (:productIds)",
+                params, Long.class));
+        return missing;
+    }
+
+    /**
+     * 重新讀取持久化上下文中已載入的商品；getReference 對未載入的商品只回傳未初始化的代理，不查詢資料庫
+     */
+    private void refreshLoaded(Collection<Long> productIds) {
+        for (Long productId : productIds) {
+            Product product = entityManager.getReference(Product.class, productId);
+            if (Hibernate.isInitialized(product)) {
+                entityManager.refresh(product);
+            }
+        }
+    }
+
+    /**
+     * 寫入庫存回補事件，商品行鎖已由回補的 UPDATE 取得；提交後通知記憶體索引重新讀取庫存
+     */
+    private void publishRestored(List<Compensation> rows) {
+        outboxService.appendAll(rows.stream()
+                .map(row -> new OutboxMessage(OutboxAggregateType.PRODUCT, row.productId(), OutboxEventType.STOCK_CHANGED,
+                        new StockChangedPayload(row.productId(), row.quantity(), row.orderId())))
+                .toList());
+        if (!rows.isEmpty()) {
+            eventPublisher.publishEvent(new ProductChangedEvent(
+                    rows.stream().map(Compensation::productId).distinct().toList()));
+        }
+    }
+
+    private void mark(List<Long> ids, String status, String error) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(MARK_SQL, new MapSqlParameterSource("ids", ids)
+                .addValue("status", status)
+                .addValue("error", error));
+    }
+
+    private static Compensation toCompensation(ResultSet rs) throws SQLException {
+        return new Compensation(rs.getLong("id"), rs.getLong("order_id"), rs.getLong("product_id"),
+                rs.getInt("quantity"));
+    }
+
+    private static List<Long> ids(List<Compensation> rows) {
+        return rows.stream().map(Compensation::id).toList();
+    }
+
+    private static String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private record Compensation(long id, long orderId, long productId, int quantity) {
+    }
+}
@@ -1,15 +1,17 @@
 package com.example.demo.service.impl;
 
-import com.example.demo.entity.User;
 import com.example.demo.exception.UserNotFoundException;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.search.UserIdCache;
 import com.example.demo.service.TotpService;
 import com.warrenstrange.googleauth.GoogleAuthenticator;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.codec.binary.Base32;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.security.SecureRandom;
+import java.time.LocalDateTime;
 
 /**
  * TOTP 服務實現類
@@ -19,6 +21,7 @@ import java.security.SecureRandom;
 public class TotpServiceImpl implements TotpService {
 
     private final UserRepository userRepository;
+    private final UserIdCache userIdCache;
     private final GoogleAuthenticator googleAuthenticator = new GoogleAuthenticator();
 
     @Override
@@ -57,22 +60,26 @@ public class TotpServiceImpl implements TotpService {
     }
 
     @Override
+    @Transactional
     public void enableTotp(String email, String secret) {
-        User user = userRepository.findByEmailAndDeletedFalse(email)
-                .orElseThrow(() -> new UserNotFoundException("用戶不存在"));
-
-        user.setTotpSecret(secret);
-        user.setTotpEnabled(true);
-        userRepository.save(user);
+        updateTotp(email, secret, true);
     }
 
     @Override
+    @Transactional
     public void disableTotp(String email) {
-        User user = userRepository.findByEmailAndDeletedFalse(email)
+        updateTotp(email, null, false);
+    }
+
+    /**
+     * 以快取解析用戶 id 後直接更新 TOTP 欄位，不先載入用戶
+     */
+    private void updateTotp(String email, String secret, boolean enabled) {
+        Long userId = userIdCache.resolve(email)
                 .orElseThrow(() -> new UserNotFoundException("用戶不存在"));
 
-        user.setTotpSecret(null);
-        user.setTotpEnabled(false);
-        userRepository.save(user);
+        if (userRepository.updateTotp(userId, secret, enabled, LocalDateTime.now()) == 0) {
+            throw new UserNotFoundException("用戶不存在");
+        }
     }
 }
@@ -0,0 +1,128 @@
+package com.example.demo.stats;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 商品瀏覽次數計數器
+ * 請求執行緒只遞增記憶體中該商品的 LongAdder（分段累加，多執行緒同時遞增不互相競爭），不寫資料庫；
+ * flush() 取出各商品自上次寫入後的增量，依商品ID排序後以加法 upsert 分批寫入 product_stats，
+ * 多個節點各自寫入增量即可合計，依序取得行鎖避免互相死結。
+ *
+ * 取出增量時以「讀取總和再減去」保留讀取之後的遞增，寫入失敗時把增量加回，下次重試。
+ * 追蹤的商品數達 max-products 時不再加入新商品（計入捨棄次數）；超過一半時，寫入後移除本輪沒有瀏覽的商品，
+ * 移除當下正在遞增的極少數瀏覽可能漏計。
+ */
+@Component
+public class ProductViewCounter {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductViewCounter.class);
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO product_stats (product_id, view_count, last_viewed_at) VALUES (:productId, :views, :flushedAt) " +
+            "ON DUPLICATE KEY UPDATE view_count = view_count + VALUES(view_count), last_viewed_at = VALUES(last_viewed_at)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxProducts;
+    private final int batchSize;
+
+    private final ConcurrentHashMap<Long, LongAdder> counters = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+
+    public ProductViewCounter(NamedParameterJdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.products.views.max-products:100000}") int maxProducts,
+                              @Value("${app.products.views.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxProducts = maxProducts;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 記錄一次瀏覽
+     */
+    public void record(Long productId) {
+        LongAdder counter = counters.get(productId);
+        if (counter == null) {
+            if (counters.size() >= maxProducts) {
+                dropped.increment();
+                return;
+            }
+            counter = counters.computeIfAbsent(productId, id -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    /**
+     * 將累計的增量寫入 product_stats
+     * @return 寫入的瀏覽次數
+     */
+    public synchronized long flush() {
+        TreeMap<Long, Long> deltas = new TreeMap<>();
+        counters.forEach((productId, counter) -> {
+            long views = counter.sum();
+            if (views > 0) {
+                counter.add(-views);
+                deltas.put(productId, views);
+            }
+        });
+        long droppedViews = dropped.sumThenReset();
+        if (droppedViews > 0) {
+            log.warn("商品瀏覽次數追蹤數已達上限 {}，捨棄 {} 次瀏覽", maxProducts, droppedViews);
+        }
+        if (counters.size() > maxProducts / 2) {
+            counters.entrySet().removeIf(entry -> !deltas.containsKey(entry.getKey()) && entry.getValue().sum() == 0);
+        }
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        Timestamp flushedAt = new Timestamp(System.currentTimeMillis());
+        List<Map.Entry<Long, Long>> entries = new ArrayList<>(deltas.entrySet());
+        long written = 0;
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            List<Map.Entry<Long, Long>> batch = entries.subList(from, Math.min(from + batchSize, entries.size()));
+            SqlParameterSource[] rows = batch.stream()
+                    .map(entry -> new MapSqlParameterSource("productId", entry.getKey())
+                            .addValue("views", entry.getValue())
+                            .addValue("flushedAt", flushedAt))
+                    .toArray(SqlParameterSource[]::new);
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_SQL, rows));
+            } catch (RuntimeException e) {
+                // 本批與之後未寫入的增量加回，下次重試
+                entries.subList(from, entries.size()).forEach(entry ->
+                        counters.computeIfAbsent(entry.getKey(), id -> new LongAdder()).add(entry.getValue()));
+                throw e;
+            }
+            for (Map.Entry<Long, Long> entry : batch) {
+                written += entry.getValue();
+            }
+        }
+        return written;
+    }
+
+    /**
+     * 尚未寫入的瀏覽次數
+     */
+    public long pending() {
+        return counters.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.demo.util;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.LongSupplier;
+
+/**
+ * 有容量上限與存活時間的記憶體快取
+ * 依鍵的雜湊分段，每段為存取順序的 LinkedHashMap，以段鎖保護；超過容量時移除該段最久未使用的項目，
+ * 超過存活時間的項目於讀取時視為不存在。{@link #compute} 在段鎖內執行，可用來做「檢查後寫入」的原子操作。
+ */
+public class BoundedTtlCache<K, V> {
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment<K, V>[] segments;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+
+    public BoundedTtlCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, System::nanoTime);
+    }
+
+    @SuppressWarnings("unchecked")
+    BoundedTtlCache(int maxSize, Duration ttl, LongSupplier clock) {
+        int segmentSize = Math.max(1, (maxSize + SEGMENTS - 1) / SEGMENTS);
+        this.segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment<>(segmentSize);
+        }
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * @return 未過期的值，不存在或已過期時為 null
+     */
+    public V get(K key) {
+        Segment<K, V> segment = segmentOf(key);
+        synchronized (segment) {
+            Entry<V> entry = segment.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (expired(entry)) {
+                segment.remove(key);
+                return null;
+            }
+            return entry.value;
+        }
+    }
+
+    public void put(K key, V value) {
+        Segment<K, V> segment = segmentOf(key);
+        synchronized (segment) {
+            segment.put(key, new Entry<>(value, clock.getAsLong()));
+        }
+    }
+
+    /**
+     * 在段鎖內以目前的值（不存在或已過期時為 null）計算新值，回傳 null 時移除
+     * 回傳與目前相同的物件時不重設存活時間
+     */
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> function) {
+        Segment<K, V> segment = segmentOf(key);
+        synchronized (segment) {
+            Entry<V> entry = segment.get(key);
+            V current = entry == null || expired(entry) ? null : entry.value;
+            V updated = function.apply(key, current);
+            if (updated == null) {
+                segment.remove(key);
+            } else if (updated != current) {
+                segment.put(key, new Entry<>(updated, clock.getAsLong()));
+            }
+            return updated;
+        }
+    }
+
+    public void remove(K key) {
+        Segment<K, V> segment = segmentOf(key);
+        synchronized (segment) {
+            segment.remove(key);
+        }
+    }
+
+    /**
+     * 移除符合條件的項目，逐段掃描，適合不常發生的批次失效
+     */
+    public void removeIf(BiPredicate<? super K, ? super V> predicate) {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.entrySet().removeIf(entry -> predicate.test(entry.getKey(), entry.getValue().value));
+            }
+        }
+    }
+
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * 目前保留的項目數（含尚未移除的過期項目）
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private boolean expired(Entry<V> entry) {
+        return clock.getAsLong() - entry.createdNanos >= ttlNanos;
+    }
+
+    private Segment<K, V> segmentOf(K key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private record Entry<V>(V value, long createdNanos) {
+    }
+
+    private static final class Segment<K, V> extends LinkedHashMap<K, Entry<V>> {
+
+        private final int maxSize;
+
+        private Segment(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+            return size() > maxSize;
+        }
+    }
+}
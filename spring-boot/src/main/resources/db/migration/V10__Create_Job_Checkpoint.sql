@@ -0,0 +1,10 @@
+-- 背景排程進度，分批處理時記錄已處理到的主鍵，中斷後可從該處繼續
+CREATE TABLE job_checkpoint (
+    job_name VARCHAR(64) PRIMARY KEY COMMENT '排程名稱',
+    last_id BIGINT NOT NULL DEFAULT 0 COMMENT '本輪已處理到的主鍵（0 表示從頭開始）',
+    run_processed BIGINT NOT NULL DEFAULT 0 COMMENT '本輪已處理筆數',
+    last_processed BIGINT NOT NULL DEFAULT 0 COMMENT '上一輪完成時的處理筆數',
+    total_processed BIGINT NOT NULL DEFAULT 0 COMMENT '累計處理筆數',
+    last_finished_at TIMESTAMP NULL COMMENT '上一輪完成時間',
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新時間'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='背景排程進度';
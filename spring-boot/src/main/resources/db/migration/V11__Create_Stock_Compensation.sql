@@ -0,0 +1,16 @@
+-- 庫存補償佇列：取消訂單時先寫入待回補的數量，回補與標記完成在同一交易內進行
+-- 回補失敗時資料列保留為 PENDING，由排程重試，訂單已取消但庫存未回補的情況不會遺失
+CREATE TABLE stock_compensation (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '主鍵',
+    order_id BIGINT NOT NULL COMMENT '訂單ID',
+    product_id BIGINT NOT NULL COMMENT '商品ID',
+    quantity INT NOT NULL COMMENT '回補數量',
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING' COMMENT '狀態: PENDING-待回補, APPLIED-已回補, FAILED-無法回補',
+    attempts INT NOT NULL DEFAULT 0 COMMENT '回補嘗試次數',
+    last_error VARCHAR(500) NULL COMMENT '最近一次失敗原因',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '建立時間',
+    applied_at TIMESTAMP NULL COMMENT '回補時間',
+    -- 同一訂單同一商品只會入列一次，重複取消不會重複回補
+    UNIQUE KEY uk_stock_compensation_order_product (order_id, product_id),
+    INDEX idx_stock_compensation_status (status, id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='庫存補償佇列';
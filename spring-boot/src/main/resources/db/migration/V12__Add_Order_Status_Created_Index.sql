@@ -0,0 +1,7 @@
+-- 逾期未處理訂單查詢索引
+-- 排程依 status = 'PENDING' AND created_at < 截止時間 篩選並依 (created_at, id) 排序，
+-- 以 (status, created_at) 複合索引取得範圍並以 SKIP LOCKED 鎖定，InnoDB 二級索引隱含主鍵 id
+CREATE INDEX idx_orders_status_created_at ON orders (status, created_at);
+
+-- idx_status 已是 idx_orders_status_created_at 的前綴，移除以減少寫入成本
+DROP INDEX idx_status ON orders;
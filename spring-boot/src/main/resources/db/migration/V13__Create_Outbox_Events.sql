@@ -0,0 +1,14 @@
+-- 交易外寄箱：訂單與庫存異動在同一交易內寫入，由轉送排程分批送往下游後刪除
+-- 同一聚合（aggregate_type, aggregate_id）的事件依 id 順序送出，前一筆未送出前不會送出下一筆
+CREATE TABLE outbox_events (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '主鍵',
+    aggregate_type VARCHAR(30) NOT NULL COMMENT '聚合類型: ORDER-訂單, PRODUCT-商品',
+    aggregate_id BIGINT NOT NULL COMMENT '聚合ID',
+    event_type VARCHAR(50) NOT NULL COMMENT '事件類型',
+    payload TEXT NOT NULL COMMENT '事件內容（JSON）',
+    attempts INT NOT NULL DEFAULT 0 COMMENT '送出失敗次數',
+    last_error VARCHAR(500) NULL COMMENT '最近一次失敗原因',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '建立時間',
+    -- 判斷事件是否為該聚合最早的未送出事件
+    INDEX idx_outbox_events_aggregate (aggregate_type, aggregate_id, id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='交易外寄箱';
@@ -0,0 +1,27 @@
+-- 銷售彙總表（後台報表用）
+-- 依訂單建立時間分桶，每桶記錄各商品、各訂單狀態的營收、件數與訂單數；product_id = 0 為訂單層級合計。
+-- 訂單成立、取消時以 INSERT ... ON DUPLICATE KEY UPDATE 增量累加，狀態變更時從原狀態扣除並加到新狀態，
+-- 歷史資料由重建作業依日期逐日回填。
+-- 主鍵以 product_id 開頭，訂單層級（product_id = 0）與單一商品的區間查詢只讀取該商品的連續範圍；
+-- 時段索引供商品排行與重建時的刪除使用
+CREATE TABLE sales_rollup_hourly (
+    bucket_start DATETIME NOT NULL COMMENT '小時起點',
+    product_id BIGINT NOT NULL COMMENT '商品ID（0 為訂單層級合計）',
+    status VARCHAR(20) NOT NULL COMMENT '訂單狀態',
+    revenue DECIMAL(19, 2) NOT NULL DEFAULT 0 COMMENT '營收',
+    units BIGINT NOT NULL DEFAULT 0 COMMENT '銷售件數',
+    order_count BIGINT NOT NULL DEFAULT 0 COMMENT '訂單數',
+    PRIMARY KEY (product_id, bucket_start, status),
+    INDEX idx_sales_rollup_hourly_bucket (bucket_start)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='每小時銷售彙總';
+
+CREATE TABLE sales_rollup_daily (
+    bucket_date DATE NOT NULL COMMENT '日期',
+    product_id BIGINT NOT NULL COMMENT '商品ID（0 為訂單層級合計）',
+    status VARCHAR(20) NOT NULL COMMENT '訂單狀態',
+    revenue DECIMAL(19, 2) NOT NULL DEFAULT 0 COMMENT '營收',
+    units BIGINT NOT NULL DEFAULT 0 COMMENT '銷售件數',
+    order_count BIGINT NOT NULL DEFAULT 0 COMMENT '訂單數',
+    PRIMARY KEY (product_id, bucket_date, status),
+    INDEX idx_sales_rollup_daily_bucket (bucket_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='每日銷售彙總';
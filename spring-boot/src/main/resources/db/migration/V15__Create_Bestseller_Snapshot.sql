@@ -0,0 +1,6 @@
+-- 熱銷排行快照：記憶體中的衰減分數定期整批寫入，重新啟動時載入並依快照時間衰減
+CREATE TABLE bestseller_snapshot (
+    product_id BIGINT PRIMARY KEY COMMENT '商品ID',
+    score DOUBLE NOT NULL COMMENT '快照時的衰減銷量分數',
+    snapshot_at DATETIME(3) NOT NULL COMMENT '快照時間'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='熱銷排行快照';
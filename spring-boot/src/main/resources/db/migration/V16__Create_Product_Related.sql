@@ -0,0 +1,12 @@
+-- 關聯商品（經常一起購買）：依訂單商品的共同購買次數預先計算，每個商品保留前 N 名
+-- 商品詳細頁直接依主鍵順序讀取，不在請求時計算
+CREATE TABLE product_related (
+    product_id BIGINT NOT NULL COMMENT '商品ID',
+    rank_no INT NOT NULL COMMENT '名次（1 起算）',
+    related_product_id BIGINT NOT NULL COMMENT '關聯商品ID',
+    pair_count BIGINT NOT NULL COMMENT '共同購買的訂單數',
+    computed_at DATETIME(3) NOT NULL COMMENT '計算時間',
+    PRIMARY KEY (product_id, rank_no),
+    -- 全量重建後刪除未重新計算的舊資料
+    INDEX idx_product_related_computed_at (computed_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='關聯商品';
@@ -0,0 +1,6 @@
+-- 商品統計：商品詳細頁的瀏覽次數先在各節點記憶體累計，定期以加法 upsert 整批寫入
+CREATE TABLE product_stats (
+    product_id BIGINT PRIMARY KEY COMMENT '商品ID',
+    view_count BIGINT NOT NULL DEFAULT 0 COMMENT '瀏覽次數',
+    last_viewed_at DATETIME(3) NOT NULL COMMENT '最近一次寫入瀏覽次數的時間'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='商品統計';
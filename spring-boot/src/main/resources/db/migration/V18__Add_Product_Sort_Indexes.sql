@@ -0,0 +1,14 @@
+-- 後台商品列表排序索引
+-- 列表預設以 deleted_at IS NULL 篩選，可排序欄位各以 (deleted_at, 欄位, id) 複合索引支援，
+-- 依欄位排序與 keyset 分頁（欄位, id）都沿索引順序讀取，不需檔案排序
+-- 依 id 排序使用 idx_deleted_at：InnoDB 二級索引隱含主鍵，等同 (deleted_at, id)
+
+CREATE INDEX idx_products_deleted_name_id ON products (deleted_at, name, id);
+
+CREATE INDEX idx_products_deleted_price_id ON products (deleted_at, price, id);
+
+CREATE INDEX idx_products_deleted_created_id ON products (deleted_at, created_at, id);
+
+CREATE INDEX idx_products_deleted_start_id ON products (deleted_at, start_at, id);
+
+-- idx_price 不是上述索引的前綴，不在此移除
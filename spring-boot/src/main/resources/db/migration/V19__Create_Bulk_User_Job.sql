@@ -0,0 +1,17 @@
+-- 批次用戶管理作業進度，每處理完一批更新一次，重啟後或從其他節點仍可查詢
+CREATE TABLE bulk_user_job (
+    id VARCHAR(36) PRIMARY KEY COMMENT '作業ID',
+    action VARCHAR(20) NOT NULL COMMENT '動作',
+    role VARCHAR(20) NULL COMMENT '異動的角色（角色動作才有）',
+    status VARCHAR(20) NOT NULL COMMENT '狀態: RUNNING-執行中, COMPLETED-已完成, FAILED-執行失敗',
+    total BIGINT NOT NULL DEFAULT 0 COMMENT '預計處理的用戶數',
+    processed BIGINT NOT NULL DEFAULT 0 COMMENT '已處理的用戶數',
+    affected BIGINT NOT NULL DEFAULT 0 COMMENT '實際被異動的用戶數',
+    skipped BIGINT NOT NULL DEFAULT 0 COMMENT '略過的用戶數',
+    error_message VARCHAR(500) NULL COMMENT '失敗原因',
+    operator_email VARCHAR(100) NOT NULL COMMENT '操作者郵箱',
+    started_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '開始時間',
+    finished_at TIMESTAMP NULL COMMENT '結束時間',
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '最近一次進度更新時間',
+    INDEX idx_bulk_user_job_finished_at (finished_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='批次用戶管理作業';
@@ -0,0 +1,8 @@
+-- 點數基準餘額：用戶第一筆帳本紀錄寫入前的既有點數，對帳時以 基準 + 帳本加總 校正 users.points
+-- 為 NULL 表示尚無帳本紀錄，對帳不會處理該用戶
+ALTER TABLE users ADD COLUMN points_baseline DECIMAL(19, 2) NULL COMMENT '點數基準餘額' AFTER points;
+
+-- 已有帳本紀錄的用戶，以目前餘額扣除帳本加總作為基準
+UPDATE users u
+JOIN (SELECT user_id, SUM(amount) AS total FROM points_ledger GROUP BY user_id) l ON l.user_id = u.id
+SET u.points_baseline = COALESCE(u.points, 0) - l.total;
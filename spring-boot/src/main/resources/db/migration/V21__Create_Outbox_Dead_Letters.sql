@@ -0,0 +1,14 @@
+-- 外寄箱死信：送出失敗達 app.outbox.max-attempts 次的事件移到此表，不再擋住同一聚合的後續事件
+-- 保留原事件 id 與內容，排除問題後可人工重新寫入 outbox_events
+CREATE TABLE outbox_dead_letters (
+    id BIGINT PRIMARY KEY COMMENT '原外寄箱事件ID',
+    aggregate_type VARCHAR(30) NOT NULL COMMENT '聚合類型: ORDER-訂單, PRODUCT-商品',
+    aggregate_id BIGINT NOT NULL COMMENT '聚合ID',
+    event_type VARCHAR(50) NOT NULL COMMENT '事件類型',
+    payload TEXT NOT NULL COMMENT '事件內容（JSON）',
+    attempts INT NOT NULL COMMENT '送出失敗次數',
+    last_error VARCHAR(500) NULL COMMENT '最後一次失敗原因',
+    created_at TIMESTAMP NOT NULL COMMENT '事件建立時間',
+    dead_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '移入死信時間',
+    INDEX idx_outbox_dead_letters_aggregate (aggregate_type, aggregate_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='外寄箱死信';
@@ -0,0 +1,17 @@
+-- 後台用戶列表 keyset 分頁索引
+-- 列表固定以 deleted 篩選並依 id 排序，各篩選組合以 (deleted, ..., id) 複合索引支援
+
+-- 只依刪除狀態篩選（取代單欄 idx_deleted）
+CREATE INDEX idx_users_deleted_id ON users (deleted, id);
+
+-- 刪除狀態 + 啟用狀態
+CREATE INDEX idx_users_deleted_enabled_id ON users (deleted, enabled, id);
+
+-- 刪除狀態 + 建立時間範圍
+CREATE INDEX idx_users_deleted_created_at ON users (deleted, created_at, id);
+
+-- idx_deleted 已是 idx_users_deleted_id 的前綴，移除以減少寫入成本
+DROP INDEX idx_deleted ON users;
+
+-- 角色篩選使用 user_roles.idx_role：InnoDB 二級索引隱含主鍵 (user_id, role)，
+-- 等同 (role, user_id)，不需另外建立索引
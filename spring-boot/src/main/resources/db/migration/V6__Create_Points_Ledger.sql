@@ -0,0 +1,14 @@
+-- 點數帳本（只新增不修改）
+-- users.points 為由本表累加而來的反正規化餘額，由對帳排程定期校正
+CREATE TABLE points_ledger (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '主鍵',
+    user_id BIGINT NOT NULL COMMENT '會員ID',
+    order_id BIGINT NULL COMMENT '來源訂單ID',
+    entry_type VARCHAR(20) NOT NULL COMMENT '異動類型: EARN-訂單回饋, REVOKE-取消收回, ADJUST-人工調整',
+    amount DECIMAL(19, 2) NOT NULL COMMENT '異動點數（收回為負數）',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '建立時間',
+    -- 同一訂單同一類型只會記一筆，重複處理時不會重複入帳
+    UNIQUE KEY uk_points_ledger_order_entry (order_id, entry_type),
+    INDEX idx_points_ledger_user_id (user_id, id),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='點數帳本';
@@ -0,0 +1,20 @@
+-- 每個會員只能有一個購物車
+-- 舊資料可能因併發首次存取而產生重複購物車，先合併到 id 最小的購物車再建立唯一索引
+
+-- 將重複購物車的項目併入保留的購物車，同商品數量相加
+INSERT INTO cart_item (cart_id, product_id, quantity, checked, created_at, updated_at)
+SELECT keep.id, ci.product_id, ci.quantity, ci.checked, ci.created_at, ci.updated_at
+FROM cart_item ci
+JOIN cart c ON c.id = ci.cart_id
+JOIN (SELECT user_id, MIN(id) AS id FROM cart GROUP BY user_id HAVING COUNT(*) > 1) keep
+    ON keep.user_id = c.user_id AND keep.id <> c.id
+ON DUPLICATE KEY UPDATE quantity = cart_item.quantity + VALUES(quantity);
+
+-- 刪除重複購物車（項目隨外鍵一併刪除）
+DELETE c FROM cart c
+JOIN (SELECT user_id, MIN(id) AS id FROM cart GROUP BY user_id) keep
+    ON keep.user_id = c.user_id AND keep.id <> c.id;
+
+-- 唯一索引同時支援 user_id 外鍵，原本的一般索引可移除
+CREATE UNIQUE INDEX uk_cart_user ON cart (user_id);
+DROP INDEX idx_user_id ON cart;
@@ -0,0 +1,2 @@
+-- 購物車版本號，每次異動遞增，供前端套用增量回應時判斷順序
+ALTER TABLE cart ADD COLUMN version BIGINT NOT NULL DEFAULT 0 COMMENT '版本號（每次異動遞增）' AFTER user_id;
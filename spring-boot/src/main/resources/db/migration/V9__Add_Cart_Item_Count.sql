@@ -0,0 +1,4 @@
+-- 購物車項目數（反正規化），與版本號在同一語句內重新計算，供購物車徽章查詢
+ALTER TABLE cart ADD COLUMN item_count INT NOT NULL DEFAULT 0 COMMENT '購物車項目數' AFTER version;
+
+UPDATE cart c SET item_count = (SELECT COUNT(*) FROM cart_item ci WHERE ci.cart_id = c.id);
@@ -0,0 +1,172 @@
+package com.example.demo.cart;
+
+import com.example.demo.dto.request.AddToCartRequest;
+import com.example.demo.dto.request.UpdateCartItemRequest;
+import com.example.demo.dto.response.frontend.CartResponse;
+import com.example.demo.entity.Product;
+import com.example.demo.entity.User;
+import com.example.demo.enums.ProductStatus;
+import com.example.demo.enums.UserRole;
+import com.example.demo.repository.CartItemRepository;
+import com.example.demo.repository.CartRepository;
+import com.example.demo.repository.ProductRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.frontend.CartService;
+import com.example.demo.service.frontend.impl.CartServiceImpl;
+import com.example.demo.service.frontend.impl.MemoryCartServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 記憶體購物車與資料庫購物車一致性測試
+ * 兩個用戶分別以兩種實現執行相同操作，每一步的回應與寫回後的資料庫內容都須相同。
+ * 寫回在獨立交易中提交，測試資料須先提交，結束後自行清除
+ */
+@SpringBootTest(properties = "app.cart.engine=memory")
+class MemoryCartParityTest {
+
+    @Autowired
+    private MemoryCartServiceImpl memoryCartService;
+    @Autowired
+    private CartServiceImpl databaseCartService;
+    @Autowired
+    private InMemoryCartStore cartStore;
+    @Autowired
+    private CartRepository cartRepository;
+    @Autowired
+    private CartItemRepository cartItemRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        users.add(saveUser("parity-memory@example.com"));
+        users.add(saveUser("parity-database@example.com"));
+        products.add(saveProduct("PPAR001", 120, 10));
+        products.add(saveProduct("PPAR002", 35, 10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (User user : users) {
+            cartStore.evict(user.getId());
+            cartRepository.findByUserId(user.getId()).ifPresent(cart -> {
+                cartItemRepository.deleteAll(cartItemRepository.findByCartId(cart.getId()));
+                cartRepository.delete(cart);
+            });
+        }
+        productRepository.deleteAll(products);
+        userRepository.deleteAll(users);
+    }
+
+    private User saveUser(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("password");
+        user.setName("一致性用戶");
+        user.setRoles(Set.of(UserRole.USER));
+        user.setEnabled(true);
+        return userRepository.save(user);
+    }
+
+    private Product saveProduct(String productNo, int price, int stock) {
+        Product product = new Product();
+        product.setName("一致性商品" + productNo);
+        product.setProductNo(productNo);
+        product.setPrice(BigDecimal.valueOf(price));
+        product.setStatus(ProductStatus.OPEN);
+        product.setStock(stock);
+        return productRepository.save(product);
+    }
+
+    @Test
+    @DisplayName("相同操作序列 - 記憶體實現的回應與寫回結果與資料庫實現一致")
+    void testSameOperations_SameResults() {
+        Long p1 = products.get(0).getId();
+        Long p2 = products.get(1).getId();
+
+        step((service, userId) -> service.addToCart(userId, add(p1, 2)));
+        step((service, userId) -> service.addToCart(userId, add(p2, 1)));
+        step((service, userId) -> service.updateCartItem(userId, itemId(service, userId, p1), quantity(3)));
+        step((service, userId) -> service.toggleCartItemChecked(userId, itemId(service, userId, p2)));
+        step((service, userId) -> service.toggleAllCartItems(userId, false));
+        step((service, userId) -> service.toggleAllCartItems(userId, true));
+        step((service, userId) -> service.removeCartItem(userId, itemId(service, userId, p2)));
+        step((service, userId) -> service.addToCart(userId, add(p2, 4)));
+        step((service, userId) -> service.toggleCartItemChecked(userId, itemId(service, userId, p2)));
+        step((service, userId) -> service.removeCheckedItems(userId));
+        step((service, userId) -> service.updateCartItem(userId, itemId(service, userId, p2), quantity(6)));
+        assertThat(memoryCartService.getCartItemCount(users.get(0).getId()))
+                .isEqualTo(databaseCartService.getCartItemCount(users.get(1).getId()));
+
+        // 寫回後以資料庫實現讀取兩個用戶的購物車，內容與項目數都須相同
+        cartStore.flushDirty();
+        cartStore.evict(users.get(0).getId());
+        assertThat(normalize(databaseCartService.getCart(users.get(0).getId())))
+                .isEqualTo(normalize(databaseCartService.getCart(users.get(1).getId())));
+        assertThat(cartRepository.findByUserId(users.get(0).getId()).orElseThrow().getItemCount())
+                .isEqualTo(cartRepository.findByUserId(users.get(1).getId()).orElseThrow().getItemCount());
+    }
+
+    /**
+     * 兩種實現各執行一次操作並比較回應
+     */
+    private void step(BiFunction<CartService, Long, CartResponse> operation) {
+        CartResponse memory = operation.apply(memoryCartService, users.get(0).getId());
+        CartResponse database = operation.apply(databaseCartService, users.get(1).getId());
+        assertThat(normalize(memory)).isEqualTo(normalize(database));
+    }
+
+    /**
+     * 去除 id 與時間等因用戶而異的欄位，依商品排序
+     */
+    private static List<Object> normalize(CartResponse response) {
+        List<Object> values = new ArrayList<>();
+        values.add(response.getTotalItems());
+        values.add(response.getTotalAmount().stripTrailingZeros());
+        response.getItems().stream()
+                .sorted(Comparator.comparing(item -> item.getProductId()))
+                .forEach(item -> values.add(List.of(item.getProductId(), item.getQuantity(), item.getChecked(),
+                        item.getSubtotal().stripTrailingZeros())));
+        return values;
+    }
+
+    private static Long itemId(CartService service, Long userId, Long productId) {
+        return service.getCart(userId).getItems().stream()
+                .filter(item -> item.getProductId().equals(productId))
+                .findFirst()
+                .orElseThrow()
+                .getId();
+    }
+
+    private static AddToCartRequest add(Long productId, int quantity) {
+        AddToCartRequest request = new AddToCartRequest();
+        request.setProductId(productId);
+        request.setQuantity(quantity);
+        return request;
+    }
+
+    private static UpdateCartItemRequest quantity(int quantity) {
+        UpdateCartItemRequest request = new UpdateCartItemRequest();
+        request.setQuantity(quantity);
+        return request;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.demo.cart;
+
+import com.example.demo.exception.TooManyRequestsException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserOperationLockTest {
+
+    @Test
+    @DisplayName("不同用戶 - 並行執行")
+    void testDifferentUsers_RunInParallel() throws Exception {
+        UserOperationLock userLock = new UserOperationLock(5_000, 4);
+        // 只有全部同時在鎖內時才能通過屏障
+        CyclicBarrier barrier = new CyclicBarrier(4);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (long userId = 1; userId <= 4; userId++) {
+                long id = userId;
+                results.add(executor.submit(() -> userLock.execute(id, () -> {
+                    try {
+                        return barrier.await(5, TimeUnit.SECONDS);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })));
+            }
+            for (Future<Integer> result : results) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(userLock.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("排隊已滿 - 立即拒絕")
+    void testQueueFull_RejectedImmediately() throws Exception {
+        UserOperationLock userLock = new UserOperationLock(5_000, 1);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> holder = executor.submit(() -> userLock.run(1L, () -> {
+                running.countDown();
+                await(release);
+            }));
+            running.await(5, TimeUnit.SECONDS);
+            Future<?> queued = executor.submit(() -> userLock.run(1L, () -> { }));
+            Thread.sleep(100);
+
+            long start = System.nanoTime();
+            assertThatThrownBy(() -> userLock.run(1L, () -> { }))
+                    .isInstanceOf(TooManyRequestsException.class);
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1_000);
+
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+            queued.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(userLock.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("等待逾時 - 拒絕並釋放佔用")
+    void testWaitTimeout_Rejected() throws Exception {
+        UserOperationLock userLock = new UserOperationLock(50, 4);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holder = executor.submit(() -> userLock.run(1L, () -> {
+                running.countDown();
+                await(release);
+            }));
+            running.await(5, TimeUnit.SECONDS);
+
+            assertThatThrownBy(() -> userLock.run(1L, () -> { }))
+                    .isInstanceOf(TooManyRequestsException.class);
+
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(userLock.size()).isZero();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
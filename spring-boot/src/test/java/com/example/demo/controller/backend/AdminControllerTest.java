@@ -0,0 +1,223 @@
+package com.example.demo.controller.backend;
+
+import com.example.demo.dto.request.backend.BulkUserRequest;
+import com.example.demo.entity.User;
+import com.example.demo.enums.BulkUserAction;
+import com.example.demo.enums.UserRole;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.search.UserNameIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * 後台用戶管理控制器測試
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class AdminControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserNameIndex userNameIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        saveUser("管理員", "admin@example.com", UserRole.ADMIN, true);
+        saveUser("搜尋用戶甲", "search-a@example.com", UserRole.USER, true);
+        saveUser("搜尋用戶乙", "search-b@example.com", UserRole.USER, false);
+        saveUser("其他用戶", "other@example.com", UserRole.USER, true);
+    }
+
+    private void saveUser(String name, String email, UserRole role, boolean enabled) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(email);
+        user.setPassword("password");
+        user.setRoles(new HashSet<>(Set.of(role)));
+        user.setEnabled(enabled);
+        userRepository.save(user);
+    }
+
+    @Test
+    @DisplayName("舊版不分頁列表 - 超過單次查詢筆數時仍回傳全部用戶")
+    @WithMockUser(username = "admin@example.com", roles = {"ADMIN"})
+    void testLegacyList_ReturnsAllBeyondPageSize() throws Exception {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 1005; i++) {
+            User user = new User();
+            user.setName("大量用戶" + i);
+            user.setEmail("bulk-" + i + "@example.com");
+            user.setPassword("password");
+            user.setRoles(new HashSet<>(Set.of(UserRole.USER)));
+            users.add(user);
+        }
+        userRepository.saveAllAndFlush(users);
+        Integer expected = jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT u.id) FROM users u JOIN user_roles r ON r.user_id = u.id " +
+                "WHERE r.role = 'USER' AND u.deleted = FALSE", Integer.class);
+
+        mockMvc.perform(get("/admin/v1/users/role/USER"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(expected))
+                .andExpect(jsonPath("$.data[0].email").value("bulk-1004@example.com"));
+        mockMvc.perform(get("/admin/v1/users"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(expected + 1));
+    }
+
+    @Test
+    @DisplayName("依郵箱前綴搜尋用戶")
+    @WithMockUser(username = "admin@example.com", roles = {"ADMIN"})
+    void testSearchUsersByEmailPrefix() throws Exception {
+        mockMvc.perform(get("/admin/v1/users/search").param("email", "search-"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items.length()").value(2))
+                .andExpect(jsonPath("$.data.hasNext").value(false));
+    }
+
+    @Test
+    @DisplayName("郵箱前綴與啟用狀態組合篩選並分頁")
+    @WithMockUser(username = "admin@example.com", roles = {"ADMIN"})
+    void testSearchUsersWithFilterAndCursor() throws Exception {
+        mockMvc.perform(get("/admin/v1/users/search")
+                        .param("email", "search-")
+                        .param("enabled", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items.length()").value(1))
+                .andExpect(jsonPath("$.data.items[0].email").value("search-a@example.com"));
+
+        mockMvc.perform(get("/admin/v1/users/search")
+                        .param("email", "search-")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items[0].email").value("search-b@example.com"))
+                .andExpect(jsonPath("$.data.hasNext").value(true))
+                .andExpect(jsonPath("$.data.nextCursor").isNotEmpty());
+    }
+
+    @Test
+    @DisplayName("以 nextCursor 逐頁取得所有符合條件的用戶")
+    @WithMockUser(username = "admin@example.com", roles = {"ADMIN"})
+    void testSearchUsersWalkCursor() throws Exception {
+        List<String> emails = new java.util.ArrayList<>();
+        String cursor = null;
+        do {
+            var request = get("/admin/v1/users/search").param("email", "search-").param("size", "1");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            String response = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            com.fasterxml.jackson.databind.JsonNode data = objectMapper.readTree(response).get("data");
+            data.get("items").forEach(item -> emails.add(item.get("email").asText()));
+            cursor = data.get("hasNext").asBoolean() ? data.get("nextCursor").asText() : null;
+        } while (cursor != null);
+
+        org.assertj.core.api.Assertions.assertThat(emails)
+                .containsExactly("search-b@example.com", "search-a@example.com");
+    }
+
+    @Test
+    @DisplayName("依姓名搜尋用戶 - 兩字以上走姓名索引，單字改用資料庫查詢")
+    @WithMockUser(username = "admin@example.com", roles = {"ADMIN"})
+    void testSearchUsersByName() throws Exception {
+        // 在測試交易中重建，索引讀得到尚未提交的測試用戶
+        userNameIndex.rebuild();
+
+        mockMvc.perform(get("/admin/v1/users/search").param("name", "搜尋用戶"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items.length()").value(2))
+                .andExpect(jsonPath("$.data.items[0].email").value("search-b@example.com"));
+
+        mockMvc.perform(get("/admin/v1/users/search").param("name", "用戶甲"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items.length()").value(1))
+                .andExpect(jsonPath("$.data.items[0].email").value("search-a@example.com"));
+
+        mockMvc.perform(get("/admin/v1/users/search").param("name", "乙"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items.length()").value(1))
+                .andExpect(jsonPath("$.data.items[0].email").value("search-b@example.com"));
+
+        mockMvc.perform(get("/admin/v1/users/search").param("name", "用戶丙"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items.length()").value(0));
+    }
+
+    @Test
+    @DisplayName("cursor 格式錯誤")
+    @WithMockUser(username = "admin@example.com", roles = {"ADMIN"})
+    void testSearchUsersInvalidCursor() throws Exception {
+        mockMvc.perform(get("/admin/v1/users/search").param("cursor", "abc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("cursor 格式錯誤"));
+    }
+
+    @Test
+    @DisplayName("依角色取得用戶列表")
+    @WithMockUser(username = "admin@example.com", roles = {"ADMIN"})
+    void testGetUsersByRole() throws Exception {
+        mockMvc.perform(get("/admin/v1/users/role/ADMIN"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[?(@.email == 'admin@example.com')]").exists())
+                .andExpect(jsonPath("$.data[?(@.email == 'other@example.com')]").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("批次作業未指定用戶ID或篩選條件")
+    @WithMockUser(username = "admin@example.com", roles = {"ADMIN"})
+    void testBulkOperationWithoutTargets() throws Exception {
+        BulkUserRequest request = new BulkUserRequest();
+        request.setAction(BulkUserAction.DISABLE);
+        mockMvc.perform(post("/admin/v1/users/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("請指定用戶ID或篩選條件"));
+    }
+
+    @Test
+    @DisplayName("批次角色異動未指定角色")
+    @WithMockUser(username = "admin@example.com", roles = {"ADMIN"})
+    void testBulkRoleOperationWithoutRole() throws Exception {
+        BulkUserRequest request = new BulkUserRequest();
+        request.setAction(BulkUserAction.ADD_ROLE);
+        request.setUserIds(List.of(1L));
+        mockMvc.perform(post("/admin/v1/users/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("請指定要異動的角色"));
+    }
+}
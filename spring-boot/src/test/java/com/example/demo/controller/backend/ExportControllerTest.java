@@ -0,0 +1,133 @@
+package com.example.demo.controller.backend;
+
+import com.example.demo.entity.Product;
+import com.example.demo.enums.ProductStatus;
+import com.example.demo.repository.ProductRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ExportControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Product exportedProduct;
+
+    @AfterEach
+    void tearDown() {
+        // 匯出以另一條連線讀取，測試資料須先提交，結束後自行清除
+        if (exportedProduct != null) {
+            productRepository.deleteById(exportedProduct.getId());
+        }
+    }
+
+    private Product saveExportedProduct(String name, String price) {
+        Product product = new Product();
+        product.setName(name);
+        product.setProductNo("EXP" + System.nanoTime() % 1_000_000_000L);
+        product.setPrice(new BigDecimal(price));
+        product.setStatus(ProductStatus.OPEN);
+        product.setStock(3);
+        exportedProduct = productRepository.save(product);
+        return exportedProduct;
+    }
+
+    private String export(String path, String format) throws Exception {
+        MvcResult result = mockMvc.perform(get(path).param("format", format))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(java.nio.charset.StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("匯出商品 CSV 包含標題列")
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testExportProductsCsv() throws Exception {
+        MvcResult result = mockMvc.perform(get("/admin/v1/export/products"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"products.csv\""))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(body).startsWith("id,product_no,name,price,stock,status");
+    }
+
+    @Test
+    @DisplayName("匯出用戶 NDJSON")
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testExportUsersNdjson() throws Exception {
+        MvcResult result = mockMvc.perform(get("/admin/v1/export/users").param("format", "NDJSON"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"));
+    }
+
+    @Test
+    @DisplayName("非管理員不可匯出")
+    @WithMockUser(username = "user", roles = {"USER"})
+    void testExportForbiddenForUser() throws Exception {
+        mockMvc.perform(get("/admin/v1/export/orders"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("匯出商品 CSV 資料列跳脫逗號與引號，公式開頭加上單引號")
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testExportProductsCsvEscaping() throws Exception {
+        Product product = saveExportedProduct("=HYPERLINK(\"http://x\"), 點我", "12.34");
+
+        String body = export("/admin/v1/export/products", "CSV");
+        String row = Arrays.stream(body.split("\n"))
+                .filter(line -> line.startsWith(product.getId() + ","))
+                .findFirst().orElseThrow();
+        assertThat(row).startsWith(product.getId() + "," + product.getProductNo()
+                + ",\"'=HYPERLINK(\"\"http://x\"\"), 點我\",12.34,3,OPEN,");
+    }
+
+    @Test
+    @DisplayName("匯出商品 NDJSON 保留金額小數")
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testExportProductsNdjsonDecimal() throws Exception {
+        Product product = saveExportedProduct("小數商品", "19.99");
+
+        String body = export("/admin/v1/export/products", "NDJSON");
+        JsonNode row = null;
+        for (String line : body.split("\n")) {
+            JsonNode node = objectMapper.readTree(line);
+            if (node.get("id").asLong() == product.getId()) {
+                row = node;
+            }
+        }
+        assertThat(row).isNotNull();
+        assertThat(row.get("price").decimalValue()).isEqualByComparingTo("19.99");
+        assertThat(row.get("name").asText()).isEqualTo("小數商品");
+        assertThat(row.get("deleted_at").isNull()).isTrue();
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.demo.controller.backend;
+
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderItem;
+import com.example.demo.entity.Product;
+import com.example.demo.entity.StockCompensation;
+import com.example.demo.entity.User;
+import com.example.demo.enums.OrderStatus;
+import com.example.demo.enums.ProductStatus;
+import com.example.demo.enums.StockCompensationStatus;
+import com.example.demo.enums.UserRole;
+import com.example.demo.repository.OrderRepository;
+import com.example.demo.repository.ProductRepository;
+import com.example.demo.repository.StockCompensationRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.backend.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class OrderControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private StockCompensationRepository stockCompensationRepository;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private Product product1;
+    private Product product2;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail("buyer@example.com");
+        user.setPassword("password");
+        user.setName("買家");
+        user.setRoles(Set.of(UserRole.USER));
+        user.setEnabled(true);
+        user = userRepository.save(user);
+
+        product1 = saveProduct("P0001", 10);
+        product2 = saveProduct("P0002", 10);
+    }
+
+    @Test
+    @DisplayName("批次取消訂單 - 回補庫存並略過不可取消的訂單")
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testCancelOrders_RestoresStock() throws Exception {
+        // 同一訂單有兩筆相同商品的項目，回補時合併為一筆
+        Order pending = saveOrder("ORD0001", OrderStatus.PENDING,
+                item(product1, 2), item(product1, 1), item(product2, 1));
+        Order confirmed = saveOrder("ORD0002", OrderStatus.CONFIRMED, item(product1, 4));
+        Order shipped = saveOrder("ORD0003", OrderStatus.SHIPPED, item(product2, 5));
+
+        String body = "{\"orderIds\":[" + confirmed.getId() + "," + pending.getId() + "," + shipped.getId()
+                + "," + pending.getId() + ",999999]}";
+        mockMvc.perform(post("/admin/v1/orders/cancel")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.total").value(4))
+                .andExpect(jsonPath("$.data.cancelled").value(2))
+                .andExpect(jsonPath("$.data.skipped").value(2))
+                .andExpect(jsonPath("$.data.restorePending").value(0));
+
+        assertThat(productRepository.findById(product1.getId()).orElseThrow().getStock()).isEqualTo(17);
+        assertThat(productRepository.findById(product2.getId()).orElseThrow().getStock()).isEqualTo(11);
+        assertThat(orderRepository.findById(pending.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(orderRepository.findById(confirmed.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(orderRepository.findById(shipped.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.SHIPPED);
+
+        List<StockCompensation> compensations = stockCompensationRepository.findByOrderIdOrderByProductId(pending.getId());
+        assertThat(compensations).extracting(StockCompensation::getQuantity).containsExactly(3, 1);
+        assertThat(compensations).allMatch(c -> c.getStatus() == StockCompensationStatus.APPLIED);
+        assertThat(stockCompensationRepository.findByOrderIdOrderByProductId(shipped.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("批次取消訂單 - 重複取消不會重複回補")
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testCancelOrders_Idempotent() throws Exception {
+        Order order = saveOrder("ORD0001", OrderStatus.PENDING, item(product1, 2));
+        String body = "{\"orderIds\":[" + order.getId() + "]}";
+
+        mockMvc.perform(post("/admin/v1/orders/cancel").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.cancelled").value(1));
+        mockMvc.perform(post("/admin/v1/orders/cancel").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.cancelled").value(0))
+                .andExpect(jsonPath("$.data.skipped").value(1));
+
+        assertThat(productRepository.findById(product1.getId()).orElseThrow().getStock()).isEqualTo(12);
+    }
+
+    @Test
+    @DisplayName("批次取消訂單 - 未指定訂單")
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testCancelOrders_Empty() throws Exception {
+        mockMvc.perform(post("/admin/v1/orders/cancel")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orderIds\":[]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("批次取消訂單 - 非管理員")
+    @WithMockUser(username = "user", roles = {"USER"})
+    void testCancelOrders_Forbidden() throws Exception {
+        mockMvc.perform(post("/admin/v1/orders/cancel")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orderIds\":[1]}"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("逾期訂單 - 只取消逾期的待處理訂單並回補庫存")
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testExpirePendingOrders() throws Exception {
+        Order overdue = saveOrder("ORD0001", OrderStatus.PENDING, item(product1, 2));
+        Order fresh = saveOrder("ORD0002", OrderStatus.PENDING, item(product1, 1));
+        Order confirmed = saveOrder("ORD0003", OrderStatus.CONFIRMED, item(product2, 3));
+        backdate(overdue, 120);
+        backdate(confirmed, 120);
+
+        mockMvc.perform(get("/admin/v1/orders/expiry/metrics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.overdueOrders").value(1))
+                .andExpect(jsonPath("$.data.lagSeconds").value(greaterThan(0)));
+
+        int expired = orderService.expirePendingOrders(LocalDateTime.now().minusMinutes(60), 10);
+
+        assertThat(expired).isEqualTo(1);
+        assertThat(orderRepository.findById(overdue.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(orderRepository.findById(fresh.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.PENDING);
+        assertThat(orderRepository.findById(confirmed.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+        assertThat(productRepository.findById(product1.getId()).orElseThrow().getStock()).isEqualTo(12);
+
+        mockMvc.perform(get("/admin/v1/orders/expiry/metrics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.overdueOrders").value(0))
+                .andExpect(jsonPath("$.data.lagSeconds").value(0));
+    }
+
+    private void backdate(Order order, int minutes) {
+        jdbcTemplate.update("UPDATE orders SET created_at = ? WHERE id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusMinutes(minutes)), order.getId());
+    }
+
+    private Product saveProduct(String productNo, int stock) {
+        Product product = new Product();
+        product.setName("商品" + productNo);
+        product.setProductNo(productNo);
+        product.setPrice(BigDecimal.valueOf(100));
+        product.setStatus(ProductStatus.OPEN);
+        product.setStock(stock);
+        return productRepository.save(product);
+    }
+
+    private Order saveOrder(String orderNumber, OrderStatus status, OrderItem... items) {
+        Order order = new Order();
+        order.setOrderNumber(orderNumber);
+        order.setUserId(user.getId());
+        order.setStatus(status);
+        order.setTotalAmount(BigDecimal.valueOf(100));
+        order.setReceiverName("買家");
+        order.setReceiverPhone("0912345678");
+        order.setReceiverAddress("台北市");
+        order = orderRepository.save(order);
+        for (OrderItem item : items) {
+            item.setOrderId(order.getId());
+            order.addOrderItem(item);
+        }
+        return orderRepository.saveAndFlush(order);
+    }
+
+    private OrderItem item(Product product, int quantity) {
+        return OrderItem.builder()
+                .productId(product.getId())
+                .productName(product.getName())
+                .price(product.getPrice())
+                .quantity(quantity)
+                .subtotal(product.getPrice().multiply(BigDecimal.valueOf(quantity)))
+                .build();
+    }
+}
@@ -285,4 +285,167 @@ class ProductControllerTest {
         long id1 = root.at("/data/content/1/id").asLong();
         org.junit.jupiter.api.Assertions.assertTrue(id0 > id1, "第一筆 id 應大於第二筆 id");
     }
+
+    @Test
+    @DisplayName("查詢商品列表-不支援的排序欄位")
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testSearchProductsUnsupportedSort() throws Exception {
+        mockMvc.perform(get("/admin/v1/products")
+                .param("sortBy", "description"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    @DisplayName("查詢商品列表-不計算總筆數")
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testSearchProductsWithoutCount() throws Exception {
+        mockMvc.perform(get("/admin/v1/products")
+                .param("name", "篩選商品")
+                .param("size", "1")
+                .param("sortBy", "price")
+                .param("sortDir", "asc")
+                .param("count", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content.length()").value(1))
+                .andExpect(jsonPath("$.data.content[0].productNo").value("P0002"))
+                .andExpect(jsonPath("$.data.last").value(false))
+                .andExpect(jsonPath("$.data.totalElements").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("查詢商品列表-keyset 分頁依價格與 id 排序，同價格不重複也不遺漏")
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testSearchProductsByCursor() throws Exception {
+        int[] prices = {300, 100, 200, 100, 300, 100, 50};
+        java.util.List<Product> products = new java.util.ArrayList<>();
+        for (int i = 0; i < prices.length; i++) {
+            Product product = new Product();
+            product.setName("鍵集商品" + i);
+            product.setProductNo("K000" + i);
+            product.setPrice(BigDecimal.valueOf(prices[i]));
+            product.setStatus(ProductStatus.OPEN);
+            product.setStock(1);
+            products.add(productRepository.save(product));
+        }
+        java.util.List<Long> expected = products.stream()
+                .sorted(java.util.Comparator.comparing(Product::getPrice).reversed()
+                        .thenComparing(Product::getId, java.util.Comparator.reverseOrder()))
+                .map(Product::getId)
+                .toList();
+
+        java.util.List<Long> actual = new java.util.ArrayList<>();
+        String cursor = null;
+        do {
+            var request = get("/admin/v1/products/cursor")
+                    .param("name", "鍵集")
+                    .param("sortBy", "price")
+                    .param("sortDir", "desc")
+                    .param("size", "3");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            String response = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            com.fasterxml.jackson.databind.JsonNode data = objectMapper.readTree(response).get("data");
+            data.get("items").forEach(item -> actual.add(item.get("id").asLong()));
+            cursor = data.get("hasNext").asBoolean() ? data.get("nextCursor").asText() : null;
+        } while (cursor != null);
+
+        assertThat(actual).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    @DisplayName("查詢商品列表-cursor 與排序條件不符")
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testSearchProductsByCursorMismatch() throws Exception {
+        String response = mockMvc.perform(get("/admin/v1/products/cursor")
+                .param("sortBy", "name")
+                .param("size", "1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(response).at("/data/nextCursor").asText();
+
+        mockMvc.perform(get("/admin/v1/products/cursor")
+                .param("sortBy", "price")
+                .param("cursor", cursor))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/admin/v1/products/cursor")
+                .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("批次匯入商品-CSV 逐筆驗證並回報失敗行號")
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testImportProductsCsv() throws Exception {
+        String csv = "name,description,price,stock,status,start_at\n"
+                + "匯入商品A,\"含逗號, 與\n換行的描述\",120.50,3,OPEN,2025-01-01T00:00:00\n"
+                + "\n"
+                + "匯入商品B,,abc,3,OPEN,\n"
+                + ",,10,-1,UNKNOWN,\n"
+                + "匯入商品C,,99,0,hidden,2025-02-01 10:00:00\n";
+
+        String response = mockMvc.perform(post("/admin/v1/products/import")
+                .contentType("text/csv")
+                .content(csv.getBytes(java.nio.charset.StandardCharsets.UTF_8)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.total").value(4))
+                .andExpect(jsonPath("$.data.imported").value(2))
+                .andExpect(jsonPath("$.data.failed").value(2))
+                .andExpect(jsonPath("$.data.aborted").value(false))
+                .andExpect(jsonPath("$.data.errors[0].line").value(5))
+                .andExpect(jsonPath("$.data.errors[0].message").value("價格格式不正確"))
+                .andExpect(jsonPath("$.data.errors[1].line").value(6))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(objectMapper.readTree(response).at("/data/errors/1/message").asText())
+                .contains("商品名稱不能為空", "庫存數量不能為負數", "商品狀態不正確: UNKNOWN");
+
+        java.util.List<Product> imported = productRepository.findAll().stream()
+                .filter(p -> p.getName().startsWith("匯入商品"))
+                .sorted(java.util.Comparator.comparing(Product::getName))
+                .toList();
+        assertThat(imported).extracting(Product::getName).containsExactly("匯入商品A", "匯入商品C");
+        assertThat(imported.get(0).getDescription()).isEqualTo("含逗號, 與\n換行的描述");
+        assertThat(imported.get(0).getPrice()).isEqualByComparingTo("120.50");
+        assertThat(imported.get(1).getStatus()).isEqualTo(ProductStatus.HIDDEN);
+        assertThat(imported.get(1).getStartAt()).isEqualTo(java.time.LocalDateTime.of(2025, 2, 1, 10, 0));
+        assertThat(imported).allSatisfy(p -> assertThat(p.getProductNo()).hasSize(10));
+    }
+
+    @Test
+    @DisplayName("批次匯入商品-NDJSON")
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testImportProductsNdjson() throws Exception {
+        String ndjson = "{\"name\":\"匯入JSON商品\",\"price\":19.99,\"stock\":5,\"startAt\":\"2025-03-01T00:00:00\"}\n"
+                + "{\"name\":\"壞掉的一行\"\n"
+                + "[1,2]\n";
+
+        mockMvc.perform(post("/admin/v1/products/import")
+                .param("format", "NDJSON")
+                .contentType("application/x-ndjson")
+                .content(ndjson.getBytes(java.nio.charset.StandardCharsets.UTF_8)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.total").value(3))
+                .andExpect(jsonPath("$.data.imported").value(1))
+                .andExpect(jsonPath("$.data.errors[0].line").value(2))
+                .andExpect(jsonPath("$.data.errors[1].line").value(3));
+
+        Product product = productRepository.findAll().stream()
+                .filter(p -> p.getName().equals("匯入JSON商品"))
+                .findFirst().orElseThrow();
+        assertThat(product.getPrice()).isEqualByComparingTo("19.99");
+        assertThat(product.getStatus()).isEqualTo(ProductStatus.OPEN);
+    }
+
+    @Test
+    @DisplayName("批次匯入商品-標題列缺少必要欄位")
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testImportProductsMissingColumn() throws Exception {
+        mockMvc.perform(post("/admin/v1/products/import")
+                .contentType("text/csv")
+                .content("name,price\n商品,10\n"))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -0,0 +1,261 @@
+package com.example.demo.controller.backend;
+
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderItem;
+import com.example.demo.entity.Product;
+import com.example.demo.entity.User;
+import com.example.demo.enums.OrderStatus;
+import com.example.demo.enums.ProductStatus;
+import com.example.demo.enums.UserRole;
+import com.example.demo.repository.OrderRepository;
+import com.example.demo.repository.ProductRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.SalesRollupService;
+import com.example.demo.stats.ProductViewCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class ReportControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private SalesRollupService salesRollupService;
+    @Autowired
+    private ProductViewCounter productViewCounter;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String today = LocalDate.now().toString();
+    private Product product1;
+    private Product product2;
+    private Order pending;
+    private Order cancelled;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        User buyer = new User();
+        buyer.setEmail("buyer@example.com");
+        buyer.setPassword("password");
+        buyer.setName("買家");
+        buyer.setRoles(Set.of(UserRole.USER));
+        buyer.setEnabled(true);
+        buyer = userRepository.save(buyer);
+
+        product1 = saveProduct("P0001", BigDecimal.valueOf(100));
+        product2 = saveProduct("P0002", BigDecimal.valueOf(50));
+
+        pending = saveOrder(buyer, "ORD0001", item(product1, 2), item(product2, 1));
+        cancelled = saveOrder(buyer, "ORD0002", item(product1, 1));
+        salesRollupService.recordCreated(pending.getId(), OrderStatus.PENDING);
+        salesRollupService.recordCreated(cancelled.getId(), OrderStatus.PENDING);
+
+        mockMvc.perform(post("/admin/v1/orders/cancel")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orderIds\":[" + cancelled.getId() + "]}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("銷售合計 - 訂單成立與取消後依狀態累加")
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testStatusSummary() throws Exception {
+        expectSummary(mockMvc.perform(get("/admin/v1/reports/sales/summary").param("from", today).param("to", today)));
+    }
+
+    @Test
+    @DisplayName("銷售彙總重建 - 結果與增量累加一致")
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testRebuild_MatchesIncremental() throws Exception {
+        mockMvc.perform(post("/admin/v1/reports/sales/rebuild").param("from", today).param("to", today))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.days").value(1));
+
+        expectSummary(mockMvc.perform(get("/admin/v1/reports/sales/summary").param("from", today).param("to", today)));
+    }
+
+    @Test
+    @DisplayName("訂單層級彙總 - 不同訂單分散到不同分片列，合計不變")
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testOrderLevelRowsAreSharded() throws Exception {
+        Integer shards = jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT product_id) FROM sales_rollup_daily WHERE product_id <= 0", Integer.class);
+        assertThat(shards).isEqualTo(2);
+
+        expectSummary(mockMvc.perform(get("/admin/v1/reports/sales/summary").param("from", today).param("to", today)));
+    }
+
+    @Test
+    @DisplayName("每日與每小時銷售 - 預設排除已取消訂單並補齊空白時段")
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testDailyAndHourlySales() throws Exception {
+        String yesterday = LocalDate.now().minusDays(1).toString();
+        mockMvc.perform(get("/admin/v1/reports/sales/daily").param("from", yesterday).param("to", today))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(2))
+                .andExpect(jsonPath("$.data[0].period").value(yesterday))
+                .andExpect(jsonPath("$.data[0].orderCount").value(0))
+                .andExpect(jsonPath("$.data[1].revenue").value(250.0))
+                .andExpect(jsonPath("$.data[1].units").value(3))
+                .andExpect(jsonPath("$.data[1].orderCount").value(1));
+
+        mockMvc.perform(get("/admin/v1/reports/sales/daily").param("from", today).param("to", today)
+                        .param("status", "CANCELLED"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].revenue").value(100.0));
+
+        LocalDateTime hour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        mockMvc.perform(get("/admin/v1/reports/sales/hourly")
+                        .param("from", hour.minusHours(1).toString())
+                        .param("to", hour.plusHours(1).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(2))
+                .andExpect(jsonPath("$.data[0].orderCount").value(0))
+                .andExpect(jsonPath("$.data[1].revenue").value(250.0));
+    }
+
+    @Test
+    @DisplayName("商品銷售排行 - 依營收排序")
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testTopProducts() throws Exception {
+        mockMvc.perform(get("/admin/v1/reports/sales/products").param("from", today).param("to", today))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(2))
+                .andExpect(jsonPath("$.data[0].productId").value(product1.getId()))
+                .andExpect(jsonPath("$.data[0].productName").value("商品P0001"))
+                .andExpect(jsonPath("$.data[0].revenue").value(200.0))
+                .andExpect(jsonPath("$.data[0].units").value(2))
+                .andExpect(jsonPath("$.data[1].productId").value(product2.getId()));
+    }
+
+    @Test
+    @DisplayName("商品瀏覽排行 - 瀏覽次數寫入後依次數排序並累加")
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testTopViewedProducts() throws Exception {
+        viewProduct(product1, 2);
+        viewProduct(product2, 3);
+        productViewCounter.flush();
+
+        mockMvc.perform(get("/admin/v1/reports/products/views"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(2))
+                .andExpect(jsonPath("$.data[0].productId").value(product2.getId()))
+                .andExpect(jsonPath("$.data[0].viewCount").value(3))
+                .andExpect(jsonPath("$.data[1].productId").value(product1.getId()))
+                .andExpect(jsonPath("$.data[1].viewCount").value(2));
+
+        viewProduct(product1, 2);
+        assertThat(productViewCounter.flush()).isEqualTo(2);
+        assertThat(productViewCounter.flush()).isZero();
+
+        mockMvc.perform(get("/admin/v1/reports/products/views"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].productId").value(product1.getId()))
+                .andExpect(jsonPath("$.data[0].viewCount").value(4));
+    }
+
+    @Test
+    @DisplayName("銷售報表 - 區間錯誤")
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testInvalidRange() throws Exception {
+        mockMvc.perform(get("/admin/v1/reports/sales/daily").param("from", today).param("to", "2000-01-01"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/admin/v1/reports/sales/daily").param("from", "2000-01-01").param("to", today))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("銷售報表 - 非管理員")
+    @WithMockUser(username = "user", roles = {"USER"})
+    void testForbidden() throws Exception {
+        mockMvc.perform(get("/admin/v1/reports/sales/summary").param("from", today).param("to", today))
+                .andExpect(status().isForbidden());
+    }
+
+    private void viewProduct(Product product, int times) throws Exception {
+        for (int i = 0; i < times; i++) {
+            mockMvc.perform(get("/api/v1/products/" + product.getId()))
+                    .andExpect(jsonPath("$.success").value(true));
+        }
+    }
+
+    private void expectSummary(ResultActions result) throws Exception {
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(2))
+                .andExpect(jsonPath("$.data[?(@.status == 'PENDING')].revenue").value(250.0))
+                .andExpect(jsonPath("$.data[?(@.status == 'PENDING')].units").value(3))
+                .andExpect(jsonPath("$.data[?(@.status == 'PENDING')].orderCount").value(1))
+                .andExpect(jsonPath("$.data[?(@.status == 'CANCELLED')].revenue").value(100.0))
+                .andExpect(jsonPath("$.data[?(@.status == 'CANCELLED')].orderCount").value(1));
+    }
+
+    private Product saveProduct(String productNo, BigDecimal price) {
+        Product product = new Product();
+        product.setName("商品" + productNo);
+        product.setProductNo(productNo);
+        product.setPrice(price);
+        product.setStatus(ProductStatus.OPEN);
+        product.setStock(10);
+        product.setStartAt(LocalDateTime.now().minusDays(1));
+        product.setEndAt(LocalDateTime.now().plusDays(1));
+        return productRepository.save(product);
+    }
+
+    private Order saveOrder(User buyer, String orderNumber, OrderItem... items) {
+        Order order = new Order();
+        order.setOrderNumber(orderNumber);
+        order.setUserId(buyer.getId());
+        order.setStatus(OrderStatus.PENDING);
+        order.setTotalAmount(BigDecimal.ZERO);
+        order.setReceiverName("買家");
+        order.setReceiverPhone("0912345678");
+        order.setReceiverAddress("台北市");
+        order = orderRepository.save(order);
+        for (OrderItem item : items) {
+            item.setOrderId(order.getId());
+            order.addOrderItem(item);
+        }
+        order.calculateTotalAmount();
+        return orderRepository.saveAndFlush(order);
+    }
+
+    private OrderItem item(Product product, int quantity) {
+        return OrderItem.builder()
+                .productId(product.getId())
+                .productName(product.getName())
+                .price(product.getPrice())
+                .quantity(quantity)
+                .subtotal(product.getPrice().multiply(BigDecimal.valueOf(quantity)))
+                .build();
+    }
+}
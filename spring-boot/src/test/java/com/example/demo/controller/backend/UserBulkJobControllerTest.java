@@ -0,0 +1,149 @@
+package com.example.demo.controller.backend;
+
+import com.example.demo.dto.request.backend.BulkUserRequest;
+import com.example.demo.entity.User;
+import com.example.demo.event.UserChangedEvent;
+import com.example.demo.enums.BulkJobStatus;
+import com.example.demo.enums.BulkUserAction;
+import com.example.demo.enums.UserRole;
+import com.example.demo.repository.BulkUserJobRepository;
+import com.example.demo.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * 批次用戶管理作業測試
+ * 作業在背景執行緒以獨立交易處理，測試資料須先提交，結束後自行清除
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserBulkJobControllerTest {
+
+    private static final String OPERATOR = "bulk-admin@example.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BulkUserJobRepository bulkUserJobRepository;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        users.add(saveUser("批次管理員", OPERATOR, UserRole.ADMIN));
+        for (int i = 0; i < 3; i++) {
+            users.add(saveUser("批次用戶" + i, "bulk-user-" + i + "@example.com", UserRole.USER));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll(users);
+        bulkUserJobRepository.deleteAll();
+        // 直接刪除不經過服務層，手動通知快取移除操作者的 id 對應
+        eventPublisher.publishEvent(new UserChangedEvent(targetIds()));
+    }
+
+    private User saveUser(String name, String email, UserRole role) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(email);
+        user.setPassword("password");
+        user.setRoles(new HashSet<>(Set.of(role)));
+        user.setEnabled(true);
+        return userRepository.save(user);
+    }
+
+    private List<Long> targetIds() {
+        return users.stream().map(User::getId).toList();
+    }
+
+    private JsonNode runJob(BulkUserRequest request) throws Exception {
+        String response = mockMvc.perform(post("/admin/v1/users/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        String jobId = objectMapper.readTree(response).at("/data/jobId").asText();
+
+        for (int i = 0; i < 100; i++) {
+            String progress = mockMvc.perform(get("/admin/v1/users/bulk/" + jobId))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode data = objectMapper.readTree(progress).get("data");
+            if (!BulkJobStatus.RUNNING.name().equals(data.get("status").asText())) {
+                return data;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("批次作業未在時限內完成");
+    }
+
+    @Test
+    @DisplayName("批次停用用戶並略過操作者本人，進度寫入資料表")
+    @WithMockUser(username = OPERATOR, roles = {"ADMIN"})
+    void testBulkDisable() throws Exception {
+        BulkUserRequest request = new BulkUserRequest();
+        request.setAction(BulkUserAction.DISABLE);
+        request.setUserIds(targetIds());
+
+        JsonNode job = runJob(request);
+
+        assertThat(job.get("status").asText()).isEqualTo("COMPLETED");
+        assertThat(job.get("processed").asLong()).isEqualTo(4);
+        assertThat(job.get("affected").asLong()).isEqualTo(3);
+        assertThat(job.get("skipped").asLong()).isEqualTo(1);
+        assertThat(userRepository.findAllById(targetIds()))
+                .allSatisfy(user -> assertThat(user.getEnabled()).isEqualTo(user.getEmail().equals(OPERATOR)));
+        assertThat(bulkUserJobRepository.findById(job.get("jobId").asText()))
+                .hasValueSatisfying(saved -> {
+                    assertThat(saved.getStatus()).isEqualTo(BulkJobStatus.COMPLETED);
+                    assertThat(saved.getAffected()).isEqualTo(3);
+                    assertThat(saved.getFinishedAt()).isNotNull();
+                });
+    }
+
+    @Test
+    @DisplayName("批次加入角色只計算實際新增的列")
+    @WithMockUser(username = OPERATOR, roles = {"ADMIN"})
+    void testBulkAddRole() throws Exception {
+        BulkUserRequest request = new BulkUserRequest();
+        request.setAction(BulkUserAction.ADD_ROLE);
+        request.setRole(UserRole.ADMIN);
+        request.setUserIds(targetIds());
+
+        assertThat(runJob(request).get("affected").asLong()).isEqualTo(3);
+        assertThat(runJob(request).get("affected").asLong()).isZero();
+        assertThat(userRepository.findAllById(targetIds()))
+                .allSatisfy(user -> assertThat(user.getRoles()).contains(UserRole.ADMIN));
+
+        request.setAction(BulkUserAction.REMOVE_ROLE);
+        assertThat(runJob(request).get("affected").asLong()).isEqualTo(3);
+    }
+}
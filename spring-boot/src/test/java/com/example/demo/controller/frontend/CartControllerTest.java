@@ -111,6 +111,8 @@ class CartControllerTest {
         // 建立測試購物車
         testCart = new Cart();
         testCart.setUserId(testUser.getId());
+        // 與下方建立的 1 個項目一致
+        testCart.setItemCount(1);
         testCart = cartRepository.save(testCart);
 
         // 建立測試購物車項目
@@ -216,6 +218,54 @@ class CartControllerTest {
                 .andExpect(jsonPath("$.message").value("商品庫存不足"));
     }
 
+    @Test
+    @DisplayName("添加商品到購物車 - 已存在的商品累加數量，累加後超過庫存則拒絕")
+
+    void testAddToCart_ExistingItemAccumulates() throws Exception {
+        AddToCartRequest request = new AddToCartRequest();
+        request.setProductId(testProduct1.getId());
+        request.setQuantity(3);
+
+        mockMvc.perform(post("/api/v1/cart/items")
+                        .with(authentication(authentication))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items[0].quantity").value(5));
+
+        // 已有 5 件，再加 46 件超過庫存 50
+        request.setQuantity(46);
+        mockMvc.perform(post("/api/v1/cart/items")
+                        .with(authentication(authentication))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("商品庫存不足"));
+
+        CartItem item = cartItemRepository.findById(testCartItem.getId()).orElseThrow();
+        assertThat(item.getQuantity()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("添加商品到購物車 - 首次加入時建立購物車")
+
+    void testAddToCart_CreatesCart() throws Exception {
+        cartItemRepository.deleteAllLines(testCart.getId());
+        cartRepository.delete(testCart);
+
+        AddToCartRequest request = new AddToCartRequest();
+        request.setProductId(testProduct2.getId());
+        request.setQuantity(1);
+
+        mockMvc.perform(post("/api/v1/cart/items")
+                        .with(authentication(authentication))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.userId").value(testUser.getId()))
+                .andExpect(jsonPath("$.data.items[0].productId").value(testProduct2.getId()));
+    }
+
     @Test
     @DisplayName("更新購物車項目數量 - 成功")
 
@@ -266,6 +316,101 @@ class CartControllerTest {
         assertThat(cartItemRepository.findById(testCartItem.getId())).isEmpty();
     }
 
+    @Test
+    @DisplayName("切換勾選狀態 - Prefer: return=delta 只回傳異動項目與總計")
+
+    void testToggleCartItemChecked_Delta() throws Exception {
+        CartItem item2 = new CartItem();
+        item2.setCartId(testCart.getId());
+        item2.setProductId(testProduct2.getId());
+        item2.setQuantity(1);
+        item2.setChecked(true);
+        cartItemRepository.save(item2);
+
+        mockMvc.perform(patch("/api/v1/cart/items/" + testCartItem.getId() + "/toggle")
+                        .with(authentication(authentication))
+                        .header("Prefer", "return=delta"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Preference-Applied", "return=delta"))
+                .andExpect(jsonPath("$.message").value("切換勾選狀態成功"))
+                .andExpect(jsonPath("$.data.version").value(1))
+                .andExpect(jsonPath("$.data.items.length()").value(1))
+                .andExpect(jsonPath("$.data.items[0].id").value(testCartItem.getId()))
+                .andExpect(jsonPath("$.data.items[0].checked").value(false))
+                .andExpect(jsonPath("$.data.removedItemIds").isEmpty())
+                .andExpect(jsonPath("$.data.totalItems").value(2))
+                .andExpect(jsonPath("$.data.totalAmount").value(200));
+    }
+
+    @Test
+    @DisplayName("刪除購物車項目 - Prefer: return=delta 回傳被刪除的項目ID")
+
+    void testRemoveCartItem_Delta() throws Exception {
+        mockMvc.perform(delete("/api/v1/cart/items/" + testCartItem.getId())
+                        .with(authentication(authentication))
+                        .header("Prefer", "return=delta"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items").isEmpty())
+                .andExpect(jsonPath("$.data.removedItemIds[0]").value(testCartItem.getId()))
+                .andExpect(jsonPath("$.data.totalItems").value(0))
+                .andExpect(jsonPath("$.data.totalAmount").value(0));
+
+        assertThat(cartRepository.findById(testCart.getId()).orElseThrow().getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("批次操作購物車 - 成功")
+
+    void testApplyBatch_Success() throws Exception {
+        String body = """
+                {"operations": [
+                  {"type": "UPDATE", "cartItemId": %d, "quantity": 4},
+                  {"type": "TOGGLE", "cartItemId": %d},
+                  {"type": "ADD", "productId": %d, "quantity": 2},
+                  {"type": "ADD", "productId": %d, "quantity": 1}
+                ]}
+                """.formatted(testCartItem.getId(), testCartItem.getId(), testProduct2.getId(), testProduct2.getId());
+
+        mockMvc.perform(post("/api/v1/cart/batch")
+                        .with(authentication(authentication))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("批次更新購物車成功"))
+                .andExpect(jsonPath("$.data.totalItems").value(2))
+                .andExpect(jsonPath("$.data.totalAmount").value(600))
+                .andExpect(jsonPath("$.data.version").value(1));
+
+        CartItem updated = cartItemRepository.findById(testCartItem.getId()).orElseThrow();
+        assertThat(updated.getQuantity()).isEqualTo(4);
+        assertThat(updated.getChecked()).isFalse();
+        CartItem added = cartItemRepository.findByCartIdAndProductId(testCart.getId(), testProduct2.getId()).orElseThrow();
+        assertThat(added.getQuantity()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("批次操作購物車 - 任一操作失敗時全部不生效")
+
+    void testApplyBatch_AllOrNothing() throws Exception {
+        String body = """
+                {"operations": [
+                  {"type": "UPDATE", "cartItemId": %d, "quantity": 4},
+                  {"type": "ADD", "productId": %d, "quantity": 31}
+                ]}
+                """.formatted(testCartItem.getId(), testProduct2.getId());
+
+        mockMvc.perform(post("/api/v1/cart/batch")
+                        .with(authentication(authentication))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("商品庫存不足：測試商品2"));
+
+        CartItem unchanged = cartItemRepository.findById(testCartItem.getId()).orElseThrow();
+        assertThat(unchanged.getQuantity()).isEqualTo(2);
+        assertThat(cartItemRepository.findByCartIdAndProductId(testCart.getId(), testProduct2.getId())).isEmpty();
+    }
+
     @Test
     @DisplayName("切換購物車項目的勾選狀態")
 
@@ -450,6 +595,53 @@ class CartControllerTest {
                 .andExpect(jsonPath("$.message").value(org.hamcrest.Matchers.containsString("庫存不足")));
     }
 
+    @Test
+    @DisplayName("獲取購物車項目數量 - 異動後項目數同步更新")
+    void testGetCartItemCount_UpdatedByMutations() throws Exception {
+        AddToCartRequest request = new AddToCartRequest();
+        request.setProductId(testProduct2.getId());
+        request.setQuantity(1);
+        mockMvc.perform(post("/api/v1/cart/items")
+                        .with(authentication(authentication))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+        assertThat(cartRepository.findById(testCart.getId()).orElseThrow().getItemCount()).isEqualTo(2);
+
+        mockMvc.perform(delete("/api/v1/cart/items/checked")
+                        .with(authentication(authentication)))
+                .andExpect(status().isOk());
+        assertThat(cartRepository.findById(testCart.getId()).orElseThrow().getItemCount()).isZero();
+
+        mockMvc.perform(get("/api/v1/cart/count")
+                        .with(authentication(authentication)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data").value(0));
+    }
+
+    @Test
+    @DisplayName("驗證購物車 - 驗證失敗時仍保留自動修正")
+    void testValidateCart_FixesPersist() throws Exception {
+        testProduct1.setStock(1);
+        productRepository.save(testProduct1);
+        CartItem outOfStockItem = cartItemRepository.save(CartItem.builder()
+                .cartId(testCart.getId())
+                .productId(testProduct2.getId())
+                .quantity(1)
+                .checked(true)
+                .build());
+        testProduct2.setStock(0);
+        productRepository.save(testProduct2);
+
+        mockMvc.perform(post("/api/v1/cart/validate")
+                        .with(authentication(authentication)))
+                .andExpect(status().isBadRequest());
+
+        // 數量調整為庫存，零庫存項目取消勾選
+        assertThat(cartItemRepository.findById(testCartItem.getId()).orElseThrow().getQuantity()).isEqualTo(1);
+        assertThat(cartItemRepository.findById(outOfStockItem.getId()).orElseThrow().getChecked()).isFalse();
+    }
+
     @Test
     @DisplayName("未登入用戶無法訪問購物車")
     void testAccessCart_Unauthorized() throws Exception {
@@ -3,9 +3,13 @@ package com.example.demo.controller.frontend;
 import com.example.demo.dto.request.frontend.CreateOrderRequest;
 import com.example.demo.entity.*;
 import com.example.demo.enums.OrderStatus;
+import com.example.demo.enums.OutboxAggregateType;
+import com.example.demo.enums.OutboxEventType;
 import com.example.demo.enums.ProductStatus;
 import com.example.demo.enums.UserRole;
 import com.example.demo.repository.*;
+import com.example.demo.outbox.InMemoryOutboxSink;
+import com.example.demo.outbox.OutboxRelay;
 import com.example.demo.security.CustomUserDetails;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -67,6 +71,15 @@ class OrderControllerTest {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private InMemoryOutboxSink outboxSink;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
     private User testUser;
     private Product testProduct1;
     private Product testProduct2;
@@ -471,7 +484,7 @@ class OrderControllerTest {
                 .andExpect(status().isOk());
 
         // 重新添加購物車項目（先刪除可能存在的舊項目）
-        cartItemRepository.deleteByCartId(testCart.getId());
+        cartItemRepository.deleteAllLines(testCart.getId());
 
         CartItem newCartItem = new CartItem();
         newCartItem.setCartId(testCart.getId());
@@ -686,6 +699,52 @@ class OrderControllerTest {
         assertThat(product.getStock()).isEqualTo(stockBeforeCancel + orderQuantity); // 48 + 2 = 50
     }
 
+    @Test
+    @DisplayName("外寄箱 - 訂單成立與取消事件依聚合順序送出後刪除")
+    void testCreateAndCancelOrder_OutboxEventsRelayedInOrder() throws Exception {
+        outboxSink.clear();
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setReceiverName("李四");
+        request.setReceiverPhone("0987654321");
+        request.setReceiverAddress("新北市板橋區中山路一段1號");
+
+        String response = mockMvc.perform(post("/api/v1/orders")
+                        .with(authentication(authentication))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long orderId = objectMapper.readTree(response).at("/data/id").asLong();
+
+        mockMvc.perform(patch("/api/v1/orders/" + orderId + "/cancel")
+                        .with(authentication(authentication)))
+                .andExpect(status().isOk());
+
+        // 事件在交易提交前已寫入外寄箱
+        assertThat(outboxEventRepository.findByAggregateTypeAndAggregateIdOrderById(OutboxAggregateType.ORDER, orderId))
+                .extracting(OutboxEvent::getEventType)
+                .containsExactly(OutboxEventType.ORDER_CREATED, OutboxEventType.ORDER_CANCELLED);
+
+        // 每批只送出各聚合最早的事件，需要多批才能送完
+        int batches = 0;
+        while (outboxRelay.relayBatch() > 0) {
+            batches++;
+        }
+        assertThat(batches).isEqualTo(2);
+        assertThat(outboxEventRepository.count()).isZero();
+
+        List<OutboxEvent> delivered = outboxSink.getEvents();
+        assertThat(delivered)
+                .filteredOn(e -> e.getAggregateType() == OutboxAggregateType.ORDER && e.getAggregateId() == orderId)
+                .extracting(OutboxEvent::getEventType)
+                .containsExactly(OutboxEventType.ORDER_CREATED, OutboxEventType.ORDER_CANCELLED);
+        assertThat(delivered)
+                .filteredOn(e -> e.getAggregateType() == OutboxAggregateType.PRODUCT
+                        && e.getAggregateId().equals(testProduct1.getId()))
+                .extracting(e -> objectMapper.readTree(e.getPayload()).get("delta").asInt())
+                .containsExactly(-2, 2);
+    }
+
     @Test
     @DisplayName("查詢訂單 - 按不同狀態查詢")
     void testGetUserOrders_ByDifferentStatuses() throws Exception {
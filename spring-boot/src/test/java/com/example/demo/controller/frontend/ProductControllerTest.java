@@ -1,8 +1,22 @@
 package com.example.demo.controller.frontend;
 
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderItem;
 import com.example.demo.entity.Product;
+import com.example.demo.entity.ProductStats;
+import com.example.demo.entity.User;
+import com.example.demo.enums.OrderStatus;
 import com.example.demo.enums.ProductStatus;
+import com.example.demo.enums.UserRole;
+import com.example.demo.event.ProductChangedEvent;
+import com.example.demo.event.ProductSalesEvent;
+import com.example.demo.ranking.BestsellerRanking;
+import com.example.demo.ranking.RelatedProductIndex;
+import com.example.demo.repository.OrderRepository;
 import com.example.demo.repository.ProductRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.search.ProductSuggestIndex;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -15,7 +29,12 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -29,10 +48,29 @@ class ProductControllerTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private BestsellerRanking bestsellerRanking;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private RelatedProductIndex relatedProductIndex;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductSuggestIndex productSuggestIndex;
+
+    @Autowired
+    private EntityManager entityManager;
+
     private Long availableProductId;
     private Long notYetAvailableProductId;
     private Long unavailableProductId;
     private Long hiddenProductId;
+    private Long buyerId;
 
     @BeforeEach
     void setUp() {
@@ -132,4 +170,183 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.success").value(false))
                 .andExpect(jsonPath("$.message").value("商品不存在或未上架/已關閉"));
     }
+
+    @Test
+    @DisplayName("前台熱銷排行-依衰減銷量排序並略過未上架/已下架/關閉商品")
+    void testGetBestsellers() throws Exception {
+        Product p5 = new Product();
+        p5.setName("前台商品B");
+        p5.setProductNo("F005");
+        p5.setPrice(BigDecimal.valueOf(150));
+        p5.setStatus(ProductStatus.OPEN);
+        p5.setStock(10);
+        p5.setStartAt(LocalDateTime.now().minusDays(1));
+        p5.setEndAt(LocalDateTime.now().plusDays(10));
+        Long secondProductId = productRepository.save(p5).getId();
+
+        // 排行為共用的單例，數量取大值排在其他測試留下的紀錄之前，結束後扣回
+        Map<Long, Integer> sold = Map.of(
+                availableProductId, 2_000_000,
+                secondProductId, 1_000_000,
+                notYetAvailableProductId, 5_000_000,
+                unavailableProductId, 4_000_000,
+                hiddenProductId, 3_000_000);
+        long soldAt = System.currentTimeMillis();
+        bestsellerRanking.record(sold, soldAt);
+        try {
+            mockMvc.perform(get("/api/v1/products/bestsellers").param("limit", "2").accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.success").value(true))
+                    .andExpect(jsonPath("$.data.length()").value(2))
+                    .andExpect(jsonPath("$.data[0].rank").value(1))
+                    .andExpect(jsonPath("$.data[0].product.id").value(availableProductId))
+                    .andExpect(jsonPath("$.data[1].rank").value(2))
+                    .andExpect(jsonPath("$.data[1].product.name").value("前台商品B"));
+        } finally {
+            Map<Long, Integer> cancelled = new HashMap<>();
+            sold.forEach((productId, quantity) -> cancelled.put(productId, -quantity));
+            bestsellerRanking.record(cancelled, soldAt);
+        }
+    }
+
+    @Test
+    @DisplayName("前台熱銷排行-筆數超出範圍")
+    void testGetBestsellers_invalidLimit() throws Exception {
+        mockMvc.perform(get("/api/v1/products/bestsellers").param("limit", "0").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("前台關聯商品-依共同購買次數排序，略過次數不足與關閉商品，新訂單寫入後更新")
+    void testGetRelatedProducts() throws Exception {
+        User buyer = new User();
+        buyer.setEmail("buyer@example.com");
+        buyer.setPassword("password");
+        buyer.setName("買家");
+        buyer.setRoles(Set.of(UserRole.USER));
+        buyer.setEnabled(true);
+        buyerId = userRepository.save(buyer).getId();
+
+        Long secondProductId = saveAvailableProduct("前台商品B", "F005");
+        Long thirdProductId = saveAvailableProduct("前台商品C", "F006");
+        Long onceProductId = saveAvailableProduct("前台商品D", "F007");
+        saveOrder(availableProductId, secondProductId);
+        saveOrder(availableProductId, secondProductId);
+        saveOrder(availableProductId, thirdProductId);
+        saveOrder(availableProductId, thirdProductId);
+        saveOrder(availableProductId, thirdProductId);
+        saveOrder(availableProductId, hiddenProductId);
+        saveOrder(availableProductId, hiddenProductId);
+        saveOrder(availableProductId, onceProductId);
+        saveOrder(OrderStatus.CANCELLED, availableProductId, onceProductId);
+
+        relatedProductIndex.rebuild();
+
+        mockMvc.perform(get("/api/v1/products/" + availableProductId + "/related").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data.length()").value(2))
+                .andExpect(jsonPath("$.data[0].id").value(thirdProductId))
+                .andExpect(jsonPath("$.data[1].id").value(secondProductId));
+        mockMvc.perform(get("/api/v1/products/" + secondProductId + "/related").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(1))
+                .andExpect(jsonPath("$.data[0].id").value(availableProductId));
+
+        // 新訂單提交後的事件只標記待更新，寫入後才反映
+        for (int i = 0; i < 2; i++) {
+            Order order = saveOrder(availableProductId, secondProductId);
+            relatedProductIndex.onProductSales(ProductSalesEvent.ordered(order.getId(), order.getOrderItems(), order.getCreatedAt()));
+        }
+        assertThat(relatedProductIndex.flush()).isEqualTo(2);
+        // 測試交易中的持久化內容仍保留先前讀取的名次，清除後才讀到 JDBC 寫入的結果
+        entityManager.clear();
+
+        mockMvc.perform(get("/api/v1/products/" + availableProductId + "/related").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].id").value(secondProductId))
+                .andExpect(jsonPath("$.data[1].id").value(thirdProductId));
+    }
+
+    @Test
+    @DisplayName("前台商品名稱提示-依瀏覽權重排序，只回傳販售中商品，後台異動後更新")
+    void testSuggestProducts() throws Exception {
+        Long giftBoxId = saveAvailableProduct("禮盒 商品組", "F005");
+        entityManager.persist(ProductStats.builder()
+                .productId(giftBoxId).viewCount(30L).lastViewedAt(LocalDateTime.now()).build());
+        entityManager.flush();
+
+        productSuggestIndex.rebuild();
+
+        // 「商品」出現在名稱中段也能提示；未上架、已下架與關閉的商品不回傳
+        mockMvc.perform(get("/api/v1/products/suggest").param("q", "商品").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data.length()").value(2))
+                .andExpect(jsonPath("$.data[0].id").value(giftBoxId))
+                .andExpect(jsonPath("$.data[1].id").value(availableProductId));
+        mockMvc.perform(get("/api/v1/products/suggest").param("q", "前台ｓ").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.data.length()").value(0));
+
+        // 改名提交後重新讀取，舊名稱不再提示
+        Product product = productRepository.findById(availableProductId).orElseThrow();
+        product.setName("Summer 洋裝");
+        productRepository.saveAndFlush(product);
+        productSuggestIndex.onProductChanged(new ProductChangedEvent(List.of(availableProductId)));
+
+        mockMvc.perform(get("/api/v1/products/suggest").param("q", "SUM").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.data.length()").value(1))
+                .andExpect(jsonPath("$.data[0].name").value("Summer 洋裝"));
+        mockMvc.perform(get("/api/v1/products/suggest").param("q", "前台").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.data.length()").value(0));
+        mockMvc.perform(get("/api/v1/products/suggest").param("q", "商品").param("limit", "1").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.data.length()").value(1))
+                .andExpect(jsonPath("$.data[0].id").value(giftBoxId));
+    }
+
+    @Test
+    @DisplayName("前台商品名稱提示-筆數超出範圍")
+    void testSuggestProducts_invalidLimit() throws Exception {
+        mockMvc.perform(get("/api/v1/products/suggest").param("q", "商品").param("limit", "21").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Long saveAvailableProduct(String name, String productNo) {
+        Product product = new Product();
+        product.setName(name);
+        product.setProductNo(productNo);
+        product.setPrice(BigDecimal.valueOf(100));
+        product.setStatus(ProductStatus.OPEN);
+        product.setStock(10);
+        product.setStartAt(LocalDateTime.now().minusDays(1));
+        product.setEndAt(LocalDateTime.now().plusDays(10));
+        return productRepository.save(product).getId();
+    }
+
+    private Order saveOrder(Long... productIds) {
+        return saveOrder(OrderStatus.PENDING, productIds);
+    }
+
+    private Order saveOrder(OrderStatus status, Long... productIds) {
+        Order order = new Order();
+        order.setOrderNumber("ORD" + System.nanoTime());
+        order.setUserId(buyerId);
+        order.setStatus(status);
+        order.setTotalAmount(BigDecimal.valueOf(100L * productIds.length));
+        order.setReceiverName("買家");
+        order.setReceiverPhone("0912345678");
+        order.setReceiverAddress("台北市");
+        order = orderRepository.save(order);
+        for (Long productId : productIds) {
+            order.addOrderItem(OrderItem.builder()
+                    .orderId(order.getId())
+                    .productId(productId)
+                    .productName("商品")
+                    .price(BigDecimal.valueOf(100))
+                    .quantity(1)
+                    .subtotal(BigDecimal.valueOf(100))
+                    .build());
+        }
+        return orderRepository.saveAndFlush(order);
+    }
 }
@@ -0,0 +1,86 @@
+package com.example.demo.job;
+
+import com.example.demo.ranking.BestsellerRanking;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@SpringBootTest
+@Transactional
+class BestsellerSnapshotJobTest {
+
+    // 不與其他測試的商品ID重疊
+    private static final long PRODUCT_A = 9_000_001L;
+    private static final long PRODUCT_B = 9_000_002L;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private BestsellerRanking rankingA;
+    private BestsellerRanking rankingB;
+    private BestsellerSnapshotJob nodeA;
+    private BestsellerSnapshotJob nodeB;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.getJdbcTemplate().update("DELETE FROM bestseller_snapshot");
+        rankingA = new BestsellerRanking(24, 100, 0.01);
+        rankingB = new BestsellerRanking(24, 100, 0.01);
+        nodeA = new BestsellerSnapshotJob(rankingA, jdbcTemplate, transactionManager);
+        nodeB = new BestsellerSnapshotJob(rankingB, jdbcTemplate, transactionManager);
+    }
+
+    @Test
+    @DisplayName("多節點快照 - 各節點的銷量合併到共用快照，不互相覆蓋")
+    void testSnapshot_MergesNodes() {
+        nodeA.restore();
+        nodeB.restore();
+        long now = System.currentTimeMillis();
+        rankingA.record(Map.of(PRODUCT_A, 10), now);
+        rankingB.record(Map.of(PRODUCT_B, 6), now);
+
+        nodeA.snapshot();
+        nodeB.snapshot();
+        nodeA.snapshot();
+
+        for (BestsellerRanking ranking : List.of(rankingA, rankingB)) {
+            Map<Long, Double> scores = ranking.snapshot().scores();
+            assertThat(scores.get(PRODUCT_A)).isCloseTo(10, within(0.01));
+            assertThat(scores.get(PRODUCT_B)).isCloseTo(6, within(0.01));
+        }
+        Double stored = jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT SUM(score) FROM bestseller_snapshot WHERE product_id IN (?, ?)", Double.class, PRODUCT_A, PRODUCT_B);
+        assertThat(stored).isCloseTo(16, within(0.01));
+    }
+
+    @Test
+    @DisplayName("多節點快照 - 合併後的取消訂單仍由同一節點扣回")
+    void testSnapshot_CancelAfterMerge() {
+        nodeA.restore();
+        nodeB.restore();
+        long orderedAt = System.currentTimeMillis();
+        rankingA.record(Map.of(PRODUCT_A, 10), orderedAt);
+        nodeA.snapshot();
+        nodeB.snapshot();
+
+        rankingB.record(Map.of(PRODUCT_A, -4), orderedAt);
+        nodeB.snapshot();
+        nodeA.snapshot();
+
+        assertThat(rankingA.snapshot().scores().get(PRODUCT_A)).isCloseTo(6, within(0.01));
+        assertThat(rankingB.snapshot().scores().get(PRODUCT_A)).isCloseTo(6, within(0.01));
+    }
+}
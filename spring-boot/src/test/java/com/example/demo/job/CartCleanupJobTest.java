@@ -0,0 +1,139 @@
+package com.example.demo.job;
+
+import com.example.demo.entity.Cart;
+import com.example.demo.entity.CartItem;
+import com.example.demo.entity.Product;
+import com.example.demo.entity.User;
+import com.example.demo.enums.ProductStatus;
+import com.example.demo.enums.UserRole;
+import com.example.demo.repository.CartItemRepository;
+import com.example.demo.repository.CartRepository;
+import com.example.demo.repository.ProductRepository;
+import com.example.demo.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "app.cart.cleanup.enabled=true",
+        "app.cart.cleanup.ttl-days=90",
+        "app.cart.cleanup.chunk-size=2",
+        "app.cart.cleanup.pause-ms=0"
+})
+@Transactional
+class CartCleanupJobTest {
+
+    @Autowired
+    private CartCleanupJob cartCleanupJob;
+    @Autowired
+    private CartRepository cartRepository;
+    @Autowired
+    private CartItemRepository cartItemRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        product = new Product();
+        product.setName("清理商品");
+        product.setProductNo("PCLEAN001");
+        product.setPrice(BigDecimal.valueOf(100));
+        product.setStatus(ProductStatus.OPEN);
+        product.setStock(10);
+        product = productRepository.save(product);
+    }
+
+    private Long createCart(String email, int idleDays, int itemIdleDays) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("password");
+        user.setName("清理用戶");
+        user.setRoles(Set.of(UserRole.USER));
+        user.setEnabled(true);
+        user = userRepository.save(user);
+
+        Cart cart = cartRepository.save(Cart.builder().userId(user.getId()).build());
+        cartItemRepository.save(CartItem.builder()
+                .cartId(cart.getId())
+                .productId(product.getId())
+                .quantity(1)
+                .checked(true)
+                .build());
+        cartRepository.flush();
+        cartItemRepository.flush();
+        jdbcTemplate.update("UPDATE cart SET updated_at = NOW() - INTERVAL ? DAY WHERE id = ?", idleDays, cart.getId());
+        jdbcTemplate.update("UPDATE cart_item SET updated_at = NOW() - INTERVAL ? DAY WHERE cart_id = ?",
+                itemIdleDays, cart.getId());
+        return cart.getId();
+    }
+
+    private boolean cartExists(Long cartId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart WHERE id = ?", Integer.class, cartId) > 0;
+    }
+
+    private int itemCount(Long cartId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart_item WHERE cart_id = ?", Integer.class, cartId);
+    }
+
+    @Test
+    @DisplayName("清理 - 以購物車閒置時間判斷，使用中購物車的舊項目保留")
+    void testCleanup_RemovesWholeIdleCartsOnly() {
+        Long idleCart = createCart("cleanup-idle@example.com", 120, 120);
+        Long activeCart = createCart("cleanup-active@example.com", 1, 200);
+
+        cartCleanupJob.cleanup();
+
+        assertThat(cartExists(idleCart)).isFalse();
+        assertThat(itemCount(idleCart)).isZero();
+        assertThat(cartExists(activeCart)).isTrue();
+        assertThat(itemCount(activeCart)).isEqualTo(1);
+
+        assertThat(jdbcTemplate.queryForMap(
+                "SELECT last_id, last_processed, last_finished_at FROM job_checkpoint WHERE job_name = 'cart_cleanup'"))
+                .containsEntry("last_id", 0L)
+                .containsEntry("last_processed", 1L)
+                .extractingByKey("last_finished_at").isNotNull();
+    }
+
+    @Test
+    @DisplayName("清理 - 從檢查點繼續，檢查點之前的購物車留待下一輪")
+    void testCleanup_ResumesFromCheckpoint() {
+        Long first = createCart("cleanup-first@example.com", 120, 120);
+        Long second = createCart("cleanup-second@example.com", 120, 120);
+        jdbcTemplate.update("INSERT INTO job_checkpoint (job_name, last_id, run_processed) VALUES ('cart_cleanup', ?, 3)", first);
+
+        cartCleanupJob.cleanup();
+
+        assertThat(cartExists(first)).isTrue();
+        assertThat(cartExists(second)).isFalse();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT last_processed FROM job_checkpoint WHERE job_name = 'cart_cleanup'", Long.class)).isEqualTo(4L);
+    }
+
+    @Test
+    @DisplayName("清理 - 其他節點已在本輪開始後完成時不再處理")
+    void testCleanup_StopsWhenAnotherNodeFinished() {
+        Long idleCart = createCart("cleanup-other@example.com", 120, 120);
+        jdbcTemplate.update("INSERT INTO job_checkpoint (job_name, last_finished_at) " +
+                "VALUES ('cart_cleanup', NOW() + INTERVAL 1 MINUTE)");
+
+        cartCleanupJob.cleanup();
+
+        assertThat(cartExists(idleCart)).isTrue();
+    }
+}
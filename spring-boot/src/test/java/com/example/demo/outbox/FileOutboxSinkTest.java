@@ -0,0 +1,55 @@
+package com.example.demo.outbox;
+
+import com.example.demo.entity.OutboxEvent;
+import com.example.demo.enums.OutboxAggregateType;
+import com.example.demo.enums.OutboxEventType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileOutboxSinkTest {
+
+    @TempDir
+    Path dir;
+
+    private OutboxEvent event(long id) {
+        return OutboxEvent.builder()
+                .id(id)
+                .aggregateType(OutboxAggregateType.ORDER)
+                .aggregateId(id)
+                .eventType(OutboxEventType.ORDER_CREATED)
+                .payload("{\"orderId\":" + id + "}")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    @DisplayName("檔案出口 - 超過大小上限時輪替，只保留指定數量的舊檔")
+    void testDeliver_RotatesBySize() throws IOException {
+        Path path = dir.resolve("events.jsonl");
+        FileOutboxSink sink = new FileOutboxSink(new ObjectMapper(), path.toString(), 200, 2);
+
+        for (long id = 1; id <= 20; id++) {
+            sink.deliver(List.of(event(id)));
+        }
+
+        assertThat(Files.size(path)).isLessThanOrEqualTo(200);
+        assertThat(dir.resolve("events.jsonl.1")).exists();
+        assertThat(dir.resolve("events.jsonl.2")).exists();
+        assertThat(dir.resolve("events.jsonl.3")).doesNotExist();
+        // 最新的事件在目前的檔案，較舊的在 .1
+        List<String> current = Files.readAllLines(path);
+        assertThat(current.get(current.size() - 1)).contains("\"id\":20");
+        assertThat(Files.readAllLines(dir.resolve("events.jsonl.1")).get(0))
+                .doesNotContain("\"id\":20");
+    }
+}
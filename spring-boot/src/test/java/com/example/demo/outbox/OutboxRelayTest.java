@@ -0,0 +1,116 @@
+package com.example.demo.outbox;
+
+import com.example.demo.enums.OutboxAggregateType;
+import com.example.demo.enums.OutboxEventType;
+import com.example.demo.service.OutboxService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class OutboxRelayTest {
+
+    private static final long POISON_PRODUCT_ID = 666L;
+
+    @Autowired
+    private OutboxService outboxService;
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Long> delivered = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM outbox_events");
+    }
+
+    /**
+     * 批次中含有指定商品的事件時整批失敗
+     */
+    private OutboxRelay relay(int maxAttempts) {
+        OutboxSink sink = events -> {
+            if (events.stream().anyMatch(event -> event.getAggregateId() == POISON_PRODUCT_ID)) {
+                throw new IllegalStateException("下游拒收");
+            }
+            events.forEach(event -> delivered.add(event.getAggregateId()));
+        };
+        return new OutboxRelay(namedParameterJdbcTemplate, transactionManager, List.of(sink), 10, maxAttempts);
+    }
+
+    private void append(long productId, int quantity) {
+        outboxService.append(new OutboxMessage(OutboxAggregateType.PRODUCT, productId, OutboxEventType.STOCK_CHANGED,
+                new StockChangedPayload(productId, quantity, 1L)));
+    }
+
+    @Test
+    @DisplayName("轉送 - 失敗的事件只擋住自己的聚合，達上限後移到死信表")
+    void testRelayBatch_DeadLettersPoisonEvent() {
+        append(POISON_PRODUCT_ID, 1);
+        append(POISON_PRODUCT_ID, 2);
+        append(1L, 1);
+        OutboxRelay relay = relay(2);
+
+        // 同批其他聚合的事件照常送出
+        assertThat(relay.relayBatch()).isEqualTo(1);
+        assertThat(delivered).containsExactly(1L);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT MIN(attempts) FROM outbox_events WHERE aggregate_id = ?", Integer.class, POISON_PRODUCT_ID))
+                .isZero();
+
+        // 第二次失敗達上限，移到死信表；同聚合的下一筆事件成為最早的事件
+        assertThat(relay.relayBatch()).isZero();
+        assertThat(jdbcTemplate.queryForList("SELECT attempts FROM outbox_dead_letters", Integer.class))
+                .containsExactly(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_events", Integer.class)).isEqualTo(1);
+
+        relay.relayBatch();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT attempts FROM outbox_events WHERE aggregate_id = ?", Integer.class, POISON_PRODUCT_ID))
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("轉送 - 全部成功時整批送出並刪除")
+    void testRelayBatch_DeliversWholeBatch() {
+        append(1L, 1);
+        append(2L, 1);
+        append(1L, 2);
+        OutboxRelay relay = relay(3);
+
+        assertThat(relay.relayBatch()).isEqualTo(2);
+        assertThat(relay.relayBatch()).isEqualTo(1);
+        assertThat(delivered).containsExactly(1L, 2L, 1L);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_events", Integer.class)).isZero();
+    }
+
+    @Test
+    @DisplayName("轉送 - 死信保留原事件 id 與內容")
+    void testRelayBatch_DeadLetterKeepsEvent() {
+        append(POISON_PRODUCT_ID, 5);
+        Long eventId = jdbcTemplate.queryForObject("SELECT id FROM outbox_events", Long.class);
+
+        relay(1).relayBatch();
+
+        assertThat(jdbcTemplate.queryForMap("SELECT id, event_type, last_error FROM outbox_dead_letters"))
+                .containsEntry("id", eventId)
+                .containsEntry("event_type", OutboxEventType.STOCK_CHANGED.name())
+                .containsEntry("last_error", "下游拒收");
+        assertThat(delivered).isEmpty();
+    }
+}
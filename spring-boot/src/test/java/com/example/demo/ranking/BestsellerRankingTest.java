@@ -0,0 +1,120 @@
+package com.example.demo.ranking;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class BestsellerRankingTest {
+
+    private static final long HOUR = 3_600_000;
+
+    @Test
+    @DisplayName("時間衰減 - 一個半衰期前的銷量只計一半")
+    void testDecay_HalfLife() {
+        BestsellerRanking ranking = new BestsellerRanking(24, 10, 0.01);
+        long now = System.currentTimeMillis();
+        ranking.record(Map.of(1L, 10), now - 24 * HOUR);
+        ranking.record(Map.of(2L, 6), now);
+
+        List<BestsellerRanking.Ranked> top = ranking.top(10);
+        assertThat(top).extracting(BestsellerRanking.Ranked::productId).containsExactly(2L, 1L);
+        assertThat(top.get(0).score()).isCloseTo(6, within(0.01));
+        assertThat(top.get(1).score()).isCloseTo(5, within(0.01));
+    }
+
+    @Test
+    @DisplayName("取消訂單 - 以原訂單時間扣回，名單外的商品遞補")
+    void testCancel_RefillsFromOutside() {
+        BestsellerRanking ranking = new BestsellerRanking(24, 2, 0.01);
+        long orderedAt = System.currentTimeMillis() - 5 * HOUR;
+        ranking.record(Map.of(1L, 10, 2L, 8, 3L, 5), orderedAt);
+        assertThat(ranking.top(10)).extracting(BestsellerRanking.Ranked::productId).containsExactly(1L, 2L);
+
+        ranking.record(Map.of(1L, -10), orderedAt);
+
+        assertThat(ranking.top(10)).extracting(BestsellerRanking.Ranked::productId).containsExactly(2L, 3L);
+        assertThat(ranking.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("前 K 名 - 與全量排序結果一致")
+    void testTopK_MatchesFullSort() {
+        BestsellerRanking ranking = new BestsellerRanking(24, 20, 0.01);
+        Map<Long, Double> expected = new HashMap<>();
+        Random random = new Random(42);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 5_000; i++) {
+            long productId = random.nextInt(500) + 1;
+            int quantity = random.nextInt(10) < 8 ? random.nextInt(5) + 1 : -1;
+            if (expected.getOrDefault(productId, 0.0) + quantity <= 0) {
+                continue;
+            }
+            ranking.record(Map.of(productId, quantity), now);
+            expected.merge(productId, (double) quantity, Double::sum);
+        }
+
+        // 同分商品的先後受浮點累加誤差影響，逐名比較分數並確認商品確實有該分數
+        List<Double> expectedScores = expected.values().stream()
+                .sorted((a, b) -> Double.compare(b, a))
+                .limit(20)
+                .toList();
+        List<BestsellerRanking.Ranked> top = ranking.top(20);
+        assertThat(top).hasSize(20);
+        for (int i = 0; i < top.size(); i++) {
+            assertThat(top.get(i).score()).isCloseTo(expectedScores.get(i), within(0.01));
+            assertThat(expected.get(top.get(i).productId())).isCloseTo(expectedScores.get(i), within(1e-6));
+        }
+    }
+
+    @Test
+    @DisplayName("快照 - 載入後排行與分數不變")
+    void testSnapshotRestore() {
+        BestsellerRanking ranking = new BestsellerRanking(24, 10, 0.01);
+        long now = System.currentTimeMillis();
+        ranking.record(Map.of(1L, 3, 2L, 7, 3L, 5), now - 2 * HOUR);
+
+        BestsellerRanking.Snapshot snapshot = ranking.snapshot();
+        BestsellerRanking restored = new BestsellerRanking(24, 10, 0.01);
+        restored.restore(snapshot.scores(), snapshot.takenAtMillis());
+
+        List<BestsellerRanking.Ranked> expected = ranking.top(10);
+        List<BestsellerRanking.Ranked> actual = restored.top(10);
+        assertThat(actual).extracting(BestsellerRanking.Ranked::productId).containsExactly(2L, 3L, 1L);
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(actual.get(i).score()).isCloseTo(expected.get(i).score(), within(1e-6));
+        }
+    }
+
+    @Test
+    @DisplayName("原生雜湊表 - 新增、累加與刪除後與 HashMap 一致")
+    void testLongDoubleHashMap_MatchesHashMap() {
+        LongDoubleHashMap map = new LongDoubleHashMap();
+        Map<Long, Double> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            long key = random.nextInt(2_000) * 1_024L;
+            if (random.nextInt(4) == 0) {
+                map.remove(key);
+                expected.remove(key);
+            } else {
+                map.add(key, 1);
+                expected.merge(key, 1.0, Double::sum);
+            }
+        }
+        map.removeBelow(3);
+        expected.values().removeIf(value -> value < 3);
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        expected.forEach((key, value) -> assertThat(map.get(key)).isEqualTo(value));
+        Map<Long, Double> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertThat(actual).isEqualTo(expected);
+    }
+}
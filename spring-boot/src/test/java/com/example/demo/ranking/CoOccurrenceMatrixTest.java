@@ -0,0 +1,71 @@
+package com.example.demo.ranking;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CoOccurrenceMatrixTest {
+
+    @Test
+    @DisplayName("共同購買次數 - 兩個方向一致，重複商品只計一次")
+    void testAdd_Symmetric() {
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(2, 1_000);
+        matrix.add(new long[]{1, 2, 3, 2}, 1);
+        matrix.add(new long[]{1, 2}, 1);
+
+        assertThat(matrix.count(1, 2)).isEqualTo(2);
+        assertThat(matrix.count(2, 1)).isEqualTo(2);
+        assertThat(matrix.count(2, 3)).isEqualTo(1);
+        assertThat(matrix.pairs()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("訂單取消 - 扣回次數並移除歸零的組合")
+    void testAdd_CancelRemovesPairs() {
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(2, 1_000);
+        matrix.add(new long[]{1, 2}, 1);
+        matrix.add(new long[]{1, 3}, 1);
+        matrix.add(new long[]{1, 2}, -1);
+
+        assertThat(matrix.count(1, 2)).isZero();
+        assertThat(matrix.pairs()).isEqualTo(2);
+        assertThat(matrix.productIds()).containsExactlyInAnyOrder(1L, 3L);
+    }
+
+    @Test
+    @DisplayName("鄰近商品 - 依次數排序並排除未達門檻的組合")
+    void testTopNeighbors() {
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(2, 1_000);
+        for (int i = 0; i < 3; i++) {
+            matrix.add(new long[]{1, 4}, 1);
+        }
+        for (int i = 0; i < 2; i++) {
+            matrix.add(new long[]{1, 2, 3}, 1);
+        }
+        matrix.add(new long[]{1, 5}, 1);
+
+        assertThat(matrix.topNeighbors(1, 10)).containsExactly(
+                new CoOccurrenceMatrix.Neighbor(4, 3),
+                new CoOccurrenceMatrix.Neighbor(2, 2),
+                new CoOccurrenceMatrix.Neighbor(3, 2));
+        assertThat(matrix.topNeighbors(1, 2)).extracting(CoOccurrenceMatrix.Neighbor::productId).containsExactly(4L, 2L);
+        assertThat(matrix.topNeighbors(99, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("組合數超過上限 - 移除低次數組合並保留常見組合")
+    void testPrune_KeepsFrequentPairs() {
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(2, 100);
+        for (int i = 0; i < 5; i++) {
+            matrix.add(new long[]{1, 2}, 1);
+        }
+        for (long productId = 10; productId < 200; productId++) {
+            matrix.add(new long[]{1, productId}, 1);
+        }
+
+        assertThat(matrix.pairs()).isLessThanOrEqualTo(100);
+        assertThat(matrix.count(1, 2)).isEqualTo(5);
+        assertThat(matrix.topNeighbors(1, 10)).extracting(CoOccurrenceMatrix.Neighbor::productId).containsExactly(2L);
+    }
+}
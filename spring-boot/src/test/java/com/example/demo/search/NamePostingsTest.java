@@ -0,0 +1,90 @@
+package com.example.demo.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NamePostingsTest {
+
+    @Test
+    @DisplayName("查詢 - 取各 bigram 的交集，依 id 遞增")
+    void testSearch_IntersectsBigrams() {
+        NamePostings.Builder builder = new NamePostings.Builder();
+        builder.add(1, "王小明");
+        builder.add(2, "王小華");
+        builder.add(3, "李小明");
+        NamePostings postings = builder.build();
+
+        assertThat(postings.search("小明")).containsExactly(1L, 3L);
+        assertThat(postings.search("王小")).containsExactly(1L, 2L);
+        assertThat(postings.search("王小明")).containsExactly(1L);
+        assertThat(postings.search("陳小")).isEmpty();
+        // 只索引 bigram，不產生單字的 posting
+        assertThat(postings.gramCount()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("改名與刪除 - 移除舊姓名的 bigram")
+    void testPut_RemovesOldBigrams() {
+        NamePostings postings = NamePostings.empty();
+        postings.put(1, "王小明");
+        postings.put(2, "王大明");
+
+        postings.put(1, "陳小華");
+        assertThat(postings.search("王小")).isEmpty();
+        assertThat(postings.search("小明")).isEmpty();
+        assertThat(postings.search("陳小")).containsExactly(1L);
+
+        postings.put(2, null);
+        assertThat(postings.search("大明")).isEmpty();
+        assertThat(postings.gramCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("隨機新增、改名與刪除 - 與逐一比對的結果一致，涵蓋差異合併")
+    void testRandomOperations_MatchBruteForce() {
+        Random random = new Random(42);
+        NamePostings.Builder builder = new NamePostings.Builder();
+        Map<Long, String> names = new HashMap<>();
+        for (long id = 1; id <= 2_000; id++) {
+            String name = randomName(random);
+            builder.add(id, name);
+            names.put(id, name);
+        }
+        NamePostings postings = builder.build();
+
+        for (int i = 0; i < 20_000; i++) {
+            long id = 1 + random.nextInt(2_500);
+            String name = random.nextInt(5) == 0 ? null : randomName(random);
+            postings.put(id, name);
+            if (name == null) {
+                names.remove(id);
+            } else {
+                names.put(id, name);
+            }
+
+            if (i % 100 == 0) {
+                String query = randomName(random).substring(0, 2);
+                long[] expected = names.entrySet().stream()
+                        .filter(entry -> entry.getValue().contains(query))
+                        .mapToLong(Map.Entry::getKey)
+                        .sorted()
+                        .toArray();
+                assertThat(postings.search(query)).as(query).containsExactly(expected);
+            }
+        }
+    }
+
+    private static String randomName(Random random) {
+        char[] chars = new char[2 + random.nextInt(3)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = "王李小明華".charAt(random.nextInt(5));
+        }
+        return new String(chars);
+    }
+}
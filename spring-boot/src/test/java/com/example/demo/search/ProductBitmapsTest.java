@@ -0,0 +1,126 @@
+package com.example.demo.search;
+
+import com.example.demo.enums.ProductStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductBitmapsTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Test
+    @DisplayName("篩選 - 各條件取交集，依 id 分頁並回傳總筆數")
+    void testSelect_IntersectsFilters() {
+        ProductBitmaps bitmaps = new ProductBitmaps();
+        bitmaps.put(new ProductBitmaps.Row(1, ProductStatus.OPEN, 5, false, BASE));
+        bitmaps.put(new ProductBitmaps.Row(2, ProductStatus.OPEN, 0, false, BASE.plusMonths(1)));
+        bitmaps.put(new ProductBitmaps.Row(3, ProductStatus.HIDDEN, 3, false, BASE.plusMonths(2)));
+        bitmaps.put(new ProductBitmaps.Row(4, ProductStatus.OPEN, 8, true, BASE));
+        bitmaps.put(new ProductBitmaps.Row(5, ProductStatus.OPEN, 1, false, null));
+
+        ProductFilterIndex.Result open = bitmaps.select(filter(ProductStatus.OPEN, null, null, null, null), 0, 2, true);
+        assertThat(open.total()).isEqualTo(3);
+        assertThat(open.ids()).containsExactly(5L, 2L);
+        assertThat(bitmaps.select(filter(ProductStatus.OPEN, null, null, null, null), 2, 2, true).ids()).containsExactly(1L);
+        assertThat(bitmaps.select(filter(null, true, null, null, null), 0, 10, false).ids()).containsExactly(1L, 3L, 5L);
+        assertThat(bitmaps.select(filter(null, false, null, null, null), 0, 10, false).ids()).containsExactly(2L);
+        assertThat(bitmaps.select(filter(null, null, true, null, null), 0, 10, false).ids()).containsExactly(4L);
+        assertThat(bitmaps.select(filter(null, null, null, BASE.plusDays(1), BASE.plusMonths(2)), 0, 10, false).ids())
+                .containsExactly(2L, 3L);
+    }
+
+    @Test
+    @DisplayName("更新與實體刪除 - 清除舊位元，比既有 id 小的新商品需要重建")
+    void testPutAndRemove() {
+        ProductBitmaps bitmaps = new ProductBitmaps();
+        bitmaps.put(new ProductBitmaps.Row(10, ProductStatus.OPEN, 5, false, BASE));
+        bitmaps.put(new ProductBitmaps.Row(20, ProductStatus.OPEN, 5, false, BASE));
+
+        bitmaps.put(new ProductBitmaps.Row(10, ProductStatus.CLOSED, 0, false, BASE.plusYears(1)));
+        bitmaps.remove(20);
+
+        assertThat(bitmaps.select(filter(ProductStatus.OPEN, null, null, null, null), 0, 10, false).total()).isZero();
+        assertThat(bitmaps.select(filter(ProductStatus.CLOSED, false, null, BASE.plusMonths(6), null), 0, 10, false).ids())
+                .containsExactly(10L);
+        assertThat(bitmaps.select(filter(null, null, null, null, BASE), 0, 10, false).total()).isZero();
+        assertThat(bitmaps.count()).isEqualTo(1);
+        assertThat(bitmaps.put(new ProductBitmaps.Row(15, ProductStatus.OPEN, 1, false, BASE))).isFalse();
+        assertThat(bitmaps.put(new ProductBitmaps.Row(30, ProductStatus.OPEN, 1, false, BASE))).isTrue();
+    }
+
+    @Test
+    @DisplayName("隨機資料與條件 - 與逐筆比對的結果一致")
+    void testRandomFilters_MatchBruteForce() {
+        Random random = new Random(7);
+        ProductBitmaps bitmaps = new ProductBitmaps();
+        TreeMap<Long, ProductBitmaps.Row> rows = new TreeMap<>();
+        for (long id = 1; id <= 5_000; id++) {
+            put(bitmaps, rows, randomRow(random, id));
+        }
+        for (int i = 0; i < 1_000; i++) {
+            long id = 1 + random.nextInt(5_000);
+            if (random.nextInt(5) == 0) {
+                bitmaps.remove(id);
+                rows.remove(id);
+            } else {
+                put(bitmaps, rows, randomRow(random, id));
+            }
+        }
+
+        for (int i = 0; i < 300; i++) {
+            ProductStatus status = random.nextBoolean() ? null : ProductStatus.values()[random.nextInt(3)];
+            Boolean inStock = random.nextBoolean() ? null : random.nextBoolean();
+            Boolean deleted = random.nextBoolean() ? null : random.nextBoolean();
+            LocalDateTime from = random.nextBoolean() ? null : BASE.plusHours(random.nextInt(24 * 400));
+            LocalDateTime to = random.nextBoolean() ? null : BASE.plusHours(random.nextInt(24 * 400));
+            boolean descending = random.nextBoolean();
+            int offset = random.nextInt(200);
+
+            Predicate<ProductBitmaps.Row> matches = row -> (status == null || row.status() == status)
+                    && (inStock == null || (inStock ? row.stock() > 0 : row.stock() == 0))
+                    && row.deleted() == Boolean.TRUE.equals(deleted)
+                    && (from == null || (row.startAt() != null && !row.startAt().isBefore(from)))
+                    && (to == null || (row.startAt() != null && !row.startAt().isAfter(to)));
+            List<Long> expected = new ArrayList<>(rows.values().stream().filter(matches).map(ProductBitmaps.Row::id).toList());
+            if (descending) {
+                expected.sort(Comparator.reverseOrder());
+            }
+
+            ProductFilterIndex.Result result = bitmaps.select(filter(status, inStock, deleted, from, to), offset, 20, descending);
+            assertThat(result.total()).isEqualTo(expected.size());
+            assertThat(result.ids()).containsExactly(expected.stream()
+                    .skip(offset).limit(20).mapToLong(Long::longValue).toArray());
+        }
+    }
+
+    private static void put(ProductBitmaps bitmaps, TreeMap<Long, ProductBitmaps.Row> rows, ProductBitmaps.Row row) {
+        // 已實體刪除的 id 不會再出現，只更新仍存在或比既有 id 大的商品
+        if (rows.containsKey(row.id()) || rows.isEmpty() || row.id() > rows.lastKey()) {
+            assertThat(bitmaps.put(row)).isTrue();
+            rows.put(row.id(), row);
+        }
+    }
+
+    private static ProductBitmaps.Row randomRow(Random random, long id) {
+        return new ProductBitmaps.Row(id,
+                ProductStatus.values()[random.nextInt(3)],
+                random.nextInt(3) - (random.nextInt(20) == 0 ? 1 : 0),
+                random.nextInt(4) == 0,
+                random.nextInt(10) == 0 ? null : BASE.plusMinutes(random.nextInt(60 * 24 * 400)));
+    }
+
+    private static ProductFilterIndex.Filter filter(ProductStatus status, Boolean inStock, Boolean deleted,
+                                                    LocalDateTime from, LocalDateTime to) {
+        return new ProductFilterIndex.Filter(status, inStock, deleted, from, to);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.demo.search;
+
+import com.example.demo.dto.response.backend.ProductResponse;
+import com.example.demo.entity.Product;
+import com.example.demo.enums.ProductStatus;
+import com.example.demo.repository.ProductRepository;
+import com.example.demo.service.backend.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 後台商品列表篩選索引與資料庫查詢一致性測試
+ * 相同的篩選條件分別由記憶體位元圖與 Specification 查詢，總筆數與每頁商品ID都須相同
+ */
+@SpringBootTest(properties = "app.products.filter-index.enabled=true")
+@Transactional
+class ProductFilterIndexParityTest {
+
+    @Autowired
+    @Qualifier("backendProductServiceImpl")
+    private ProductService productService;
+    @Autowired
+    private ProductFilterIndex productFilterIndex;
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final LocalDateTime base = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS).withHour(12);
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(11);
+        ProductStatus[] statuses = ProductStatus.values();
+        for (int i = 0; i < 80; i++) {
+            Product product = new Product();
+            product.setName("篩選商品" + i);
+            product.setProductNo(String.format("PFILTER%03d", i));
+            product.setPrice(BigDecimal.valueOf(100));
+            product.setStatus(statuses[random.nextInt(statuses.length)]);
+            product.setStock(random.nextInt(4));
+            product.setStartAt(random.nextInt(10) == 0 ? null : base.minusDays(random.nextInt(180)));
+            product.setDeletedAt(random.nextInt(5) == 0 ? base : null);
+            productRepository.save(product);
+        }
+        productRepository.flush();
+        productFilterIndex.rebuild();
+    }
+
+    @Test
+    @DisplayName("篩選索引 - 狀態、庫存、刪除與上架時間的各種組合都與資料庫查詢一致")
+    void testSearch_MatchesSpecification() {
+        List<String> statuses = Arrays.asList(null, "OPEN", "HIDDEN", "BOGUS");
+        List<Boolean> flags = Arrays.asList(null, true, false);
+        List<String[]> ranges = List.of(
+                new String[]{null, null},
+                new String[]{base.minusDays(90).toString(), null},
+                new String[]{null, base.minusDays(30).toString()},
+                new String[]{base.minusDays(90).toString(), base.minusDays(30).toString()},
+                new String[]{"not-a-date", ""});
+
+        int compared = 0;
+        for (String status : statuses) {
+            for (Boolean inStock : flags) {
+                for (Boolean deleted : flags) {
+                    for (String[] range : ranges) {
+                        for (Sort.Direction direction : Sort.Direction.values()) {
+                            for (int page : new int[]{0, 2}) {
+                                Page<ProductResponse> indexed = productService.searchProducts(null, null, inStock, deleted,
+                                        status, range[0], range[1], PageRequest.of(page, 7, Sort.by(direction, "id")));
+                                // 加上第二個排序欄位讓查詢改走資料庫，id 不重複，順序與只依 id 排序相同
+                                Page<ProductResponse> queried = productService.searchProducts(null, null, inStock, deleted,
+                                        status, range[0], range[1], PageRequest.of(page, 7, Sort.by(direction, "id", "productNo")));
+
+                                String filter = status + "/" + inStock + "/" + deleted + "/" + Arrays.toString(range) + "/" + direction + "/" + page;
+                                assertThat(indexed.getTotalElements()).as(filter).isEqualTo(queried.getTotalElements());
+                                assertThat(indexed.getContent()).as(filter)
+                                        .extracting(ProductResponse::getId)
+                                        .containsExactlyElementsOf(queried.getContent().stream().map(ProductResponse::getId).toList());
+                                compared++;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        assertThat(compared).isEqualTo(4 * 3 * 3 * 5 * 2 * 2);
+        assertThat(productFilterIndex.isReady()).isTrue();
+    }
+}
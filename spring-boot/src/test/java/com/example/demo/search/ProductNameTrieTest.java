@@ -0,0 +1,127 @@
+package com.example.demo.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductNameTrieTest {
+
+    @Test
+    @DisplayName("前綴查詢 - 依權重排序，前綴可結束在邊的中段")
+    void testTop_OrderedByWeight() {
+        Map<Long, Double> weights = Map.of(1L, 5.0, 2L, 9.0, 3L, 1.0, 4L, 9.0);
+        ProductNameTrie trie = new ProductNameTrie(3, weights::get);
+        trie.insert("apple", 1);
+        trie.insert("apricot", 2);
+        trie.insert("banana", 3);
+        trie.insert("app", 4);
+
+        assertThat(trie.top("a")).containsExactly(2L, 4L, 1L);
+        assertThat(trie.top("ap")).containsExactly(2L, 4L, 1L);
+        assertThat(trie.top("appl")).containsExactly(1L);
+        assertThat(trie.top("app")).containsExactly(4L, 1L);
+        assertThat(trie.top("")).containsExactly(2L, 4L, 1L);
+        assertThat(trie.top("apples")).isEmpty();
+        assertThat(trie.top("c")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("移除鍵 - 補上次高權重的商品並合併節點")
+    void testRemove_RefillsAndCompacts() {
+        Map<Long, Double> weights = Map.of(1L, 5.0, 2L, 9.0, 3L, 1.0);
+        ProductNameTrie trie = new ProductNameTrie(2, weights::get);
+        trie.insert("運動鞋", 1);
+        trie.insert("運動衫", 2);
+        trie.insert("運動褲", 3);
+        int nodes = trie.nodeCount();
+
+        trie.remove("運動衫", 2);
+        assertThat(trie.top("運動")).containsExactly(1L, 3L);
+        assertThat(trie.nodeCount()).isEqualTo(nodes - 1);
+
+        trie.remove("運動鞋", 1);
+        trie.remove("運動褲", 3);
+        assertThat(trie.top("運")).isEmpty();
+        assertThat(trie.nodeCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("隨機新增與移除 - 與逐一比對的結果一致")
+    void testRandomOperations_MatchBruteForce() {
+        Random random = new Random(42);
+        Map<Long, Double> weights = new HashMap<>();
+        for (long id = 1; id <= 200; id++) {
+            weights.put(id, (double) random.nextInt(50));
+        }
+        ProductNameTrie trie = new ProductNameTrie(5, weights::get);
+        Map<String, Set<Long>> keys = new HashMap<>();
+        List<String[]> inserted = new ArrayList<>();
+
+        for (int i = 0; i < 3_000; i++) {
+            if (!inserted.isEmpty() && random.nextInt(3) == 0) {
+                String[] entry = inserted.remove(random.nextInt(inserted.size()));
+                trie.remove(entry[0], Long.parseLong(entry[1]));
+                keys.get(entry[0]).remove(Long.parseLong(entry[1]));
+                continue;
+            }
+            String key = randomKey(random);
+            long id = 1 + random.nextInt(200);
+            if (keys.computeIfAbsent(key, k -> new HashSet<>()).add(id)) {
+                trie.insert(key, id);
+                inserted.add(new String[]{key, Long.toString(id)});
+            }
+        }
+
+        Comparator<Long> order = Comparator.<Long>comparingDouble(weights::get).reversed()
+                .thenComparing(Comparator.naturalOrder());
+        for (int i = 0; i < 500; i++) {
+            String prefix = randomKey(random).substring(0, 1 + random.nextInt(3));
+            List<Long> expected = keys.entrySet().stream()
+                    .filter(entry -> entry.getKey().startsWith(prefix))
+                    .flatMap(entry -> entry.getValue().stream())
+                    .distinct()
+                    .sorted(order)
+                    .limit(5)
+                    .toList();
+            assertThat(trie.top(prefix)).as(prefix).containsExactly(expected.stream().mapToLong(Long::longValue).toArray());
+        }
+    }
+
+    @Test
+    @DisplayName("名稱的鍵 - 從詞首與每個中日韓字元起，全形與大小寫統一")
+    void testKeys_WordStartsAndCjk() {
+        ProductSuggestIndex index = new ProductSuggestIndex(null, true, 20, 24, 8, 10, 30);
+
+        assertThat(index.keys("Nike  Air-Max")).containsExactly("nike air-max", "air-max", "max");
+        assertThat(index.keys("男裝圓領T恤")).containsExactly("男裝圓領t恤", "裝圓領t恤", "圓領t恤", "領t恤", "t恤", "恤");
+        assertThat(index.keys("ＡＢＣ　手機殼")).containsExactly("abc 手機殼", "手機殼", "機殼", "殼");
+        assertThat(ProductSuggestIndex.normalize(" ＩＰＨＯＮＥ ")).isEqualTo("iphone");
+    }
+
+    @Test
+    @DisplayName("名稱的鍵 - 超過上限時保留詞首，詞中的中日韓字元由前往後補足")
+    void testKeys_CappedPerName() {
+        ProductSuggestIndex index = new ProductSuggestIndex(null, true, 20, 24, 4, 10, 30);
+
+        assertThat(index.keys("男裝圓領T恤")).containsExactly("男裝圓領t恤", "裝圓領t恤", "t恤", "恤");
+        assertThat(index.keys("超長名稱 a b c d e")).containsExactly("超長名稱 a b c d e", "a b c d e", "b c d e", "c d e");
+    }
+
+    private static String randomKey(Random random) {
+        char[] chars = new char[3 + random.nextInt(4)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = "abc衣褲".charAt(random.nextInt(5));
+        }
+        return new String(chars);
+    }
+}
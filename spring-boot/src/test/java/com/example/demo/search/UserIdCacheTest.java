@@ -0,0 +1,73 @@
+package com.example.demo.search;
+
+import com.example.demo.event.UserChangedEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserIdCacheTest {
+
+    @Test
+    @DisplayName("解析 - 命中時不再查詢，用戶異動後重新查詢")
+    void testResolve_InvalidatedByUserChange() {
+        AtomicInteger lookups = new AtomicInteger();
+        UserIdCache cache = new UserIdCache(email -> {
+            lookups.incrementAndGet();
+            return Optional.of(1L);
+        }, 100, Duration.ofMinutes(1));
+
+        assertThat(cache.resolve("a@example.com")).contains(1L);
+        assertThat(cache.resolve("a@example.com")).contains(1L);
+        assertThat(lookups).hasValue(1);
+
+        cache.onUserChanged(new UserChangedEvent(List.of(2L)));
+        assertThat(cache.resolve("a@example.com")).contains(1L);
+        assertThat(lookups).hasValue(1);
+
+        cache.onUserChanged(new UserChangedEvent(List.of(1L)));
+        assertThat(cache.resolve("a@example.com")).contains(1L);
+        assertThat(lookups).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("解析 - 查詢期間發生用戶異動時，舊結果不放入快取")
+    void testResolve_DropsLookupRacingWithChange() {
+        AtomicReference<UserIdCache> holder = new AtomicReference<>();
+        AtomicInteger lookups = new AtomicInteger();
+        UserIdCache cache = new UserIdCache(email -> {
+            if (lookups.incrementAndGet() == 1) {
+                // 查到舊對應後、放入前，另一個交易刪除了該用戶並提交
+                holder.get().onUserChanged(new UserChangedEvent(List.of(1L)));
+                return Optional.of(1L);
+            }
+            return Optional.empty();
+        }, 100, Duration.ofMinutes(1));
+        holder.set(cache);
+
+        assertThat(cache.resolve("a@example.com")).contains(1L);
+        assertThat(cache.resolve("a@example.com")).isEmpty();
+        assertThat(lookups).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("解析 - 項目於存活時間後過期，以重新查詢取得其他節點的異動")
+    void testResolve_ExpiresAfterTtl() throws InterruptedException {
+        AtomicInteger lookups = new AtomicInteger();
+        UserIdCache cache = new UserIdCache(email -> {
+            lookups.incrementAndGet();
+            return Optional.of(1L);
+        }, 100, Duration.ofMillis(20));
+
+        cache.resolve("a@example.com");
+        Thread.sleep(40);
+        cache.resolve("a@example.com");
+        assertThat(lookups).hasValue(2);
+    }
+}
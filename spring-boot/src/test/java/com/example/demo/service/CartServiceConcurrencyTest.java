@@ -0,0 +1,119 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.request.AddToCartRequest;
+import com.example.demo.entity.Product;
+import com.example.demo.entity.User;
+import com.example.demo.enums.ProductStatus;
+import com.example.demo.enums.UserRole;
+import com.example.demo.repository.CartItemRepository;
+import com.example.demo.repository.CartRepository;
+import com.example.demo.repository.ProductRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.frontend.CartService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 購物車並行加入測試
+ * 各執行緒各自提交交易，測試資料須先提交，結束後自行清除
+ */
+@SpringBootTest
+class CartServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private CartService cartService;
+    @Autowired
+    private CartRepository cartRepository;
+    @Autowired
+    private CartItemRepository cartItemRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail("cart-concurrency@example.com");
+        user.setPassword("password");
+        user.setName("並行用戶");
+        user.setRoles(Set.of(UserRole.USER));
+        user.setEnabled(true);
+        user = userRepository.save(user);
+
+        product = new Product();
+        product.setName("並行商品");
+        product.setProductNo("PCONC001");
+        product.setPrice(BigDecimal.valueOf(100));
+        product.setStatus(ProductStatus.OPEN);
+        product.setStock(5);
+        product = productRepository.save(product);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cartRepository.findByUserId(user.getId()).ifPresent(cart -> {
+            cartItemRepository.deleteAll(cartItemRepository.findByCartId(cart.getId()));
+            cartRepository.delete(cart);
+        });
+        productRepository.delete(product);
+        userRepository.delete(user);
+    }
+
+    @Test
+    @DisplayName("同一商品並行加入 - 累加數量不超過庫存，且不發生死結")
+    void testConcurrentAdd_RespectsStockWithoutDeadlock() throws Exception {
+        AddToCartRequest request = new AddToCartRequest();
+        request.setProductId(product.getId());
+        request.setQuantity(1);
+
+        CyclicBarrier barrier = new CyclicBarrier(THREADS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(() -> {
+                barrier.await();
+                try {
+                    cartService.addToCart(user.getId(), request);
+                    return "OK";
+                } catch (RuntimeException e) {
+                    return e.getMessage();
+                }
+            }));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        List<String> outcomes = new ArrayList<>();
+        for (Future<String> result : results) {
+            outcomes.add(result.get());
+        }
+        assertThat(outcomes).filteredOn("OK"::equals).hasSize(5);
+        assertThat(outcomes).filteredOn(outcome -> !"OK".equals(outcome)).containsOnly("商品庫存不足");
+
+        Long cartId = cartRepository.findByUserId(user.getId()).orElseThrow().getId();
+        assertThat(cartItemRepository.findByCartIdAndProductId(cartId, product.getId()))
+                .hasValueSatisfying(item -> assertThat(item.getQuantity()).isEqualTo(5));
+    }
+}
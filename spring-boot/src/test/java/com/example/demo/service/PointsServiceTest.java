@@ -0,0 +1,95 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.User;
+import com.example.demo.enums.UserRole;
+import com.example.demo.repository.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.points.enabled=true")
+@Transactional
+class PointsServiceTest {
+
+    @Autowired
+    private PointsService pointsService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long saveUser(String email, BigDecimal points) {
+        User user = new User();
+        user.setName("點數用戶");
+        user.setEmail(email);
+        user.setPassword("password");
+        user.setRoles(new HashSet<>(Set.of(UserRole.USER)));
+        Long userId = userRepository.saveAndFlush(user).getId();
+        // 點數欄位不由實體寫入，以 SQL 設定既有餘額
+        jdbcTemplate.update("UPDATE users SET points = ? WHERE id = ?", points, userId);
+        return userId;
+    }
+
+    private BigDecimal points(Long userId) {
+        return jdbcTemplate.queryForObject("SELECT points FROM users WHERE id = ?", BigDecimal.class, userId);
+    }
+
+    @Test
+    @DisplayName("對帳以基準餘額加帳本加總校正，保留帳本建立前的點數")
+    void testReconcile_KeepsBalanceBeforeLedger() {
+        Long userId = saveUser("points-a@example.com", new BigDecimal("500"));
+
+        pointsService.earnForOrder(userId, 9001L, new BigDecimal("1000"));
+        assertThat(points(userId)).isEqualByComparingTo("510");
+        assertThat(pointsService.reconcileBalances(userId, userId)).isZero();
+
+        jdbcTemplate.update("UPDATE users SET points = 0 WHERE id = ?", userId);
+        assertThat(pointsService.reconcileBalances(userId, userId)).isEqualTo(1);
+        assertThat(points(userId)).isEqualByComparingTo("510");
+
+        pointsService.revokeForOrder(userId, 9001L);
+        pointsService.revokeForOrder(userId, 9001L);
+        assertThat(points(userId)).isEqualByComparingTo("500");
+        assertThat(pointsService.reconcileBalances(userId, userId)).isZero();
+    }
+
+    @Test
+    @DisplayName("累加點數後以載入時的舊用戶資料整筆儲存，餘額與基準餘額不被覆蓋")
+    void testSaveStaleUser_KeepsPointsAndBaseline() {
+        Long userId = saveUser("points-c@example.com", new BigDecimal("500"));
+        User stale = userRepository.findById(userId).orElseThrow();
+
+        pointsService.earnForOrder(userId, 9002L, new BigDecimal("1000"));
+
+        // 與結帳同時發生的登入：以累加前載入的實體寫回
+        stale.setLastLoginAt(LocalDateTime.now());
+        stale.setPoints(new BigDecimal("500"));
+        stale.setPointsBaseline(null);
+        userRepository.saveAndFlush(stale);
+
+        assertThat(points(userId)).isEqualByComparingTo("510");
+        assertThat(jdbcTemplate.queryForObject("SELECT points_baseline FROM users WHERE id = ?", BigDecimal.class, userId))
+                .isEqualByComparingTo("500");
+        assertThat(pointsService.reconcileBalances(userId, userId)).isZero();
+        assertThat(points(userId)).isEqualByComparingTo("510");
+    }
+
+    @Test
+    @DisplayName("尚無帳本紀錄的用戶不參與對帳")
+    void testReconcile_SkipsUsersWithoutLedger() {
+        Long userId = saveUser("points-b@example.com", new BigDecimal("300"));
+
+        assertThat(pointsService.reconcileBalances(userId, userId)).isZero();
+        assertThat(points(userId)).isEqualByComparingTo("300");
+    }
+}
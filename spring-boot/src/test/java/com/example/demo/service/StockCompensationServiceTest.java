@@ -0,0 +1,63 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.OrderItem;
+import com.example.demo.entity.Product;
+import com.example.demo.enums.ProductStatus;
+import com.example.demo.repository.ProductRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class StockCompensationServiceTest {
+
+    private static final long ORDER_ID = 880001L;
+    private static final long MISSING_PRODUCT_ID = 99999999L;
+
+    @Autowired
+    private StockCompensationService stockCompensationService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private OrderItem item(long productId, int quantity) {
+        return OrderItem.builder()
+                .orderId(ORDER_ID)
+                .productId(productId)
+                .quantity(quantity)
+                .build();
+    }
+
+    @Test
+    @DisplayName("回補 - 商品已永久刪除時標記失敗，其他商品照常回補並更新已載入的實體")
+    void testApplyForOrders_SkipsMissingProducts() {
+        Product product = new Product();
+        product.setName("回補商品");
+        product.setProductNo("PCOMP001");
+        product.setPrice(BigDecimal.valueOf(100));
+        product.setStatus(ProductStatus.OPEN);
+        product.setStock(5);
+        product = productRepository.saveAndFlush(product);
+
+        stockCompensationService.enqueue(List.of(item(product.getId(), 3), item(MISSING_PRODUCT_ID, 1)));
+
+        assertThat(stockCompensationService.applyForOrders(List.of(ORDER_ID))).isEqualTo(2);
+
+        // 呼叫端持有的實體仍在持久化上下文中，且已重新讀取庫存
+        assertThat(productRepository.findById(product.getId())).containsSame(product);
+        assertThat(product.getStock()).isEqualTo(8);
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT status FROM stock_compensation WHERE order_id = ? ORDER BY product_id", String.class, ORDER_ID))
+                .containsExactly("APPLIED", "FAILED");
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.demo.service;
+
+import com.example.demo.cart.UserOperationLock;
+import com.example.demo.dto.request.AddToCartRequest;
+import com.example.demo.entity.Product;
+import com.example.demo.entity.User;
+import com.example.demo.enums.ProductStatus;
+import com.example.demo.enums.UserRole;
+import com.example.demo.repository.CartItemRepository;
+import com.example.demo.repository.CartRepository;
+import com.example.demo.repository.ProductRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.frontend.CartService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 同一用戶突發請求的資料庫鎖競爭測試
+ * 同一用戶同時送出多個加入購物車請求（各加入不同商品），分別直接呼叫服務與經由用戶操作鎖呼叫，
+ * 比較 InnoDB 的資料列鎖等待次數（Innodb_row_lock_waits 差值）、死結次數與成功請求延遲的 p99；
+ * 經由用戶鎖時 p99 以單執行緒依序處理一輪的時間為基準。
+ * 各執行緒各自提交交易，測試資料須先提交，結束後自行清除
+ */
+@SpringBootTest
+class UserOperationLockContentionTest {
+
+    private static final int BURST = 12;
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    private CartService cartService;
+    @Autowired
+    private CartRepository cartRepository;
+    @Autowired
+    private CartItemRepository cartItemRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 3; i++) {
+            User user = new User();
+            user.setEmail("lock-contention-" + i + "@example.com");
+            user.setPassword("password");
+            user.setName("競爭用戶");
+            user.setRoles(Set.of(UserRole.USER));
+            user.setEnabled(true);
+            users.add(userRepository.save(user));
+        }
+        for (int i = 0; i < BURST; i++) {
+            Product product = new Product();
+            product.setName("競爭商品" + i);
+            product.setProductNo(String.format("PLOCK%03d", i));
+            product.setPrice(BigDecimal.valueOf(100));
+            product.setStatus(ProductStatus.OPEN);
+            product.setStock(1_000);
+            products.add(productRepository.save(product));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (User user : users) {
+            cartRepository.findByUserId(user.getId()).ifPresent(cart -> {
+                cartItemRepository.deleteAll(cartItemRepository.findByCartId(cart.getId()));
+                cartRepository.delete(cart);
+            });
+        }
+        productRepository.deleteAll(products);
+        userRepository.deleteAll(users);
+    }
+
+    @Test
+    @DisplayName("同一用戶突發加入購物車 - 經由用戶鎖不再等待資料列鎖，p99 不因鎖等待而變差")
+    void testSameUserBurst_UserLockRemovesRowLockWaits() throws Exception {
+        UserOperationLock userLock = new UserOperationLock(30_000, BURST);
+
+        Result direct = burst(users.get(0).getId(), request -> request);
+        long roundMillis = sequentialRoundMillis(users.get(2).getId());
+        Result serialized = burst(users.get(1).getId(),
+                request -> () -> userLock.run(users.get(1).getId(), request));
+
+        String report = String.format("直接呼叫 %s；經由用戶鎖 %s；依序處理一輪 %d ms", direct, serialized, roundMillis);
+        assertThat(serialized.failures()).as(report).isZero();
+        assertThat(serialized.rowLockWaits()).as(report).isZero();
+        assertThat(serialized.deadlocks()).as(report).isZero();
+        assertThat(direct.rowLockWaits() + direct.deadlocks()).as(report).isPositive();
+        // 經由用戶鎖時最後一個請求須等同輪的請求全部完成，p99 接近依序處理一輪的時間，不應再有鎖等待的額外成本
+        assertThat(serialized.p99Millis()).as(report).isLessThanOrEqualTo(roundMillis * 2 + 100);
+
+        // 經由用戶鎖的每個請求都成功，每個商品累加 ROUNDS 次
+        Long cartId = cartRepository.findByUserId(users.get(1).getId()).orElseThrow().getId();
+        assertThat(cartItemRepository.findByCartId(cartId))
+                .hasSize(BURST)
+                .allSatisfy(item -> assertThat(item.getQuantity()).isEqualTo(ROUNDS));
+    }
+
+    /**
+     * 同一用戶每輪同時送出 BURST 個請求，共 ROUNDS 輪
+     * @param wrap 包裝單一請求，例如經由用戶鎖執行
+     */
+    private Result burst(Long userId, Function<Runnable, Runnable> wrap) throws Exception {
+        long waitsBefore = status("Innodb_row_lock_waits");
+        long deadlocksBefore = status("Innodb_deadlocks");
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        int failures = 0;
+
+        ExecutorService executor = Executors.newFixedThreadPool(BURST);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                CyclicBarrier barrier = new CyclicBarrier(BURST);
+                List<Future<Boolean>> results = new ArrayList<>();
+                for (Product product : products) {
+                    AddToCartRequest request = new AddToCartRequest();
+                    request.setProductId(product.getId());
+                    request.setQuantity(1);
+                    Runnable action = wrap.apply(() -> cartService.addToCart(userId, request));
+                    results.add(executor.submit(() -> {
+                        barrier.await();
+                        long start = System.nanoTime();
+                        try {
+                            action.run();
+                        } catch (RuntimeException e) {
+                            // 死結的請求很快失敗，不計入延遲
+                            return false;
+                        }
+                        latencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                        return true;
+                    }));
+                }
+                for (Future<Boolean> result : results) {
+                    if (!result.get(60, TimeUnit.SECONDS)) {
+                        failures++;
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Long> sorted = latencies.stream().sorted().toList();
+        long p99 = sorted.isEmpty() ? 0 : sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1);
+        return new Result(status("Innodb_row_lock_waits") - waitsBefore,
+                status("Innodb_deadlocks") - deadlocksBefore, failures, p99);
+    }
+
+    /**
+     * 單執行緒依序送出相同的請求，回傳平均每輪的處理時間
+     */
+    private long sequentialRoundMillis(Long userId) {
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (Product product : products) {
+                AddToCartRequest request = new AddToCartRequest();
+                request.setProductId(product.getId());
+                request.setQuantity(1);
+                cartService.addToCart(userId, request);
+            }
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) / ROUNDS;
+    }
+
+    private long status(String name) {
+        return jdbcTemplate.query("SHOW GLOBAL STATUS LIKE ?", rs -> rs.next() ? rs.getLong("Value") : 0L, name);
+    }
+
+    private record Result(long rowLockWaits, long deadlocks, int failures, long p99Millis) {
+
+        @Override
+        public String toString() {
+            return String.format("資料列鎖等待 %d 次、死結 %d 次、失敗 %d 筆、p99 %d ms", rowLockWaits, deadlocks, failures, p99Millis);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.demo.stats;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductViewCounterTest {
+
+    @Test
+    @DisplayName("同時瀏覽 - 多執行緒遞增不漏計")
+    void testConcurrentRecord_NoLostViews() throws Exception {
+        ProductViewCounter counter = new ProductViewCounter(null, null, 100, 500);
+        int threads = 8;
+        int views = 10_000;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < views; i++) {
+                        counter.record((long) (i % 4));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(counter.pending()).isEqualTo((long) threads * views);
+    }
+
+    @Test
+    @DisplayName("追蹤商品數達上限 - 不再加入新商品")
+    void testMaxProducts_NewProductsDropped() {
+        ProductViewCounter counter = new ProductViewCounter(null, null, 2, 500);
+        counter.record(1L);
+        counter.record(2L);
+        counter.record(3L);
+        counter.record(1L);
+
+        assertThat(counter.pending()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedTtlCacheTest {
+
+    @Test
+    @DisplayName("存活時間 - 過期項目讀取時視為不存在")
+    void testGet_ExpiresAfterTtl() {
+        AtomicLong clock = new AtomicLong();
+        BoundedTtlCache<Long, String> cache = new BoundedTtlCache<>(100, Duration.ofNanos(10), clock::get);
+        cache.put(1L, "a");
+
+        clock.set(9);
+        assertThat(cache.get(1L)).isEqualTo("a");
+        clock.set(10);
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("容量上限 - 移除最久未讀取的項目")
+    void testPut_EvictsLeastRecentlyUsed() {
+        // 容量 16 時每段只保留一個項目，同一段的鍵互相擠出
+        BoundedTtlCache<Long, String> cache = new BoundedTtlCache<>(16, Duration.ofMinutes(1));
+        cache.put(1L, "a");
+        cache.put(17L, "b");
+
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.get(17L)).isEqualTo("b");
+
+        BoundedTtlCache<Long, String> larger = new BoundedTtlCache<>(32, Duration.ofMinutes(1));
+        larger.put(1L, "a");
+        larger.put(17L, "b");
+        larger.get(1L);
+        larger.put(33L, "c");
+
+        assertThat(larger.get(1L)).isEqualTo("a");
+        assertThat(larger.get(17L)).isNull();
+        assertThat(larger.get(33L)).isEqualTo("c");
+        for (long key = 0; key < 1000; key++) {
+            larger.put(key, "x");
+        }
+        assertThat(larger.size()).isLessThanOrEqualTo(32);
+    }
+
+    @Test
+    @DisplayName("compute - 已過期的值以 null 傳入，回傳原值時不延長存活時間")
+    void testCompute_SeesExpiredAsAbsent() {
+        AtomicLong clock = new AtomicLong();
+        BoundedTtlCache<Long, String> cache = new BoundedTtlCache<>(100, Duration.ofNanos(10), clock::get);
+        cache.put(1L, "a");
+
+        clock.set(5);
+        assertThat(cache.compute(1L, (key, current) -> current)).isEqualTo("a");
+        clock.set(10);
+        assertThat(cache.compute(1L, (key, current) -> current == null ? "b" : current + "!")).isEqualTo("b");
+        assertThat(cache.compute(1L, (key, current) -> null)).isNull();
+        assertThat(cache.get(1L)).isNull();
+    }
+}